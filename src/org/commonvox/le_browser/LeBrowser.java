@@ -448,12 +448,22 @@ public class LeBrowser extends Application {
                                     });
                                 }
                             };
-                    catalog = CatalogMarshaller.unmarshalCatalogFromXml(callback);
+                    // file existence validation added v1.3.2
+                    callback.updateTaskMessage("Checking for audiobook metadata updates.");
+                    boolean updatesFound = InterruptibleDownloader.getFileSize
+                            (CatalogMarshaller.DEFAULT_URL_STRING_NEW_AUDIOBOOKS) > 0;
+                    callback.updateTaskMessage("Checking for audiobook metadata corrections.");
+                    boolean correctionsFound = InterruptibleDownloader.getFileSize
+                            (CatalogMarshaller.DEFAULT_URL_STRING_CORRECTIONS) > 0;
+                    /* boot snapshot is of internal catalog only: updates and
+                     * corrections are merged into the restored catalog, just
+                     * as into one unmarshalled from XML */
+                    catalog = CatalogMarshaller.restoreCatalogFromSnapshot(callback);
+                    if (catalog == null && !this.isCancelled()) {
+                        catalog = CatalogMarshaller.unmarshalCatalogFromXml(callback);
+                    }
                     if (!this.isCancelled()) {
-                        // file existence validation added v1.3.2
-                        callback.updateTaskMessage("Checking for audiobook metadata updates.");
-                        if (InterruptibleDownloader.getFileSize
-                                (CatalogMarshaller.DEFAULT_URL_STRING_NEW_AUDIOBOOKS) > 0) {
+                        if (updatesFound) {
                             catalog.merge
                                 (CatalogMarshaller.unmarshalCatalogFromXml
                                     (CatalogMarshaller.DEFAULT_URL_STRING_NEW_AUDIOBOOKS,
@@ -463,10 +473,7 @@ public class LeBrowser extends Application {
                         }
                     }
                     if (!this.isCancelled()) {
-                        // file existence validation added v1.3.2
-                        callback.updateTaskMessage("Checking for audiobook metadata corrections.");
-                        if (InterruptibleDownloader.getFileSize
-                                (CatalogMarshaller.DEFAULT_URL_STRING_CORRECTIONS) > 0) {
+                        if (correctionsFound) {
                             catalog.merge
                                 (CatalogMarshaller.unmarshalCatalogFromXml
                                     (CatalogMarshaller.DEFAULT_URL_STRING_CORRECTIONS,
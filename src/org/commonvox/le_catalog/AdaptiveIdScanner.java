@@ -0,0 +1,217 @@
+/*
+ * Copyright (C) 2015 Daniel Vimont
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.commonvox.le_catalog;
+
+import java.util.TreeSet;
+
+/**
+ * Plans which LibriVox audiobook IDs are to be probed in Stage 1, as an
+ * alternative to requesting every ID up to the maximum. IDs are planned in
+ * windows of {@link #windowProbeCount} probes. While the density of live IDs
+ * (an average of the proportion of recent probes that found an audiobook)
+ * is at least {@link #sparseDensity}, every ID is probed. In sparser ranges,
+ * IDs are probed at a stride that doubles after each window without a live
+ * ID (up to {@link #maximumStride}) and halves after a window with one;
+ * since live IDs cluster, the IDs skipped on either side of each live ID
+ * found are then back-filled (probed). Once no live ID has been found in
+ * the {@link #tailGap} IDs following the highest live ID, the end of the
+ * live ID space is taken to have been reached, and scanning stops.
+ * <p>
+ * Usage: {@link #nextProbes()} returns the IDs of the next window (or null
+ * when scanning is complete); their results are submitted to
+ * {@link #recordProbeResults(int[], boolean[])}, which returns the IDs to
+ * be back-filled, whose results are submitted to
+ * {@link #recordBackFillResults(int[], boolean[])}.
+ * @author Daniel Vimont
+ */
+public class AdaptiveIdScanner {
+    /** Count of IDs probed in each window (excluding back-fill). */
+    protected static int windowProbeCount = 32;
+    /** Density below which IDs are probed at a stride. */
+    protected static double sparseDensity = 0.25;
+    protected static int maximumStride = 16;
+    /** Count of IDs without a live ID after which the tail is assumed. */
+    protected static int tailGap = 1000;
+    private final int startId;
+    private final int endId;
+    private int cursor;
+    private int stride = 1;
+    private double density = 1;
+    private int highestLiveId;
+    private int previousProbeId;
+    private long probeCount = 0;
+    private long backFillCount = 0;
+    private long liveCount = 0;
+    private boolean tailReached = false;
+
+    /**
+     * @param startId first ID to be scanned
+     * @param endId last ID to be scanned
+     */
+    public AdaptiveIdScanner (int startId, int endId) {
+        this.startId = startId;
+        this.endId = endId;
+        this.cursor = startId;
+        this.highestLiveId = startId - 1;
+        this.previousProbeId = startId - 1;
+    }
+
+    /**
+     * Takes the initial density of live IDs (in the range preceding the
+     * starting ID) from a catalog of audiobooks already retrieved
+     * (e.g., when scanning for audiobooks added since a previous build).
+     * @param knownCatalog catalog of audiobooks with IDs below starting ID
+     */
+    public void seed (Catalog knownCatalog) {
+        if (knownCatalog == null || knownCatalog.audiobooks.isEmpty()) {
+            return;
+        }
+        int rangeStartId = Math.max(1, startId - windowProbeCount * 4);
+        int rangeLiveCount = 0;
+        for (Audiobook audiobook : knownCatalog.audiobooks) {
+            int id;
+            try {
+                id = Integer.parseInt(audiobook.getId());
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            if (id >= startId) {
+                continue;
+            }
+            if (id >= rangeStartId) {
+                rangeLiveCount++;
+            }
+        }
+        if (startId > rangeStartId) {
+            density = (double) rangeLiveCount / (startId - rangeStartId);
+            stride = (density >= sparseDensity) ? 1 : 2;
+        }
+    }
+
+    /**
+     * @return IDs (in ascending order) to be probed next, or null if
+     * scanning is complete
+     */
+    public int[] nextProbes () {
+        if (cursor > endId) {
+            return null;
+        }
+        if (cursor - highestLiveId > tailGap) {
+            tailReached = true;
+            return null;
+        }
+        int probeCountInWindow = Math.min(windowProbeCount,
+                                        (endId - cursor) / stride + 1);
+        int[] probes = new int[probeCountInWindow];
+        for (int i = 0; i < probeCountInWindow; i++) {
+            probes[i] = cursor + i * stride;
+        }
+        probeCount += probeCountInWindow;
+        return probes;
+    }
+
+    /**
+     * @param probes IDs returned by {@link #nextProbes()}
+     * @param live for each probed ID, whether an audiobook was found
+     * @return skipped IDs adjacent to live IDs, to be probed (in ascending
+     * order) before the next window
+     */
+    public int[] recordProbeResults (int[] probes, boolean[] live) {
+        TreeSet<Integer> backFill = new TreeSet<>();
+        int hitCount = 0;
+        for (int i = 0; i < probes.length; i++) {
+            if (!live[i]) {
+                continue;
+            }
+            hitCount++;
+            highestLiveId = Math.max(highestLiveId, probes[i]);
+            if (stride > 1) {
+                int lowerId = (i == 0) ? previousProbeId : probes[i - 1];
+                int upperId = Math.min(endId + 1, probes[i] + stride);
+                for (int id = lowerId + 1; id < upperId; id++) {
+                    if (id != probes[i] && id >= startId) {
+                        backFill.add(id);
+                    }
+                }
+            }
+        }
+        liveCount += hitCount;
+        int lastProbeId = probes[probes.length - 1];
+        int backFilledThroughId = backFill.isEmpty() ? lastProbeId
+                                    : Math.max(lastProbeId, backFill.last());
+        density = (density + (double) hitCount / probes.length) / 2;
+        if (density >= sparseDensity) {
+            stride = 1;
+        } else if (hitCount == 0) {
+            stride = Math.min(maximumStride, Math.max(2, stride * 2));
+        } else {
+            stride = Math.max(2, stride / 2);
+        }
+        cursor = Math.max(lastProbeId + stride, backFilledThroughId + 1);
+        previousProbeId = backFilledThroughId;
+        int[] backFillIds = new int[backFill.size()];
+        int i = 0;
+        for (int id : backFill) {
+            backFillIds[i++] = id;
+        }
+        backFillCount += backFillIds.length;
+        return backFillIds;
+    }
+
+    /**
+     * @param backFillIds IDs returned by
+     * {@link #recordProbeResults(int[], boolean[])}
+     * @param live for each back-filled ID, whether an audiobook was found
+     */
+    public void recordBackFillResults (int[] backFillIds, boolean[] live) {
+        for (int i = 0; i < backFillIds.length; i++) {
+            if (live[i]) {
+                liveCount++;
+                highestLiveId = Math.max(highestLiveId, backFillIds[i]);
+            }
+        }
+    }
+
+    /** @return count of IDs probed, including back-fill */
+    public long getProbedCount () {
+        return probeCount + backFillCount;
+    }
+
+    /** @return count of IDs a linear scan would have probed */
+    public long getLinearScanCount () {
+        return Math.max(0, endId - startId + 1);
+    }
+
+    public boolean isTailReached () {
+        return tailReached;
+    }
+
+    /**
+     * @return one-line summary of scan
+     */
+    public String getStatistics () {
+        long probedCount = getProbedCount();
+        return "ID scan: " + probedCount + " IDs probed (" + backFillCount
+                + " back-filled), " + liveCount + " live; "
+                + (getLinearScanCount() - probedCount)
+                + " requests avoided versus linear scan of "
+                + getLinearScanCount() + " IDs"
+                + (tailReached ? "; end of live IDs assumed after ID "
+                                    + highestLiveId : "") + ".";
+    }
+}
@@ -0,0 +1,349 @@
+/*
+ * Copyright (C) 2015 Daniel Vimont
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.commonvox.le_catalog;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.json.Json;
+import javax.json.stream.JsonGenerator;
+
+/**
+ * Metrics of catalog assembly, reported into by each stage and by
+ * {@link HttpFetcher}: per stage, the count and rate of records processed,
+ * time spent parsing (webpage scanning, JSON parsing, JAXB unmarshalling),
+ * and counts of errors by exception class; per remote host, request and
+ * failure counts, bytes received, and a histogram of request latencies.
+ * While records are being processed, a one-line summary of progress is
+ * printed every {@link #rateLineIntervalMillis}; upon completion of
+ * assembly, all metrics may be written to a JSON file.
+ * @author Daniel Vimont
+ */
+public class AssemblyMetrics {
+    /** Interval between progress lines (zero = none printed). */
+    protected static long rateLineIntervalMillis = 10000;
+    /** Upper bounds (inclusive) of latency histogram buckets; a final
+     * bucket counts latencies above the last bound. */
+    private static final long[] LATENCY_BUCKET_BOUNDS_MILLIS
+            = {10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 30000};
+    private static final ConcurrentMap<String,StageMetrics> STAGES
+                                                = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String,HostMetrics> HOSTS
+                                                = new ConcurrentHashMap<>();
+    private static final AtomicLong LAST_RATE_LINE_NANOS
+                                        = new AtomicLong(System.nanoTime());
+    private static volatile long startMillis = System.currentTimeMillis();
+
+    private static class StageMetrics {
+        final long firstNanos = System.nanoTime();
+        final AtomicLong lastNanos = new AtomicLong(firstNanos);
+        final AtomicLong recordCount = new AtomicLong();
+        final AtomicLong parseNanos = new AtomicLong();
+        final AtomicLong errorCount = new AtomicLong();
+        final ConcurrentMap<String,AtomicLong> errorCountsByClass
+                                                = new ConcurrentHashMap<>();
+
+        double getRecordsPerSecond () {
+            long elapsedNanos = lastNanos.get() - firstNanos;
+            return (elapsedNanos <= 0) ? 0
+                            : recordCount.get() * 1e9 / elapsedNanos;
+        }
+    }
+
+    private static class HostMetrics {
+        final AtomicLong requestCount = new AtomicLong();
+        final AtomicLong failedRequestCount = new AtomicLong();
+        final AtomicLong bytesIn = new AtomicLong();
+        final AtomicLong latencyNanosTotal = new AtomicLong();
+        final AtomicLong latencyNanosMax = new AtomicLong();
+        final AtomicLongArray latencyBuckets
+                = new AtomicLongArray(LATENCY_BUCKET_BOUNDS_MILLIS.length + 1);
+
+        /** @return upper bound of bucket holding the given percentile
+         * (approximate; -1 if above the highest bound) */
+        long getLatencyPercentileMillis (int percentile) {
+            long count = 0;
+            for (int i = 0; i < latencyBuckets.length(); i++) {
+                count += latencyBuckets.get(i);
+            }
+            long threshold = (long) Math.ceil(count * percentile / 100.0);
+            long cumulativeCount = 0;
+            for (int i = 0; i < LATENCY_BUCKET_BOUNDS_MILLIS.length; i++) {
+                cumulativeCount += latencyBuckets.get(i);
+                if (cumulativeCount >= threshold) {
+                    return LATENCY_BUCKET_BOUNDS_MILLIS[i];
+                }
+            }
+            return -1;
+        }
+    }
+
+    /** Discards all metrics (e.g., at the start of an assembly). */
+    public static void reset () {
+        STAGES.clear();
+        HOSTS.clear();
+        startMillis = System.currentTimeMillis();
+        LAST_RATE_LINE_NANOS.set(System.nanoTime());
+    }
+
+    private static StageMetrics getStage (String stage) {
+        StageMetrics stageMetrics = STAGES.get(stage);
+        if (stageMetrics == null) {
+            stageMetrics = new StageMetrics();
+            StageMetrics existingMetrics = STAGES.putIfAbsent(stage, stageMetrics);
+            if (existingMetrics != null) {
+                stageMetrics = existingMetrics;
+            }
+        }
+        return stageMetrics;
+    }
+
+    private static HostMetrics getHost (String host) {
+        if (host == null || host.isEmpty()) {
+            host = "(local)";
+        }
+        HostMetrics hostMetrics = HOSTS.get(host);
+        if (hostMetrics == null) {
+            hostMetrics = new HostMetrics();
+            HostMetrics existingMetrics = HOSTS.putIfAbsent(host, hostMetrics);
+            if (existingMetrics != null) {
+                hostMetrics = existingMetrics;
+            }
+        }
+        return hostMetrics;
+    }
+
+    /**
+     * Records a processed record, and prints a progress line if one is due.
+     * @param stage stage name (e.g., "stage02")
+     */
+    public static void recordRecord (String stage) {
+        StageMetrics stageMetrics = getStage(stage);
+        stageMetrics.recordCount.incrementAndGet();
+        stageMetrics.lastNanos.set(System.nanoTime());
+        printRateLineIfDue(stage);
+    }
+
+    /**
+     * @param stage stage name
+     * @param parseNanos time spent parsing remote content
+     */
+    public static void recordParseNanos (String stage, long parseNanos) {
+        getStage(stage).parseNanos.addAndGet(parseNanos);
+    }
+
+    /**
+     * @param stage stage name
+     * @param error exception encountered in processing a record
+     */
+    public static void recordError (String stage, Throwable error) {
+        StageMetrics stageMetrics = getStage(stage);
+        stageMetrics.errorCount.incrementAndGet();
+        String errorClass = error.getClass().getSimpleName();
+        AtomicLong errorCount = stageMetrics.errorCountsByClass.get(errorClass);
+        if (errorCount == null) {
+            errorCount = new AtomicLong();
+            AtomicLong existingCount = stageMetrics.errorCountsByClass
+                                            .putIfAbsent(errorClass, errorCount);
+            if (existingCount != null) {
+                errorCount = existingCount;
+            }
+        }
+        errorCount.incrementAndGet();
+    }
+
+    /**
+     * @param host remote host
+     * @param latencyNanos time to response (or to failure)
+     * @param failed true if request failed
+     */
+    public static void recordRequest (String host, long latencyNanos,
+                                                            boolean failed) {
+        HostMetrics hostMetrics = getHost(host);
+        hostMetrics.requestCount.incrementAndGet();
+        if (failed) {
+            hostMetrics.failedRequestCount.incrementAndGet();
+        }
+        hostMetrics.latencyNanosTotal.addAndGet(latencyNanos);
+        long max;
+        do {
+            max = hostMetrics.latencyNanosMax.get();
+        } while (latencyNanos > max
+                && !hostMetrics.latencyNanosMax.compareAndSet(max, latencyNanos));
+        long latencyMillis = TimeUnit.NANOSECONDS.toMillis(latencyNanos);
+        int bucket = 0;
+        while (bucket < LATENCY_BUCKET_BOUNDS_MILLIS.length
+                    && latencyMillis > LATENCY_BUCKET_BOUNDS_MILLIS[bucket]) {
+            bucket++;
+        }
+        hostMetrics.latencyBuckets.incrementAndGet(bucket);
+    }
+
+    /**
+     * @param host remote host
+     * @param byteCount bytes received from the network
+     */
+    public static void recordBytesIn (String host, long byteCount) {
+        getHost(host).bytesIn.addAndGet(byteCount);
+    }
+
+    /**
+     * @param host remote host
+     * @param percentile percentile of request latency (e.g., 95)
+     * @param minimumRequestCount requests to the host needed for a result
+     * @return upper bound (approximate) of the percentile of the host's 
+     * request latency, or -1 if too few requests have been made to the host
+     * or the percentile is above the highest bucket bound
+     */
+    public static long getLatencyPercentileMillis (String host, int percentile,
+                                                long minimumRequestCount) {
+        HostMetrics hostMetrics = HOSTS.get(host);
+        if (hostMetrics == null 
+                || hostMetrics.requestCount.get() < minimumRequestCount) {
+            return -1;
+        }
+        return hostMetrics.getLatencyPercentileMillis(percentile);
+    }
+
+    private static void printRateLineIfDue (String stage) {
+        if (rateLineIntervalMillis <= 0) {
+            return;
+        }
+        long lastLineNanos = LAST_RATE_LINE_NANOS.get();
+        long nowNanos = System.nanoTime();
+        if (nowNanos - lastLineNanos
+                        < TimeUnit.MILLISECONDS.toNanos(rateLineIntervalMillis)
+                || !LAST_RATE_LINE_NANOS.compareAndSet(lastLineNanos, nowNanos)) {
+            return;
+        }
+        System.out.println(getRateLine(stage));
+    }
+
+    /**
+     * @param stage stage name
+     * @return one-line summary of the stage's progress and of HTTP activity
+     */
+    public static String getRateLine (String stage) {
+        StageMetrics stageMetrics = getStage(stage);
+        long requestCount = 0;
+        long bytesIn = 0;
+        for (HostMetrics hostMetrics : HOSTS.values()) {
+            requestCount += hostMetrics.requestCount.get();
+            bytesIn += hostMetrics.bytesIn.get();
+        }
+        return "[" + stage + "] " + stageMetrics.recordCount.get() + " records ("
+                + String.format("%.1f", stageMetrics.getRecordsPerSecond())
+                + "/s), " + stageMetrics.errorCount.get() + " errors; HTTP "
+                + requestCount + " requests, " + bytesIn / 1024 + " KB in. "
+                + new java.sql.Timestamp(System.currentTimeMillis());
+    }
+
+    /**
+     * Writes all metrics as a JSON object.
+     * @param file output file
+     * @throws IOException if file cannot be written
+     */
+    public static void writeJson (File file) throws IOException {
+        try (OutputStream outputStream = new FileOutputStream(file);
+                JsonGenerator generator = Json.createGeneratorFactory
+                    (Collections.singletonMap(JsonGenerator.PRETTY_PRINTING, true))
+                        .createGenerator(outputStream)) {
+            long endMillis = System.currentTimeMillis();
+            generator.writeStartObject()
+                    .write("startTime", new java.sql.Timestamp(startMillis).toString())
+                    .write("endTime", new java.sql.Timestamp(endMillis).toString())
+                    .write("elapsedMillis", endMillis - startMillis);
+            generator.writeStartObject("stages");
+            for (Map.Entry<String,StageMetrics> entry
+                                        : new TreeMap<>(STAGES).entrySet()) {
+                StageMetrics stageMetrics = entry.getValue();
+                generator.writeStartObject(entry.getKey())
+                    .write("records", stageMetrics.recordCount.get())
+                    .write("recordsPerSecond",
+                            Math.round(stageMetrics.getRecordsPerSecond() * 100) / 100.0)
+                    .write("elapsedMillis", TimeUnit.NANOSECONDS.toMillis
+                        (stageMetrics.lastNanos.get() - stageMetrics.firstNanos))
+                    .write("parseMillis", TimeUnit.NANOSECONDS.toMillis
+                                                (stageMetrics.parseNanos.get()))
+                    .write("errors", stageMetrics.errorCount.get());
+                generator.writeStartObject("errorsByClass");
+                for (Map.Entry<String,AtomicLong> errorCount : new TreeMap<>
+                            (stageMetrics.errorCountsByClass).entrySet()) {
+                    generator.write(errorCount.getKey(), errorCount.getValue().get());
+                }
+                generator.writeEnd().writeEnd();
+            }
+            generator.writeEnd();
+            generator.writeStartObject("hosts");
+            for (Map.Entry<String,HostMetrics> entry
+                                        : new TreeMap<>(HOSTS).entrySet()) {
+                HostMetrics hostMetrics = entry.getValue();
+                long requestCount = hostMetrics.requestCount.get();
+                generator.writeStartObject(entry.getKey())
+                    .write("requests", requestCount)
+                    .write("failedRequests", hostMetrics.failedRequestCount.get())
+                    .write("bytesIn", hostMetrics.bytesIn.get())
+                    .write("latencyAverageMillis", (requestCount == 0) ? 0
+                        : TimeUnit.NANOSECONDS.toMillis
+                            (hostMetrics.latencyNanosTotal.get() / requestCount))
+                    .write("latencyMaxMillis", TimeUnit.NANOSECONDS.toMillis
+                                        (hostMetrics.latencyNanosMax.get()))
+                    .write("latencyP50Millis",
+                                    hostMetrics.getLatencyPercentileMillis(50))
+                    .write("latencyP95Millis",
+                                    hostMetrics.getLatencyPercentileMillis(95));
+                generator.writeStartArray("latencyHistogram");
+                for (int i = 0; i < hostMetrics.latencyBuckets.length(); i++) {
+                    generator.writeStartObject();
+                    if (i < LATENCY_BUCKET_BOUNDS_MILLIS.length) {
+                        generator.write("maxMillis", LATENCY_BUCKET_BOUNDS_MILLIS[i]);
+                    } else {
+                        generator.writeNull("maxMillis");
+                    }
+                    generator.write("count", hostMetrics.latencyBuckets.get(i))
+                            .writeEnd();
+                }
+                generator.writeEnd().writeEnd();
+            }
+            generator.writeEnd();
+            generator.writeStartObject("http")
+                    .write("requests", HttpFetcher.getRequestCount())
+                    .write("failedRequests", HttpFetcher.getFailedRequestCount())
+                    .write("wireBytes", HttpFetcher.getWireByteCount())
+                    .write("contentBytes", HttpFetcher.getContentByteCount())
+                    .write("retries", RequestPolicy.getRetryCount())
+                    .write("hedgedRequests", RequestPolicy.getHedgedCount())
+                    .write("hedgeWins", RequestPolicy.getHedgeWinCount())
+                    .write("shedRequests", RequestPolicy.getShedCount())
+                    .write("circuitsOpened", RequestPolicy.getCircuitOpenedCount())
+                    .write("deadlinesExceeded", 
+                                    RequestPolicy.getDeadlineExceededCount())
+                    .writeEnd();
+            generator.writeEnd();
+        }
+    }
+}
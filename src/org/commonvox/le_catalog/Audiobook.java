@@ -48,6 +48,7 @@ import org.commonvox.le_catalog.InterruptibleDownloader.ReturnCode;
                         "publicationDateInternetArchive", "urlCoverArt",
                         "urlThumbnail", "urlM4bFiles", "sections" })
 public class Audiobook extends Work {
+    private static final long serialVersionUID = 1L;
     private static final String IMAGES_PATH = "images/coverArt/";
     private String uniqueKey;
     private String urlRss;
@@ -381,22 +382,9 @@ public class Audiobook extends Work {
         uniqueKey = String.format("%08d00000000", Integer.parseInt(librivoxId));
     }
     
-    /**
-     *
-     * @return {@link Work#getCleanedTitle() title} of audiobook in a {@link Title} wrapper
-     */
     @Override
-    @XmlTransient
-    public Title getTitleKey () {
-        if (getCleanedTitle() == null || getCleanedTitle().isEmpty()) {
-            return null;
-        } else {
-            return new Title(getCleanedTitle()
-                .replaceAll(REGEX_TRIM_LEADING_SPECIAL_CHARS, "")
-                .replaceAll(REGEX_TRIM_LEADING_ARTICLE, "")
-                .replaceAll(REGEX_TRIM_LEADING_SPECIAL_CHARS, "")
-                    .toLowerCase());
-        }
+    protected String normalizeTitle (String cleanedTitle) {
+        return normalizeTitle(cleanedTitle, LEADING_SPECIAL_CHARS_PATTERN);
     }
 
     /**
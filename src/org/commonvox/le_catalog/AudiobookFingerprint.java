@@ -0,0 +1,235 @@
+/*
+ * Copyright (C) 2015 Daniel Vimont
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.commonvox.le_catalog;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import org.xml.sax.Attributes;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Content fingerprint of an {@link Audiobook}, taken over everything the
+ * audiobook persists to catalog XML. The audiobook is marshalled (via JAXB,
+ * so that every persisted field, including those added in future, is
+ * covered) to a handler which hashes the content of each top-level element
+ * (e.g., "title", "sections", "url_cover_art") separately; the fingerprint
+ * combines the element hashes. Two fingerprints therefore identify not only
+ * whether, but in which fields, two versions of an audiobook differ.
+ * Hashes are 64-bit FNV-1a, and are stable across runs.
+ * @author Daniel Vimont
+ */
+public class AudiobookFingerprint {
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    /** Marshallers are not thread-safe, so each thread has its own. */
+    private static final ThreadLocal<Marshaller> MARSHALLER = new ThreadLocal<>();
+    private final String id;
+    private final Map<String,Long> fieldHashes;
+    private final long fingerprint;
+
+    private AudiobookFingerprint (String id, Map<String,Long> fieldHashes) {
+        this.id = id;
+        this.fieldHashes = fieldHashes;
+        long combinedHash = FNV_OFFSET_BASIS;
+        for (Map.Entry<String,Long> fieldHash : fieldHashes.entrySet()) {
+            combinedHash = hash(combinedHash, fieldHash.getKey());
+            combinedHash = hash(combinedHash, fieldHash.getValue());
+        }
+        this.fingerprint = combinedHash;
+    }
+
+    /**
+     * @param audiobook audiobook
+     * @return fingerprint of audiobook's persisted content
+     * @throws JAXBException if audiobook cannot be marshalled
+     */
+    public static AudiobookFingerprint of (Audiobook audiobook)
+            throws JAXBException {
+        FieldHashingHandler handler = new FieldHashingHandler();
+        getMarshaller().marshal(audiobook, handler);
+        return new AudiobookFingerprint(audiobook.getId(), handler.fieldHashes);
+    }
+
+    /**
+     * Fingerprints a list of audiobooks, dividing the list among one thread
+     * per available processor.
+     * @param audiobooks audiobooks
+     * @return fingerprints, in the order of the submitted list
+     * @throws JAXBException if an audiobook cannot be marshalled
+     * @throws InterruptedException if interrupted
+     */
+    public static List<AudiobookFingerprint> of (List<Audiobook> audiobooks)
+            throws JAXBException, InterruptedException {
+        int threadCount = Math.max(1, Math.min
+                (Runtime.getRuntime().availableProcessors(), audiobooks.size()));
+        int sliceSize = (audiobooks.size() + threadCount - 1) / threadCount;
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount,
+                    CatalogAssembler.getDaemonThreadFactory("fingerprint-"));
+        List<AudiobookFingerprint> fingerprints = new ArrayList<>();
+        try {
+            List<Future<List<AudiobookFingerprint>>> futures = new ArrayList<>();
+            for (int start = 0; start < audiobooks.size(); start += sliceSize) {
+                List<Audiobook> slice = audiobooks.subList
+                        (start, Math.min(audiobooks.size(), start + sliceSize));
+                futures.add(executor.submit(() -> {
+                    List<AudiobookFingerprint> sliceFingerprints
+                                            = new ArrayList<>(slice.size());
+                    for (Audiobook audiobook : slice) {
+                        sliceFingerprints.add(of(audiobook));
+                    }
+                    return sliceFingerprints;
+                }));
+            }
+            for (Future<List<AudiobookFingerprint>> future : futures) {
+                try {
+                    fingerprints.addAll(future.get());
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof JAXBException) {
+                        throw (JAXBException) e.getCause();
+                    } else if (e.getCause() instanceof RuntimeException) {
+                        throw (RuntimeException) e.getCause();
+                    }
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return fingerprints;
+    }
+
+    private static Marshaller getMarshaller () throws JAXBException {
+        Marshaller marshaller = MARSHALLER.get();
+        if (marshaller == null) {
+            marshaller = CatalogMarshaller.getCatalogJaxbContext().createMarshaller();
+            marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
+            MARSHALLER.set(marshaller);
+        }
+        return marshaller;
+    }
+
+    public String getId () {
+        return id;
+    }
+
+    public long getFingerprint () {
+        return fingerprint;
+    }
+
+    /** @return names of the top-level XML elements of the audiobook */
+    public Set<String> getFieldNames () {
+        return Collections.unmodifiableSet(fieldHashes.keySet());
+    }
+
+    /**
+     * @param other fingerprint of another version of the audiobook
+     * @return names of fields (top-level XML elements) whose content differs,
+     * including any present in only one of the versions
+     */
+    public Set<String> getChangedFields (AudiobookFingerprint other) {
+        Set<String> changedFields = new TreeSet<>();
+        if (this.fingerprint == other.fingerprint) {
+            return changedFields;
+        }
+        for (Map.Entry<String,Long> fieldHash : fieldHashes.entrySet()) {
+            if (!fieldHash.getValue().equals
+                                (other.fieldHashes.get(fieldHash.getKey()))) {
+                changedFields.add(fieldHash.getKey());
+            }
+        }
+        for (String otherFieldName : other.fieldHashes.keySet()) {
+            if (!fieldHashes.containsKey(otherFieldName)) {
+                changedFields.add(otherFieldName);
+            }
+        }
+        return changedFields;
+    }
+
+    private static long hash (long hash, String string) {
+        for (int i = 0; i < string.length(); i++) {
+            hash = (hash ^ string.charAt(i)) * FNV_PRIME;
+        }
+        return (hash ^ 0xffff) * FNV_PRIME; // terminator
+    }
+
+    private static long hash (long hash, long value) {
+        for (int i = 0; i < 8; i++) {
+            hash = (hash ^ ((value >>> (i * 8)) & 0xff)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /** Receives the marshalled audiobook as SAX events; depth 1 is the
+     * audiobook's root element, depth 2 its fields. */
+    private static class FieldHashingHandler extends DefaultHandler {
+        private final Map<String,Long> fieldHashes = new LinkedHashMap<>();
+        private int depth = 0;
+        private String fieldName;
+        private long fieldHash;
+
+        @Override
+        public void startElement (String uri, String localName, String qName,
+                                                    Attributes attributes) {
+            depth++;
+            if (depth == 2) {
+                fieldName = localName.isEmpty() ? qName : localName;
+                fieldHash = FNV_OFFSET_BASIS;
+            } else if (depth > 2) {
+                fieldHash = hash(fieldHash, "<" + qName);
+            }
+            if (depth >= 2) {
+                for (int i = 0; i < attributes.getLength(); i++) {
+                    fieldHash = hash(fieldHash, attributes.getQName(i));
+                    fieldHash = hash(fieldHash, attributes.getValue(i));
+                }
+            }
+        }
+
+        @Override
+        public void endElement (String uri, String localName, String qName) {
+            if (depth == 2) {
+                Long previousHash = fieldHashes.get(fieldName);
+                fieldHashes.put(fieldName, (previousHash == null) ? fieldHash
+                                    : hash(previousHash, fieldHash));
+            } else if (depth > 2) {
+                fieldHash = hash(fieldHash, ">");
+            }
+            depth--;
+        }
+
+        @Override
+        public void characters (char[] characters, int start, int length) {
+            if (depth >= 2) {
+                for (int i = start; i < start + length; i++) {
+                    fieldHash = (fieldHash ^ characters[i]) * FNV_PRIME;
+                }
+            }
+        }
+    }
+}
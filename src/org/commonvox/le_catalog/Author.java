@@ -28,6 +28,7 @@ import javax.xml.bind.annotation.XmlTransient;
 public class Author 
         extends Contributor 
         implements Comparable<Author>, Key {
+    private static final long serialVersionUID = 1L;
     
     /** regular expression to find any leading char(s) that is whitespace, 
      * hyphen, quote, period, apostrophe, or single-quote. */
@@ -81,6 +82,9 @@ public class Author
     
     @Override
     public int compareTo(Author other) {
+        if (this == other) {
+            return 0;
+        }
         int returnedInt = this.lastName.toLowerCase().compareTo
                                         (other.lastName.toLowerCase());
         if (returnedInt == 0) {
@@ -93,6 +97,9 @@ public class Author
     @Override
     public boolean equals(Object object)
     {
+        if (this == object) {
+            return true;
+        }
         boolean areEqual = false;
         if (object != null && object instanceof Author) {
             areEqual = this.getKeyItem() == ((Author) object).getKeyItem();
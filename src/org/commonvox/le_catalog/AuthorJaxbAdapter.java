@@ -17,6 +17,8 @@
 
 package org.commonvox.le_catalog;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.List;
@@ -35,6 +37,7 @@ import javax.xml.bind.annotation.XmlRootElement;
 public class AuthorJaxbAdapter {
     private static final String LV_AUTHOR_API_CALL
         = "https://librivox.org/api/feed/authors/?id=%s&extended=1&format=xml";
+    private static JAXBContext jaxbContext;
     
     private List<Author> authors;
     
@@ -69,9 +72,13 @@ public class AuthorJaxbAdapter {
             throws JAXBException, MalformedURLException, RemoteApiProcessingException {
         String apiCallString = String.format(LV_AUTHOR_API_CALL, authorId);
         URL url = new URL(apiCallString);
-        AuthorJaxbAdapter authorsList = (AuthorJaxbAdapter) JAXBContext.newInstance
-                                        (AuthorJaxbAdapter.class).createUnmarshaller()
-                                        .unmarshal(url);
+        AuthorJaxbAdapter authorsList;
+        try (InputStream inputStream = HttpFetcher.openStream(url)) {
+            authorsList = (AuthorJaxbAdapter) getJaxbContext()
+                                        .createUnmarshaller().unmarshal(inputStream);
+        } catch (IOException e) {
+            throw new JAXBException(e.toString(), e);
+        }
 
         if (authorsList.getAuthors().size() != 1) {
             throw new RemoteApiProcessingException();
@@ -80,4 +87,16 @@ public class AuthorJaxbAdapter {
         return authorsList.getAuthors().get(0);
     }
 
+    /**
+     * @return JAXBContext for {@link AuthorJaxbAdapter} (created on first use)
+     * @throws JAXBException if JAXBContext cannot be created
+     */
+    public static synchronized JAXBContext getJaxbContext ()
+            throws JAXBException {
+        if (jaxbContext == null) {
+            jaxbContext = JAXBContext.newInstance(AuthorJaxbAdapter.class);
+        }
+        return jaxbContext;
+    }
+
 }
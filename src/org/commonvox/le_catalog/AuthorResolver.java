@@ -0,0 +1,257 @@
+/*
+ * Copyright (C) 2015 Daniel Vimont
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.commonvox.le_catalog;
+
+import java.io.File;
+import java.net.MalformedURLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+
+/**
+ * Resolves LibriVox author IDs (as found on the LibriVox webpages of
+ * multi-author works) to {@link Author} records. Each author is requested
+ * from the LibriVox API at most once: resolved records are held in memory
+ * (and may be saved to and loaded from an XML file, so that they carry over
+ * between runs), and concurrent lookups of the same ID share a single API
+ * request. The resolver may also be seeded with the author records already
+ * present in the Stage 1 catalog, most of which would otherwise have to be
+ * requested again.
+ * @author Daniel Vimont
+ */
+public class AuthorResolver {
+    private static final ConcurrentMap<String,Future<Author>> AUTHORS
+                                                = new ConcurrentHashMap<>();
+    private static final AtomicLong LOOKUP_COUNT = new AtomicLong();
+    private static final AtomicLong API_REQUEST_COUNT = new AtomicLong();
+    private static final AtomicLong COALESCED_COUNT = new AtomicLong();
+    private static final AtomicLong FAILED_COUNT = new AtomicLong();
+    private static final String VARIOUS_AUTHORS_ID = "18";
+
+    /**
+     * @param authorId LibriVox author ID
+     * @return author record for the ID
+     * @throws JAXBException if JAXB unmarshal of API output fails
+     * @throws MalformedURLException if LibriVox API url is malformed
+     * @throws RemoteApiProcessingException if LibriVox API returns unexpected data
+     */
+    public static Author getAuthor (String authorId)
+            throws JAXBException, MalformedURLException,
+                    RemoteApiProcessingException {
+        LOOKUP_COUNT.incrementAndGet();
+        Future<Author> authorFuture = AUTHORS.get(authorId);
+        if (authorFuture == null) {
+            FutureTask<Author> authorTask = new FutureTask<>(() -> {
+                API_REQUEST_COUNT.incrementAndGet();
+                return AuthorJaxbAdapter.getAuthorViaApi(authorId);
+            });
+            authorFuture = AUTHORS.putIfAbsent(authorId, authorTask);
+            if (authorFuture == null) {
+                authorFuture = authorTask;
+                authorTask.run();
+            } else if (!authorFuture.isDone()) {
+                COALESCED_COUNT.incrementAndGet();
+            }
+        } else if (!authorFuture.isDone()) {
+            COALESCED_COUNT.incrementAndGet();
+        }
+        try {
+            return getUninterruptibly(authorFuture);
+        } catch (ExecutionException e) {
+            /* failures are not retained, so that a later lookup may retry */
+            AUTHORS.remove(authorId, authorFuture);
+            FAILED_COUNT.incrementAndGet();
+            if (e.getCause() instanceof JAXBException) {
+                throw (JAXBException) e.getCause();
+            } else if (e.getCause() instanceof MalformedURLException) {
+                throw (MalformedURLException) e.getCause();
+            } else if (e.getCause() instanceof RemoteApiProcessingException) {
+                throw (RemoteApiProcessingException) e.getCause();
+            } else if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /** A lookup in progress in another thread is awaited even if this thread
+     * is interrupted (as a direct API request would be); the interrupt is
+     * restored for the caller's next interruption check. */
+    private static Author getUninterruptibly (Future<Author> authorFuture)
+            throws ExecutionException {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return authorFuture.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Adds the author records of all audiobooks in the catalog (e.g., Stage 1
+     * output, whose author records are those returned by the LibriVox
+     * author API) to the resolver.
+     * @param catalog catalog of audiobooks
+     * @return count of author records added
+     */
+    public static int seed (Catalog catalog) {
+        int seededCount = 0;
+        for (Audiobook audiobook : catalog.audiobooks) {
+            seededCount += seed(audiobook);
+        }
+        return seededCount;
+    }
+
+    /**
+     * Adds the author records of a single audiobook to the resolver.
+     * @param audiobook audiobook (e.g., as emitted by Stage 1)
+     * @return count of author records added
+     */
+    public static int seed (Audiobook audiobook) {
+        if (audiobook.getAuthors() == null) {
+            return 0;
+        }
+        int seededCount = 0;
+        for (Author author : audiobook.getAuthors()) {
+            if (put(copyOf(author))) {
+                seededCount++;
+            }
+        }
+        return seededCount;
+    }
+
+    /** The catalog's own author objects remain subject to modification in
+     * subsequent stages, so the resolver retains copies. */
+    private static Author copyOf (Author author) {
+        if (author == null) {
+            return null;
+        }
+        Author copy = new Author();
+        copy.setId(author.getId());
+        copy.setFirstName(author.getFirstName());
+        copy.setLastName(author.getLastName());
+        copy.setYearOfBirth(author.getYearOfBirth());
+        copy.setYearOfDeath(author.getYearOfDeath());
+        return copy;
+    }
+
+    private static boolean put (Author author) {
+        if (author == null || author.getId() == null || author.getId().isEmpty()
+                || author.getId().equals(VARIOUS_AUTHORS_ID)
+                || !author.hasName()) {
+            return false;
+        }
+        return AUTHORS.putIfAbsent(author.getId(),
+                            CompletableFuture.completedFuture(author)) == null;
+    }
+
+    /**
+     * Loads author records saved by an earlier run.
+     * @param file author cache file
+     * @return count of author records added (zero if file does not exist)
+     * @throws JAXBException if file cannot be unmarshalled
+     */
+    public static int load (File file) throws JAXBException {
+        if (!file.exists()) {
+            return 0;
+        }
+        AuthorJaxbAdapter authorsList = (AuthorJaxbAdapter)
+                AuthorJaxbAdapter.getJaxbContext().createUnmarshaller().unmarshal(file);
+        int loadedCount = 0;
+        if (authorsList.getAuthors() != null) {
+            for (Author author : authorsList.getAuthors()) {
+                if (put(author)) {
+                    loadedCount++;
+                }
+            }
+        }
+        return loadedCount;
+    }
+
+    /**
+     * Saves all resolved author records (in ID order).
+     * @param file author cache file
+     * @return count of author records saved
+     * @throws JAXBException if file cannot be marshalled
+     */
+    public static int save (File file) throws JAXBException {
+        TreeMap<Integer,Author> sortedAuthors = new TreeMap<>();
+        List<Author> otherAuthors = new ArrayList<>();
+        for (Entry<String,Future<Author>> entry : AUTHORS.entrySet()) {
+            Future<Author> authorFuture = entry.getValue();
+            if (!authorFuture.isDone()) {
+                continue;
+            }
+            Author author;
+            try {
+                author = authorFuture.get();
+            } catch (InterruptedException | ExecutionException e) {
+                continue;
+            }
+            try {
+                sortedAuthors.put(Integer.parseInt(entry.getKey()), author);
+            } catch (NumberFormatException e) {
+                otherAuthors.add(author);
+            }
+        }
+        List<Author> authors = new ArrayList<>(sortedAuthors.values());
+        authors.addAll(otherAuthors);
+        AuthorJaxbAdapter authorsList = new AuthorJaxbAdapter();
+        authorsList.setAuthors(authors);
+        Marshaller marshaller
+                = AuthorJaxbAdapter.getJaxbContext().createMarshaller();
+        marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
+        marshaller.marshal(authorsList, file);
+        return authors.size();
+    }
+
+    public static int getAuthorCount () {
+        return AUTHORS.size();
+    }
+
+    /**
+     * @return one-line summary of resolver activity
+     */
+    public static String getStatistics () {
+        long lookupCount = LOOKUP_COUNT.get();
+        long apiRequestCount = API_REQUEST_COUNT.get();
+        return "Author lookups: " + lookupCount + " ("
+                + (lookupCount - apiRequestCount) + " resolved without API request, "
+                + COALESCED_COUNT.get() + " of these awaiting a concurrent request); "
+                + apiRequestCount + " API requests (" + FAILED_COUNT.get()
+                + " failed); " + AUTHORS.size() + " authors known.";
+    }
+}
@@ -21,6 +21,7 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.io.StringReader;
 import java.io.StringWriter;
@@ -31,14 +32,21 @@ import java.net.URLEncoder;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.json.Json;
 import javax.json.stream.JsonParser;
 import javax.xml.bind.JAXBContext;
@@ -50,8 +58,6 @@ import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlElementWrapper;
 import javax.xml.bind.annotation.XmlRootElement;
 import javax.xml.bind.annotation.XmlTransient;
-import org.commonvox.indexedcollection.CompositeIndex;
-import org.commonvox.indexedcollection.IndexedCollection;
 /**
  *
  * @author Daniel Vimont
@@ -60,6 +66,7 @@ import org.commonvox.indexedcollection.IndexedCollection;
 @XmlRootElement(name="xml") //, namespace="org.commonvox.librivox.audiobooks")
 public class Catalog 
         implements Mergeable, Cloneable, Serializable {
+    private static final long serialVersionUID = 1L;
     private static String latestVersion = "";
     public final static boolean DIAGNOSTIC_MODE = true;
     @XmlElementWrapper(name = "books")
@@ -88,7 +95,19 @@ public class Catalog
     private final TreeSet<Reader> uniqueReaderList = new TreeSet<>();
     private final TreeSet<Genre> uniqueGenreList = new TreeSet<>();
     private final TreeSet<Language> uniqueLanguageList = new TreeSet<>();
-    private final int CALLBACK_DIVISOR = 20;
+    protected static final int CALLBACK_DIVISOR = 20;
+    /** Performs the per-audiobook preparation of {@link #bootUp} in a single
+     * fork-join traversal, and populates the indexes concurrently. */
+    public static boolean parallelBootUp = true;
+    /** Builds each index when first needed, rather than all at startup;
+     * the index of the default view is built at startup, and the others by
+     * a low-priority background warm-up. */
+    public static boolean lazyIndexes = true;
+    /** Locale whose collation orders titles; null for String order. */
+    public static Locale titleCollationLocale = null;
+    private static final String DEFAULT_VIEW_INDEX_NAME 
+                                            = "Audiobooks by Genre, Title";
+    private static final int PREPARATION_TASK_THRESHOLD = 256;
     private static final String GOOGLE_API_URL_STRING 
             = "https://www.googleapis.com/customsearch/v1?";
     private static final String GOOGLE_SEARCH_ENGINE_ID
@@ -129,9 +148,13 @@ public class Catalog
                     + "-site:librivox.org/add_project -site:librivox.org/*.xml";
     protected static final String DEFAULT_DB_PATH = "database/catalog.odb";
 
-    @XmlTransient
-    protected Timer timer = new Timer();
-    private static IndexedCollection<Work> DIRECTORY;
+    protected transient Timer timer = new Timer(); // transient to JAXB also
+    private static CatalogDirectory DIRECTORY;
+    /** true once the deterministic data preparation of {@link #bootUp} is
+     * done (as in a catalog restored from a {@link CatalogSnapshot}) */
+    private boolean preparedForIndexing = false;
+    /** populated directory restored from a {@link CatalogSnapshot} */
+    private transient CatalogDirectory restoredDirectory;
  
     protected void addAudiobook (String lvCatalogUrlString, List<String> m4bUrlStrings) {
         audiobooks.add(new Audiobook(lvCatalogUrlString, m4bUrlStrings));
@@ -144,10 +167,17 @@ public class Catalog
         audiobooks.addAll(catalogToAppend.audiobooks);
     }
     
+    /** Merges updated and new audiobooks into the catalog. A catalog
+     * restored from a {@link CatalogSnapshot} is then prepared and indexed
+     * anew by {@link #bootUp} (preparation of an audiobook already prepared
+     * leaves it unchanged), just as one unmarshalled from XML.
+     * @param updatesCatalog */
     public void merge (Catalog updatesCatalog) {
         if (updatesCatalog == null) {
             return;
         }
+        preparedForIndexing = false;
+        restoredDirectory = null;
         Set<Audiobook> audiobookSet = new TreeSet<>(audiobooks);
         for (Audiobook updatedAudiobook : updatesCatalog.audiobooks) {
             if (audiobookSet.contains(updatedAudiobook)) {
@@ -206,28 +236,15 @@ public class Catalog
         printMemoryUsage("At start of bootup process", DIAGNOSTIC_MODE);
         Catalog.printHeadingWithTimestamp
             ("CATALOG MAPPING (INDEXING) CYCLE INITIATED.");
-        callback.updateTaskMessage("Building list of M4B audiobooks.");
-        buildM4bAudiobookList();
-        callback.passbackObject(m4bAudiobooks);
-        callback.updateTaskMessage("Clearing incomplete data from catalog.");
-        removeNoNameAuthorsAndReaders(callback);
-        callback.updateTaskMessage("Building internal data links.");
-        setSectionParentFields();
-        buildSubgenreMap(); // v1.5.1
-        callback.updateTaskMessage("Propagating author/reader/genre data.");
-        setAudiobookAuthorReaderGenre(callback);
-        Catalog.printHeadingWithTimestamp
-            ("Creating master directory of IndexedCollections.");
-        callback.updateTaskMessage("Building catalog's indexes.");
-        printMemoryUsage("After data propagation", DIAGNOSTIC_MODE);
-        buildDirectory();
-        printMemoryUsage("After directory built", DIAGNOSTIC_MODE);
-        Catalog.printHeadingWithTimestamp
-            ("Mapping (indexing) of Works (audiobooks & sections) and " 
-                    + "IndexedKeys (authors, readers, etc.) initiated.");
-        callback.updateTaskMessage("Populating catalog indexes.");
-        autofillDirectory(callback);
-        printMemoryUsage("After directory populated", DIAGNOSTIC_MODE);
+        Title.setCollationLocale(titleCollationLocale);
+        if (preparedForIndexing) {
+            callback.updateTaskMessage("Catalog restored from boot snapshot.");
+            callback.passbackObject(m4bAudiobooks);
+            buildSubgenreMap(); // static, so not part of snapshot
+        } else {
+            prepareForIndexing(callback);
+        }
+        populateIndexes(callback);
         callback.updateTaskMessage("Configuring Google search facility.");
         this.fetchGoogleApiKey();
         callback.updateTaskMessage("Fetching latest version number.");
@@ -245,55 +262,233 @@ public class Catalog
         System.out.println();
     }
     
-    private void buildDirectory() {
-        DIRECTORY = new IndexedCollection<>
-            (Work.class, //"Indexes of Work Collection", 
-            new CompositeIndex<>
-                (Audiobook.class, "Audiobooks by Title", 
-                    Title.class, PublicationDate.class, Audiobook.class),
-            new CompositeIndex<>
-                (Audiobook.class, "Audiobooks by Publication Date", 
-                    PublicationDate.class, Title.class, Audiobook.class),
-            new CompositeIndex<>
-                (Audiobook.class, "Audiobooks by Downloads", 
-                        Downloads.class, Title.class, Audiobook.class),
-            new CompositeIndex<>
-                (Audiobook.class, "Audiobooks by Author, Title", 
-                                Author.class, Title.class, Audiobook.class),
-            new CompositeIndex<>
-                (Audiobook.class, "Audiobooks by Author, Publication Date", 
-                        Author.class, PublicationDate.class, Title.class, Audiobook.class),
-            new CompositeIndex<>
-                (Audiobook.class, "Audiobooks by Author, Downloads", 
-                        Author.class, Downloads.class, Title.class, Audiobook.class),
-            new CompositeIndex<>
-                (Audiobook.class, "Audiobooks by Genre, Title", 
-                        Genre.class, Title.class, Audiobook.class),
-            new CompositeIndex<>
-                (Audiobook.class, "Audiobooks by Genre, Publication Date", 
-                        Genre.class, PublicationDate.class, Title.class, Audiobook.class),
-            new CompositeIndex<>
-                (Audiobook.class, "Audiobooks by Genre, Downloads", 
-                        Genre.class, Downloads.class, Title.class, Audiobook.class),
-            new CompositeIndex<>
-                (Audiobook.class, "Audiobooks by Reader, Title", 
-                                Reader.class, Title.class, Audiobook.class),
-            new CompositeIndex<>
-                (Audiobook.class, "Audiobooks by Reader, Publication Date", 
-                        Reader.class, PublicationDate.class, Title.class, Audiobook.class),
-            new CompositeIndex<>
-                (Audiobook.class, "Audiobooks by Reader, Downloads", 
-                        Reader.class, Downloads.class, Title.class, Audiobook.class),
-            new CompositeIndex<>
-                (Audiobook.class, "Audiobooks by Language, Title", 
-                        Language.class, Title.class, Audiobook.class),
-            new CompositeIndex<>
-                (Audiobook.class, "Audiobooks by Language, Publication Date", 
-                    Language.class, PublicationDate.class, Title.class, Audiobook.class),
-            new CompositeIndex<>
-                (Audiobook.class, "Audiobooks by Language, Downloads", 
-                    Language.class, Downloads.class, Title.class, Audiobook.class));
+    /** Performs the data preparation of {@link #bootUp} which precedes 
+     * indexing; deterministic for a given catalog, so its results may be
+     * saved in a {@link CatalogSnapshot}.
+     * @param callback
+     * @throws InterruptedException
+     * @throws IOException */
+    protected void prepareForIndexing(CatalogCallback callback)
+            throws InterruptedException,
+                    IOException {
+        callback.updateTaskMessage("Building list of M4B audiobooks.");
+        buildM4bAudiobookList();
+        callback.passbackObject(m4bAudiobooks);
+        canonicalizeKeys(callback);
+        buildSubgenreMap(); // v1.5.1
+        if (parallelBootUp) {
+            callback.updateTaskMessage
+                    ("Clearing, linking and propagating catalog data.");
+            prepareAudiobooksInParallel(callback);
+        } else {
+            callback.updateTaskMessage("Clearing incomplete data from catalog.");
+            removeNoNameAuthorsAndReaders(callback);
+            callback.updateTaskMessage("Building internal data links.");
+            setSectionParentFields();
+            callback.updateTaskMessage("Propagating author/reader/genre data.");
+            setAudiobookAuthorReaderGenre(callback);
+        }
+        preparedForIndexing = true;
+    }
+
+    /** Replaces the duplicate author, reader, genre and language instances
+     * created by unmarshalling with shared instances. */
+    private void canonicalizeKeys(CatalogCallback callback) 
+            throws InterruptedException {
+        callback.updateTaskMessage
+                ("Consolidating author/reader/genre/language data.");
+        printMemoryUsage("Before key canonicalization", DIAGNOSTIC_MODE);
+        KeyCanonicalizer canonicalizer 
+                = KeyCanonicalizer.canonicalize(m4bAudiobooks);
+        printMemoryUsage("After key canonicalization", DIAGNOSTIC_MODE);
+        System.out.println(canonicalizer);
+    }
+
+    /** Performs, for each audiobook, the work of 
+     * {@link #removeNoNameAuthorsAndReaders}, {@link #setSectionParentFields}
+     * and {@link #setAudiobookAuthorReaderGenre} (which is independent of 
+     * other audiobooks) in one fork-join traversal of the audiobooks. */
+    private void prepareAudiobooksInParallel(CatalogCallback callback) 
+            throws InterruptedException {
+        callback.updateTaskProgress(0, m4bAudiobooks.size());
+        final List<Genre> noGenreAssignedList = getNoGenreAssignedList();
+        final AtomicLong audiobookCount = new AtomicLong();
+        ForkJoinPool pool = new ForkJoinPool();
+        try {
+            pool.submit(new AudiobookPreparation(0, m4bAudiobooks.size(), 
+                    noGenreAssignedList, audiobookCount, callback)).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        callback.updateTaskProgress(m4bAudiobooks.size(), m4bAudiobooks.size());
+    }
+
+    /** Prepares a range of audiobooks, splitting it among forked tasks. */
+    private class AudiobookPreparation extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int fromIndex;
+        private final int toIndex;
+        private final List<Genre> noGenreAssignedList;
+        private final AtomicLong audiobookCount;
+        private final CatalogCallback callback;
+
+        AudiobookPreparation (int fromIndex, int toIndex, 
+                List<Genre> noGenreAssignedList, AtomicLong audiobookCount,
+                CatalogCallback callback) {
+            this.fromIndex = fromIndex;
+            this.toIndex = toIndex;
+            this.noGenreAssignedList = noGenreAssignedList;
+            this.audiobookCount = audiobookCount;
+            this.callback = callback;
+        }
+
+        @Override
+        protected void compute() {
+            if (toIndex - fromIndex > PREPARATION_TASK_THRESHOLD) {
+                int middleIndex = (fromIndex + toIndex) >>> 1;
+                invokeAll(new AudiobookPreparation(fromIndex, middleIndex,
+                            noGenreAssignedList, audiobookCount, callback),
+                        new AudiobookPreparation(middleIndex, toIndex,
+                            noGenreAssignedList, audiobookCount, callback));
+                return;
+            }
+            for (int i = fromIndex; i < toIndex; i++) {
+                if (getPool().isShutdown()) {
+                    return;
+                }
+                prepareAudiobook(m4bAudiobooks.get(i), noGenreAssignedList);
+                long count = audiobookCount.incrementAndGet();
+                if (count % CALLBACK_DIVISOR == 0) {
+                    callback.updateTaskProgress(count, m4bAudiobooks.size());
+                }
+            }
+        }
+    }
+
+    private static void prepareAudiobook
+                    (Audiobook audiobook, List<Genre> noGenreAssignedList) {
+        removeNoNameAuthorsAndReaders(audiobook);
+        setSectionParentFields(audiobook);
+        audiobook.addAuthorsFromSections();
+        audiobook.setReaders();
+        if (audiobook.getGenres() == null || audiobook.getGenres().isEmpty()) {
+            audiobook.setGenres(noGenreAssignedList);
+        }
+        audiobook.getAllLanguages(); // lazily set here, not by index tasks
+        deriveTitleKeys(audiobook);
+    }
+
+    /** Title keys, once derived, are retained by each work (and saved in a
+     * {@link CatalogSnapshot}), so that neither indexing nor the browser
+     * derives them again. */
+    private static void deriveTitleKeys(Audiobook audiobook) {
+        audiobook.getTitleKey();
+        if (audiobook.getSections() != null) {
+            for (Section section : audiobook.getSections()) {
+                section.getTitleKey();
+            }
+        }
+    }
+
+    /** Builds and populates the directory of indexes, unless a populated
+     * directory was restored from a {@link CatalogSnapshot}.
+     * @param callback
+     * @throws IllegalAccessException
+     * @throws InvocationTargetException
+     * @throws InterruptedException */
+    protected void populateIndexes(CatalogCallback callback) 
+            throws IllegalAccessException,
+                    InvocationTargetException,
+                    InterruptedException {
+        if (restoredDirectory != null) {
+            setDirectory(restoredDirectory);
+            callback.updateTaskMessage("Catalog indexes restored from boot snapshot.");
+            if (lazyIndexes) {
+                DIRECTORY.startWarmUp();
+            }
+            return;
+        }
+        Catalog.printHeadingWithTimestamp
+            ("Creating master directory of indexes.");
+        callback.updateTaskMessage("Building catalog's indexes.");
+        printMemoryUsage("After data propagation", DIAGNOSTIC_MODE);
+        buildDirectory();
+        printMemoryUsage("After directory built", DIAGNOSTIC_MODE);
+        Catalog.printHeadingWithTimestamp
+            ("Mapping (indexing) of Works (audiobooks & sections) and " 
+                    + "IndexedKeys (authors, readers, etc.) initiated.");
+        callback.updateTaskMessage("Populating catalog indexes.");
+        autofillDirectory(callback);
+        printMemoryUsage("After directory populated", DIAGNOSTIC_MODE);
+    }
+
+    protected boolean isPreparedForIndexing() {
+        return preparedForIndexing;
+    }
+
+    /** @return the directory of indexes populated by {@link #bootUp} */
+    protected static CatalogDirectory getDirectory() {
+        return DIRECTORY;
+    }
+
+    /** Replaces the directory of indexes, stopping the background warm-up
+     * of the directory it replaces. */
+    private static void setDirectory(CatalogDirectory directory) {
+        if (DIRECTORY != null && DIRECTORY != directory) {
+            DIRECTORY.stopWarmUp();
+        }
+        DIRECTORY = directory;
+    }
+
+    protected void setRestoredDirectory(CatalogDirectory directory) {
+        restoredDirectory = directory;
+    }
 
+    private void readObject(ObjectInputStream inputStream) 
+            throws IOException, ClassNotFoundException {
+        inputStream.defaultReadObject();
+        timer = new Timer();
+    }
+    
+    private void buildDirectory() {
+        setDirectory(new CatalogDirectory());
+        DIRECTORY.addIndex("Audiobooks by Title", 
+                Title.class, PublicationDate.class, Audiobook.class);
+        DIRECTORY.addIndex("Audiobooks by Publication Date", 
+                PublicationDate.class, Title.class, Audiobook.class);
+        DIRECTORY.addIndex("Audiobooks by Downloads", 
+                Downloads.class, Title.class, Audiobook.class);
+        DIRECTORY.addIndex("Audiobooks by Author, Title", 
+                Author.class, Title.class, Audiobook.class);
+        DIRECTORY.addIndex("Audiobooks by Author, Publication Date", 
+                Author.class, PublicationDate.class, Title.class, Audiobook.class);
+        DIRECTORY.addIndex("Audiobooks by Author, Downloads", 
+                Author.class, Downloads.class, Title.class, Audiobook.class);
+        DIRECTORY.addIndex("Audiobooks by Genre, Title", 
+                Genre.class, Title.class, Audiobook.class);
+        DIRECTORY.addIndex("Audiobooks by Genre, Publication Date", 
+                Genre.class, PublicationDate.class, Title.class, Audiobook.class);
+        DIRECTORY.addIndex("Audiobooks by Genre, Downloads", 
+                Genre.class, Downloads.class, Title.class, Audiobook.class);
+        DIRECTORY.addIndex("Audiobooks by Reader, Title", 
+                Reader.class, Title.class, Audiobook.class);
+        DIRECTORY.addIndex("Audiobooks by Reader, Publication Date", 
+                Reader.class, PublicationDate.class, Title.class, Audiobook.class);
+        DIRECTORY.addIndex("Audiobooks by Reader, Downloads", 
+                Reader.class, Downloads.class, Title.class, Audiobook.class);
+        DIRECTORY.addIndex("Audiobooks by Language, Title", 
+                Language.class, Title.class, Audiobook.class);
+        DIRECTORY.addIndex("Audiobooks by Language, Publication Date", 
+                Language.class, PublicationDate.class, Title.class, Audiobook.class);
+        DIRECTORY.addIndex("Audiobooks by Language, Downloads", 
+                Language.class, Downloads.class, Title.class, Audiobook.class);
     }
     
     public void shutDownDatabase() {
@@ -344,63 +539,70 @@ public class Catalog
         if (callback != null) {
             callback.updateTaskProgress(0, m4bAudiobooks.size());
         }
-        List<Author> cleanedAuthors;
-        List<Reader> cleanedReaders;
         for (Audiobook audiobook : m4bAudiobooks) {
             if (Thread.interrupted()) { throw new InterruptedException(); }
             audiobookCount++;
             if (callback != null && audiobookCount % CALLBACK_DIVISOR == 0) {
                 callback.updateTaskProgress(audiobookCount, audiobooks.size());
             }
-            cleanedAuthors = new ArrayList<>();
-            if (audiobook.getAuthors() != null) {
-                for (Author author : audiobook.getAuthors()) {
-                    if (author.hasName()) {
-                        cleanedAuthors.add(author);
-                    }
+            removeNoNameAuthorsAndReaders(audiobook);
+        }
+        callback.updateTaskProgress(m4bAudiobooks.size(), m4bAudiobooks.size());
+    }
+
+    private static void removeNoNameAuthorsAndReaders(Audiobook audiobook) {
+        List<Author> cleanedAuthors = new ArrayList<>();
+        List<Reader> cleanedReaders;
+        if (audiobook.getAuthors() != null) {
+            for (Author author : audiobook.getAuthors()) {
+                if (author.hasName()) {
+                    cleanedAuthors.add(author);
                 }
-                audiobook.setAuthors(cleanedAuthors);
             }
-            if (audiobook.getSections() == null) {
-                continue;
-            }
-            for (Section section : audiobook.getSections()) {
-                if (section.getAuthors() != null) {
-                    cleanedAuthors = new ArrayList<>();
-                    for (Author sectionAuthor : section.getAuthors()) {
-                        if (sectionAuthor.hasName()) {
-                            cleanedAuthors.add(sectionAuthor);
-                        }
+            audiobook.setAuthors(cleanedAuthors);
+        }
+        if (audiobook.getSections() == null) {
+            return;
+        }
+        for (Section section : audiobook.getSections()) {
+            if (section.getAuthors() != null) {
+                cleanedAuthors = new ArrayList<>();
+                for (Author sectionAuthor : section.getAuthors()) {
+                    if (sectionAuthor.hasName()) {
+                        cleanedAuthors.add(sectionAuthor);
                     }
-                    section.setAuthors(cleanedAuthors);
                 }
-                
-                if (section.getReaders() != null) {
-                    cleanedReaders = new ArrayList<>();
-                    for (Reader reader : section.getReaders()) {
-                        if (reader.getDisplayName() != null
-                                && !reader.getDisplayName().isEmpty()) {
-                            cleanedReaders.add(reader);
-                        }
+                section.setAuthors(cleanedAuthors);
+            }
+
+            if (section.getReaders() != null) {
+                cleanedReaders = new ArrayList<>();
+                for (Reader reader : section.getReaders()) {
+                    if (reader.getDisplayName() != null
+                            && !reader.getDisplayName().isEmpty()) {
+                        cleanedReaders.add(reader);
                     }
-                    section.setReaders(cleanedReaders);
                 }
+                section.setReaders(cleanedReaders);
             }
         }
-        callback.updateTaskProgress(m4bAudiobooks.size(), m4bAudiobooks.size());
     }
     
     private void setSectionParentFields() 
             throws InterruptedException {
         for (Audiobook audiobook : m4bAudiobooks) {
             if (Thread.interrupted()) { throw new InterruptedException(); }
-            if (audiobook.getSections() != null) {
-                for (Section section : audiobook.getSections()) {
-                    section.setParentAudiobookId(audiobook);
-                    if (!audiobook.isVariousAuthorsWork()
-                            && section.getAuthors() == null) {
-                        section.setAuthors(audiobook.getAuthors());
-                    }
+            setSectionParentFields(audiobook);
+        }
+    }
+
+    private static void setSectionParentFields(Audiobook audiobook) {
+        if (audiobook.getSections() != null) {
+            for (Section section : audiobook.getSections()) {
+                section.setParentAudiobookId(audiobook);
+                if (!audiobook.isVariousAuthorsWork()
+                        && section.getAuthors() == null) {
+                    section.setAuthors(audiobook.getAuthors());
                 }
             }
         }
@@ -408,6 +610,9 @@ public class Catalog
     
     private void buildUniqueIndexedKeyLists(CatalogCallback callback) 
             throws InterruptedException{
+        /* keys are canonical (see KeyCanonicalizer), so nearly every 
+         * occurrence after the first is recognized by identity alone */
+        Set<Object> seenKeys = Collections.newSetFromMap(new IdentityHashMap<>());
         long audiobookCount = 0;
         if (callback != null) {
             callback.updateTaskProgress(0, m4bAudiobooks.size());
@@ -420,52 +625,38 @@ public class Catalog
             }
             if (audiobook.getAuthors() != null) {
                 for (Author author : audiobook.getAuthors()) {
-                    if (!uniqueAuthorList.contains(author)) {
-                        uniqueAuthorList.add(author);
-                    }
+                    addUniqueKey(uniqueAuthorList, author, seenKeys);
                 }
             }
             if (audiobook.getReaders() != null) {
                 for (Reader reader : audiobook.getReaders()) {
-                    if (!uniqueReaderList.contains(reader)) {
-                        uniqueReaderList.add(reader);
-                    }
+                    addUniqueKey(uniqueReaderList, reader, seenKeys);
                 }
             }
             if (audiobook.getGenres() != null) {
                 for (Genre genre : audiobook.getGenres()) {
-                    if (!uniqueGenreList.contains(genre)) {
-                        uniqueGenreList.add(genre);
-                    }
+                    addUniqueKey(uniqueGenreList, genre, seenKeys);
                 }
             }
             if (audiobook.getLanguage() != null
                     && !audiobook.getLanguage().getLanguage().isEmpty()) {
-                if (!uniqueLanguageList.contains(audiobook.getLanguage())) {
-                    uniqueLanguageList.add(audiobook.getLanguage());
-                }
+                addUniqueKey(uniqueLanguageList, audiobook.getLanguage(), seenKeys);
             }
             if (audiobook.getSections() != null) {
                 for (Section section : audiobook.getSections()) {
                     if (section.getAuthors() != null) {
                         for (Author author : section.getAuthors()) {
-                            if (!uniqueAuthorList.contains(author)) {
-                                uniqueAuthorList.add(author);
-                            }
+                            addUniqueKey(uniqueAuthorList, author, seenKeys);
                         }
                     }
                     if (section.getReaders() != null) {
                         for (Reader reader : section.getReaders()) {
-                            if (!uniqueReaderList.contains(reader)) {
-                                uniqueReaderList.add(reader);
-                            }
+                            addUniqueKey(uniqueReaderList, reader, seenKeys);
                         }
                     }
                     if (section.getLanguage() != null
                             && !section.getLanguage().getLanguage().isEmpty()) {
-                        if (!uniqueLanguageList.contains(section.getLanguage())) {
-                            uniqueLanguageList.add(section.getLanguage());
-                        }
+                        addUniqueKey(uniqueLanguageList, section.getLanguage(), seenKeys);
                     }
                 }
             }
@@ -474,6 +665,13 @@ public class Catalog
 
     }
     
+    private static <K> void addUniqueKey
+                        (TreeSet<K> uniqueKeys, K key, Set<Object> seenKeys) {
+        if (seenKeys.add(key)) {
+            uniqueKeys.add(key);
+        }
+    }
+    
     private void buildSubgenreMap() 
             throws IOException {
         try(BufferedReader br 
@@ -502,11 +700,7 @@ public class Catalog
             callback.updateTaskProgress(0, m4bAudiobooks.size());
         }
         
-        final Genre NO_GENRE_ASSIGNED = new Genre();
-        NO_GENRE_ASSIGNED.setId(Audiobook.NO_GENRE_INDICATOR);
-        NO_GENRE_ASSIGNED.setName(Audiobook.NO_GENRE_INDICATOR);
-        List<Genre> NO_GENRE_ASSIGNED_LIST = new ArrayList<>();
-        NO_GENRE_ASSIGNED_LIST.add(NO_GENRE_ASSIGNED);
+        List<Genre> NO_GENRE_ASSIGNED_LIST = getNoGenreAssignedList();
 
         for (Audiobook audiobook : m4bAudiobooks) {
             if (Thread.interrupted()) { throw new InterruptedException(); }
@@ -519,12 +713,22 @@ public class Catalog
             if (audiobook.getGenres() == null || audiobook.getGenres().isEmpty()) {
                 audiobook.setGenres(NO_GENRE_ASSIGNED_LIST);
             }
+            deriveTitleKeys(audiobook);
         }
         if (callback != null) {
             callback.updateTaskProgress(m4bAudiobooks.size(), m4bAudiobooks.size());
         }
     }
     
+    private static List<Genre> getNoGenreAssignedList() {
+        final Genre NO_GENRE_ASSIGNED = new Genre();
+        NO_GENRE_ASSIGNED.setId(Audiobook.NO_GENRE_INDICATOR);
+        NO_GENRE_ASSIGNED.setName(Audiobook.NO_GENRE_INDICATOR);
+        List<Genre> NO_GENRE_ASSIGNED_LIST = new ArrayList<>();
+        NO_GENRE_ASSIGNED_LIST.add(NO_GENRE_ASSIGNED);
+        return NO_GENRE_ASSIGNED_LIST;
+    }
+    
     /** Populates CompositeIndex indexes: (1) one set for MasterClass objects (which 
  in this application are Work (audiobook and section) class objects; and
  (2) one set for IndexedKey-implementing objects (which in this application
@@ -539,20 +743,15 @@ public class Catalog
             throws IllegalAccessException,
                     InvocationTargetException,
                     InterruptedException     {
-        long audiobookCount = 0;
-        if (callback != null) {
-            callback.updateTaskProgress(0, m4bAudiobooks.size());
-        }
-        for (Audiobook audiobook : m4bAudiobooks) {
-            if (Thread.interrupted()) { throw new InterruptedException(); }
-            audiobookCount++;
-            if (callback != null && audiobookCount % CALLBACK_DIVISOR == 0) {
-                callback.updateTaskProgress(audiobookCount, m4bAudiobooks.size());
-            }
-            DIRECTORY.add(audiobook);
+        if (callback == null) {
+            callback = new CatalogCallback() {};
         }
-        if (callback != null) {
-            callback.updateTaskProgress(m4bAudiobooks.size(), m4bAudiobooks.size());
+        DIRECTORY.setWorks(m4bAudiobooks);
+        if (lazyIndexes) {
+            DIRECTORY.buildIndex(DEFAULT_VIEW_INDEX_NAME, callback);
+            DIRECTORY.startWarmUp();
+        } else {
+            DIRECTORY.buildAllIndexes(callback, parallelBootUp);
         }
         System.out.println(DIRECTORY);
     }
@@ -561,7 +760,10 @@ public class Catalog
      * ordered by the submitted keyClass(es).
      * @param workClass
      * @param keyClassArray
-     * @return 
+     * @return read-only view of the works (its subLists are views as well, 
+     * sliced without copying)
+     * @throws IllegalArgumentException if works cannot be ordered by a 
+     * submitted keyClass
      */
     @SafeVarargs
     public final List<Work> getWorks 
@@ -583,7 +785,10 @@ public class Catalog
      * @param indexedKey - Instance of IndexedKey-implementing class
      * @param readerWorksOption - optionally limit list to solo, group works of reader
      * @return List of Work objects that are associated with the submitted 
-     * object (e.g., works written by Author, read by Reader, etc.).
+     * object (e.g., works written by Author, read by Reader, etc.); for 
+     * ALL_WORKS, a read-only view.
+     * @throws IllegalArgumentException if works are not indexed by the 
+     * class of indexedKey
      */
     public List<Work> getWorks 
                     (Class<? extends Work> workClass, Comparable indexedKey,
@@ -605,8 +810,10 @@ public class Catalog
      * @param keyClassArray - vararg array of keyClass instances, indicating
      * order in which list is to be returned.
      * @return List of Work objects that are associated with the submitted 
-     * object (e.g., works written by Author, read by Reader, etc.).
-     * @throws org.commonvox.indexedcollection.InvalidQueryException
+     * object (e.g., works written by Author, read by Reader, etc.); for 
+     * ALL_WORKS, a read-only view.
+     * @throws IllegalArgumentException if works are not indexed by the 
+     * class of indexedKey, or cannot be ordered by a submitted keyClass
      */
     @SafeVarargs
     public final List<Work> getWorks 
@@ -713,9 +920,11 @@ public class Catalog
      * @param indexedKeyClass designates the Class of objects to be 
      * returned. (Must be a non-abstract subclass of 
      * {@link  org.commonvox.indexedcollection.IndexedKey IndexedKey}.)  
-     * @return list of instances of the specified IndexedKey-implementing class
-     * (e.g., a list of Authors, a list of Readers, etc.).
-     * @throws org.commonvox.indexedcollection.InvalidQueryException
+     * @return read-only list of instances of the specified 
+     * IndexedKey-implementing class (e.g., a list of Authors, a list of 
+     * Readers, etc.).
+     * @throws IllegalArgumentException if works are not indexed by the 
+     * specified class
      */
     public List<Comparable> getIndexedKeyValueList
             (Class<? extends Comparable> indexedKeyClass) {
@@ -1071,7 +1280,12 @@ public class Catalog
             return returnMilliseconds;
         }
     }
-    public static void printMemoryUsage(String subTitle, boolean garbageCollect) {
+    /**
+     * @param subTitle
+     * @param garbageCollect
+     * @return used memory, in bytes
+     */
+    public static long printMemoryUsage(String subTitle, boolean garbageCollect) {
         if (garbageCollect) {
             System.gc();
         }
@@ -1088,6 +1302,7 @@ public class Catalog
         System.out.println
             (" Total memory: " 
                 + String.format("%,13d",totalMemory));
+        return totalMemory - freeMemory;
 //        System.out.println
 //            ("Number of active nodes in IndexedCollections: " 
 //                                    + CompositeIndex.getNodeCount());
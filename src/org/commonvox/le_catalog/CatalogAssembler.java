@@ -20,26 +20,44 @@ import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.FilterReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.StringReader;
-import java.net.HttpURLConnection;
+import java.lang.reflect.InvocationTargetException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.sql.Timestamp;
 import java.text.ParseException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.ListIterator;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import javax.json.Json;
 import javax.json.stream.JsonParser;
+import javax.json.stream.JsonParserFactory;
 import javax.json.stream.JsonParsingException;
 import javax.xml.bind.JAXBException;
 
@@ -49,21 +67,47 @@ import javax.xml.bind.JAXBException;
  */
 public class CatalogAssembler {
     private static final int MAX_LIBRIVOX_ID  = 9999;
-    /** searches for "href" attribute with "http" or "https" url value 
-     * NOTE: 2015-02-10 added \s to the regex to allow whitespace between 
-     * quotation mark and http */
-    private static final String REGEX_HREF = "href\\=\"\\s?https?://.*?\"";
-    private static final Pattern HREF_PATTERN 
-                = Pattern.compile(REGEX_HREF, Pattern.CASE_INSENSITIVE);
-    private static Matcher hrefMatcher;
+    private static final String LV_API_CALL
+        = "https://librivox.org/api/feed/audiobooks/?id=%s&extended=1&format=xml";
+    /** Number of worker threads issuing Stage 1 API calls concurrently. */
+    protected static int stage01ThreadCount = 1;
+    /** Maximum number of IDs, per Stage 1 worker thread, submitted ahead of
+     * the ID whose result is awaited, so that the calls (and results) in 
+     * flight do not grow with the range of IDs. */
+    protected static int stage01IdsInFlightPerThread = 4;
+    /** Maximum rate of Stage 1 API calls (zero = unlimited). */
+    protected static double requestsPerSecond = 0;
+    /** If true, Stage 1 probes the IDs planned by an {@link AdaptiveIdScanner}
+     * rather than every ID through the last ID to be processed; being faster
+     * but not assured of finding every audiobook, it is not the default. */
+    protected static boolean adaptiveIdScan = false;
+    /** In a sharded assembly (shardCount greater than 1), Stage 1 processes
+     * only the shardIndex-th (from 1) of shardCount equal, contiguous ranges
+     * of the ID space; the shards' catalogs are later combined by 
+     * {@link #mergeShardCatalogs(String)}. */
+    protected static int shardIndex = 1;
+    protected static int shardCount = 1;
+    /** Capacity of each queue between stages in streaming assembly. */
+    protected static int pipelineQueueCapacity = 64;
+    /** If true, authors of Stage 1 audiobooks are given to the 
+     * {@link AuthorResolver} before Stage 2 looks up multi-author sections. */
+    protected static boolean authorPrefetch = true;
+    /** If true, batch assembly performs Stages 2 and 3 in a single fused 
+     * pass (see {@link #assembleCatalogStages02And03(Catalog, StageJournal)}),
+     * with up to enrichmentWindow audiobooks in process at any time. */
+    protected static boolean fusedEnrichment = false;
+    protected static int enrichmentWindow = 16;
     private static final String IO_LABEL = "IO";
     private static final String METADATA_EXTRACTION_LABEL = "Metadata Extraction";
     private static final String JSON_KEYNAME_SUFFIX_jpg = ".jpg";
     private static final String JSON_KEYNAME_SUFFIX_m4b = ".m4b"; // added v1.5.1
-    private static final Pattern A_TAG_PATTERN
-                = Pattern.compile("\\<a .*?\\>", Pattern.CASE_INSENSITIVE);
-    private static final Pattern DOWNLOAD_COVER_PATTERN
-                = Pattern.compile("\\<.*?class=\"download-cover\".*?\\>", 
+    /** url in domain "librivox.org" ("www." optional) */
+    private static final Pattern LIBRIVOX_DOMAIN_URL_PATTERN
+                = Pattern.compile("^https?://(www\\.)?librivox\\.org", 
+                                                Pattern.CASE_INSENSITIVE);
+    /** url in domain "archive.org" ("www." optional) of an M4B file */
+    private static final Pattern ARCHIVE_DOMAIN_M4B_URL_PATTERN
+                = Pattern.compile("^https?://(www\\.)?archive\\.org.*\\.m4b$", 
                                                 Pattern.CASE_INSENSITIVE);
     private static final String STAGE01_FILE_NAME = "stage01.xml";
     private static final String STAGE02_FILE_NAME = "stage02.xml";
@@ -73,13 +117,40 @@ public class CatalogAssembler {
     private static final String STAGE06_FILE_NAME = "stage06.xml";
     private static final String STAGE07_FILE_NAME = "stage07.xml";
     private static final String STAGE07_FORMATTED_FILE_NAME = "stage07.formatted.xml";
+    private static final String STAGE01_JOURNAL_NAME = "stage01.journal";
+    private static final String STAGE02_JOURNAL_NAME = "stage02.journal";
+    private static final String STAGE03_JOURNAL_NAME = "stage03.journal";
+    private static final String AUTHOR_CACHE_FILE_NAME = "authorCache.xml";
     private static final String DELTA_FILE_NAME = "delta.xml";
+    private static final String REDUCED_JPEG_FOLDER_NAME = "newJpegsReduced";
     private static final String DELTA_FORMATTED_FILE_NAME = "delta.formatted.xml";
+    private static final String DELTA_CHANGES_FILE_NAME = "delta.changes.txt";
+    private static final String METRICS_FILE_NAME = "metrics.json";
+    private static final String SHARD_FOLDER_NAME_FORMAT = "shard-%d-of-%d";
+    private static final Pattern SHARD_FOLDER_NAME_PATTERN
+                = Pattern.compile("shard-(\\d+)-of-(\\d+)");
+    /** stage names under which processing is reported to AssemblyMetrics */
+    private static final String STAGE01_METRICS = "stage01";
+    private static final String STAGE02_METRICS = "stage02";
+    private static final String STAGE03_METRICS = "stage03";
+    private static final String STAGE04_METRICS = "stage04";
+    private static final String STAGE07_METRICS = "stage07";
+    /** Catalog XML elements whose changes alone do not place an audiobook in
+     * the delta catalog (download counts change with nearly every build). */
+    private static final Set<String> DELTA_IGNORED_FIELDS 
+            = Collections.unmodifiableSet(new HashSet<>
+                                (Arrays.asList("download_count_iarchive")));
+    private static final String COVER_ART_FIELD_NAME = "url_cover_art";
     private static final String[] INVALID_LIBRIVOX_URL_PREFIXES
             = {"http://librivox.org/forum/", "https://librivox.org/forum/",
                     "http://forum.librivox.org/", "https://forum.librivox.org/"};
     private static final String LV_WIKI_M4B_URL_STRINGS
                             = "resources/librivox_wiki_m4b_webpages.txt";
+    /** Shared (thread-safe) factory, so that the JSON provider is looked up 
+     * once rather than for each Internet Archive item parsed. */
+    private static final JsonParserFactory JSON_PARSER_FACTORY 
+                                    = Json.createParserFactory(null);
+    private static final String IA_JSON_FORMAT_REQUEST = "&output=json";
     
     /** Following successful run of this method, the resultant stage 7 XML file
      * should replace the current "catalog.xml" in the project folder, and a
@@ -101,6 +172,34 @@ public class CatalogAssembler {
             throws JAXBException, MalformedURLException,
                     IllegalAccessException, RemoteApiProcessingException,
                     IOException, ParseException, InterruptedException {
+        assembleCompleteCatalog(currentBuildPath, startingId, processingLimit, false);
+    }
+    
+    /** As above, with the results of Stages 1 through 3 recorded per 
+     * audiobook (or per probed ID) in journal files in the build folder.
+     * In "resume" mode, an interrupted assembly is picked up where it left 
+     * off: any stage whose XML file was already written is loaded from that 
+     * file rather than rerun, and the stage that was in progress replays its 
+     * journal and continues with the first unprocessed audiobook. Each 
+     * journal is deleted once its stage XML file has been written.
+     *
+     * @param currentBuildPath
+     * @param startingId
+     * @param processingLimit
+     * @param resume
+     * @throws JAXBException
+     * @throws MalformedURLException
+     * @throws IllegalAccessException
+     * @throws RemoteApiProcessingException
+     * @throws IOException
+     * @throws ParseException
+     * @throws java.lang.InterruptedException
+     */
+    public static void assembleCompleteCatalog(String currentBuildPath, 
+                        int startingId, int processingLimit, boolean resume) 
+            throws JAXBException, MalformedURLException,
+                    IllegalAccessException, RemoteApiProcessingException,
+                    IOException, ParseException, InterruptedException {
         
         File stage01XmlFile 
                     = Paths.get(currentBuildPath, STAGE01_FILE_NAME).toFile();
@@ -120,12 +219,71 @@ public class CatalogAssembler {
         
         System.out.println("** COMMENCING FULL ASSEMBLY OF CATALOG ** "
                             + new Timestamp(System.currentTimeMillis()));
-        Catalog stage01Catalog = assembleCatalogStage01(startingId, processingLimit);
-        CatalogMarshaller.marshalCatalogToXml(stage01Catalog, stage01XmlFile);
-        Catalog stage02Catalog = assembleCatalogStage02(stage01Catalog);
-        CatalogMarshaller.marshalCatalogToXml(stage02Catalog, stage02XmlFile);
-        Catalog stage03Catalog = assembleCatalogStage03(stage02Catalog);
-        CatalogMarshaller.marshalCatalogToXml(stage03Catalog, stage03XmlFile);
+        AssemblyMetrics.reset();
+        if (resume) {
+            System.out.println("** Resuming any previously interrupted assembly **");
+        }
+        Catalog stage01Catalog;
+        if (resume && stage01XmlFile.exists()) {
+            stage01Catalog = loadCompletedStage(1, stage01XmlFile);
+        } else {
+            StageJournal journal = StageJournal.open
+                (Paths.get(currentBuildPath, STAGE01_JOURNAL_NAME).toFile(), resume);
+            try {
+                stage01Catalog = assembleCatalogStage01
+                    (null, startingId, processingLimit, LV_API_CALL, journal);
+            } finally {
+                journal.close();
+            }
+            CatalogMarshaller.marshalCatalogToXml(stage01Catalog, stage01XmlFile);
+            journal.delete();
+        }
+        Catalog stage02Catalog;
+        if (fusedEnrichment) {
+            stage02Catalog = null; // Stage 2 is performed together with Stage 3
+        } else if (resume && stage02XmlFile.exists()) {
+            stage02Catalog = loadCompletedStage(2, stage02XmlFile);
+        } else {
+            StageJournal journal = StageJournal.open
+                (Paths.get(currentBuildPath, STAGE02_JOURNAL_NAME).toFile(), resume);
+            prepareAuthorResolver(currentBuildPath, stage01Catalog);
+            try {
+                stage02Catalog = assembleCatalogStage02(stage01Catalog, journal);
+            } finally {
+                journal.close();
+                saveAuthorCache(currentBuildPath);
+            }
+            CatalogMarshaller.marshalCatalogToXml(stage02Catalog, stage02XmlFile);
+            journal.delete();
+        }
+        Catalog stage03Catalog;
+        if (resume && stage03XmlFile.exists()) {
+            stage03Catalog = loadCompletedStage(3, stage03XmlFile);
+        } else if (fusedEnrichment) {
+            StageJournal journal = StageJournal.open
+                (Paths.get(currentBuildPath, STAGE03_JOURNAL_NAME).toFile(), resume);
+            prepareAuthorResolver(currentBuildPath, stage01Catalog);
+            try {
+                stage03Catalog 
+                        = assembleCatalogStages02And03(stage01Catalog, journal);
+            } finally {
+                journal.close();
+                saveAuthorCache(currentBuildPath);
+            }
+            CatalogMarshaller.marshalCatalogToXml(stage03Catalog, stage03XmlFile);
+            journal.delete();
+        } else {
+            StageJournal journal = StageJournal.open
+                (Paths.get(currentBuildPath, STAGE03_JOURNAL_NAME).toFile(), resume);
+            try {
+                stage03Catalog 
+                        = assembleCatalogStage03(stage02Catalog, false, journal);
+            } finally {
+                journal.close();
+            }
+            CatalogMarshaller.marshalCatalogToXml(stage03Catalog, stage03XmlFile);
+            journal.delete();
+        }
         if (processingLimit == 0) {
             Catalog stage04Catalog = assembleCatalogStage04(null);
             CatalogMarshaller.marshalCatalogToXml(stage04Catalog, stage04XmlFile);
@@ -138,10 +296,439 @@ public class CatalogAssembler {
             CatalogMarshaller.marshalCatalogToXml(stage07Catalog, stage07XmlFile);
             CatalogMarshaller.marshalCatalogToXml(stage07Catalog, stage07XmlFormattedFile, true);
         }
+        System.out.println(HttpFetcher.getStatistics());
+        System.out.println(RequestPolicy.getStatistics());
+        writeMetrics(currentBuildPath);
         System.out.println("** COMPLETED FULL ASSEMBLY OF CATALOG ** "
                             + new Timestamp(System.currentTimeMillis()));
     }
     
+    /** Streaming alternative to 
+     * {@link #assembleCompleteCatalog(String, int, int, boolean)}. Rather than
+     * each stage completing for the entire catalog before the next begins, 
+     * each audiobook emitted by Stage 1 flows immediately through Stage 2 
+     * (LibriVox webpage), Stage 3 (Internet Archive JSON), and Stages 6 and 7
+     * (M4B merge and filter), with Stages 1, 2, and 3 each running in its own
+     * thread. Stages are connected by bounded queues (of capacity 
+     * {@link #pipelineQueueCapacity}), so that a slow stage holds back the 
+     * stages that feed it, and only a limited number of audiobooks are held
+     * in memory at any time. Stage 4 (LibriVox wiki M4B listings) is run 
+     * first, so that its results are available as audiobooks reach Stage 6.
+     * Stage XML files are written incrementally as audiobooks pass through 
+     * each stage, and stage journals are kept (and may be resumed) just as 
+     * in batch assembly.
+     * Note that, unlike in batch assembly, audiobooks are listed in Stage 1 
+     * (ID) order in the stage 6 and 7 XML files, and where two audiobooks 
+     * share a LibriVox URL, the first one encountered is kept.
+     *
+     * @param currentBuildPath
+     * @param startingId
+     * @param processingLimit
+     * @param resume
+     * @throws JAXBException
+     * @throws MalformedURLException
+     * @throws IllegalAccessException
+     * @throws RemoteApiProcessingException
+     * @throws IOException
+     * @throws ParseException
+     * @throws java.lang.InterruptedException
+     */
+    public static void assembleCompleteCatalogStreaming(String currentBuildPath, 
+                        int startingId, int processingLimit, boolean resume) 
+            throws JAXBException, MalformedURLException,
+                    IllegalAccessException, RemoteApiProcessingException,
+                    IOException, ParseException, InterruptedException {
+        assembleCompleteCatalogStreaming(currentBuildPath, startingId, 
+                                        processingLimit, resume, LV_API_CALL);
+    }
+    
+    /** Streaming assembly (as above), with the LibriVox API call template 
+     * supplied by the caller (see 
+     * {@link #assembleCatalogStage01(Catalog, int, int, String)}). */
+    protected static void assembleCompleteCatalogStreaming
+                        (String currentBuildPath, int startingId, 
+                            int processingLimit, boolean resume,
+                            String apiCallTemplate) 
+            throws JAXBException, MalformedURLException,
+                    IllegalAccessException, RemoteApiProcessingException,
+                    IOException, ParseException, InterruptedException {
+        
+        File stage01XmlFile 
+                    = Paths.get(currentBuildPath, STAGE01_FILE_NAME).toFile();
+        File stage02XmlFile 
+                    = Paths.get(currentBuildPath, STAGE02_FILE_NAME).toFile();
+        File stage03XmlFile 
+                    = Paths.get(currentBuildPath, STAGE03_FILE_NAME).toFile();
+        File stage04XmlFile 
+                    = Paths.get(currentBuildPath, STAGE04_FILE_NAME).toFile();
+        File stage06XmlFile 
+                    = Paths.get(currentBuildPath, STAGE06_FILE_NAME).toFile();
+        File stage07XmlFile 
+                    = Paths.get(currentBuildPath, STAGE07_FILE_NAME).toFile();
+        File stage07XmlFormattedFile 
+                = Paths.get(currentBuildPath, STAGE07_FORMATTED_FILE_NAME).toFile();
+        /** The streamed stages are written to temporary files, moved into 
+         * place only when all stages complete: a stage file cut short by a 
+         * failed stage upstream is never taken as complete by RESUME. */
+        List<File> streamedXmlFiles = Arrays.asList(stage01XmlFile, 
+                stage02XmlFile, stage03XmlFile, stage06XmlFile, 
+                stage07XmlFile, stage07XmlFormattedFile);
+        
+        System.out.println("** COMMENCING STREAMING ASSEMBLY OF CATALOG ** "
+                            + new Timestamp(System.currentTimeMillis()));
+        AssemblyMetrics.reset();
+        if (resume) {
+            System.out.println("** Resuming any previously interrupted assembly **");
+        }
+        if (startingId == 0) {
+            startingId = 1;
+        }
+        int endId = MAX_LIBRIVOX_ID;
+        if (processingLimit > 0) {
+            endId = Math.min(MAX_LIBRIVOX_ID, startingId + processingLimit - 1);
+        }
+        
+        /** Stage 4 output is needed in full before any audiobook reaches 
+         * Stage 6, so it is assembled first. */
+        Map<String,List<String>> m4bUrlMap = new TreeMap<>();
+        if (processingLimit == 0) {
+            Catalog stage04Catalog = assembleCatalogStage04(null);
+            CatalogMarshaller.marshalCatalogToXml(stage04Catalog, stage04XmlFile);
+            for (Audiobook stage4Audiobook : stage04Catalog.audiobooks) {
+                if (stage4Audiobook.getUrlLibrivox() != null
+                        && !stage4Audiobook.getUrlLibrivox().isEmpty()
+                        && stage4Audiobook.getUrlM4bFiles() != null
+                        && !stage4Audiobook.getUrlM4bFiles().isEmpty()) {
+                    String urlKey 
+                            = Catalog.getUrlKey(stage4Audiobook.getUrlLibrivox());
+                    if (!m4bUrlMap.containsKey(urlKey)) {
+                        m4bUrlMap.put(urlKey, stage4Audiobook.getUrlM4bFiles());
+                    }
+                }
+            }
+        }
+        
+        final int firstId = startingId;
+        final int lastId = endId;
+        final int threadCount = Math.max(1, stage01ThreadCount);
+        final int queueCapacity = Math.max(1, pipelineQueueCapacity);
+        final RequestRateLimiter rateLimiter 
+                = new RequestRateLimiter(requestsPerSecond);
+        final BlockingQueue<Audiobook> stage02Queue 
+                = new ArrayBlockingQueue<>(queueCapacity);
+        final BlockingQueue<Audiobook> stage03Queue 
+                = new ArrayBlockingQueue<>(queueCapacity);
+        final BlockingQueue<Audiobook> stage06Queue 
+                = new ArrayBlockingQueue<>(queueCapacity);
+        final Stage02Tally stage02Tally = new Stage02Tally();
+        final Stage03Tally stage03Tally = new Stage03Tally(false);
+        final AtomicInteger stage01Count = new AtomicInteger();
+        final StageJournal stage01Journal = StageJournal.open
+            (Paths.get(currentBuildPath, STAGE01_JOURNAL_NAME).toFile(), resume);
+        final StageJournal stage02Journal = StageJournal.open
+            (Paths.get(currentBuildPath, STAGE02_JOURNAL_NAME).toFile(), resume);
+        final StageJournal stage03Journal = StageJournal.open
+            (Paths.get(currentBuildPath, STAGE03_JOURNAL_NAME).toFile(), resume);
+        loadAuthorCache(currentBuildPath);
+        
+        System.out.println("==============================");
+        System.out.println("Streaming Stages 1, 2, 3, 6, and 7 initiated. " 
+                            + new Timestamp(System.currentTimeMillis()));
+        System.out.println("Processing starting at ID = " + startingId);
+        if (processingLimit != 0) {
+            System.out.println("Processing limit = " + processingLimit);
+        }
+        System.out.println("Capacity of queues between stages = " + queueCapacity);
+        System.out.println("==============================");
+        
+        ExecutorService executor = Executors.newFixedThreadPool
+                                (3, getDaemonThreadFactory("pipeline-stage0"));
+        List<Future<Void>> stageFutures = new ArrayList<>();
+        int noLibrivoxUrlCount = 0;
+        int duplicateUrlCount = 0;
+        int m4bMergedCount = 0;
+        int goodRecordCount = 0;
+        int badRecordCount = 0;
+        boolean streamingCompleted = false;
+        try {
+            /** Stage 1 */
+            stageFutures.add(executor.submit(() -> {
+                try (CatalogXmlStreamWriter stage01Writer 
+                            = new CatalogXmlStreamWriter
+                                (CatalogMarshaller.getTemporaryFile(stage01XmlFile))) {
+                    harvestStage01(apiCallTemplate, firstId, lastId, threadCount, 
+                            rateLimiter, stage01Journal, null, (key, idCatalog) -> {
+                        if (idCatalog == null) {
+                            return;
+                        }
+                        for (Audiobook audiobook : idCatalog.audiobooks) {
+                            stage01Writer.write(audiobook);
+                            stage01Count.incrementAndGet();
+                            if (authorPrefetch) {
+                                AuthorResolver.seed(audiobook);
+                            }
+                            stage02Queue.put(audiobook);
+                        }
+                    });
+                } finally {
+                    stage02Queue.put(END_OF_STREAM);
+                }
+                return null;
+            }));
+            /** Stage 2 */
+            stageFutures.add(executor.submit(() -> {
+                try (CatalogXmlStreamWriter stage02Writer 
+                            = new CatalogXmlStreamWriter
+                                (CatalogMarshaller.getTemporaryFile(stage02XmlFile))) {
+                    for (Audiobook audiobook = stage02Queue.take(); 
+                            audiobook != END_OF_STREAM; 
+                            audiobook = stage02Queue.take()) {
+                        stage02Tally.audiobooksProcessedCount++;
+                        AssemblyMetrics.recordRecord(STAGE02_METRICS);
+                        Audiobook journaledAudiobook 
+                                = getJournaledAudiobook(stage02Journal, audiobook);
+                        if (journaledAudiobook != null) {
+                            stage02Tally.restoredFromJournalCount++;
+                            audiobook = journaledAudiobook;
+                        } else {
+                            processStage02Audiobook(audiobook, stage02Tally);
+                            appendToJournal(stage02Journal, audiobook);
+                        }
+                        stage02Writer.write(audiobook);
+                        stage03Queue.put(audiobook);
+                    }
+                } finally {
+                    stage03Queue.put(END_OF_STREAM);
+                }
+                return null;
+            }));
+            /** Stage 3 */
+            stageFutures.add(executor.submit(() -> {
+                try (CatalogXmlStreamWriter stage03Writer 
+                            = new CatalogXmlStreamWriter
+                                (CatalogMarshaller.getTemporaryFile(stage03XmlFile))) {
+                    for (Audiobook audiobook = stage03Queue.take(); 
+                            audiobook != END_OF_STREAM; 
+                            audiobook = stage03Queue.take()) {
+                        stage03Tally.audiobooksProcessedCount++;
+                        AssemblyMetrics.recordRecord(STAGE03_METRICS);
+                        Audiobook journaledAudiobook 
+                                = getJournaledAudiobook(stage03Journal, audiobook);
+                        if (journaledAudiobook != null) {
+                            stage03Tally.restoredFromJournalCount++;
+                            audiobook = journaledAudiobook;
+                        } else {
+                            processStage03Audiobook(audiobook, false, stage03Tally);
+                            appendToJournal(stage03Journal, audiobook);
+                        }
+                        stage03Writer.write(audiobook);
+                        stage06Queue.put(audiobook);
+                    }
+                } finally {
+                    stage06Queue.put(END_OF_STREAM);
+                }
+                return null;
+            }));
+            
+            /** Stages 6 and 7 (in this thread) */
+            Set<String> urlKeysProcessed = new HashSet<>();
+            try (CatalogXmlStreamWriter stage06Writer 
+                        = new CatalogXmlStreamWriter
+                                (CatalogMarshaller.getTemporaryFile(stage06XmlFile));
+                    CatalogXmlStreamWriter stage07Writer 
+                        = new CatalogXmlStreamWriter
+                                (CatalogMarshaller.getTemporaryFile(stage07XmlFile));
+                    CatalogXmlStreamWriter stage07FormattedWriter 
+                        = new CatalogXmlStreamWriter(CatalogMarshaller.getTemporaryFile
+                                            (stage07XmlFormattedFile), true)) {
+                for (Audiobook audiobook = stage06Queue.take(); 
+                        audiobook != END_OF_STREAM; 
+                        audiobook = stage06Queue.take()) {
+                    AssemblyMetrics.recordRecord(STAGE07_METRICS);
+                    // note that audiobooks w/o LV url are here removed from processing
+                    if (audiobook.getUrlLibrivox() == null
+                            || audiobook.getUrlLibrivox().isEmpty()) {
+                        noLibrivoxUrlCount++;
+                        continue;
+                    }
+                    String urlKey = Catalog.getUrlKey(audiobook.getUrlLibrivox());
+                    if (!urlKeysProcessed.add(urlKey)) {
+                        duplicateUrlCount++;
+                        continue;
+                    }
+                    List<String> m4bUrls = m4bUrlMap.get(urlKey);
+                    if (m4bUrls != null && (audiobook.getUrlM4bFiles() == null
+                                    || audiobook.getUrlM4bFiles().isEmpty())) {
+                        audiobook.setUrlM4bFiles(m4bUrls);
+                        m4bMergedCount++;
+                    }
+                    stage06Writer.write(audiobook);
+                    if (isCatalogWorthy(audiobook)) {
+                        goodRecordCount++;
+                        stage07Writer.write(audiobook);
+                        stage07FormattedWriter.write(audiobook);
+                    } else {
+                        badRecordCount++;
+                    }
+                }
+            }
+            urlKeysProcessed.retainAll(m4bUrlMap.keySet());
+            int missingFromStage3Count 
+                    = m4bUrlMap.size() - urlKeysProcessed.size();
+            
+            /** downstream stages are checked first: an upstream stage may
+             * still be blocked on a queue if a downstream stage failed */
+            for (int i = stageFutures.size() - 1; i >= 0; i--) {
+                try {
+                    stageFutures.get(i).get();
+                } catch (ExecutionException e) {
+                    rethrowPipelineException(e);
+                }
+            }
+            for (File streamedXmlFile : streamedXmlFiles) {
+                CatalogMarshaller.moveIntoPlace(CatalogMarshaller
+                        .getTemporaryFile(streamedXmlFile), streamedXmlFile);
+            }
+            streamingCompleted = true;
+            
+            System.out.println("=============================");
+            System.out.println("Streaming Stages 1, 2, 3, 6, and 7 completed. " 
+                                + new Timestamp(System.currentTimeMillis()));
+            System.out.println("=============================");
+            System.out.println("Stage 1: " + stage01Count.get() 
+                                        + " audiobooks harvested.");
+            if (stage01Journal.getReplayedCount() > 0) {
+                System.out.println(stage01Journal.getReplayedCount() 
+                        + " IDs restored from Stage 1 journal.");
+            }
+            System.out.println("Stage 2:");
+            stage02Tally.printSummary();
+            System.out.println("Stage 3:");
+            stage03Tally.printSummary();
+            System.out.println("Stage 6:");
+            System.out.println(m4bMergedCount 
+                    + " audiobooks given M4B metadata from stage 4 records.");
+            System.out.println(missingFromStage3Count + " records from stage 4 " 
+                    + "processing not found in master (stage 3) catalog.");
+            System.out.println(noLibrivoxUrlCount
+                    + " audiobooks without LibriVox URL removed from processing.");
+            System.out.println(duplicateUrlCount
+                    + " audiobooks with duplicate LibriVox URL removed from processing.");
+            System.out.println("Stage 7:");
+            System.out.println(goodRecordCount 
+                    + " records with LibriVox or Internet Archive URLs kept in catalog.");
+            System.out.println(badRecordCount 
+                    + " records without LibriVox or Internet Archive URLs removed from catalog.");
+        } finally {
+            executor.shutdownNow();
+            stage01Journal.close();
+            stage02Journal.close();
+            stage03Journal.close();
+            saveAuthorCache(currentBuildPath);
+            if (!streamingCompleted) {
+                for (File streamedXmlFile : streamedXmlFiles) {
+                    CatalogMarshaller.getTemporaryFile(streamedXmlFile).delete();
+                }
+            }
+        }
+        stage01Journal.delete();
+        stage02Journal.delete();
+        stage03Journal.delete();
+        System.out.println(HttpFetcher.getStatistics());
+        System.out.println(RequestPolicy.getStatistics());
+        writeMetrics(currentBuildPath);
+        System.out.println("** COMPLETED STREAMING ASSEMBLY OF CATALOG ** "
+                            + new Timestamp(System.currentTimeMillis()));
+    }
+    
+    /** Writes the {@link AssemblyMetrics} of an assembly to the build folder. */
+    private static void writeMetrics (String currentBuildPath) throws IOException {
+        File metricsFile = Paths.get(currentBuildPath, METRICS_FILE_NAME).toFile();
+        AssemblyMetrics.writeJson(metricsFile);
+        System.out.println("Assembly metrics written to: " + metricsFile);
+    }
+    
+    /** Loads the author cache and (if {@link #authorPrefetch}) seeds the
+     * {@link AuthorResolver} with the authors of the Stage 1 catalog. */
+    private static void prepareAuthorResolver 
+                        (String currentBuildPath, Catalog stage01Catalog)
+            throws JAXBException {
+        loadAuthorCache(currentBuildPath);
+        if (authorPrefetch) {
+            System.out.println(AuthorResolver.seed(stage01Catalog) 
+                    + " authors of Stage 1 audiobooks given to author resolver.");
+        }
+    }
+    
+    /** Author records resolved in an earlier run are reused, so that the
+     * LibriVox API is called only for authors not previously encountered. */
+    private static void loadAuthorCache (String currentBuildPath)
+            throws JAXBException {
+        File authorCacheFile 
+                = Paths.get(currentBuildPath, AUTHOR_CACHE_FILE_NAME).toFile();
+        int loadedCount = AuthorResolver.load(authorCacheFile);
+        if (loadedCount > 0) {
+            System.out.println(loadedCount + " authors loaded from " 
+                    + authorCacheFile.getName() + ".");
+        }
+    }
+    
+    private static void saveAuthorCache (String currentBuildPath)
+            throws JAXBException {
+        AuthorResolver.save
+            (Paths.get(currentBuildPath, AUTHOR_CACHE_FILE_NAME).toFile());
+    }
+    
+    /** Marks the end of the stream of audiobooks passed between stages. */
+    private static final Audiobook END_OF_STREAM = new Audiobook();
+    
+    private static void rethrowPipelineException (ExecutionException e)
+            throws JAXBException, IllegalAccessException, 
+                    RemoteApiProcessingException, IOException, ParseException,
+                    InterruptedException {
+        Throwable cause = e.getCause();
+        if (cause instanceof JAXBException) {
+            throw (JAXBException) cause;
+        } else if (cause instanceof IllegalAccessException) {
+            throw (IllegalAccessException) cause;
+        } else if (cause instanceof RemoteApiProcessingException) {
+            throw (RemoteApiProcessingException) cause;
+        } else if (cause instanceof IOException) {
+            throw (IOException) cause;
+        } else if (cause instanceof ParseException) {
+            throw (ParseException) cause;
+        } else if (cause instanceof InterruptedException) {
+            throw (InterruptedException) cause;
+        } else if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        throw new IllegalStateException(cause);
+    }
+    
+    protected static ThreadFactory getDaemonThreadFactory (String namePrefix) {
+        return new ThreadFactory() {
+            private final AtomicInteger threadNumber = new AtomicInteger();
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, 
+                                namePrefix + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+    
+    private static Catalog loadCompletedStage (int stageNumber, File stageXmlFile)
+            throws JAXBException, IOException {
+        System.out.println("=============================");
+        System.out.println("Stage " + stageNumber 
+                + " previously completed; loading results from " 
+                + stageXmlFile.getName() + ". "
+                + new Timestamp(System.currentTimeMillis()));
+        System.out.println("=============================");
+        return CatalogMarshaller.unmarshalCatalogFromXml(stageXmlFile);
+    }
+    
     /** STAGE 1: Extract all available metadata for each work by accessing
      * the LibriVox API.
      * Important note: when the "offset" and "limit" options are used with the 
@@ -156,14 +743,67 @@ public class CatalogAssembler {
      * @throws javax.xml.bind.JAXBException 
      * @throws java.net.MalformedURLException 
      * @throws java.lang.InterruptedException 
+     * @throws java.io.IOException 
      */
     protected static Catalog assembleCatalogStage01 (Catalog currentCatalog, 
                                                         int restartId, 
                                                         int processingLimit) 
-            throws JAXBException, MalformedURLException, InterruptedException {
-        final String LV_API_CALL
-            = "https://librivox.org/api/feed/audiobooks/?id=%s&extended=1&format=xml";
-        String apiCallString;
+            throws JAXBException, MalformedURLException, InterruptedException,
+                    IOException {
+        return assembleCatalogStage01
+                    (currentCatalog, restartId, processingLimit, LV_API_CALL);
+    }
+    
+    /** STAGE 1 (as above), with the LibriVox API call template supplied by
+     * the caller, so that processing may be directed to a local stub server
+     * for testing. The template must contain a single "%s" placeholder for
+     * the audiobook ID.
+     * When {@link #stage01ThreadCount} is greater than 1, API calls are 
+     * issued concurrently by a bounded pool of worker threads; in all cases
+     * the issuing of calls is throttled by {@link #requestsPerSecond}, and
+     * results are appended to the catalog in ascending ID order.
+     * @param currentCatalog
+     * @param restartId
+     * @param processingLimit
+     * @param apiCallTemplate
+     * @return 
+     * @throws javax.xml.bind.JAXBException 
+     * @throws java.net.MalformedURLException 
+     * @throws java.lang.InterruptedException 
+     * @throws java.io.IOException 
+     */
+    protected static Catalog assembleCatalogStage01 (Catalog currentCatalog, 
+                                                        int restartId, 
+                                                        int processingLimit,
+                                                        String apiCallTemplate) 
+            throws JAXBException, MalformedURLException, InterruptedException,
+                    IOException {
+        return assembleCatalogStage01(currentCatalog, restartId, 
+                                        processingLimit, apiCallTemplate, null);
+    }
+    
+    /** STAGE 1 (as above), with the result of each probed ID recorded in the
+     * submitted {@link StageJournal} (if not null). IDs already recorded in 
+     * the journal (i.e., probed before a crash or cancel) are not requested 
+     * from the LibriVox API again; their journaled results are used instead.
+     * @param currentCatalog
+     * @param restartId
+     * @param processingLimit
+     * @param apiCallTemplate
+     * @param journal
+     * @return 
+     * @throws javax.xml.bind.JAXBException 
+     * @throws java.net.MalformedURLException 
+     * @throws java.lang.InterruptedException 
+     * @throws java.io.IOException 
+     */
+    protected static Catalog assembleCatalogStage01 (Catalog currentCatalog, 
+                                                        int restartId, 
+                                                        int processingLimit,
+                                                        String apiCallTemplate,
+                                                        StageJournal journal) 
+            throws JAXBException, MalformedURLException, InterruptedException,
+                    IOException {
         String rePrefix = "";
         Catalog lvCatalog = new Catalog();
         int startingCatalogSize = 0;
@@ -175,46 +815,50 @@ public class CatalogAssembler {
         if (restartId == 0) {
             restartId = 1;
         }
+        int endId = MAX_LIBRIVOX_ID;
+        if (processingLimit > 0) {
+            endId = Math.min(MAX_LIBRIVOX_ID, restartId + processingLimit - 1);
+        }
+        if (shardCount > 1) {
+            int shardSize = (MAX_LIBRIVOX_ID + shardCount - 1) / shardCount;
+            restartId = Math.max(restartId, (shardIndex - 1) * shardSize + 1);
+            endId = Math.min(endId, shardIndex * shardSize);
+        }
+        int threadCount = Math.max(1, stage01ThreadCount);
+        RequestRateLimiter rateLimiter = new RequestRateLimiter(requestsPerSecond);
         
         System.out.println("==============================");
         System.out.println("Stage 1 processing " + rePrefix + "initiated. " 
                             + new Timestamp(System.currentTimeMillis()));
+        if (shardCount > 1) {
+            System.out.println("Shard " + shardIndex + " of " + shardCount 
+                    + ": processing IDs " + restartId + " through " + endId);
+        }
         System.out.println("Processing starting at ID = " + restartId);
         if (processingLimit != 0) {
             System.out.println("Processing limit = " + processingLimit);
         }
+        if (threadCount > 1) {
+            System.out.println("Concurrent API calls = " + threadCount);
+        }
+        if (!rateLimiter.isUnlimited()) {
+            System.out.println("API calls per second limited to " + requestsPerSecond);
+        }
+        if (journal != null && journal.getReplayedCount() > 0) {
+            System.out.println(journal.getReplayedCount() 
+                    + " IDs restored from Stage 1 journal.");
+        }
         System.out.println("==============================");
         
-        int processingCount = 0;
-        for (int idCount = restartId ; idCount <= MAX_LIBRIVOX_ID ; idCount++ ) {
-            if (Thread.interrupted()) { throw new InterruptedException(); }
-            apiCallString = String.format(LV_API_CALL, idCount);
-            try {
-                Catalog apiCatalog 
-                    = CatalogMarshaller.unmarshalCatalogFromXml(apiCallString);
-                lvCatalog.append(apiCatalog);
-            } catch (JAXBException e) { 
-                /** FileNotFoundException occurs if no record exists for a 
-                 * requested ID. This occurs many times during normal processing. */
-                if (!(e.getLinkedException() instanceof FileNotFoundException)) {
-                    throw e;
-                }
-            }
-            
-            int workCount = lvCatalog.audiobooks.size() - startingCatalogSize;
-            if ( workCount % 100 == 0 && workCount > 0 ) {
-                System.out.println(workCount + " audiobooks processed so far. "
-                                + new Timestamp(System.currentTimeMillis()));
-            }
-            if (processingLimit > 0
-                    && ++processingCount >= processingLimit) {
-                break;
-            }
-        }
+        final Catalog targetCatalog = lvCatalog;
+        harvestStage01(apiCallTemplate, restartId, endId, threadCount, 
+                rateLimiter, journal, currentCatalog, (key, idCatalog) -> {
+                    targetCatalog.append(idCatalog);
+                });
 
         lvCatalog.sortAudiobooks();
-        String highestId 
-                = lvCatalog.audiobooks.get(lvCatalog.audiobooks.size() - 1).getId();
+        String highestId = lvCatalog.audiobooks.isEmpty() ? "none" 
+                : lvCatalog.audiobooks.get(lvCatalog.audiobooks.size() - 1).getId();
         
         // use standard Java logging facilities for these messages?
         System.out.println("=============================");
@@ -228,8 +872,222 @@ public class CatalogAssembler {
         return lvCatalog;
     }
     
-    protected static Catalog assembleCatalogStage01 (Catalog currentCatalog) 
+    /** Receives the Stage 1 result for each probed ID, in ascending ID order. */
+    private interface Stage01Sink {
+        void accept (String key, Catalog idCatalog) 
+                throws IOException, JAXBException, InterruptedException;
+    }
+    
+    /** Issues Stage 1 API calls for IDs startId through endId, either 
+     * sequentially or (if threadCount is greater than 1) from a bounded
+     * pool of worker threads, with at most 
+     * {@link #stage01IdsInFlightPerThread} IDs per thread in flight at any
+     * time. Results are passed to the sink strictly in 
+     * ascending ID order (each ID's result is awaited in turn), so output is
+     * identical to that of sequential processing. IDs recorded in the journal
+     * (if not null) are not requested again; newly-fetched results are 
+     * recorded in the journal before being passed to the sink. 
+     * If {@link #adaptiveIdScan} is true, processing is passed to 
+     * {@link #harvestStage01Adaptive}, with any catalog of previously 
+     * retrieved audiobooks (knownCatalog) used to seed the scan. */
+    private static void harvestStage01 (String apiCallTemplate, 
+                        int startId, int endId, int threadCount, 
+                        RequestRateLimiter rateLimiter, StageJournal journal,
+                        Catalog knownCatalog, Stage01Sink sink)
+            throws JAXBException, MalformedURLException, InterruptedException,
+                    IOException {
+        if (adaptiveIdScan) {
+            harvestStage01Adaptive(apiCallTemplate, startId, endId, threadCount,
+                                    rateLimiter, journal, knownCatalog, sink);
+            return;
+        }
+        if (threadCount == 1) {
+            for (int idCount = startId ; idCount <= endId ; idCount++ ) {
+                if (Thread.interrupted()) { throw new InterruptedException(); }
+                String key = String.valueOf(idCount);
+                if (journal != null && journal.isProcessed(key)) {
+                    sink.accept(key, journal.getReplayedRecord(key));
+                    continue;
+                }
+                rateLimiter.acquire();
+                Catalog idCatalog = fetchStage01Catalog(apiCallTemplate, idCount);
+                if (journal != null) {
+                    journal.append(key, idCatalog);
+                }
+                sink.accept(key, idCatalog);
+            }
+            return;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool
+                        (threadCount, getDaemonThreadFactory("stage01-worker-"));
+        int windowSize = threadCount * Math.max(1, stage01IdsInFlightPerThread);
+        /* futures of the IDs submitted but not yet passed to the sink, in 
+         * ascending ID order (null for an ID restored from the journal) */
+        Deque<Future<Catalog>> window = new LinkedList<>();
+        int nextSubmittedId = startId;
+        try {
+            for (int id = startId ; id <= endId ; id++ ) {
+                while (nextSubmittedId <= endId && window.size() < windowSize) {
+                    final int submittedId = nextSubmittedId++;
+                    if (journal != null 
+                            && journal.isProcessed(String.valueOf(submittedId))) {
+                        window.addLast(null);
+                        continue;
+                    }
+                    window.addLast(executor.submit(() -> {
+                        rateLimiter.acquire();
+                        return fetchStage01Catalog(apiCallTemplate, submittedId);
+                    }));
+                }
+                if (Thread.interrupted()) { throw new InterruptedException(); }
+                String key = String.valueOf(id);
+                Future<Catalog> future = window.removeFirst();
+                if (future == null) {
+                    sink.accept(key, journal.getReplayedRecord(key));
+                    continue;
+                }
+                Catalog idCatalog = getStage01Result(future);
+                if (journal != null) {
+                    journal.append(key, idCatalog);
+                }
+                sink.accept(key, idCatalog);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    /** Issues Stage 1 API calls for the IDs planned by an 
+     * {@link AdaptiveIdScanner}, one window (and its back-fill) at a time, 
+     * the calls for each window being issued concurrently if threadCount is
+     * greater than 1. Results are journaled and passed to the sink as in 
+     * {@link #harvestStage01}, in ascending ID order; IDs not probed are 
+     * not passed to the sink. */
+    private static void harvestStage01Adaptive (String apiCallTemplate, 
+                        int startId, int endId, int threadCount, 
+                        RequestRateLimiter rateLimiter, StageJournal journal,
+                        Catalog knownCatalog, Stage01Sink sink)
+            throws JAXBException, MalformedURLException, InterruptedException,
+                    IOException {
+        AdaptiveIdScanner scanner = new AdaptiveIdScanner(startId, endId);
+        scanner.seed(knownCatalog);
+        ExecutorService executor = (threadCount == 1) ? null 
+                : Executors.newFixedThreadPool
+                        (threadCount, getDaemonThreadFactory("stage01-worker-"));
+        try {
+            int[] probes;
+            while ((probes = scanner.nextProbes()) != null) {
+                if (Thread.interrupted()) { throw new InterruptedException(); }
+                TreeMap<Integer,Catalog> results = new TreeMap<>();
+                Set<Integer> replayedIds = new HashSet<>();
+                fetchStage01Catalogs(apiCallTemplate, probes, executor, 
+                                rateLimiter, journal, results, replayedIds);
+                int[] backFillIds = scanner.recordProbeResults
+                                    (probes, getLiveFlags(probes, results));
+                if (backFillIds.length > 0) {
+                    fetchStage01Catalogs(apiCallTemplate, backFillIds, executor, 
+                                rateLimiter, journal, results, replayedIds);
+                    scanner.recordBackFillResults
+                            (backFillIds, getLiveFlags(backFillIds, results));
+                }
+                for (Map.Entry<Integer,Catalog> result : results.entrySet()) {
+                    String key = String.valueOf(result.getKey());
+                    if (journal != null 
+                            && !replayedIds.contains(result.getKey())) {
+                        journal.append(key, result.getValue());
+                    }
+                    sink.accept(key, result.getValue());
+                }
+            }
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+        System.out.println(scanner.getStatistics());
+    }
+    
+    /** Places the Stage 1 result for each ID in the results map, taking 
+     * journaled results (whose IDs are added to replayedIds) in preference
+     * to API calls, which are issued via the executor if it is not null. */
+    private static void fetchStage01Catalogs (String apiCallTemplate, 
+                        int[] ids, ExecutorService executor, 
+                        RequestRateLimiter rateLimiter, StageJournal journal,
+                        Map<Integer,Catalog> results, Set<Integer> replayedIds)
             throws JAXBException, MalformedURLException, InterruptedException {
+        Map<Integer,Future<Catalog>> futures = new TreeMap<>();
+        for (int id : ids) {
+            String key = String.valueOf(id);
+            if (journal != null && journal.isProcessed(key)) {
+                results.put(id, journal.getReplayedRecord(key));
+                replayedIds.add(id);
+            } else if (executor == null) {
+                rateLimiter.acquire();
+                results.put(id, fetchStage01Catalog(apiCallTemplate, id));
+            } else {
+                futures.put(id, executor.submit(() -> {
+                    rateLimiter.acquire();
+                    return fetchStage01Catalog(apiCallTemplate, id);
+                }));
+            }
+        }
+        for (Map.Entry<Integer,Future<Catalog>> future : futures.entrySet()) {
+            results.put(future.getKey(), getStage01Result(future.getValue()));
+        }
+    }
+    
+    private static boolean[] getLiveFlags 
+                                (int[] ids, Map<Integer,Catalog> results) {
+        boolean[] live = new boolean[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            Catalog idCatalog = results.get(ids[i]);
+            live[i] = (idCatalog != null && !idCatalog.audiobooks.isEmpty());
+        }
+        return live;
+    }
+    
+    private static Catalog getStage01Result (Future<Catalog> future)
+            throws JAXBException, MalformedURLException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof JAXBException) {
+                throw (JAXBException) e.getCause();
+            } else if (e.getCause() instanceof MalformedURLException) {
+                throw (MalformedURLException) e.getCause();
+            } else if (e.getCause() instanceof InterruptedException) {
+                throw (InterruptedException) e.getCause();
+            } else if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+    
+    /** Unmarshals the API output for a single ID; returns null if no record
+     * exists for the requested ID. */
+    private static Catalog fetchStage01Catalog (String apiCallTemplate, int id) 
+            throws JAXBException, MalformedURLException {
+        URL url = new URL(String.format(apiCallTemplate, id));
+        try {
+            return CatalogMarshaller.unmarshalCatalogFromXml(url, STAGE01_METRICS);
+        } catch (JAXBException e) { 
+            /** FileNotFoundException occurs if no record exists for a 
+             * requested ID. This occurs many times during normal processing. */
+            if (!(e.getLinkedException() instanceof FileNotFoundException)) {
+                AssemblyMetrics.recordError(STAGE01_METRICS, 
+                        (e.getLinkedException() != null) ? e.getLinkedException() : e);
+                throw e;
+            }
+        } finally {
+            AssemblyMetrics.recordRecord(STAGE01_METRICS);
+        }
+        return null;
+    }
+    
+    protected static Catalog assembleCatalogStage01 (Catalog currentCatalog) 
+            throws JAXBException, MalformedURLException, InterruptedException,
+                    IOException {
         String lastId 
                 = currentCatalog.audiobooks.get(currentCatalog.audiobooks.size() - 1).getId();
         int restartId = Integer.parseInt(lastId) + 1;
@@ -237,7 +1095,8 @@ public class CatalogAssembler {
     }
 
     protected static Catalog assembleCatalogStage01 (int restartId, int processingLimit) 
-            throws JAXBException, MalformedURLException, InterruptedException {
+            throws JAXBException, MalformedURLException, InterruptedException,
+                    IOException {
         return assembleCatalogStage01(null, restartId, processingLimit);
     }
     
@@ -251,169 +1110,262 @@ public class CatalogAssembler {
      * @throws javax.xml.bind.JAXBException 
      * @throws org.commonvox.le_catalog.RemoteApiProcessingException 
      * @throws java.lang.InterruptedException 
+     * @throws java.io.IOException 
      */
     protected static Catalog assembleCatalogStage02 (Catalog catalog)
             throws IllegalAccessException, JAXBException, 
-                    RemoteApiProcessingException, InterruptedException {
-        int audiobooksProcessedCount = 0;
-        int audiobooksCoverArtUrlFoundCount = 0;
-        int audiobooksMultipleAuthorsCount = 0;
-        int audiobooksWithoutLibriVoxUrlCount = 0;
-        int audiobooksWithExceptionsCount = 0;
-        int metadataExtractionExceptionCount = 0;
-        int ioExceptionCount = 0;
-        Audiobook audiobookFragment = null;
-        List<Section> sectionsWithAuthorAndTextMetadata;
+                    RemoteApiProcessingException, InterruptedException,
+                    IOException {
+        return assembleCatalogStage02(catalog, null);
+    }
+    
+    /** STAGE 2 (as above), with each processed audiobook recorded in the
+     * submitted {@link StageJournal} (if not null). Audiobooks already 
+     * recorded in the journal (i.e., processed before a crash or cancel)
+     * are restored from the journal rather than processed again.
+     * @param catalog
+     * @param journal
+     * @return 
+     * @throws java.lang.IllegalAccessException 
+     * @throws javax.xml.bind.JAXBException 
+     * @throws org.commonvox.le_catalog.RemoteApiProcessingException 
+     * @throws java.lang.InterruptedException 
+     * @throws java.io.IOException 
+     */
+    protected static Catalog assembleCatalogStage02 
+                                    (Catalog catalog, StageJournal journal)
+            throws IllegalAccessException, JAXBException, 
+                    RemoteApiProcessingException, InterruptedException,
+                    IOException {
+        Stage02Tally tally = new Stage02Tally();
         
         System.out.println("=============================");
         System.out.println("Stage 2 processing initiated. " 
                             + new Timestamp(System.currentTimeMillis()));
         System.out.println("=============================");
         
-        audiobookLoop:
-        for (Audiobook audiobook : catalog.audiobooks) {
+        for (ListIterator<Audiobook> audiobookIterator 
+                        = catalog.audiobooks.listIterator(); 
+                audiobookIterator.hasNext(); ) {
             if (Thread.interrupted()) { throw new InterruptedException(); }
-            audiobooksProcessedCount++;
-            if (audiobooksProcessedCount % 100 == 0) {
-                System.out.println(audiobooksProcessedCount 
-                        + " audiobooks processed so far. "
-                        + new Timestamp(System.currentTimeMillis()));
-            }
-            if (audiobook.getId() == null || audiobook.getId().equals("")) {
+            Audiobook audiobook = audiobookIterator.next();
+            tally.audiobooksProcessedCount++;
+            AssemblyMetrics.recordRecord(STAGE02_METRICS);
+            if (restoreFromJournal(journal, audiobookIterator, audiobook)) {
+                tally.restoredFromJournalCount++;
                 continue;
             }
-            if (audiobook.getUrlLibrivox() != null) {
-                for (String invalidUrlPrefix : INVALID_LIBRIVOX_URL_PREFIXES) {
-                    if (audiobook.getUrlLibrivox().startsWith(invalidUrlPrefix)) {
-                        audiobook.setUrlLibrivox(null);
-                        break;
-                    }
+            processStage02Audiobook(audiobook, tally);
+            appendToJournal(journal, audiobook);
+        }
+        System.out.println("=============================");
+        System.out.println("Stage 2 processing completed. "
+                        + new Timestamp(System.currentTimeMillis()));
+        tally.printSummary();
+        return catalog;
+    }
+    
+    /** Performs Stage 2 processing for a single audiobook. */
+    private static void processStage02Audiobook 
+                                (Audiobook audiobook, Stage02Tally tally)
+            throws IllegalAccessException, JAXBException, 
+                    RemoteApiProcessingException {
+        if (!isStage02Eligible(audiobook, tally)) {
+            return;
+        }
+        applyStage02Result(audiobook, fetchStage02Result(audiobook), tally);
+    }
+    
+    /** Clears an invalid LibriVox URL of the audiobook.
+     * @return false if the audiobook is not to undergo Stage 2 processing */
+    private static boolean isStage02Eligible 
+                                (Audiobook audiobook, Stage02Tally tally) {
+        if (audiobook.getId() == null || audiobook.getId().equals("")) {
+            return false;
+        }
+        if (audiobook.getUrlLibrivox() != null) {
+            for (String invalidUrlPrefix : INVALID_LIBRIVOX_URL_PREFIXES) {
+                if (audiobook.getUrlLibrivox().startsWith(invalidUrlPrefix)) {
+                    audiobook.setUrlLibrivox(null);
+                    break;
                 }
             }
-            if (audiobook.getUrlLibrivox() == null 
-                        || audiobook.getUrlLibrivox().isEmpty()) {
-                audiobooksWithoutLibriVoxUrlCount++;
-                continue;
+        }
+        if (audiobook.getUrlLibrivox() == null 
+                    || audiobook.getUrlLibrivox().isEmpty()) {
+            tally.audiobooksWithoutLibriVoxUrlCount++;
+            return false;
+        }
+        return true;
+    }
+    
+    /** Metadata retrieved from the LibriVox webpage of an audiobook, not yet
+     * applied to the audiobook. */
+    private static class Stage02Result {
+        Audiobook audiobookFragment;
+        Exception coverArtException;
+        boolean multipleAuthors = false;
+        List<Section> sectionsWithAuthorAndTextMetadata;
+        Exception sectionsException;
+    }
+    
+    /** Retrieves Stage 2 metadata for the audiobook without modifying it, so
+     * that it may be invoked in a thread other than that which applies the 
+     * result. */
+    private static Stage02Result fetchStage02Result (Audiobook audiobook)
+            throws IllegalAccessException, JAXBException, 
+                    RemoteApiProcessingException {
+        Stage02Result result = new Stage02Result();
+        try {
+            result.audiobookFragment 
+                    = extractCoverArtUrls(audiobook.getUrlLibrivox());
+        } catch (MetadataExtractionException | IOException e) {
+            result.coverArtException = e;
+        }
+        for (Author author : audiobook.getAuthors()) {
+            if (!author.getId().equals("18")) {
+                break;
             }
+            result.multipleAuthors = true;
             try {
-                audiobookFragment = extractCoverArtUrls(audiobook.getUrlLibrivox());
-                if (audiobookFragment == null 
-                        || audiobookFragment.getUrlCoverArt() == null
-                        || audiobookFragment.getUrlCoverArt().isEmpty()) {
-                    throw new MetadataExtractionException
-                        ("No CoverArt URL found for audiobook" 
-                            + " with ID = " + audiobook.getId());
-                } else {
-                    audiobooksCoverArtUrlFoundCount++;
-                    audiobook.setUrlCoverArt(audiobookFragment.getUrlCoverArt());
-                }
+                result.sectionsWithAuthorAndTextMetadata 
+                        = extractAuthorAndUrlTextMetadata(audiobook.getUrlLibrivox());
             } catch (MetadataExtractionException | IOException e) {
-                    audiobooksWithExceptionsCount++;
-                    String exceptionLabel = "Exception";
-                    if (e instanceof MetadataExtractionException) {
-                        metadataExtractionExceptionCount++;
-                        exceptionLabel = METADATA_EXTRACTION_LABEL;
-                    } else if (e instanceof IOException) {
-                        ioExceptionCount++;
-                        exceptionLabel = IO_LABEL;
-                    }
-                    System.err.println
-                        (">>>> " + exceptionLabel + " problem encountered while" 
-                                + " processing audiobook with ID=" + audiobook.getId()
-                                + " with LibriVox Catalog webpage at URL: " 
-                                + audiobook.getUrlLibrivox());
-                    // e.printStackTrace();
-            }
-            for (Author author : audiobook.getAuthors()) {
-                if (!author.getId().equals("18")) {
-                    continue audiobookLoop;
-                }
-                audiobooksMultipleAuthorsCount++;
-                try {
-                    sectionsWithAuthorAndTextMetadata 
-                            = extractAuthorAndUrlTextMetadata(audiobook.getUrlLibrivox());
-                    if (sectionsWithAuthorAndTextMetadata.isEmpty() 
-                            || sectionsWithAuthorAndTextMetadata.size() 
-                                    != audiobook.getSections().size()) {
-                        throw new MetadataExtractionException
-                            ("Discrepancy in section count (a) via API and" 
-                                + " (b) via LV Catalog webpage for audiobook" 
-                                + " with ID = " + audiobook.getId());
-                    }
-                    int sectionIndex = 0;
-                    for (Section section : audiobook.getSections()) {
-                        section.merge(sectionsWithAuthorAndTextMetadata.get(sectionIndex));
-                        sectionIndex++;
-                    }
-
-                } catch (MetadataExtractionException | IOException e) {
-                    audiobooksWithExceptionsCount++;
-                    String exceptionLabel = "Exception";
-                    if (e instanceof MetadataExtractionException) {
-                        metadataExtractionExceptionCount++;
-                        exceptionLabel = METADATA_EXTRACTION_LABEL;
-                    } else if (e instanceof IOException) {
-                        ioExceptionCount++;
-                        exceptionLabel = IO_LABEL;
-                    }
-                    System.err.println
-                        (">>>> " + exceptionLabel + " problem encountered while" 
-                                + " processing audiobook with ID=" + audiobook.getId()
-                                + " with LibriVox Catalog webpage at URL: " 
-                                + audiobook.getUrlLibrivox());
-                    // e.printStackTrace();
-                }
-                break;
+                result.sectionsException = e;
+            }
+            break;
+        }
+        return result;
+    }
+    
+    private static void applyStage02Result 
+                (Audiobook audiobook, Stage02Result result, Stage02Tally tally)
+            throws IllegalAccessException {
+        Audiobook audiobookFragment = result.audiobookFragment;
+        List<Section> sectionsWithAuthorAndTextMetadata 
+                                    = result.sectionsWithAuthorAndTextMetadata;
+        if (result.coverArtException != null) {
+            tally.recordException(result.coverArtException, audiobook);
+        } else if (audiobookFragment == null 
+                || audiobookFragment.getUrlCoverArt() == null
+                || audiobookFragment.getUrlCoverArt().isEmpty()) {
+            tally.recordException(new MetadataExtractionException
+                    ("No CoverArt URL found for audiobook" 
+                        + " with ID = " + audiobook.getId()), audiobook);
+        } else {
+            tally.audiobooksCoverArtUrlFoundCount++;
+            audiobook.setUrlCoverArt(audiobookFragment.getUrlCoverArt());
+        }
+        if (!result.multipleAuthors) {
+            return;
+        }
+        tally.audiobooksMultipleAuthorsCount++;
+        if (result.sectionsException != null) {
+            tally.recordException(result.sectionsException, audiobook);
+        } else if (sectionsWithAuthorAndTextMetadata.isEmpty() 
+                || sectionsWithAuthorAndTextMetadata.size() 
+                        != audiobook.getSections().size()) {
+            tally.recordException(new MetadataExtractionException
+                    ("Discrepancy in section count (a) via API and" 
+                        + " (b) via LV Catalog webpage for audiobook" 
+                        + " with ID = " + audiobook.getId()), audiobook);
+        } else {
+            int sectionIndex = 0;
+            for (Section section : audiobook.getSections()) {
+                section.merge(sectionsWithAuthorAndTextMetadata.get(sectionIndex));
+                sectionIndex++;
             }
         }
-        System.out.println("=============================");
-        System.out.println("Stage 2 processing completed. "
-                        + new Timestamp(System.currentTimeMillis()));
-        System.out.println(audiobooksProcessedCount + " audiobooks processed.");
-        System.out.println(audiobooksCoverArtUrlFoundCount
-                + " audiobook cover art URLs found.");
-        System.out.println(audiobooksMultipleAuthorsCount 
-                + " audiobooks with multiple authors processed.");
-        System.out.println(audiobooksWithoutLibriVoxUrlCount 
-                + " audiobooks without valid LibriVox URL.");
-        System.out.println(metadataExtractionExceptionCount 
-                + " audiobooks with webpages from which metadata could not be extracted.");
-        System.out.println(ioExceptionCount 
-                + " audiobooks with webpages inaccessible.");
-        return catalog;
+    }
+    
+    /** Running counts of Stage 2 processing outcomes. */
+    private static class Stage02Tally {
+        int audiobooksProcessedCount = 0;
+        int audiobooksCoverArtUrlFoundCount = 0;
+        int audiobooksMultipleAuthorsCount = 0;
+        int audiobooksWithoutLibriVoxUrlCount = 0;
+        int audiobooksWithExceptionsCount = 0;
+        int metadataExtractionExceptionCount = 0;
+        int ioExceptionCount = 0;
+        int restoredFromJournalCount = 0;
+        final HttpResponseCache.Statistics cacheStatisticsAtStart 
+                                    = HttpFetcher.getCacheStatistics();
+        
+        void recordException (Exception e, Audiobook audiobook) {
+            audiobooksWithExceptionsCount++;
+            AssemblyMetrics.recordError(STAGE02_METRICS, e);
+            String exceptionLabel = "Exception";
+            if (e instanceof MetadataExtractionException) {
+                metadataExtractionExceptionCount++;
+                exceptionLabel = METADATA_EXTRACTION_LABEL;
+            } else if (e instanceof IOException) {
+                ioExceptionCount++;
+                exceptionLabel = IO_LABEL;
+            }
+            System.err.println
+                (">>>> " + exceptionLabel + " problem encountered while" 
+                        + " processing audiobook with ID=" + audiobook.getId()
+                        + " with LibriVox Catalog webpage at URL: " 
+                        + audiobook.getUrlLibrivox());
+            // e.printStackTrace();
+        }
+        
+        void printSummary () {
+            System.out.println(audiobooksProcessedCount + " audiobooks processed.");
+            if (restoredFromJournalCount > 0) {
+                System.out.println(restoredFromJournalCount
+                        + " audiobooks restored from Stage 2 journal.");
+            }
+            System.out.println(audiobooksCoverArtUrlFoundCount
+                    + " audiobook cover art URLs found.");
+            System.out.println(audiobooksMultipleAuthorsCount 
+                    + " audiobooks with multiple authors processed.");
+            System.out.println(AuthorResolver.getStatistics());
+            System.out.println(audiobooksWithoutLibriVoxUrlCount 
+                    + " audiobooks without valid LibriVox URL.");
+            System.out.println(metadataExtractionExceptionCount 
+                    + " audiobooks with webpages from which metadata could not be extracted.");
+            System.out.println(ioExceptionCount 
+                    + " audiobooks with webpages inaccessible.");
+            printCacheStatistics(cacheStatisticsAtStart);
+        }
     }
 
     protected static Catalog assembleCatalogStage03 (Catalog catalog) 
             throws IOException, ParseException, IllegalAccessException,
-                InterruptedException {
+                InterruptedException, JAXBException {
         return assembleCatalogStage03(catalog, false);
     }
     
+    protected static Catalog assembleCatalogStage03 (Catalog catalog, boolean overwrite) 
+            throws IOException, ParseException, IllegalAccessException,
+                InterruptedException, JAXBException {
+        return assembleCatalogStage03(catalog, overwrite, null);
+    }
+    
     /** STAGE 3: For each audiobook, retrieve the following from 
      * from the audiobook's Internet Archive webpage: (a) download-count, 
      * (b) cover art URLs, and (c) URLs for M4B files (which may be on pages 
      * in comments). Note that this method uses JSON parsing for data retrieval.
      * Since download-count metadata must be updated at regular intervals, this
      * method may be called in "overwrite" mode (via the boolean parameter).
+     * Each processed audiobook is recorded in the submitted 
+     * {@link StageJournal} (if not null); audiobooks already recorded in the 
+     * journal are restored from it rather than processed again.
      * @param catalog
      * @param overwrite
+     * @param journal
      * @return
      * @throws java.io.IOException
      * @throws java.text.ParseException
      * @throws java.lang.IllegalAccessException
-     * @throws java.lang.InterruptedException  */
-    protected static Catalog assembleCatalogStage03 (Catalog catalog, boolean overwrite) 
+     * @throws java.lang.InterruptedException  
+     * @throws javax.xml.bind.JAXBException  */
+    protected static Catalog assembleCatalogStage03 
+                    (Catalog catalog, boolean overwrite, StageJournal journal) 
             throws IOException, ParseException, IllegalAccessException,
-                InterruptedException {
-        final String JSON_LABEL = "JSON Parsing";
-        int audiobooksProcessedCount = 0;
-        int audiobooksBypassedCount = 0;
-        int audiobooksUpdatedCount = 0;
-        int noUrlCount = 0;
-        int exceptionCount = 0;
-        int ioExceptionCount = 0;
-        int jsonParsingExceptionCount = 0;
-        int sectionSizeDiscrepancyCount = 0;
+                InterruptedException, JAXBException {
+        Stage03Tally tally = new Stage03Tally(overwrite);
         String overwriteNotice = "";
         if (overwrite) {
             overwriteNotice = " in OVERWRITE mode";
@@ -423,112 +1375,413 @@ public class CatalogAssembler {
                 + ". " + new Timestamp(System.currentTimeMillis()));
         System.out.println("=============================");
         
-        audiobookLoop:
-        for (Audiobook audiobook : catalog.audiobooks) {
+        for (ListIterator<Audiobook> audiobookIterator 
+                        = catalog.audiobooks.listIterator(); 
+                audiobookIterator.hasNext(); ) {
             if (Thread.interrupted()) { throw new InterruptedException(); }
-            audiobooksProcessedCount++;
-            if (audiobooksProcessedCount % 100 == 0) {
-                System.out.println(audiobooksProcessedCount 
-                        + " audiobooks processed so far. "
-                        + new Timestamp(System.currentTimeMillis()));
+            Audiobook audiobook = audiobookIterator.next();
+            tally.audiobooksProcessedCount++;
+            AssemblyMetrics.recordRecord(STAGE03_METRICS);
+            if (restoreFromJournal(journal, audiobookIterator, audiobook)) {
+                tally.restoredFromJournalCount++;
+                continue;
+            }
+            processStage03Audiobook(audiobook, overwrite, tally);
+            appendToJournal(journal, audiobook);
+        }
+        System.out.println("=============================");
+        System.out.println("Stage 3 processing completed. " 
+                                + new Timestamp(System.currentTimeMillis()));
+        System.out.println("=============================");
+        tally.printSummary();
+        
+        return catalog;
+    }
+    
+    /** Performs Stage 3 processing for a single audiobook. */
+    private static void processStage03Audiobook 
+                (Audiobook audiobook, boolean overwrite, Stage03Tally tally)
+            throws ParseException, IllegalAccessException {
+        if (!isStage03Eligible(audiobook, overwrite, tally)) {
+            return;
+        }
+        applyStage03Result(audiobook, fetchStage03Result(audiobook, tally), tally);
+    }
+    
+    /** @return false if the audiobook is not to undergo Stage 3 processing */
+    private static boolean isStage03Eligible 
+                (Audiobook audiobook, boolean overwrite, Stage03Tally tally) {
+        if (!overwrite) {
+            if (audiobook.getDownloadCountInternetArchive() != 0) {
+                tally.audiobooksBypassedCount++;
+                return false;
+            }
+        }
+        if (audiobook.getUrlInternetArchive() == null 
+                || audiobook.getUrlInternetArchive().isEmpty()) {
+            tally.noUrlCount++;
+            return false;
+        }
+        return true;
+    }
+    
+    /** Metadata retrieved from the Internet Archive JSON of an audiobook, not
+     * yet applied to the audiobook. */
+    private static class Stage03Result {
+        Audiobook audiobookArchiveData;
+        Exception exception;
+    }
+    
+    /** Retrieves Stage 3 metadata for the audiobook without modifying it, so
+     * that it may be invoked in a thread other than that which applies the 
+     * result. */
+    private static Stage03Result fetchStage03Result 
+                                    (Audiobook audiobook, Stage03Tally tally)
+            throws ParseException {
+        Stage03Result result = new Stage03Result();
+        try {
+            result.audiobookArchiveData = extractAudiobookMetadataFromIA
+                                    (audiobook.getUrlInternetArchive(), tally);
+        } catch (IOException | JsonParsingException e) {
+            result.exception = e;
+        }
+        return result;
+    }
+    
+    private static void applyStage03Result 
+                (Audiobook audiobook, Stage03Result result, Stage03Tally tally)
+            throws IllegalAccessException {
+        if (result.exception != null) {
+            tally.recordException(result.exception, audiobook);
+            return;
+        }
+        Audiobook audiobookArchiveData = result.audiobookArchiveData;
+        boolean unequalSectionsSizes = false;
+        if (audiobook.getSections() == null || audiobook.getSections().isEmpty()) {
+            if (!audiobookArchiveData.getSections().isEmpty()) {
+                unequalSectionsSizes = true;
+                audiobook.setSections(audiobookArchiveData.getSections());
+            }
+        } else if (!audiobookArchiveData.getSections().isEmpty()) {
+            if (audiobook.getSections().size()
+                    != audiobookArchiveData.getSections().size()) {
+                unequalSectionsSizes = true;
+            }
+            int sectionCount = 
+                (audiobook.getSections().size() 
+                        <= audiobookArchiveData.getSections().size())?
+                audiobook.getSections().size()
+                    : audiobookArchiveData.getSections().size();
+            for (int i=0; i < sectionCount; i++) {
+                audiobook.getSections().get(i).setUrlForListening 
+                    (audiobookArchiveData.getSections()
+                                        .get(i).getUrlForListening());
+            }
+        }
+        if (unequalSectionsSizes) {
+            tally.sectionSizeDiscrepancyCount++;
+            System.out.println
+                ("** WARNING: Section list sizes differ between LV and IA "
+                        + "for audiobook: " + audiobook.getId());
+        }
+        audiobookArchiveData.setSections(null); // prevent overlay in merge
+
+        audiobook.merge(audiobookArchiveData);
+        /** clear displayTitle if extraneous */
+        if (audiobook.getTitle() != null 
+                && audiobook.getDisplayTitle() != null
+                && audiobook.getDisplayTitle().toLowerCase().trim()
+                        .equals(audiobook.getTitle().toLowerCase())) {
+            audiobook.setDisplayTitle(null);
+        } 
+
+        tally.audiobooksUpdatedCount++;
+    }
+    
+    /** Running counts of Stage 3 processing outcomes. */
+    private static class Stage03Tally {
+        final boolean overwrite;
+        int audiobooksProcessedCount = 0;
+        int audiobooksBypassedCount = 0;
+        int audiobooksUpdatedCount = 0;
+        int noUrlCount = 0;
+        int exceptionCount = 0;
+        int ioExceptionCount = 0;
+        int jsonParsingExceptionCount = 0;
+        int sectionSizeDiscrepancyCount = 0;
+        int restoredFromJournalCount = 0;
+        int jsonDocumentsParsedCount = 0;
+        int jsonParsingStoppedEarlyCount = 0;
+        long jsonCharactersParsedCount = 0;
+        long jsonCharactersParsedMax = 0;
+        final HttpResponseCache.Statistics cacheStatisticsAtStart 
+                                    = HttpFetcher.getCacheStatistics();
+        
+        Stage03Tally (boolean overwrite) {
+            this.overwrite = overwrite;
+        }
+        
+        void recordException (Exception e, Audiobook audiobook) {
+            final String JSON_LABEL = "JSON Parsing";
+            exceptionCount++;
+            AssemblyMetrics.recordError(STAGE03_METRICS, e);
+            String exceptionLabel = "Exception";
+            if (e instanceof JsonParsingException) {
+                jsonParsingExceptionCount++;
+                exceptionLabel = JSON_LABEL;
+            } else if (e instanceof IOException) {
+                ioExceptionCount++;
+                exceptionLabel = IO_LABEL;
+            }
+            System.err.println
+                (">>>> " + exceptionLabel + " problem encountered while" 
+                        + " processing audiobook with ID=" + audiobook.getId()
+                        + " with Internet Archive webpage at URL: " 
+                        + audiobook.getUrlInternetArchive());
+            e.printStackTrace();
+            //e.printStackTrace();
+        }
+        
+        void printSummary () {
+            System.out.println(audiobooksProcessedCount + " audiobooks processed.");
+            if (restoredFromJournalCount > 0) {
+                System.out.println(restoredFromJournalCount
+                        + " audiobooks restored from Stage 3 journal.");
             }
+            System.out.println(audiobooksUpdatedCount + " audiobooks updated.");
             if (!overwrite) {
-                if (audiobook.getDownloadCountInternetArchive() != 0) {
-                    audiobooksBypassedCount++;
-                    continue;
-                }
+                System.out.println(audiobooksBypassedCount + " audiobooks bypassed.");
             }
-            if (audiobook.getUrlInternetArchive() == null 
-                    || audiobook.getUrlInternetArchive().isEmpty()) {
-                noUrlCount++;
-                continue;
+            System.out.println(noUrlCount 
+                    + " audiobooks with no URL to an Internet Archive webpage.");
+            System.out.println(jsonParsingExceptionCount 
+                    + " audiobooks with webpages with JSON parsing exception.");
+            System.out.println(sectionSizeDiscrepancyCount 
+                    + " audiobooks with discrepancy in number of sections between " 
+                    + "LibriVox and Internet Archive.");
+            System.out.println(ioExceptionCount 
+                    + " audiobooks with webpages inaccessible.");
+            if (jsonDocumentsParsedCount > 0) {
+                System.out.println(jsonDocumentsParsedCount 
+                        + " Internet Archive JSON documents parsed ("
+                        + jsonParsingStoppedEarlyCount 
+                        + " stopped once all needed keys were found): "
+                        + jsonCharactersParsedCount + " characters read by parser, "
+                        + (jsonCharactersParsedCount / jsonDocumentsParsedCount)
+                        + " per item on average, " + jsonCharactersParsedMax 
+                        + " at most.");
             }
-            
-            try {
-                Audiobook audiobookArchiveData
-                    = extractAudiobookMetadataFromIA(audiobook.getUrlInternetArchive());
-                
-                boolean unequalSectionsSizes = false;
-                if (audiobook.getSections() == null || audiobook.getSections().isEmpty()) {
-                    if (!audiobookArchiveData.getSections().isEmpty()) {
-                        unequalSectionsSizes = true;
-                        audiobook.setSections(audiobookArchiveData.getSections());
-                    }
-                } else if (!audiobookArchiveData.getSections().isEmpty()) {
-                    if (audiobook.getSections().size()
-                            != audiobookArchiveData.getSections().size()) {
-                        unequalSectionsSizes = true;
-                    }
-                    int sectionCount = 
-                        (audiobook.getSections().size() 
-                                <= audiobookArchiveData.getSections().size())?
-                        audiobook.getSections().size()
-                            : audiobookArchiveData.getSections().size();
-                    for (int i=0; i < sectionCount; i++) {
-                        audiobook.getSections().get(i).setUrlForListening 
-                            (audiobookArchiveData.getSections()
-                                                .get(i).getUrlForListening());
-                    }
+            printCacheStatistics(cacheStatisticsAtStart);
+        }
+        
+        /** Synchronized, being invoked by fetching threads in fused 
+         * Stage 2 and 3 processing. */
+        synchronized void recordJsonParsed 
+                            (long charactersParsedCount, boolean stoppedEarly) {
+            jsonDocumentsParsedCount++;
+            jsonCharactersParsedCount += charactersParsedCount;
+            jsonCharactersParsedMax 
+                    = Math.max(jsonCharactersParsedMax, charactersParsedCount);
+            if (stoppedEarly) {
+                jsonParsingStoppedEarlyCount++;
+            }
+        }
+    }
+    
+    /** Prints HTTP cache activity since the submitted snapshot (if an 
+     * HTTP cache is in use). Note that in streaming assembly, stages run 
+     * concurrently, so activity of all stages is included. */
+    private static void printCacheStatistics 
+                        (HttpResponseCache.Statistics cacheStatisticsAtStart) {
+        HttpResponseCache.Statistics cacheStatistics 
+                                    = HttpFetcher.getCacheStatistics();
+        if (cacheStatistics != null && cacheStatisticsAtStart != null) {
+            System.out.println(cacheStatistics.since(cacheStatisticsAtStart));
+        }
+    }
+    
+    /** STAGES 2 AND 3, FUSED: performs Stage 2 and Stage 3 (not in overwrite
+     * mode) processing in a single pass over the catalog. For each 
+     * audiobook, its LibriVox webpage and its Internet Archive JSON are 
+     * retrieved concurrently, and both results are then applied to the 
+     * audiobook as one unit (the Stage 2 result first, as in separate 
+     * processing), the audiobook being journaled once both are applied. 
+     * Retrievals for up to {@link #enrichmentWindow} audiobooks are in
+     * progress at any time, while results are applied in catalog order; the
+     * elapsed time of the pass thus approaches that of the slower of the two
+     * hosts, rather than the sum of both. 
+     * No Stage 2 catalog results; audiobooks recorded in the submitted 
+     * journal (if not null) have completed both stages, and are restored 
+     * from it rather than processed again.
+     * @param catalog
+     * @param journal
+     * @return
+     * @throws java.lang.IllegalAccessException 
+     * @throws javax.xml.bind.JAXBException 
+     * @throws org.commonvox.le_catalog.RemoteApiProcessingException 
+     * @throws java.lang.InterruptedException 
+     * @throws java.io.IOException 
+     * @throws java.text.ParseException 
+     */
+    protected static Catalog assembleCatalogStages02And03 
+                                    (Catalog catalog, StageJournal journal)
+            throws IllegalAccessException, JAXBException, 
+                    RemoteApiProcessingException, InterruptedException,
+                    IOException, ParseException {
+        Stage02Tally stage02Tally = new Stage02Tally();
+        Stage03Tally stage03Tally = new Stage03Tally(false);
+        int window = Math.max(1, enrichmentWindow);
+        
+        System.out.println("=============================");
+        System.out.println("Stage 2 and 3 processing initiated (fused, with up to "
+                + window + " audiobooks in process). " 
+                + new Timestamp(System.currentTimeMillis()));
+        System.out.println("=============================");
+        
+        /* an audiobook in process may occupy two threads, one for each host */
+        ExecutorService executor = Executors.newFixedThreadPool
+                    (2 * window, getDaemonThreadFactory("enrichment-worker-"));
+        Deque<FusedEnrichment> enrichmentsInProcess = new ArrayDeque<>();
+        try {
+            for (ListIterator<Audiobook> audiobookIterator 
+                            = catalog.audiobooks.listIterator(); 
+                    audiobookIterator.hasNext(); ) {
+                if (Thread.interrupted()) { throw new InterruptedException(); }
+                Audiobook audiobook = audiobookIterator.next();
+                if (restoreFromJournal(journal, audiobookIterator, audiobook)) {
+                    /* counted as restored from the (Stage 3) journal once */
+                    stage02Tally.audiobooksProcessedCount++;
+                    stage03Tally.audiobooksProcessedCount++;
+                    stage03Tally.restoredFromJournalCount++;
+                    AssemblyMetrics.recordRecord(STAGE02_METRICS);
+                    AssemblyMetrics.recordRecord(STAGE03_METRICS);
+                    continue;
                 }
-                if (unequalSectionsSizes) {
-                    sectionSizeDiscrepancyCount++;
-                    System.out.println
-                        ("** WARNING: Section list sizes differ between LV and IA "
-                                + "for audiobook: " + audiobook.getId());
+                FusedEnrichment enrichment = new FusedEnrichment(audiobook);
+                if (isStage02Eligible(audiobook, stage02Tally)) {
+                    enrichment.stage02Future = executor.submit
+                                        (() -> fetchStage02Result(audiobook));
                 }
-                audiobookArchiveData.setSections(null); // prevent overlay in merge
-                
-                audiobook.merge(audiobookArchiveData);
-                /** clear displayTitle if extraneous */
-                if (audiobook.getTitle() != null 
-                        && audiobook.getDisplayTitle() != null
-                        && audiobook.getDisplayTitle().toLowerCase().trim()
-                                .equals(audiobook.getTitle().toLowerCase())) {
-                    audiobook.setDisplayTitle(null);
-                } 
-
-                audiobooksUpdatedCount++;
-            }
-            catch (IOException | JsonParsingException e) {
-                exceptionCount++;
-                String exceptionLabel = "Exception";
-                if (e instanceof JsonParsingException) {
-                    jsonParsingExceptionCount++;
-                    exceptionLabel = JSON_LABEL;
-                } else if (e instanceof IOException) {
-                    ioExceptionCount++;
-                    exceptionLabel = IO_LABEL;
+                if (isStage03Eligible(audiobook, false, stage03Tally)) {
+                    enrichment.stage03Future = executor.submit
+                            (() -> fetchStage03Result(audiobook, stage03Tally));
                 }
-                System.err.println
-                    (">>>> " + exceptionLabel + " problem encountered while" 
-                            + " processing audiobook with ID=" + audiobook.getId()
-                            + " with Internet Archive webpage at URL: " 
-                            + audiobook.getUrlInternetArchive());
-                e.printStackTrace();
-                //e.printStackTrace();
+                enrichmentsInProcess.addLast(enrichment);
+                if (enrichmentsInProcess.size() >= window) {
+                    completeFusedEnrichment(enrichmentsInProcess.removeFirst(),
+                                        stage02Tally, stage03Tally, journal);
+                }
+            }
+            while (!enrichmentsInProcess.isEmpty()) {
+                if (Thread.interrupted()) { throw new InterruptedException(); }
+                completeFusedEnrichment(enrichmentsInProcess.removeFirst(),
+                                        stage02Tally, stage03Tally, journal);
             }
+        } finally {
+            executor.shutdownNow();
         }
         System.out.println("=============================");
-        System.out.println("Stage 3 processing completed. " 
-                                + new Timestamp(System.currentTimeMillis()));
+        System.out.println("Stage 2 and 3 processing completed. "
+                        + new Timestamp(System.currentTimeMillis()));
         System.out.println("=============================");
-        System.out.println(audiobooksProcessedCount + " audiobooks processed.");
-        System.out.println(audiobooksUpdatedCount + " audiobooks updated.");
-        if (!overwrite) {
-            System.out.println(audiobooksBypassedCount + " audiobooks bypassed.");
-        }
-        System.out.println(noUrlCount 
-                + " audiobooks with no URL to an Internet Archive webpage.");
-        System.out.println(jsonParsingExceptionCount 
-                + " audiobooks with webpages with JSON parsing exception.");
-        System.out.println(sectionSizeDiscrepancyCount 
-                + " audiobooks with discrepancy in number of sections between " 
-                + "LibriVox and Internet Archive.");
-        System.out.println(ioExceptionCount 
-                + " audiobooks with webpages inaccessible.");
-        
+        System.out.println("Stage 2 (LibriVox webpages):");
+        stage02Tally.printSummary();
+        System.out.println("Stage 3 (Internet Archive JSON):");
+        stage03Tally.printSummary();
         return catalog;
     }
+    
+    /** An audiobook in fused Stage 2 and 3 processing, with its pending 
+     * retrievals (null for a stage in which it is not to be processed). */
+    private static class FusedEnrichment {
+        final Audiobook audiobook;
+        Future<Stage02Result> stage02Future;
+        Future<Stage03Result> stage03Future;
+        
+        FusedEnrichment (Audiobook audiobook) {
+            this.audiobook = audiobook;
+        }
+    }
+    
+    /** Awaits the retrievals of the audiobook, applies their results to it,
+     * and journals it. */
+    private static void completeFusedEnrichment (FusedEnrichment enrichment,
+                        Stage02Tally stage02Tally, Stage03Tally stage03Tally,
+                        StageJournal journal)
+            throws IllegalAccessException, JAXBException, 
+                    RemoteApiProcessingException, InterruptedException,
+                    IOException, ParseException {
+        Audiobook audiobook = enrichment.audiobook;
+        Stage02Result stage02Result = (enrichment.stage02Future == null) ? null
+                            : getEnrichmentResult(enrichment.stage02Future);
+        Stage03Result stage03Result = (enrichment.stage03Future == null) ? null
+                            : getEnrichmentResult(enrichment.stage03Future);
+        stage02Tally.audiobooksProcessedCount++;
+        AssemblyMetrics.recordRecord(STAGE02_METRICS);
+        if (stage02Result != null) {
+            applyStage02Result(audiobook, stage02Result, stage02Tally);
+        }
+        stage03Tally.audiobooksProcessedCount++;
+        AssemblyMetrics.recordRecord(STAGE03_METRICS);
+        if (stage03Result != null) {
+            applyStage03Result(audiobook, stage03Result, stage03Tally);
+        }
+        appendToJournal(journal, audiobook);
+    }
+    
+    private static <T> T getEnrichmentResult (Future<T> future)
+            throws IllegalAccessException, JAXBException, 
+                    RemoteApiProcessingException, InterruptedException,
+                    ParseException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IllegalAccessException) {
+                throw (IllegalAccessException) e.getCause();
+            } else if (e.getCause() instanceof JAXBException) {
+                throw (JAXBException) e.getCause();
+            } else if (e.getCause() instanceof RemoteApiProcessingException) {
+                throw (RemoteApiProcessingException) e.getCause();
+            } else if (e.getCause() instanceof ParseException) {
+                throw (ParseException) e.getCause();
+            } else if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+    
+    /** If the journal (when not null) holds a record for the audiobook, the
+     * audiobook is replaced (via the iterator) by its journaled version.
+     * @return true if the audiobook was restored from the journal */
+    private static boolean restoreFromJournal (StageJournal journal,
+                    ListIterator<Audiobook> audiobookIterator, Audiobook audiobook) {
+        Audiobook journaledAudiobook = getJournaledAudiobook(journal, audiobook);
+        if (journaledAudiobook == null) {
+            return false;
+        }
+        audiobookIterator.set(journaledAudiobook);
+        return true;
+    }
+    
+    /** @return the journaled version of the audiobook, or null if the journal
+     * (when not null) holds no record for the audiobook */
+    private static Audiobook getJournaledAudiobook 
+                                (StageJournal journal, Audiobook audiobook) {
+        if (journal == null || audiobook.getId() == null) {
+            return null;
+        }
+        return journal.getReplayedAudiobook(audiobook.getId());
+    }
+    
+    private static void appendToJournal (StageJournal journal, Audiobook audiobook)
+            throws IOException, JAXBException {
+        if (journal == null 
+                || audiobook.getId() == null || audiobook.getId().isEmpty()) {
+            return;
+        }
+        journal.append(audiobook);
+    }
 
     protected static Catalog assembleCatalogStage04 (String urlStringsFilePath)
             throws IOException, InterruptedException { 
@@ -549,53 +1802,11 @@ public class CatalogAssembler {
     protected static Catalog assembleCatalogStage04
             (boolean showBadLinks, String urlStringsFilePath)
                 throws IOException, InterruptedException {
-        /** searches for "li" element (non-greedily) */
-        final String REGEX_LI_ELEMENT = "\\<li .*?\\</li\\>";
-        /** searches inside "li" element for attribute 'class="gallerybox"' */
-        final String REGEX_GALLERYBOX = "class=\"gallerybox\"";
-        /** searches for "href" attribute with url in domain "librivox.org" 
-         * ("www." optional) */
-        final String REGEX_HREF_LIBRIVOX_DOMAIN
-                    = "href\\=\"https?://(www\\.)?librivox\\.org.*?\"";
-        /** searches for "href" attribute with url in domain "archive.org" 
-         * ("www." optional) */
-        final String REGEX_HREF_ARCHIVE_DOMAIN_M4B
-            = "href\\=\"https?://(www\\.)?archive\\.org.*?\\.m4b\"";
-        final String REGEX_P_ELEMENT_W_TITLE = "\\<p\\>.*?\\<";
-        final String REGEX_DIV_ELEMENT_W_GALLERYTEXT
-            = "\\<div class=\"gallerytext\"\\>\\<p\\>.*";
-        /** searches for "href" attribute with url in domain "wiki.librivox.org" */
-        final String REGEX_HREF_LIBRIVOX_WIKI_SUBDOMAIN
-            = "href\\=\"https?://wiki\\.librivox\\.org.*?\"";
-        
-        final Pattern liElementPattern 
-                = Pattern.compile(REGEX_LI_ELEMENT, Pattern.CASE_INSENSITIVE);
-        Matcher liElementMatcher;
-        final Pattern galleryboxPattern 
-                = Pattern.compile(REGEX_GALLERYBOX, Pattern.CASE_INSENSITIVE);
-        final Pattern lvCatalogHrefPattern 
-                = Pattern.compile(REGEX_HREF_LIBRIVOX_DOMAIN, Pattern.CASE_INSENSITIVE);
-        Matcher lvCatalogHrefMatcher;
-        final Pattern m4bHrefPattern 
-                = Pattern.compile(REGEX_HREF_ARCHIVE_DOMAIN_M4B, Pattern.CASE_INSENSITIVE);
-        Matcher m4bHrefMatcher;
-        final Pattern titlePattern 
-                    = Pattern.compile(REGEX_P_ELEMENT_W_TITLE, Pattern.CASE_INSENSITIVE);
-        Matcher titleMatcher;
-        final Pattern gallerytextPattern 
-                = Pattern.compile(REGEX_DIV_ELEMENT_W_GALLERYTEXT, Pattern.CASE_INSENSITIVE);
-        Matcher gallerytextMatcher;
-        final Pattern wikiHrefPattern 
-                = Pattern.compile(REGEX_HREF_LIBRIVOX_WIKI_SUBDOMAIN, Pattern.CASE_INSENSITIVE);
-
         List<String> urlStrings = new ArrayList<>();
         Catalog catalog = new Catalog();
-        String webpageContent;
-        String itemTitle;
-        int liElementCounter = 0;
-        int galleryboxCounter = 0;
-        int badCatalogLinkCounter = 0;
-        int audiobooksProcessedCount = 0;
+        Stage04Tally tally = new Stage04Tally();
+        HttpResponseCache.Statistics cacheStatisticsAtStart 
+                                    = HttpFetcher.getCacheStatistics();
         
         System.out.println("=============================");
         System.out.println("Stage 4 processing initiated. "
@@ -626,83 +1837,115 @@ public class CatalogAssembler {
 
         for (String urlString : urlStrings) {
             if (Thread.interrupted()) { throw new InterruptedException(); }
-            webpageContent = CatalogAssembler.getHttpContent(urlString);
-
-            /** Search html content for LibriVox Catalog for each item's 
-             * (1) URL to main LibriVox webpage, and (2) URL(s) to M4B file(s).
-             */
-            liElementMatcher = liElementPattern.matcher(webpageContent);
-            while (liElementMatcher.find()) {
-                liElementCounter++;
-                if (galleryboxPattern.matcher(liElementMatcher.group()).find()) {
-                    galleryboxCounter++;
-                } else {
-                    continue;
-                }
-
-                /** get section with pertinent URLs */
-                lvCatalogHrefMatcher =
-                    lvCatalogHrefPattern.matcher(liElementMatcher.group());
-                if (lvCatalogHrefMatcher.find()) {
-                    /** get URL to LV Catalog */
-                    String lvCatalogUrlString = lvCatalogHrefMatcher.group()
-                            .substring(6, (lvCatalogHrefMatcher.group().length() - 1));
-                    /** get URLs to m4b files */
-                    List<String> m4bUrlStrings = new ArrayList<>();
-                    m4bHrefMatcher = m4bHrefPattern.matcher(liElementMatcher.group());
-                    while (m4bHrefMatcher.find()) {
-                        m4bUrlStrings.add(m4bHrefMatcher.group()
-                            .substring(6, (m4bHrefMatcher.group().length() - 1)));
-                    }
-                    catalog.addAudiobook
-                        (lvCatalogUrlString, m4bUrlStrings);
-                    audiobooksProcessedCount++;
-                    if (audiobooksProcessedCount % 100 == 0) {
-                        System.out.println(audiobooksProcessedCount 
-                                + " audiobooks processed so far. "
-                                + new Timestamp(System.currentTimeMillis()));
-                    }
-                } else if (showBadLinks) {
-                    /** get item's title */
-                    titleMatcher = titlePattern.matcher
-                                        (liElementMatcher.group());
-                    if (titleMatcher.find()) {
-                        itemTitle = titleMatcher.group().substring
-                                    (3, titleMatcher.group().length() - 1);
-                    } 
-
-                    gallerytextMatcher = gallerytextPattern.matcher
-                                            (liElementMatcher.group());
-                    if (gallerytextMatcher.find()) {
-                        badCatalogLinkCounter++;
-                        //System.out.println("TITLE: " + itemTitle);
-                        /** output bad links */
-                        hrefMatcher =
-                            HREF_PATTERN.matcher(liElementMatcher.group());
-                        boolean badLinkFound = false;
-                        while (hrefMatcher.find()) {
-                            if (!m4bHrefPattern.matcher(hrefMatcher.group()).find()
-                                    && !wikiHrefPattern.matcher
-                                                (hrefMatcher.group()).find())
-                            {
-                                badLinkFound = true;
-                            }
-                        }
-                    }
-                }
+            try (java.io.Reader webpageReader 
+                        = HttpFetcher.openReader(new URL(urlString))) {
+                long parseStartNanos = System.nanoTime();
+                scanWikiM4bWebpage(webpageReader, catalog, showBadLinks, tally);
+                AssemblyMetrics.recordParseNanos
+                        (STAGE04_METRICS, System.nanoTime() - parseStartNanos);
+            } catch (IOException e) {
+                AssemblyMetrics.recordError(STAGE04_METRICS, e);
+                throw e;
             }
+            AssemblyMetrics.recordRecord(STAGE04_METRICS);
         }
+        System.out.println(AssemblyMetrics.getRateLine(STAGE04_METRICS));
         System.out.println("=============================");
         System.out.println("Stage 4 processing completed. " 
                                 + new Timestamp(System.currentTimeMillis()));
         System.out.println("=============================");
-        System.out.println(audiobooksProcessedCount + " audiobooks processed.");
+        System.out.println(tally.audiobooksProcessedCount + " audiobooks processed.");
         if (showBadLinks) {
-            System.out.println("Found " + badCatalogLinkCounter 
+            System.out.println("Found " + tally.badCatalogLinkCount 
                     + " galleryboxes w/ BAD or NONEXISTENT catalog links.");
         }
+        printCacheStatistics(cacheStatisticsAtStart);
         return catalog;
     }
+    
+    /** Running counts of Stage 4 processing outcomes. */
+    protected static class Stage04Tally {
+        int audiobooksProcessedCount = 0;
+        int badCatalogLinkCount = 0;
+    }
+    
+    /** Scans a LibriVox wiki page listing M4B files: each "gallerybox" list 
+     * item provides (1) URL for item's LibriVox webpage; (2) URL(s) for 
+     * item's M4B file(s), which are added to the catalog.
+     * @param webpageReader reader of webpage content
+     * @param catalog catalog to which audiobooks are added
+     * @param showBadLinks if true, galleryboxes without a LibriVox link are
+     * counted
+     * @param tally running counts
+     * @throws IOException if webpage cannot be read
+     */
+    protected static void scanWikiM4bWebpage (java.io.Reader webpageReader, 
+                    Catalog catalog, boolean showBadLinks, Stage04Tally tally)
+            throws IOException {
+        HtmlScanner scanner = new HtmlScanner(webpageReader);
+        int galleryboxDepth = 0; // depth of "li" elements within gallerybox
+        String lvCatalogUrlString = null;
+        List<String> m4bUrlStrings = null;
+        boolean gallerytextFound = false;
+        HtmlScanner.Event event;
+        while ((event = scanner.next()) != HtmlScanner.Event.END_OF_DOCUMENT) {
+            if (event == HtmlScanner.Event.START_TAG) {
+                if (scanner.getTagName().equals("li")) {
+                    if (galleryboxDepth > 0) {
+                        galleryboxDepth++;
+                    } else if (scanner.hasClass("gallerybox")) {
+                        galleryboxDepth = 1;
+                        lvCatalogUrlString = null;
+                        m4bUrlStrings = new ArrayList<>();
+                        gallerytextFound = false;
+                    }
+                    continue;
+                }
+                if (galleryboxDepth == 0) {
+                    continue;
+                }
+                if (scanner.getTagName().equals("div")
+                        && scanner.hasClass("gallerytext")) {
+                    gallerytextFound = true;
+                }
+                String urlString = getHttpUrlAttribute(scanner, "href");
+                if (urlString == null) {
+                    continue;
+                }
+                if (lvCatalogUrlString == null 
+                        && LIBRIVOX_DOMAIN_URL_PATTERN.matcher(urlString).find()) {
+                    lvCatalogUrlString = urlString;
+                } else if (ARCHIVE_DOMAIN_M4B_URL_PATTERN.matcher(urlString).find()) {
+                    m4bUrlStrings.add(urlString);
+                }
+            } else if (event == HtmlScanner.Event.END_TAG
+                    && galleryboxDepth > 0 && scanner.getTagName().equals("li")
+                    && --galleryboxDepth == 0) {
+                if (lvCatalogUrlString != null) {
+                    catalog.addAudiobook(lvCatalogUrlString, m4bUrlStrings);
+                    tally.audiobooksProcessedCount++;
+                } else if (showBadLinks && gallerytextFound) {
+                    tally.badCatalogLinkCount++;
+                }
+            }
+        }
+    }
+    
+    /** @return value of the current tag's attribute if it is an http or 
+     * https url (ignoring any leading or trailing whitespace), else null */
+    private static String getHttpUrlAttribute 
+                                (HtmlScanner scanner, String attributeName) {
+        String value = scanner.getAttribute(attributeName);
+        if (value == null) {
+            return null;
+        }
+        value = value.trim();
+        if (value.regionMatches(true, 0, "http://", 0, 7)
+                || value.regionMatches(true, 0, "https://", 0, 8)) {
+            return value;
+        }
+        return null;
+    }
         
     /* v1.4.3 bypass/deprecate Stage 5 processing; go straight from stage 4 to 6 */
     /** STAGE 6: Incorporate M4B metadata from Stage 4 into catalog from Stage 3.
@@ -758,9 +2001,12 @@ public class CatalogAssembler {
                     }
                 } else {
                     missingFromStage3Count++;
-                    System.out.println(">>> Audiobook with URL = " 
-                            + stage4Audiobook.getUrlLibrivox() 
-                            + " not found in Stage 3 catalog.");
+                    /* in a shard, most stage 4 records are of other shards */
+                    if (shardCount == 1) {
+                        System.out.println(">>> Audiobook with URL = " 
+                                + stage4Audiobook.getUrlLibrivox() 
+                                + " not found in Stage 3 catalog.");
+                    }
                 }
             }
         }
@@ -805,16 +2051,11 @@ public class CatalogAssembler {
         for (Audiobook audiobook : catalog.audiobooks) {
             if (Thread.interrupted()) { throw new InterruptedException(); }
             audiobooksProcessedCount++;
-            if (audiobook.getUrlLibrivox() == null
-                    || audiobook.getUrlLibrivox().isEmpty()
-                    || audiobook.getUrlInternetArchive() == null
-                    || audiobook.getUrlInternetArchive().isEmpty()) {
-            //if (audiobook.getUrlM4bFiles() == null
-            //       || audiobook.getUrlM4bFiles().isEmpty()) {
-                badRecordCount++;
-            } else {
+            if (isCatalogWorthy(audiobook)) {
                 goodRecordCount++;
                 stage07Catalog.audiobooks.add(audiobook);
+            } else {
+                badRecordCount++;
             }
         }
 
@@ -829,10 +2070,141 @@ public class CatalogAssembler {
         return stage07Catalog;
     }
     
+    /** Stage 7 criterion for keeping an audiobook in the catalog. */
+    private static boolean isCatalogWorthy (Audiobook audiobook) {
+        //return !(audiobook.getUrlM4bFiles() == null
+        //       || audiobook.getUrlM4bFiles().isEmpty());
+        return !(audiobook.getUrlLibrivox() == null
+                    || audiobook.getUrlLibrivox().isEmpty()
+                    || audiobook.getUrlInternetArchive() == null
+                    || audiobook.getUrlInternetArchive().isEmpty());
+    }
+    
+    /**
+     * @param buildPath build folder of a sharded assembly
+     * @param shardIndex shard number (from 1)
+     * @param shardCount count of shards
+     * @return subfolder of build folder in which the shard is assembled
+     */
+    public static String getShardBuildPath 
+                            (String buildPath, int shardIndex, int shardCount) {
+        return Paths.get(buildPath, String.format
+                (SHARD_FOLDER_NAME_FORMAT, shardIndex, shardCount)).toString();
+    }
+    
+    /**
+     * Merges the Stage 6 and Stage 7 catalogs of all shards of a sharded 
+     * assembly (each assembled into its subfolder of the build folder, see
+     * {@link #getShardBuildPath(String, int, int)}) into the Stage 6 and 
+     * Stage 7 files of the build folder itself, via a streaming k-way merge 
+     * ({@link CatalogShardMerger}). Delta catalog and jpeg processing (which
+     * reads Stage 6) may then proceed on the build folder as after an 
+     * unsharded assembly.
+     * @param currentBuildPath build folder containing shard subfolders
+     * @throws IOException if shard subfolders are missing or inconsistent,
+     * or files cannot be read or written
+     * @throws JAXBException if audiobooks cannot be unmarshalled/marshalled
+     * @throws InterruptedException if interrupted
+     */
+    public static void mergeShardCatalogs (String currentBuildPath) 
+            throws IOException, JAXBException, InterruptedException {
+        System.out.println("=============================");
+        System.out.println("Merge of shard catalogs initiated. "
+                            + new Timestamp(System.currentTimeMillis()));
+        System.out.println("=============================");
+        int mergedShardCount = 0;
+        File[] subfolders = new File(currentBuildPath).listFiles(File::isDirectory);
+        for (File subfolder : (subfolders == null) ? new File[0] : subfolders) {
+            Matcher matcher 
+                    = SHARD_FOLDER_NAME_PATTERN.matcher(subfolder.getName());
+            if (!matcher.matches()) {
+                continue;
+            }
+            int folderShardCount = Integer.parseInt(matcher.group(2));
+            if (mergedShardCount != 0 && folderShardCount != mergedShardCount) {
+                throw new IOException("Shard folders of differing shard counts"
+                        + " found in build folder: " + currentBuildPath);
+            }
+            mergedShardCount = folderShardCount;
+        }
+        if (mergedShardCount == 0) {
+            throw new IOException("No shard folders found in build folder: " 
+                                    + currentBuildPath);
+        }
+        List<File> shardStage06Files = new ArrayList<>();
+        List<File> shardCatalogFiles = new ArrayList<>();
+        for (int i = 1; i <= mergedShardCount; i++) {
+            String shardBuildPath 
+                    = getShardBuildPath(currentBuildPath, i, mergedShardCount);
+            File shardStage06File 
+                    = Paths.get(shardBuildPath, STAGE06_FILE_NAME).toFile();
+            if (!shardStage06File.exists()) {
+                throw new IOException("Stage 6 catalog of shard " + i + " of "
+                        + mergedShardCount + " not found: " + shardStage06File);
+            }
+            shardStage06Files.add(shardStage06File);
+            File shardCatalogFile 
+                    = Paths.get(shardBuildPath, STAGE07_FILE_NAME).toFile();
+            if (!shardCatalogFile.exists()) {
+                throw new IOException("Stage 7 catalog of shard " + i + " of "
+                        + mergedShardCount + " not found: " + shardCatalogFile);
+            }
+            shardCatalogFiles.add(shardCatalogFile);
+        }
+        CatalogShardMerger.merge(shardStage06Files,
+                Paths.get(currentBuildPath, STAGE06_FILE_NAME).toFile());
+        CatalogShardMerger merger = CatalogShardMerger.merge(shardCatalogFiles,
+                Paths.get(currentBuildPath, STAGE07_FILE_NAME).toFile(),
+                Paths.get(currentBuildPath, STAGE07_FORMATTED_FILE_NAME).toFile());
+        System.out.println("=============================");
+        System.out.println("Merge of shard catalogs completed. "
+                            + new Timestamp(System.currentTimeMillis()));
+        for (int i = 0; i < mergedShardCount; i++) {
+            System.out.println("Shard " + (i + 1) + ": " 
+                    + merger.getShardAudiobookCounts().get(i) + " audiobooks.");
+        }
+        System.out.println(merger.getDuplicateUrlCount() 
+                + " audiobooks superseded by audiobooks with same LibriVox URL"
+                + " in another shard.");
+        System.out.println(merger.getMergedAudiobookCount() 
+                + " audiobooks in merged catalog.");
+    }
+    
+    /**
+     * Writes a boot snapshot (see {@link CatalogSnapshot}) of the Stage 7 
+     * catalog of the build folder. When the Stage 7 XML file replaces the
+     * current "catalog.xml", the snapshot is to replace the current
+     * "catalog.snapshot" alongside it.
+     * @param currentBuildPath
+     * @throws IOException
+     * @throws JAXBException
+     * @throws IllegalAccessException
+     * @throws InvocationTargetException
+     * @throws InterruptedException
+     */
+    public static void buildBootSnapshot (String currentBuildPath) 
+            throws IOException, JAXBException, IllegalAccessException,
+                    InvocationTargetException, InterruptedException {
+        System.out.println("=============================");
+        System.out.println("Build of boot snapshot initiated. "
+                            + new Timestamp(System.currentTimeMillis()));
+        System.out.println("=============================");
+        File stage07XmlFile 
+                    = Paths.get(currentBuildPath, STAGE07_FILE_NAME).toFile();
+        if (!stage07XmlFile.exists()) {
+            throw new IOException("Stage 7 catalog not found: " + stage07XmlFile);
+        }
+        CatalogSnapshot.write(stage07XmlFile, Paths.get(currentBuildPath, 
+                CatalogMarshaller.CATALOG_SNAPSHOT_FILE_NAME).toFile());
+        System.out.println("=============================");
+        System.out.println("Build of boot snapshot completed. "
+                            + new Timestamp(System.currentTimeMillis()));
+    }
+    
     public static void assembleDeltaCatalog (String previousBuildPath, 
                                                 String currentBuildPath,
                                                 boolean deltaSuppressCoverArtChange) 
-            throws JAXBException, InterruptedException {
+            throws JAXBException, InterruptedException, IOException {
         System.out.println("===========================");
         System.out.println("Delta processing initiated. "
                             + new Timestamp(System.currentTimeMillis()));
@@ -849,87 +2221,232 @@ public class CatalogAssembler {
                 = CatalogMarshaller.unmarshalCatalogFromXml(previousStage07XmlFile);
         Catalog currentStage07Catalog
                 = CatalogMarshaller.unmarshalCatalogFromXml(currentStage07XmlFile);
+        List<String> changeReport = new ArrayList<>();
         Catalog deltaCatalog = getDeltaCatalog
                                 (previousStage07Catalog, currentStage07Catalog,
-                                        deltaSuppressCoverArtChange);
+                                        deltaSuppressCoverArtChange, changeReport);
         CatalogMarshaller.marshalCatalogToXml(deltaCatalog, deltaXmlFile);
         CatalogMarshaller.marshalCatalogToXml(deltaCatalog, deltaXmlFormattedFile, true);
+        Files.write(Paths.get(currentBuildPath, DELTA_CHANGES_FILE_NAME), 
+                                    changeReport, StandardCharsets.UTF_8);
     }
      
     protected static Catalog getDeltaCatalog (Catalog oldCatalog, 
                         Catalog newCatalog, boolean deltaSuppressCoverArtChange) 
-            throws InterruptedException {
+            throws InterruptedException, JAXBException {
+        return getDeltaCatalog
+                (oldCatalog, newCatalog, deltaSuppressCoverArtChange, null);
+    }
+    
+    /** Returns a catalog of the audiobooks added or changed (in any persisted
+     * field other than {@link #DELTA_IGNORED_FIELDS}) between the old and new
+     * catalogs, as found by a {@link CatalogDelta}. If 
+     * deltaSuppressCoverArtChange is true, a changed cover art URL is 
+     * disregarded unless the old version had none. A line for each added, 
+     * changed (with changed fields), and removed audiobook is appended to
+     * the change report (if not null). */
+    protected static Catalog getDeltaCatalog (Catalog oldCatalog, 
+                        Catalog newCatalog, boolean deltaSuppressCoverArtChange,
+                        List<String> changeReport) 
+            throws InterruptedException, JAXBException {
         System.out.println("Size of old audiobook array = " + oldCatalog.audiobooks.size());
         System.out.println("Size of new audiobook array = " + newCatalog.audiobooks.size());
         
+        CatalogDelta delta 
+                = CatalogDelta.compare(oldCatalog, newCatalog, DELTA_IGNORED_FIELDS);
+        if (changeReport == null) {
+            changeReport = new ArrayList<>();
+        }
         Catalog deltaCatalog = new Catalog();
-        oldCatalog.sortAudiobooks();
-        Audiobook[] oldAudiobookArray = new Audiobook[oldCatalog.audiobooks.size()];
-        oldAudiobookArray = oldCatalog.audiobooks.toArray(oldAudiobookArray);
-        for (Audiobook newAudiobook : newCatalog.audiobooks) {
-            if (Thread.interrupted()) { throw new InterruptedException(); }
-            int returnValue = Arrays.binarySearch(oldAudiobookArray, newAudiobook);
-            if (returnValue < 0) {
-                System.out.println("  New audiobook ID: " + newAudiobook.getId());
-                deltaCatalog.audiobooks.add(newAudiobook);
-            } else {
-                Audiobook oldAudiobook = oldAudiobookArray[returnValue];
-                if (newAudiobook.getUrlCoverArt() != null
-                        && !newAudiobook.getUrlCoverArt().isEmpty()) {
-                    if (oldAudiobook.getUrlCoverArt() == null
-                            || (!deltaSuppressCoverArtChange &&
-                                    !newAudiobook.getUrlCoverArt().equals
-                                                (oldAudiobook.getUrlCoverArt()))) {
-                        System.out.println
-                            ("  Changed UrlCoverARt -- audiobook ID: " + newAudiobook.getId());
-                        deltaCatalog.audiobooks.add(newAudiobook);
-                        continue;
-                    }
-                }
-                // v1.3.4 check to see whether m4b urls may have changed
-                if (newAudiobook.getUrlM4bFiles() != null
-                        && !newAudiobook.getUrlM4bFiles().isEmpty()) {
-                    if (oldAudiobook.getUrlM4bFiles() == null) {
-                        System.out.println
-                            ("  Changed UrlM4bs -- audiobook ID: " + newAudiobook.getId());
-                        deltaCatalog.audiobooks.add(newAudiobook);
-                    } else if (newAudiobook.getUrlM4bFiles().size()
-                                    != oldAudiobook.getUrlM4bFiles().size()) {
-                        System.out.println
-                            ("  Changed UrlM4bs -- audiobook ID: " + newAudiobook.getId());
-                        deltaCatalog.audiobooks.add(newAudiobook);
-                    } else {
-                        int i = 0;
-                        for (String oldUrlM4bFile : oldAudiobook.getUrlM4bFiles()) {
-                            if (oldUrlM4bFile.equals
-                                    (newAudiobook.getUrlM4bFiles().get(i++))) {
-                                continue;
-                            } else {
-                                System.out.println
-                                    ("  Changed UrlM4bs -- audiobook ID: " 
-                                                    + newAudiobook.getId());
-                                deltaCatalog.audiobooks.add(newAudiobook);
-                                break;
-                            }
-                        }
-                    }
+        for (Audiobook newAudiobook : delta.getAddedAudiobooks()) {
+            System.out.println("  New audiobook ID: " + newAudiobook.getId());
+            changeReport.add("ADDED " + newAudiobook.getId());
+            deltaCatalog.audiobooks.add(newAudiobook);
+        }
+        int changedCount = 0;
+        for (CatalogDelta.Change change : delta.getChanges()) {
+            Set<String> changedFields = change.getChangedFields();
+            if (deltaSuppressCoverArtChange 
+                    && changedFields.contains(COVER_ART_FIELD_NAME)
+                    && change.getOldAudiobook().getUrlCoverArt() != null
+                    && change.getNewAudiobook().getUrlCoverArt() != null
+                    && !change.getNewAudiobook().getUrlCoverArt().isEmpty()) {
+                changedFields = new TreeSet<>(changedFields);
+                changedFields.remove(COVER_ART_FIELD_NAME);
+                if (changedFields.isEmpty()) {
+                    continue;
                 }
             }
+            String id = change.getNewAudiobook().getId();
+            System.out.println("  Changed " + changedFields 
+                                    + " -- audiobook ID: " + id);
+            changeReport.add("CHANGED " + id + " " + changedFields);
+            deltaCatalog.audiobooks.add(change.getNewAudiobook());
+            changedCount++;
+        }
+        for (Audiobook oldAudiobook : delta.getRemovedAudiobooks()) {
+            System.out.println("  Removed audiobook ID: " + oldAudiobook.getId());
+            changeReport.add("REMOVED " + oldAudiobook.getId());
         }
+        deltaCatalog.sortAudiobooks();
         System.out.println("===========================");
         System.out.println("Delta processing completed. "
                                 + new Timestamp(System.currentTimeMillis()));
-        System.out.println(deltaCatalog.audiobooks.size() + " new/modified audiobooks found.");
+        System.out.println(deltaCatalog.audiobooks.size() + " new/modified audiobooks found ("
+                + delta.getAddedAudiobooks().size() + " new, " + changedCount 
+                + " modified); " + delta.getRemovedAudiobooks().size() 
+                + " audiobooks removed.");
+        System.out.println(delta.getTimings());
         
         return deltaCatalog;
     }
     
+    /**
+     * Refreshes the Internet Archive download counts of the Stage 7 catalog
+     * in the Build Folder, within a budget of requests per run. Audiobooks
+     * are selected by a {@link DownloadCountRefreshScheduler} (which favors
+     * new and frequently-downloaded audiobooks, and records when each 
+     * audiobook was refreshed, so that successive runs work through the 
+     * rest of the catalog), and their counts are requested concurrently.
+     * The updated catalog replaces the Stage 7 XML files.
+     *
+     * @param currentBuildPath
+     * @param refreshLogFile file of last-refreshed timestamps (persisting 
+     * across builds)
+     * @param requestBudget maximum count of Internet Archive requests
+     * @param threadCount count of concurrent requests
+     * @throws JAXBException
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public static void refreshDownloadCounts (String currentBuildPath,
+                        File refreshLogFile, int requestBudget, int threadCount)
+            throws JAXBException, IOException, InterruptedException {
+        System.out.println("=============================");
+        System.out.println("Download count refresh initiated. "
+                            + new Timestamp(System.currentTimeMillis()));
+        System.out.println("=============================");
+        File stage07XmlFile 
+                    = Paths.get(currentBuildPath, STAGE07_FILE_NAME).toFile();
+        File stage07XmlFormattedFile 
+                = Paths.get(currentBuildPath, STAGE07_FORMATTED_FILE_NAME).toFile();
+        Catalog catalog = CatalogMarshaller.unmarshalCatalogFromXml(stage07XmlFile);
+        DownloadCountRefreshScheduler scheduler 
+                = DownloadCountRefreshScheduler.open(refreshLogFile);
+        long refreshMillis = System.currentTimeMillis();
+        List<Audiobook> selectedAudiobooks = scheduler.selectAudiobooksToRefresh
+                                    (catalog, requestBudget, refreshMillis);
+        System.out.println(scheduler.getDueCount() + " of " 
+                + catalog.audiobooks.size() + " audiobooks due for refresh; "
+                + selectedAudiobooks.size() + " to be refreshed in this run.");
+        
+        RequestRateLimiter rateLimiter = new RequestRateLimiter(requestsPerSecond);
+        ExecutorService executor = Executors.newFixedThreadPool
+                    (threadCount, getDaemonThreadFactory("refresh-worker-"));
+        int refreshedCount = 0;
+        int changedCount = 0;
+        long downloadIncrease = 0;
+        int failureCount = 0;
+        try {
+            List<Future<Integer>> downloadCountFutures = new ArrayList<>();
+            for (Audiobook audiobook : selectedAudiobooks) {
+                downloadCountFutures.add(executor.submit(() -> {
+                    rateLimiter.acquire();
+                    return extractDownloadCountFromIA
+                                    (audiobook.getUrlInternetArchive());
+                }));
+            }
+            for (int i = 0; i < selectedAudiobooks.size(); i++) {
+                Audiobook audiobook = selectedAudiobooks.get(i);
+                int downloadCount;
+                try {
+                    downloadCount = downloadCountFutures.get(i).get();
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof IOException
+                            || e.getCause() instanceof JsonParsingException) {
+                        System.out.println("  Download count refresh failed -- "
+                                + "audiobook ID: " + audiobook.getId() + ": "
+                                + e.getCause().getMessage());
+                        failureCount++;
+                        continue;
+                    }
+                    throw new IllegalStateException(e.getCause());
+                }
+                /* recorded only once the request has succeeded (an 
+                 * audiobook for which Internet Archive reports no count 
+                 * included), and persisted only with the updated catalog */
+                scheduler.recordRefreshed(audiobook.getId(), refreshMillis);
+                if (downloadCount < 0) {
+                    System.out.println("  No download count found -- "
+                                + "audiobook ID: " + audiobook.getId());
+                    failureCount++;
+                    continue;
+                }
+                if (downloadCount != audiobook.getDownloadCountInternetArchive()) {
+                    downloadIncrease += downloadCount 
+                                - audiobook.getDownloadCountInternetArchive();
+                    audiobook.setDownloadCountInternetArchive(downloadCount);
+                    changedCount++;
+                }
+                refreshedCount++;
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        if (refreshedCount > 0) {
+            CatalogMarshaller.marshalCatalogToXml(catalog, stage07XmlFile);
+            CatalogMarshaller.marshalCatalogToXml
+                                    (catalog, stage07XmlFormattedFile, true);
+        }
+        scheduler.save();
+        System.out.println("=============================");
+        System.out.println("Download count refresh completed. "
+                            + new Timestamp(System.currentTimeMillis()));
+        System.out.println(refreshedCount + " audiobooks refreshed ("
+                + changedCount + " with changed counts, total change of "
+                + downloadIncrease + " downloads); " + failureCount 
+                + " failed; " + (scheduler.getDueCount() - selectedAudiobooks.size())
+                + " due audiobooks deferred to a later run.");
+    }
+    
+    /** Requests the Internet Archive JSON metadata of an item, parsing only
+     * as far as the download count.
+     * @return download count, or -1 if none found */
+    protected static int extractDownloadCountFromIA (String urlString)
+            throws IOException {
+        final String JSON_KEYNAME_downloads = "downloads";
+        String currentKeyName = "";
+        try (JsonParser parser = JSON_PARSER_FACTORY.createParser
+                (HttpFetcher.openReader(new URL(urlString + IA_JSON_FORMAT_REQUEST)))) {
+            while (parser.hasNext()) {
+                switch (parser.next()) {
+                    case KEY_NAME:
+                        currentKeyName = parser.getString();
+                        break;
+                    case VALUE_NUMBER:
+                        if (currentKeyName.equals(JSON_KEYNAME_downloads)) {
+                            return parser.getInt();
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        return -1;
+    }
+    
     /** Uses standard JSON parsing to extract Audiobook metadata from Internet 
-     * Archive. */
-    private static Audiobook extractAudiobookMetadataFromIA (String urlString) 
+     * Archive. The document is parsed as it is read from the connection, and
+     * parsing stops once the "metadata" and "files" objects have been 
+     * completed and the download count has been found (any remainder of 
+     * the document being of no interest). Closing the reader then reads and
+     * discards a bounded remainder (see {@link HttpFetcher#maxDrainedBytes}),
+     * so that the connection remains reusable. */
+    private static Audiobook extractAudiobookMetadataFromIA 
+                                        (String urlString, Stage03Tally tally) 
             throws IOException, ParseException {
         Audiobook audiobook = new Audiobook();
-        final String JSON_FORMAT_REQUEST = "&output=json";
         final String JSON_KEYNAME_description = "description";
         final String JSON_KEYNAME_identifier = "identifier";
         final String JSON_KEYNAME_publicdate = "publicdate";
@@ -938,6 +2455,7 @@ public class CatalogAssembler {
         final String JSON_KEYNAME_SUFFIX_mp3 = ".mp3";
         final String JSON_KEYNAME_format = "format";
         final String JSON_KEYNAME_metadata = "metadata";
+        final String JSON_KEYNAME_files = "files";
         final String JSON_KEYNAME_title = "title";
         final String JSON_VALUE_STRING_JPEG = "JPEG";
         final String JSON_VALUE_STRING_JPEG_thumb = "JPEG Thumb";
@@ -958,99 +2476,135 @@ public class CatalogAssembler {
         List<String> m4bUrls = new ArrayList<>();
         String currentKeyName = "";
         boolean inMetadataObject = false;
+        int depth = 0;
+        String topLevelKeyName = "";
+        boolean metadataCompleted = false;
+        boolean filesCompleted = false;
+        boolean downloadsFound = false;
+        boolean stoppedEarly = false;
         
-        String webpageContent = getHttpContent(urlString + JSON_FORMAT_REQUEST);
-        JsonParser parser = Json.createParser(new StringReader(webpageContent));
-        
-        while (parser.hasNext()) {
-            switch(parser.next()) {
-                case KEY_NAME:
-                    currentKeyName = parser.getString();
-                    if (currentKeyName.endsWith(JSON_KEYNAME_SUFFIX_jpg) 
-                            || currentKeyName.endsWith(JSON_KEYNAME_SUFFIX_mp3)
-                            || currentKeyName.endsWith(JSON_KEYNAME_SUFFIX_m4b)) {
-                        currentFile = currentKeyName;
-                    }
-                    if (currentKeyName.equals(JSON_KEYNAME_metadata)) {
-                        inMetadataObject = true;
-                    }
-                    break;
-                case END_OBJECT:
-                    currentFile = "";
-                    inMetadataObject = false;
-                    break;
-                case VALUE_NUMBER:
-                    if (currentKeyName.equals(JSON_KEYNAME_downloads)) {
-                        audiobook.setDownloadCountInternetArchive(parser.getInt());
-                    }
-                    break;
-                case VALUE_STRING:
-                    switch (currentKeyName) {
-                        case JSON_KEYNAME_title:
-                            if (inMetadataObject) {
-                                audiobook.setDisplayTitle(parser.getString());
-                            }
-                            break;
-                        // some older IA pages list M4B files in description
-                        case JSON_KEYNAME_description:
-                            List<String> urlM4bFiles 
-                                = getM4bUrlsFromArchiveDescription(parser.getString());
-                            if (urlM4bFiles != null && !urlM4bFiles.isEmpty()) {
-                                audiobook.setUrlM4bFiles(urlM4bFiles);
+        CharacterCountingReader webpageReader = new CharacterCountingReader
+            (HttpFetcher.openReader(new URL(urlString + IA_JSON_FORMAT_REQUEST)));
+        long parseStartNanos = System.nanoTime();
+        try (JsonParser parser = JSON_PARSER_FACTORY.createParser(webpageReader)) {
+            parsing:
+            while (parser.hasNext()) {
+                switch(parser.next()) {
+                    case START_OBJECT:
+                    case START_ARRAY:
+                        depth++;
+                        break;
+                    case END_ARRAY:
+                        depth--;
+                        break;
+                    case KEY_NAME:
+                        currentKeyName = parser.getString();
+                        if (depth == 1) {
+                            topLevelKeyName = currentKeyName;
+                        }
+                        if (currentKeyName.endsWith(JSON_KEYNAME_SUFFIX_jpg) 
+                                || currentKeyName.endsWith(JSON_KEYNAME_SUFFIX_mp3)
+                                || currentKeyName.endsWith(JSON_KEYNAME_SUFFIX_m4b)) {
+                            currentFile = currentKeyName;
+                        }
+                        if (currentKeyName.equals(JSON_KEYNAME_metadata)) {
+                            inMetadataObject = true;
+                        }
+                        break;
+                    case END_OBJECT:
+                        currentFile = "";
+                        inMetadataObject = false;
+                        if (--depth == 1) {
+                            if (topLevelKeyName.equals(JSON_KEYNAME_metadata)) {
+                                metadataCompleted = true;
+                            } else if (topLevelKeyName.equals(JSON_KEYNAME_files)) {
+                                filesCompleted = true;
                             }
-                            break;
-                        case JSON_KEYNAME_identifier:
-                            archiveItemIdentifier = parser.getString();
-                            break;
-                        case JSON_KEYNAME_publicdate:
-                            audiobook.setPublicationDateInternetArchive
-                                                        (parser.getString());
-                            break;
-                        case JSON_KEYNAME_format:
-                            if (!currentFile.isEmpty()) {
-                                switch (parser.getString()) {
-                                    case JSON_VALUE_STRING_JPEG: 
-                                        bigJpegUrlSuffixString = currentFile;
-                                        currentFile = "";
-                                        break;
-                                    case JSON_VALUE_STRING_JPEG_thumb:
-                                        thumbnailJpegUrlSuffixString = currentFile;
-                                        currentFile = "";
-                                        break;
+                        }
+                        if (metadataCompleted && filesCompleted && downloadsFound) {
+                            stoppedEarly = true;
+                            break parsing;
+                        }
+                        break;
+                    case VALUE_NUMBER:
+                        if (currentKeyName.equals(JSON_KEYNAME_downloads)) {
+                            audiobook.setDownloadCountInternetArchive(parser.getInt());
+                            downloadsFound = true;
+                        }
+                        break;
+                    case VALUE_STRING:
+                        switch (currentKeyName) {
+                            case JSON_KEYNAME_title:
+                                if (inMetadataObject) {
+                                    audiobook.setDisplayTitle(parser.getString());
                                 }
-                            }
-                            break;
-                        case JSON_KEYNAME_source:
-                            if (!currentFile.isEmpty() 
-                                    && parser.getString().equals
-                                                (JSON_VALUE_STRING_original)) {
-                                if (currentFile.endsWith
-                                                (JSON_KEYNAME_SUFFIX_mp3)) {
-                                    mp3Urls.add(currentFile);
-                                } else if (currentFile.endsWith
-                                                (JSON_KEYNAME_SUFFIX_m4b)) {
-                                    m4bUrls.add(currentFile);
-                                }  
-                                currentFile = "";
-                            }
-                            break;
-                        /*
-                        case JSON_KEYNAME_subject:  // aborted enhancement
-                            List<String> keywordStrings
-                                = Arrays.asList(parser.getString().split(";"));
-                            List<Keyword> keywords = new ArrayList<>();
-                            for (String keywordString : keywordStrings) {
-                                keywordString = keywordString.trim().toLowerCase();
-                                if (!REJECTED_IA_KEYWORDS.contains(keywordString)) {
-                                    keywords.add(new Keyword(keywordString));
+                                break;
+                            // some older IA pages list M4B files in description
+                            case JSON_KEYNAME_description:
+                                List<String> urlM4bFiles 
+                                    = getM4bUrlsFromArchiveDescription(parser.getString());
+                                if (urlM4bFiles != null && !urlM4bFiles.isEmpty()) {
+                                    audiobook.setUrlM4bFiles(urlM4bFiles);
                                 }
-                            }
-                            audiobook.setKeywords(keywords);
-                            break;
-                        */
-                    }
-                    break;
+                                break;
+                            case JSON_KEYNAME_identifier:
+                                archiveItemIdentifier = parser.getString();
+                                break;
+                            case JSON_KEYNAME_publicdate:
+                                audiobook.setPublicationDateInternetArchive
+                                                            (parser.getString());
+                                break;
+                            case JSON_KEYNAME_format:
+                                if (!currentFile.isEmpty()) {
+                                    switch (parser.getString()) {
+                                        case JSON_VALUE_STRING_JPEG: 
+                                            bigJpegUrlSuffixString = currentFile;
+                                            currentFile = "";
+                                            break;
+                                        case JSON_VALUE_STRING_JPEG_thumb:
+                                            thumbnailJpegUrlSuffixString = currentFile;
+                                            currentFile = "";
+                                            break;
+                                    }
+                                }
+                                break;
+                            case JSON_KEYNAME_source:
+                                if (!currentFile.isEmpty() 
+                                        && parser.getString().equals
+                                                    (JSON_VALUE_STRING_original)) {
+                                    if (currentFile.endsWith
+                                                    (JSON_KEYNAME_SUFFIX_mp3)) {
+                                        mp3Urls.add(currentFile);
+                                    } else if (currentFile.endsWith
+                                                    (JSON_KEYNAME_SUFFIX_m4b)) {
+                                        m4bUrls.add(currentFile);
+                                    }  
+                                    currentFile = "";
+                                }
+                                break;
+                            /*
+                            case JSON_KEYNAME_subject:  // aborted enhancement
+                                List<String> keywordStrings
+                                    = Arrays.asList(parser.getString().split(";"));
+                                List<Keyword> keywords = new ArrayList<>();
+                                for (String keywordString : keywordStrings) {
+                                    keywordString = keywordString.trim().toLowerCase();
+                                    if (!REJECTED_IA_KEYWORDS.contains(keywordString)) {
+                                        keywords.add(new Keyword(keywordString));
+                                    }
+                                }
+                                audiobook.setKeywords(keywords);
+                                break;
+                            */
+                        }
+                        break;
+                }
             }
+        } finally {
+            tally.recordJsonParsed
+                    (webpageReader.getCharacterCount(), stoppedEarly);
+            AssemblyMetrics.recordParseNanos
+                    (STAGE03_METRICS, System.nanoTime() - parseStartNanos);
         }
         
         List<Section> sections = new ArrayList<>();
@@ -1085,24 +2639,59 @@ public class CatalogAssembler {
         return audiobook;
     }
     
+    /** Counts the characters read through it (e.g., by a JSON parser). */
+    private static class CharacterCountingReader extends FilterReader {
+        private long characterCount = 0;
+        
+        CharacterCountingReader (java.io.Reader reader) {
+            super(reader);
+        }
+        
+        @Override
+        public int read () throws IOException {
+            int character = super.read();
+            if (character != -1) {
+                characterCount++;
+            }
+            return character;
+        }
+        
+        @Override
+        public int read (char[] buffer, int offset, int length) throws IOException {
+            int readCount = super.read(buffer, offset, length);
+            if (readCount > 0) {
+                characterCount += readCount;
+            }
+            return readCount;
+        }
+        
+        long getCharacterCount () {
+            return characterCount;
+        }
+    }
+    
     /* URLs for M4B files may be embedded in the "description" section of 
     * Internet Archive webpages for each item. As of 2014-11, LibriVox 
     * volunteer admins are migrating ALL m4b links to these locations, but
     * this is a work in progress. */
     private static List<String> getM4bUrlsFromArchiveDescription (String archiveDescription) {
         List<String> urlM4bFiles = new ArrayList<>();
-        Matcher aTagMatcher = A_TAG_PATTERN.matcher(archiveDescription);
-        aTagMatch:
-        while (aTagMatcher.find()) {
-            hrefMatcher = HREF_PATTERN.matcher(aTagMatcher.group());
-            if (!hrefMatcher.find()) {
-                continue;
-            }
-            String urlStringCandidate = hrefMatcher.group().substring
-                                        (6, hrefMatcher.group().length() - 1);
-            if (urlStringCandidate.endsWith(JSON_KEYNAME_SUFFIX_m4b)) {
-                urlM4bFiles.add(urlStringCandidate.replace("https", "http"));
+        HtmlScanner scanner = new HtmlScanner(new StringReader(archiveDescription));
+        try {
+            HtmlScanner.Event event;
+            while ((event = scanner.next()) != HtmlScanner.Event.END_OF_DOCUMENT) {
+                if (event != HtmlScanner.Event.START_TAG
+                        || !scanner.getTagName().equals("a")) {
+                    continue;
+                }
+                String urlStringCandidate = getHttpUrlAttribute(scanner, "href");
+                if (urlStringCandidate != null 
+                        && urlStringCandidate.endsWith(JSON_KEYNAME_SUFFIX_m4b)) {
+                    urlM4bFiles.add(urlStringCandidate.replace("https", "http"));
+                }
             }
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // not thrown by StringReader
         }
         if (urlM4bFiles.isEmpty()) {
             return null;
@@ -1111,172 +2700,226 @@ public class CatalogAssembler {
         }
     }
     
-    /** Uses regular-expression parsing to extract metadata from LibriVox pages. */
+    /** Extracts per-section author and source-text metadata from the 
+     * "chapter-download" table of a LibriVox webpage, resolving each 
+     * section's author via the {@link AuthorResolver}. */
     private static List<Section> extractAuthorAndUrlTextMetadata (String urlString)
             throws IOException, MetadataExtractionException, JAXBException, 
                 RemoteApiProcessingException, IllegalAccessException {
-        final String REGEX_TABLE_ELEMENT = "\\<table(\\>| ).*?\\</table\\>";
-        /** used to search inside "table" element for attribute 'class="chapter-download"' */
-        final String REGEX_CHAPTER_DOWNLOAD = "class=\"chapter-download\"";
-        /** used to search inside "table" element for "thead" element */
-        final String REGEX_THEAD_ELEMENT = "\\<thead(\\>| ).*?\\</thead\\>";
-        /** used to search inside "thead" element for "th" element */
-        final String REGEX_TH_ELEMENT = "\\<th(\\>| ).*?\\</th\\>";
-        /** used to search inside "table" element for "tbody" element */
-        final String REGEX_TBODY_ELEMENT = "\\<tbody(\\>| ).*?\\</tbody\\>";
-        /** used to search inside "tbody" element for "tr" element */
-        final String REGEX_TR_ELEMENT = "\\<tr(\\>| ).*?\\</tr\\>";
-        /** used to search inside "tr" element for "td" element */
-        final String REGEX_TD_ELEMENT = "\\<td(\\>| ).*?\\</td\\>";
-        final String REGEX_AUTHOR_ID_STRING = "author/.*";
-        
-        final Pattern tableElementPattern
-                = Pattern.compile(REGEX_TABLE_ELEMENT, Pattern.CASE_INSENSITIVE);
-        Matcher tableElementMatcher;
-        final Pattern chapterDownloadPattern
-            = Pattern.compile(REGEX_CHAPTER_DOWNLOAD, Pattern.CASE_INSENSITIVE);
-        Matcher chapterDownloadMatcher;
-        final Pattern theadElementPattern
-            = Pattern.compile(REGEX_THEAD_ELEMENT, Pattern.CASE_INSENSITIVE);
-        Matcher theadElementMatcher;
-        final Pattern thElementPattern
-            = Pattern.compile(REGEX_TH_ELEMENT, Pattern.CASE_INSENSITIVE);
-        Matcher thElementMatcher;
-        final Pattern tbodyElementPattern
-            = Pattern.compile(REGEX_TBODY_ELEMENT, Pattern.CASE_INSENSITIVE);
-        Matcher tbodyElementMatcher;
-        final Pattern trElementPattern
-            = Pattern.compile(REGEX_TR_ELEMENT, Pattern.CASE_INSENSITIVE);
-        Matcher trElementMatcher;
-        final Pattern tdElementPattern
-            = Pattern.compile(REGEX_TD_ELEMENT, Pattern.CASE_INSENSITIVE);
-        Matcher tdElementMatcher;
-        final Pattern authorIdStringPattern
-            = Pattern.compile(REGEX_AUTHOR_ID_STRING, Pattern.CASE_INSENSITIVE);
-        Matcher authorIdStringMatcher;
-        
+        List<Section> sectionsWithAuthorAndUrlTextMetadata;
+        try (java.io.Reader webpageReader 
+                    = HttpFetcher.openReader(new URL(urlString))) {
+            long parseStartNanos = System.nanoTime();
+            try {
+                sectionsWithAuthorAndUrlTextMetadata 
+                        = scanAuthorAndUrlTextMetadata(webpageReader);
+            } finally {
+                AssemblyMetrics.recordParseNanos
+                        (STAGE02_METRICS, System.nanoTime() - parseStartNanos);
+            }
+        }
+        for (Section section : sectionsWithAuthorAndUrlTextMetadata) {
+            if (section.getAuthors() == null) {
+                continue;
+            }
+            for (Author author : section.getAuthors()) {
+                if (author.getId() != null) {
+                    author.merge(AuthorResolver.getAuthor(author.getId()));
+                }
+            }
+        }
+        return sectionsWithAuthorAndUrlTextMetadata;
+    }
+    
+    /** Scans the "chapter-download" table(s) of a LibriVox webpage: the 
+     * "thead" row gives the positions of the "Author" and "Source" columns,
+     * and each "tbody" row yields a {@link Section} with the author's 
+     * LibriVox ID (from the author link) and the source text URL.
+     * @param webpageReader reader of webpage content
+     * @return sections in table order
+     * @throws IOException if webpage cannot be read
+     * @throws MetadataExtractionException if neither column is found
+     */
+    protected static List<Section> scanAuthorAndUrlTextMetadata 
+                                        (java.io.Reader webpageReader)
+            throws IOException, MetadataExtractionException {
         final String AUTHOR_LABEL = "Author"; 
         final String SOURCE_LABEL = "Source"; 
-        int authorPositionInTable = 0;
-        int sourcePositionInTable = 0;
-        boolean authorPositionFound = false;
-        boolean sourcePositionFound = false;
+        final String AUTHOR_ID_PREFIX = "author/";
         
         List<Section> sectionsWithAuthorAndUrlTextMetadata = new ArrayList<>();
-        String webpageContent = getHttpContent(urlString);
-
-        tableElementMatcher = tableElementPattern.matcher(webpageContent);
-        while (tableElementMatcher.find()) {
-            chapterDownloadMatcher 
-                    = chapterDownloadPattern.matcher(tableElementMatcher.group());
-            if (!chapterDownloadMatcher.find()) {
-                continue;
-            }
-            theadElementMatcher 
-                    = theadElementPattern.matcher(tableElementMatcher.group());
-            if (theadElementMatcher.find()) {
-                trElementMatcher 
-                        = trElementPattern.matcher(theadElementMatcher.group());
-                while (trElementMatcher.find()) {
-                    thElementMatcher 
-                            = thElementPattern.matcher(trElementMatcher.group());
-                    int thElementCount = 0;
-                    while (thElementMatcher.find()) {
-                        thElementCount++;
-                        String thContent = thElementMatcher.group().substring
-                                    (4, thElementMatcher.group().length() - 5);
-                        if (thContent.equalsIgnoreCase(AUTHOR_LABEL)) {
-                            authorPositionFound = true;
-                            authorPositionInTable = thElementCount;
-                        } else if (thContent.equalsIgnoreCase(SOURCE_LABEL)) {
-                            sourcePositionFound = true;
-                            sourcePositionInTable = thElementCount;
+        HtmlScanner scanner = new HtmlScanner(webpageReader);
+        int tableDepth = 0; // depth of "table" elements within chapter-download table
+        boolean inThead = false;
+        boolean inTbody = false;
+        boolean inTh = false;
+        boolean inTd = false;
+        boolean cellUrlFound = false;
+        int columnCount = 0;
+        int authorPositionInTable = 0;
+        int sourcePositionInTable = 0;
+        StringBuilder thContent = new StringBuilder();
+        Section newSection = null;
+        Author newAuthor = null;
+        HtmlScanner.Event event;
+        while ((event = scanner.next()) != HtmlScanner.Event.END_OF_DOCUMENT) {
+            if (event == HtmlScanner.Event.START_TAG) {
+                String tagName = scanner.getTagName();
+                if (tagName.equals("table")) {
+                    if (tableDepth > 0) {
+                        tableDepth++;
+                    } else if (scanner.hasClass("chapter-download")) {
+                        tableDepth = 1;
+                        authorPositionInTable = 0;
+                        sourcePositionInTable = 0;
+                    }
+                    continue;
+                }
+                if (tableDepth != 1) {
+                    continue;
+                }
+                switch (tagName) {
+                    case "thead":
+                        inThead = true;
+                        break;
+                    case "tbody":
+                        inTbody = true;
+                        break;
+                    case "tr":
+                        columnCount = 0;
+                        inTd = false;
+                        if (inTbody) {
+                            newSection = new Section();
+                            sectionsWithAuthorAndUrlTextMetadata.add(newSection);
+                        }
+                        break;
+                    case "th":
+                        if (inThead) {
+                            columnCount++;
+                            inTh = true;
+                            thContent.setLength(0);
+                        }
+                        break;
+                    case "td":
+                        if (inTbody && newSection != null) {
+                            columnCount++;
+                            inTd = true;
+                            cellUrlFound = false;
+                            newAuthor = null;
+                            if (columnCount == authorPositionInTable) {
+                                newAuthor = new Author();
+                                List<Author> newAuthors = new ArrayList<>();
+                                newAuthors.add(newAuthor);
+                                newSection.setAuthors(newAuthors);
+                            }
                         }
+                        break;
+                    default:
+                        break;
+                }
+                if (!inTd || cellUrlFound) {
+                    continue;
+                }
+                String urlString = getHttpUrlAttribute(scanner, "href");
+                if (urlString == null) {
+                    continue;
+                }
+                cellUrlFound = true;
+                if (newAuthor != null) {
+                    int authorIdIndex = urlString.toLowerCase().indexOf(AUTHOR_ID_PREFIX);
+                    if (authorIdIndex >= 0) {
+                        newAuthor.setId(urlString.substring
+                                    (authorIdIndex + AUTHOR_ID_PREFIX.length()));
                     }
+                } else if (columnCount == sourcePositionInTable) {
+                    newSection.setUrlTextSource(urlString);
                 }
-            }
-            if (!authorPositionFound && !sourcePositionFound) {
-                throw new MetadataExtractionException
-                    ("Position of neither author nor section metadata could be" 
-                            + " determined on LV Catalog webpage.");
-            }
-            tbodyElementMatcher 
-                    = tbodyElementPattern.matcher(tableElementMatcher.group());
-            if (tbodyElementMatcher.find()) {
-                trElementMatcher 
-                        = trElementPattern.matcher(tbodyElementMatcher.group());
-                while (trElementMatcher.find()) {
-                    Section newSection = new Section();
-                    sectionsWithAuthorAndUrlTextMetadata.add(newSection);
-                    tdElementMatcher 
-                            = tdElementPattern.matcher(trElementMatcher.group());
-                    int tdElementCount = 0;
-                    while (tdElementMatcher.find()) {
-                        tdElementCount++;
-                        if (authorPositionFound 
-                                && tdElementCount == authorPositionInTable) {
-                            Author newAuthor = new Author();
-                            List<Author> newAuthors = new ArrayList<>();
-                            newAuthors.add(newAuthor);
-                            newSection.setAuthors(newAuthors);
-                            hrefMatcher =
-                                HREF_PATTERN.matcher(tdElementMatcher.group());
-                            if (hrefMatcher.find()) {
-                                authorIdStringMatcher =
-                                    authorIdStringPattern.matcher
-                                                        (hrefMatcher.group());
-                                if (authorIdStringMatcher.find()) {
-                                    String authorId 
-                                        = authorIdStringMatcher.group().substring
-                                        (7, authorIdStringMatcher.group().length() - 1);
-                                    newAuthor.setId(authorId);
-                                    Author authorViaAPI 
-                                            = AuthorJaxbAdapter.getAuthorViaApi
-                                                                    (authorId);
-                                    newAuthor.merge(authorViaAPI);
-                                }
+            } else if (event == HtmlScanner.Event.TEXT) {
+                if (inTh) {
+                    thContent.append(scanner.getText());
+                }
+            } else if (tableDepth > 0) {
+                switch (scanner.getTagName()) {
+                    case "table":
+                        if (--tableDepth == 0) {
+                            if (authorPositionInTable == 0 
+                                    && sourcePositionInTable == 0) {
+                                throw new MetadataExtractionException
+                                    ("Position of neither author nor section" 
+                                        + " metadata could be determined on"
+                                        + " LV Catalog webpage.");
                             }
-                        } else if (sourcePositionFound 
-                                && tdElementCount == sourcePositionInTable) {
-                            hrefMatcher =
-                                HREF_PATTERN.matcher(tdElementMatcher.group());
-                            if (hrefMatcher.find()) {
-                                newSection.setUrlTextSource
-                                    (hrefMatcher.group().substring
-                                        (6, hrefMatcher.group().length() - 1));
+                            inThead = inTbody = inTh = inTd = false;
+                            newSection = null;
+                        }
+                        break;
+                    case "thead":
+                        inThead = false;
+                        break;
+                    case "tbody":
+                        inTbody = false;
+                        break;
+                    case "th":
+                        if (inTh) {
+                            inTh = false;
+                            String label = thContent.toString().trim();
+                            if (label.equalsIgnoreCase(AUTHOR_LABEL)) {
+                                authorPositionInTable = columnCount;
+                            } else if (label.equalsIgnoreCase(SOURCE_LABEL)) {
+                                sourcePositionInTable = columnCount;
                             }
                         }
-                    }
+                        break;
+                    case "td":
+                        inTd = false;
+                        break;
+                    default:
+                        break;
                 }
             }
         }
         return sectionsWithAuthorAndUrlTextMetadata;
     }
     
-    /** Uses regular-expression parsing to extract metadata from LibriVox pages. */
+    /** Extracts the cover art URL from a LibriVox webpage. */
     private static Audiobook extractCoverArtUrls (String urlString)
             throws IOException, MetadataExtractionException, JAXBException, 
                 RemoteApiProcessingException, IllegalAccessException {
+        try (java.io.Reader webpageReader 
+                    = HttpFetcher.openReader(new URL(urlString))) {
+            long parseStartNanos = System.nanoTime();
+            try {
+                return scanCoverArtUrls(webpageReader);
+            } finally {
+                AssemblyMetrics.recordParseNanos
+                        (STAGE02_METRICS, System.nanoTime() - parseStartNanos);
+            }
+        }
+    }
+    
+    /** Scans a LibriVox webpage for the first "download-cover" link to a 
+     * JPEG file.
+     * @param webpageReader reader of webpage content
+     * @return audiobook fragment with cover art URL set (if found)
+     * @throws IOException if webpage cannot be read
+     */
+    protected static Audiobook scanCoverArtUrls (java.io.Reader webpageReader)
+            throws IOException {
         Audiobook audiobookFragment = new Audiobook();
-        String webpageContent = getHttpContent(urlString);
-
-        Matcher aTagMatcher = A_TAG_PATTERN.matcher(webpageContent);
-        aTagMatch:
-        while (aTagMatcher.find()) {
-            Matcher downloadCoverMatcher 
-                    = DOWNLOAD_COVER_PATTERN.matcher(aTagMatcher.group());
-            while (downloadCoverMatcher.find()) {
-                hrefMatcher = HREF_PATTERN.matcher(downloadCoverMatcher.group());
-                if (!hrefMatcher.find()) {
-                    continue;
-                }
-                String urlStringCandidate = hrefMatcher.group().substring
-                                            (6, hrefMatcher.group().length() - 1);
-                if (urlStringCandidate.endsWith(JSON_KEYNAME_SUFFIX_jpg)) {
-                    audiobookFragment.setUrlCoverArt
-                            (urlStringCandidate.replace("https", "http"));
-                    break aTagMatch;
-                }
+        HtmlScanner scanner = new HtmlScanner(webpageReader);
+        HtmlScanner.Event event;
+        while ((event = scanner.next()) != HtmlScanner.Event.END_OF_DOCUMENT) {
+            if (event != HtmlScanner.Event.START_TAG
+                    || !scanner.getTagName().equals("a")
+                    || !scanner.hasClass("download-cover")) {
+                continue;
+            }
+            String urlStringCandidate = getHttpUrlAttribute(scanner, "href");
+            if (urlStringCandidate != null 
+                    && urlStringCandidate.endsWith(JSON_KEYNAME_SUFFIX_jpg)) {
+                audiobookFragment.setUrlCoverArt
+                        (urlStringCandidate.replace("https", "http"));
+                break;
             }
         }
         return audiobookFragment;
@@ -1312,41 +2955,20 @@ public class CatalogAssembler {
         return getHttpContent(url);
     }
     
+    /** Returns the content at the URL with all line breaks removed (the 
+     * form expected by the metadata extractors), via the shared 
+     * {@link HttpFetcher} (pooled connections, compression, timeouts). */
     protected static String getHttpContent (URL url)
             throws IOException {
-        StringBuilder httpContent = new StringBuilder();
-        String line;
-        HttpURLConnection  connection;
-        boolean redirect;
-        int redirectCount = 0;
-        do {
-            redirect = false;
-            connection = (HttpURLConnection) url.openConnection();
-            if (connection.getResponseCode() == HttpURLConnection.HTTP_MOVED_TEMP
-                    || connection.getResponseCode() == HttpURLConnection.HTTP_MOVED_PERM) {
-                redirect = true;
-                redirectCount++;
-                url = new URL(connection.getHeaderField("Location"));
-            }
-        } while (redirect && (redirectCount < 5) ); // no more than 4 redirects
-        try ( BufferedReader htmlReader 
-            = new BufferedReader
-              (new InputStreamReader(connection.getInputStream()));
-            )
-        {
-            while ((line = htmlReader.readLine()) != null) {
-                httpContent.append(line);
-            }
-        }
-        return httpContent.toString();
+        return HttpFetcher.getText(url, true);
     }
 
-    /** After JPEG downloading is completed, all JPEGs in the target folder
-     * must be copied into a "newJpegsReduced" folder and reduced using 
-     * Microsoft Office Picture Manager "compress pictures" function to reduce 
-     * them to "e-mail" format; then the full images should be copied into the 
-     * folder denoted by permanentJegPath, and the reduced images should be 
-     * copied into the permanent "reduced/coverArt" folder. 
+    /** Downloads new JPEGs into the folder denoted by newJpegPath, then 
+     * reduces them (see {@link CoverArtReducer}) into the folder denoted by 
+     * reducedJpegPath (by default, a "newJpegsReduced" folder in the Build 
+     * Folder). The full images should then be copied into the folder denoted
+     * by permanentJegPath, and the reduced images should be copied into the 
+     * permanent "reduced/coverArt" folder. 
      * Then, the complete "reduced/coverArt" folder should replace
      * the "coverArt" folder in the NetBeans project, followed by a rebuild 
      * (with SM incremented).
@@ -1354,20 +2976,36 @@ public class CatalogAssembler {
      * @param currentBuildPath
      * @param permanentJpegPath
      * @param newJpegPath
+     * @param reducedJpegPath
      * @throws JAXBException
      * @throws IOException
      * @throws java.lang.InterruptedException
      */
     public static void assembleNewJpegs (String currentBuildPath,
                                             String permanentJpegPath,
-                                            String newJpegPath)  
+                                            String newJpegPath,
+                                            String reducedJpegPath)  
                 throws JAXBException, IOException, InterruptedException {
         File stage06XmlFile 
                     = Paths.get(currentBuildPath, STAGE06_FILE_NAME).toFile();
         Catalog stage06Catalog
                 = CatalogMarshaller.unmarshalCatalogFromXml(stage06XmlFile);
         downloadJpegs(stage06Catalog, permanentJpegPath, newJpegPath);
-        
+        if (newJpegPath == null || newJpegPath.isEmpty()) {
+            newJpegPath = permanentJpegPath;
+        }
+        if (reducedJpegPath == null || reducedJpegPath.isEmpty()) {
+            reducedJpegPath = Paths.get
+                    (currentBuildPath, REDUCED_JPEG_FOLDER_NAME).toString();
+        }
+        CoverArtReducer.reduce(Paths.get(newJpegPath), Paths.get(reducedJpegPath));
+    }
+    
+    public static void assembleNewJpegs (String currentBuildPath,
+                                            String permanentJpegPath,
+                                            String newJpegPath)  
+                throws JAXBException, IOException, InterruptedException {
+        assembleNewJpegs(currentBuildPath, permanentJpegPath, newJpegPath, null);
     }
     
     
@@ -1384,96 +3022,47 @@ public class CatalogAssembler {
                     throws IOException, InterruptedException {
         if (newJpegPath == null || newJpegPath.isEmpty()) {
             newJpegPath = permanentJpegPath;
-        } else {
-            if (!Files.exists(Paths.get(newJpegPath))) {
-                new File(newJpegPath).mkdir();
-            }
         }
         System.out.println( "=============================\n"
                           + "DOWNLOAD OF JPEGs COMMENCING.\n"
                           + "=============================\n");
-        int noUrlCount = 0;
-        int downloadCount = 0;
-        int previouslyDownloadedCount = 0;
-        int invalidUrlCount = 0;
+        List<String> coverArtUrls = new ArrayList<>();
         for (Audiobook audiobook : catalog.audiobooks) {
-            if (Thread.interrupted()) { throw new InterruptedException(); }
-            if (audiobook.getUrlCoverArt() == null 
-                        || audiobook.getUrlCoverArt().isEmpty()) {
-                noUrlCount++;
-                continue;
-            }
-            String coverArtFileName = new File(audiobook.getUrlCoverArt()).getName();
-            if (Files.exists(Paths.get(permanentJpegPath, coverArtFileName))) {
-                //System.out.println
-                //        ("File already downloaded: " + coverArtFileName);
-                previouslyDownloadedCount++;
-                continue;
-            }
-            try {
-                // Files.copy(source, target, replaceOption);
-                Files.copy
-                    (new URL(audiobook.getUrlCoverArt()).openStream(), 
-                        Paths.get(newJpegPath, coverArtFileName),
-                        StandardCopyOption.REPLACE_EXISTING);
-                System.out.println("Downloaded jpeg: " + coverArtFileName);
-                downloadCount++;
-            } catch (FileNotFoundException e) {
-                System.out.println("Downloaded jpeg: FILE NOT FOUND at URL -- "
-                            + audiobook.getUrlCoverArt());
-                invalidUrlCount++;
-            }
+            coverArtUrls.add(audiobook.getUrlCoverArt());
         }
-        System.out.println("=============================================\n"
-                + "DOWNLOAD OF JPEGs COMPLETED.\n"
-                + downloadCount + " downloaded.\n"
-                + previouslyDownloadedCount + " previously downloaded.\n"
-                + noUrlCount + " audiobooks with NO jpeg URL.\n"
-                + invalidUrlCount + " audiobooks with INVALID jpeg URL.");
+        CoverArtDownloader downloader = CoverArtDownloader.download
+                (coverArtUrls, Paths.get(permanentJpegPath), Paths.get(newJpegPath));
+        printJpegDownloadSummary(downloader, "jpeg");
     }
                 
     public static void downloadJpegThumbnails 
                 (Catalog catalog, String jpegDownloadDirectory) 
-                    throws IOException {
-        int noUrlCount = 0;
-        int downloadCount = 0;
-        int previouslyDownloadedCount = 0;
-        int invalidUrlCount = 0;
+                    throws IOException, InterruptedException {
+        List<String> thumbnailUrls = new ArrayList<>();
         for (Audiobook audiobook : catalog.m4bAudiobooks) {
-            if (audiobook.getUrlThumbnail() == null 
-                        || audiobook.getUrlThumbnail().isEmpty()) {
-                noUrlCount++;
-                continue;
-            }
-            if (Files.exists(Paths.get(jpegDownloadDirectory
-                        + new File(audiobook.getUrlThumbnail()).getName()))) {
-                System.out.println("File already downloaded: "
-                            + new File(audiobook.getUrlThumbnail()).getName());
-                previouslyDownloadedCount++;
-                continue;
-            }
-            try {
-                // Files.copy(source, target, replaceOption);
-                Files.copy
-                    (new URL(audiobook.getUrlThumbnail()).openStream(), 
-                        Paths.get(jpegDownloadDirectory
-                            + new File(audiobook.getUrlThumbnail()).getName()),
-                        StandardCopyOption.REPLACE_EXISTING);
-                System.out.println("Downloaded jpeg: " 
-                        + new File(audiobook.getUrlThumbnail()).getName());
-                downloadCount++;
-            } catch (FileNotFoundException e) {
-                System.out.println("Downloaded jpeg: FILE NOT FOUND at URL -- "
-                            + audiobook.getUrlThumbnail());
-                invalidUrlCount++;
-            }
+            thumbnailUrls.add(audiobook.getUrlThumbnail());
         }
+        CoverArtDownloader downloader = CoverArtDownloader.download
+                                (thumbnailUrls, Paths.get(jpegDownloadDirectory), 
+                                        Paths.get(jpegDownloadDirectory));
+        printJpegDownloadSummary(downloader, "thumbnail");
+    }
+    
+    private static void printJpegDownloadSummary 
+                            (CoverArtDownloader downloader, String urlType) {
         System.out.println("=============================================\n"
                 + "DOWNLOAD OF JPEGs COMPLETED.\n"
-                + downloadCount + " downloaded.\n"
-                + previouslyDownloadedCount + " previously downloaded.\n"
-                + noUrlCount + " audiobooks with NO thumbnail URL.\n"
-                + invalidUrlCount + " audiobooks with INVALID thumbnail URL.");
+                + downloader.getDownloadCount() + " downloaded.\n"
+                + downloader.getPreviouslyDownloadedCount() 
+                                            + " previously downloaded.\n"
+                + downloader.getDuplicateCount() 
+                            + " audiobooks sharing a jpeg with another.\n"
+                + downloader.getNoUrlCount() + " audiobooks with NO " 
+                                                    + urlType + " URL.\n"
+                + downloader.getInvalidUrlCount() + " audiobooks with INVALID " 
+                                                    + urlType + " URL.\n"
+                + downloader.getFailedCount() + " downloads FAILED.\n"
+                + downloader.getTransferStatistics());
     }
 }
 
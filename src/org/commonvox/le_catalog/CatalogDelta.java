@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2015 Daniel Vimont
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.commonvox.le_catalog;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import javax.xml.bind.JAXBException;
+
+/**
+ * Field-level differences between two versions of a catalog: audiobooks
+ * added, audiobooks changed (with the names of the changed fields), and
+ * audiobooks removed. Both catalogs are fingerprinted (see
+ * {@link AudiobookFingerprint}) and sorted by ID, and then compared in a
+ * single merge-join pass.
+ * @author Daniel Vimont
+ */
+public class CatalogDelta {
+    private final List<Audiobook> addedAudiobooks = new ArrayList<>();
+    private final List<Change> changes = new ArrayList<>();
+    private final List<Audiobook> removedAudiobooks = new ArrayList<>();
+    private long fingerprintNanos;
+    private long mergeNanos;
+
+    /** A changed audiobook, in its old and new versions. */
+    public static class Change {
+        private final Audiobook oldAudiobook;
+        private final Audiobook newAudiobook;
+        private final Set<String> changedFields;
+
+        Change (Audiobook oldAudiobook, Audiobook newAudiobook,
+                                                Set<String> changedFields) {
+            this.oldAudiobook = oldAudiobook;
+            this.newAudiobook = newAudiobook;
+            this.changedFields = changedFields;
+        }
+
+        public Audiobook getOldAudiobook () {
+            return oldAudiobook;
+        }
+
+        public Audiobook getNewAudiobook () {
+            return newAudiobook;
+        }
+
+        /** @return names of changed fields (top-level catalog XML elements) */
+        public Set<String> getChangedFields () {
+            return changedFields;
+        }
+    }
+
+    private CatalogDelta () {
+    }
+
+    /**
+     * @param oldCatalog previous version of catalog
+     * @param newCatalog current version of catalog
+     * @param ignoredFields names of fields (top-level catalog XML elements)
+     * whose changes are disregarded (e.g., volatile download counts)
+     * @return differences between the catalogs
+     * @throws JAXBException if an audiobook cannot be marshalled
+     * @throws InterruptedException if interrupted
+     */
+    public static CatalogDelta compare (Catalog oldCatalog, Catalog newCatalog,
+                                                    Set<String> ignoredFields)
+            throws JAXBException, InterruptedException {
+        CatalogDelta delta = new CatalogDelta();
+        long startNanos = System.nanoTime();
+        List<Audiobook> oldAudiobooks = getSortedById(oldCatalog);
+        List<Audiobook> newAudiobooks = getSortedById(newCatalog);
+        List<AudiobookFingerprint> oldFingerprints
+                                    = AudiobookFingerprint.of(oldAudiobooks);
+        List<AudiobookFingerprint> newFingerprints
+                                    = AudiobookFingerprint.of(newAudiobooks);
+        long mergeStartNanos = System.nanoTime();
+        delta.fingerprintNanos = mergeStartNanos - startNanos;
+        int oldIndex = 0;
+        int newIndex = 0;
+        while (oldIndex < oldAudiobooks.size() || newIndex < newAudiobooks.size()) {
+            if (Thread.interrupted()) { throw new InterruptedException(); }
+            int comparison;
+            if (oldIndex == oldAudiobooks.size()) {
+                comparison = 1;
+            } else if (newIndex == newAudiobooks.size()) {
+                comparison = -1;
+            } else {
+                comparison = oldAudiobooks.get(oldIndex).getId()
+                                .compareTo(newAudiobooks.get(newIndex).getId());
+            }
+            if (comparison < 0) {
+                delta.removedAudiobooks.add(oldAudiobooks.get(oldIndex++));
+            } else if (comparison > 0) {
+                delta.addedAudiobooks.add(newAudiobooks.get(newIndex++));
+            } else {
+                Set<String> changedFields = oldFingerprints.get(oldIndex)
+                            .getChangedFields(newFingerprints.get(newIndex));
+                changedFields.removeAll(ignoredFields);
+                if (!changedFields.isEmpty()) {
+                    delta.changes.add(new Change(oldAudiobooks.get(oldIndex),
+                                newAudiobooks.get(newIndex), changedFields));
+                }
+                oldIndex++;
+                newIndex++;
+            }
+        }
+        delta.mergeNanos = System.nanoTime() - mergeStartNanos;
+        return delta;
+    }
+
+    /** Audiobooks without IDs cannot be matched, and are omitted. */
+    private static List<Audiobook> getSortedById (Catalog catalog) {
+        List<Audiobook> audiobooks = new ArrayList<>(catalog.audiobooks.size());
+        for (Audiobook audiobook : catalog.audiobooks) {
+            if (audiobook.getId() != null) {
+                audiobooks.add(audiobook);
+            }
+        }
+        audiobooks.sort(Comparator.comparing(Audiobook::getId));
+        return audiobooks;
+    }
+
+    public List<Audiobook> getAddedAudiobooks () {
+        return Collections.unmodifiableList(addedAudiobooks);
+    }
+
+    public List<Change> getChanges () {
+        return Collections.unmodifiableList(changes);
+    }
+
+    public List<Audiobook> getRemovedAudiobooks () {
+        return Collections.unmodifiableList(removedAudiobooks);
+    }
+
+    /**
+     * @return one-line summary of comparison timings
+     */
+    public String getTimings () {
+        return "Fingerprinting: " + fingerprintNanos / 1000000 + " ms; "
+                + "merge-join: " + mergeNanos / 1000000 + " ms.";
+    }
+}
@@ -0,0 +1,642 @@
+/*
+ * Copyright (C) 2015 Daniel Vimont
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.commonvox.le_catalog;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Master directory of the catalog's indexes of {@link Work}s. Each work is
+ * identified by a dense int ordinal (its position in the list of works), 
+ * and each index is a {@link PostingListIndex} of ordinals. Each index is
+ * registered as a descriptor, and is built either on demand -- the first
+ * time a query needs it -- or in advance: by a low-priority background
+ * warm-up, or all at once (concurrently, one task per index). A thread 
+ * needing an index whose build is under way joins that build; no lock is 
+ * held across the builds of different indexes. Each query is
+ * directed to the first index whose key classes serve it (a query served
+ * by no registered index is answered, as before, by an index built for it
+ * alone), and is answered with a read-only view mapping ordinals back to
+ * works.
+ * @author Daniel Vimont
+ */
+public class CatalogDirectory implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private final List<IndexDescriptor> indexes = new ArrayList<>();
+    private List<? extends Work> works = Collections.emptyList();
+    private Class<?> commonWorkClass = Work.class;
+    /** rank of each ordinal, per ordering class; and ordinals in order, per
+     * sequence of ordering classes -- shared by the indexes being built, 
+     * each computed once (by the first build to need it) */
+    private transient ConcurrentMap<Class<?>, int[]> ranks 
+                                                = new ConcurrentHashMap<>();
+    private transient ConcurrentMap<List<Class<?>>, int[]> orderedOrdinals
+                                                = new ConcurrentHashMap<>();
+    /** build of each index, once begun */
+    private transient ConcurrentMap<IndexDescriptor, 
+                        FutureTask<PostingListIndex>> builds 
+                                                = new ConcurrentHashMap<>();
+    private transient AtomicReference<Thread> warmUpThread 
+                                                = new AtomicReference<>();
+    /** indexes built for queries which no registered index serves, by key
+     * classes */
+    private transient ConcurrentMap<List<Class<?>>, PostingListIndex> 
+                        unregisteredIndexes = new ConcurrentHashMap<>();
+
+    /** An index, and the index itself once built. */
+    private static class IndexDescriptor implements Serializable {
+        private static final long serialVersionUID = 1L;
+        final String name;
+        final List<Class<?>> keyClasses;
+        volatile PostingListIndex collection;
+
+        IndexDescriptor (String name, Class<?>... keyClasses) {
+            this.name = name;
+            this.keyClasses = Arrays.asList(keyClasses);
+        }
+    }
+
+    protected CatalogDirectory () {
+    }
+
+    /**
+     * Registers an index, to be built when needed; indexes are consulted in
+     * the order in which they are added.
+     * @param name name of index
+     * @param keyClasses key classes of index (ending with the Work subclass)
+     */
+    protected void addIndex (String name, Class<?>... keyClasses) {
+        indexes.add(new IndexDescriptor(name, keyClasses));
+    }
+
+    public int getIndexCount () {
+        return indexes.size();
+    }
+
+    /** @return count of indexes built so far */
+    public int getBuiltIndexCount () {
+        int builtIndexCount = 0;
+        for (IndexDescriptor index : indexes) {
+            if (index.collection != null) {
+                builtIndexCount++;
+            }
+        }
+        return builtIndexCount;
+    }
+
+    /**
+     * @param works works to be indexed (in every index subsequently built)
+     */
+    protected synchronized void setWorks (List<? extends Work> works) {
+        this.works = works;
+        commonWorkClass = null;
+        for (Work work : works) {
+            if (commonWorkClass == null) {
+                commonWorkClass = work.getClass();
+            } else if (commonWorkClass != work.getClass()) {
+                commonWorkClass = Work.class;
+                break;
+            }
+        }
+        if (commonWorkClass == null) {
+            commonWorkClass = Work.class;
+        }
+        ranks = new ConcurrentHashMap<>();
+        orderedOrdinals = new ConcurrentHashMap<>();
+        unregisteredIndexes = new ConcurrentHashMap<>();
+    }
+
+    /** @return works indexed, each at the position of its ordinal */
+    protected List<? extends Work> getWorks () {
+        return works;
+    }
+
+    /**
+     * @param orderClasses ordering classes (e.g., Title, Audiobook)
+     * @return ordinals of all works, ordered by the submitted classes (ties
+     * ordered by ordinal)
+     */
+    protected int[] getOrderedOrdinals (List<Class<?>> orderClasses) {
+        return orderedOrdinals.computeIfAbsent
+                    (new ArrayList<>(orderClasses), this::orderOrdinals);
+    }
+
+    private int[] orderOrdinals (List<Class<?>> orderClasses) {
+        final int[][] orderRanks = new int[orderClasses.size()][];
+        for (int i = 0; i < orderRanks.length; i++) {
+            orderRanks[i] = getRanks(orderClasses.get(i));
+        }
+        Integer[] sortedOrdinals = new Integer[works.size()];
+        for (int ordinal = 0; ordinal < sortedOrdinals.length; ordinal++) {
+            sortedOrdinals[ordinal] = ordinal;
+        }
+        Arrays.sort(sortedOrdinals, (ordinal1, ordinal2) -> {
+            for (int[] rank : orderRanks) {
+                if (rank[ordinal1] != rank[ordinal2]) {
+                    return Integer.compare(rank[ordinal1], rank[ordinal2]);
+                }
+            }
+            return Integer.compare(ordinal1, ordinal2);
+        });
+        int[] ordinals = new int[sortedOrdinals.length];
+        for (int i = 0; i < ordinals.length; i++) {
+            ordinals[i] = sortedOrdinals[i];
+        }
+        return ordinals;
+    }
+
+    /** Ordering keys (e.g., {@link PublicationDate}s) are obtained once per
+     * work, compared to assign each work its rank, then discarded (a work's
+     * {@link Title} key is retained by the work itself). */
+    private int[] getRanks (Class<?> orderClass) {
+        return ranks.computeIfAbsent(orderClass, this::rankWorks);
+    }
+
+    private int[] rankWorks (Class<?> orderClass) {
+        final Comparable<?>[] orderKeys = new Comparable<?>[works.size()];
+        Integer[] sortedOrdinals = new Integer[works.size()];
+        for (int ordinal = 0; ordinal < orderKeys.length; ordinal++) {
+            orderKeys[ordinal] = getOrderKey(works.get(ordinal), orderClass);
+            sortedOrdinals[ordinal] = ordinal;
+        }
+        Comparator<Integer> orderKeyComparator = Comparator.comparing
+                (ordinal -> orderKeys[ordinal], 
+                        Comparator.nullsFirst(CatalogDirectory::compareKeys));
+        Arrays.sort(sortedOrdinals, orderKeyComparator);
+        int[] orderRanks = new int[orderKeys.length];
+        int rank = 0;
+        for (int i = 0; i < sortedOrdinals.length; i++) {
+            if (i > 0 && orderKeyComparator.compare
+                            (sortedOrdinals[i - 1], sortedOrdinals[i]) != 0) {
+                rank++;
+            }
+            orderRanks[sortedOrdinals[i]] = rank;
+        }
+        return orderRanks;
+    }
+
+    /** Keys of one ordering class are mutually comparable. */
+    private static int compareKeys (Comparable<?> key1, Comparable<?> key2) {
+        @SuppressWarnings("unchecked")
+        Comparable<Object> comparableKey1 = (Comparable<Object>) key1;
+        return comparableKey1.compareTo(key2);
+    }
+
+    private static Comparable<?> getOrderKey (Work work, Class<?> orderClass) {
+        if (orderClass.isInstance(work)) {
+            return work;
+        } else if (Title.class.equals(orderClass)) {
+            return work.getTitleKey();
+        } else if (!(work instanceof Audiobook)) {
+            return null;
+        } else if (PublicationDate.class.equals(orderClass)) {
+            return ((Audiobook) work).getPublicationDateKey();
+        } else if (Downloads.class.equals(orderClass)) {
+            return ((Audiobook) work).getDownloadsKey();
+        } else if (DownloadsPerDay.class.equals(orderClass)) {
+            return ((Audiobook) work).getDownloadsPerDayKey();
+        } else if (LibrivoxId.class.equals(orderClass)) {
+            return ((Audiobook) work).getLibrivoxIdKey();
+        }
+        throw new IllegalArgumentException
+                        ("Works cannot be ordered by " + orderClass.getName());
+    }
+
+    /**
+     * Builds the named index (if not yet built), with its cost reported.
+     * @param indexName
+     * @param callback receives progress, in works added to the index
+     * @throws InterruptedException
+     */
+    protected void buildIndex (String indexName, CatalogCallback callback)
+            throws InterruptedException {
+        for (IndexDescriptor index : indexes) {
+            if (index.name.equals(indexName)) {
+                buildReported(index, callback);
+                return;
+            }
+        }
+        throw new IllegalArgumentException("No such index: " + indexName);
+    }
+
+    /**
+     * Builds every index not yet built: concurrently (one task per index, in
+     * as many threads as there are processors), or one after another with
+     * the cost of each reported.
+     * @param callback receives progress, in works added to an index, of 
+     * works times indexes
+     * @param concurrently
+     * @throws InterruptedException
+     */
+    protected void buildAllIndexes (CatalogCallback callback, boolean concurrently)
+            throws InterruptedException {
+        if (!concurrently) {
+            for (IndexDescriptor index : indexes) {
+                buildReported(index, callback);
+            }
+            return;
+        }
+        final long workTotal = (long) works.size() * indexes.size();
+        final AtomicLong workDone = new AtomicLong();
+        /* as many progress updates as from a single-threaded population */
+        final long callbackDivisor 
+                        = (long) Catalog.CALLBACK_DIVISOR * indexes.size();
+        ExecutorService executor = Executors.newFixedThreadPool
+                (Math.min(indexes.size(), 
+                            Runtime.getRuntime().availableProcessors()),
+                    CatalogAssembler.getDaemonThreadFactory("index-builder-"));
+        try {
+            List<Future<PostingListIndex>> futures = new ArrayList<>();
+            for (IndexDescriptor index : indexes) {
+                futures.add(executor.submit(() -> getBuiltIndex(index, 
+                        () -> PostingListIndex.build
+                                (index.name, index.keyClasses, this, 
+                                    getProgressCallback(workDone, workTotal,
+                                                callbackDivisor, callback)))));
+            }
+            for (Future<PostingListIndex> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    throw getUncheckedCause(e);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        callback.updateTaskProgress(workTotal, workTotal);
+    }
+
+    /**
+     * Starts a low-priority background thread which builds, in order, every
+     * index not yet built.
+     */
+    protected void startWarmUp () {
+        Thread thread = new Thread(() -> {
+            try {
+                for (IndexDescriptor index : indexes) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        return;
+                    }
+                    buildReported(index, new CatalogCallback() {});
+                }
+                System.out.println("Background warm-up of catalog indexes "
+                                    + "completed.");
+            } catch (InterruptedException e) {
+            } catch (RuntimeException e) {
+                System.out.println("Background warm-up of catalog indexes "
+                                    + "failed: " + e);
+            }
+        }, "index-warm-up");
+        if (!warmUpThread.compareAndSet(null, thread)) {
+            return;
+        }
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    /** Stops the background warm-up (if running). */
+    protected void stopWarmUp () {
+        Thread thread = warmUpThread.get();
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    /** Indexes built singly (by the startup path, on demand, or by the
+     * warm-up) have the cost of each reported; the memory cost is 
+     * approximate where builds overlap. */
+    private PostingListIndex buildReported 
+                        (IndexDescriptor index, CatalogCallback callback)
+            throws InterruptedException {
+        return getBuiltIndex(index, () -> {
+            long usedMemoryBefore = Catalog.printMemoryUsage
+                    ("Before index built: " + index.name, Catalog.DIAGNOSTIC_MODE);
+            long startNanos = System.nanoTime();
+            PostingListIndex collection = PostingListIndex.build
+                    (index.name, index.keyClasses, this, callback);
+            long elapsedMillis = (System.nanoTime() - startNanos) / 1000000;
+            long usedMemoryAfter = Catalog.printMemoryUsage
+                    ("After index built: " + index.name, Catalog.DIAGNOSTIC_MODE);
+            System.out.println("Index built: " + index.name + " -- " 
+                    + works.size() + " works in " + elapsedMillis + " ms; "
+                    + String.format("%,d", 
+                            Math.max(0, usedMemoryAfter - usedMemoryBefore))
+                    + " bytes of memory (approximate unless garbage collected); "
+                    + String.format("%,d", collection.getPostingBytes())
+                    + " bytes of postings.");
+            return collection;
+        });
+    }
+
+    /**
+     * Builds the index in this thread, unless its build is under way in
+     * another thread, in which case that build is joined. If the build 
+     * joined is stopped (e.g., that of an interrupted warm-up), the index 
+     * is built in this thread instead.
+     * @param index index to be built
+     * @param builder builds the index
+     * @return the built index
+     * @throws InterruptedException if this thread is interrupted
+     */
+    private PostingListIndex getBuiltIndex (IndexDescriptor index, 
+                                    Callable<PostingListIndex> builder)
+            throws InterruptedException {
+        while (true) {
+            PostingListIndex collection = index.collection;
+            if (collection != null) {
+                return collection;
+            }
+            FutureTask<PostingListIndex> build = new FutureTask<>(() -> {
+                PostingListIndex builtCollection = builder.call();
+                index.collection = builtCollection;
+                return builtCollection;
+            });
+            FutureTask<PostingListIndex> runningBuild 
+                                        = builds.putIfAbsent(index, build);
+            if (runningBuild == null) {
+                runningBuild = build;
+                build.run();
+            }
+            try {
+                return runningBuild.get();
+            } catch (ExecutionException e) {
+                builds.remove(index, runningBuild);
+                if (runningBuild != build 
+                        && e.getCause() instanceof InterruptedException) {
+                    continue;
+                }
+                throw getUncheckedCause(e);
+            }
+        }
+    }
+
+    /** @return the unchecked cause of a failed build
+     * @throws InterruptedException if the build was interrupted */
+    private static RuntimeException getUncheckedCause (ExecutionException e)
+            throws InterruptedException {
+        Throwable cause = e.getCause();
+        if (cause instanceof InterruptedException) {
+            throw (InterruptedException) cause;
+        } else if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        } else if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return new IllegalStateException(cause);
+    }
+
+    /** @return callback which reports the progress of one of several
+     * concurrent builds as a share of the progress of all */
+    private static CatalogCallback getProgressCallback (final AtomicLong workDone,
+                final long workTotal, final long callbackDivisor,
+                final CatalogCallback callback) {
+        return new CatalogCallback() {
+            private long reportedWorkCount = 0;
+
+            @Override
+            public void updateTaskProgress (long workCount, long max) {
+                long increment = workCount - reportedWorkCount;
+                long done = workDone.addAndGet(increment);
+                reportedWorkCount = workCount;
+                if (done / callbackDivisor 
+                            != (done - increment) / callbackDivisor
+                        || done == workTotal) {
+                    callback.updateTaskProgress(done, workTotal);
+                }
+            }
+        };
+    }
+
+    /**
+     * @param workClass
+     * @param keyClassArray order of works
+     * @return all works, in the order of the submitted key classes (a
+     * read-only view)
+     * @throws IllegalArgumentException if works cannot be ordered by a
+     * submitted key class
+     */
+    public final List<Work> getValues 
+            (Class<? extends Work> workClass, Class<?>... keyClassArray) {
+        return getWorkList(workClass, getIndex(null, keyClassArray).getPostings());
+    }
+
+    /**
+     * @param workClass
+     * @param indexedKey e.g., an {@link Author}
+     * @return works associated with the submitted key (a read-only view,
+     * unless only some works are of the submitted class)
+     * @throws IllegalArgumentException if works are not indexed by the
+     * submitted key's class
+     */
+    public List<Work> getValues 
+            (Class<? extends Work> workClass, Comparable<?> indexedKey) {
+        return getWorkList(workClass, 
+                getIndex(indexedKey.getClass()).getPostings(indexedKey));
+    }
+
+    /**
+     * @param workClass
+     * @param indexedKey e.g., an {@link Author}
+     * @param keyClassArray order of works
+     * @return works associated with the submitted key, in the order of the
+     * submitted key classes (a read-only view, unless only some works are of
+     * the submitted class)
+     * @throws IllegalArgumentException if works are not indexed by the
+     * submitted key's class, or cannot be ordered by a submitted key class
+     */
+    public final List<Work> getValues 
+            (Class<? extends Work> workClass, Comparable<?> indexedKey,
+                            Class<?>... keyClassArray) {
+        return getWorkList(workClass, getIndex(indexedKey.getClass(), 
+                                    keyClassArray).getPostings(indexedKey));
+    }
+
+    /**
+     * @param indexedKeyClass e.g., Author.class
+     * @return all values of the submitted key class (read-only)
+     * @throws IllegalArgumentException if works are not indexed by the
+     * submitted class
+     */
+    @SuppressWarnings("rawtypes") // element type of Catalog's key value lists
+    public List<Comparable> getAttributeValues (Class<?> indexedKeyClass) {
+        return Collections.<Comparable>unmodifiableList
+                        (getIndex(indexedKeyClass).getAttributeValues());
+    }
+
+    /** @return read-only view of the works of the submitted ordinals (or, 
+     * when only some works are of the submitted class, a new list of those 
+     * works) */
+    private List<Work> getWorkList 
+                    (Class<? extends Work> workClass, int[] postings) {
+        List<Work> workList = new PostingListIndex.WorkList(works, postings);
+        if (workClass.isAssignableFrom(commonWorkClass)) {
+            return workList;
+        }
+        List<Work> filteredWorkList = new ArrayList<>();
+        for (Work work : workList) {
+            if (workClass.isInstance(work)) {
+                filteredWorkList.add(work);
+            }
+        }
+        return filteredWorkList;
+    }
+
+    /** @return the first index with the submitted leading key class (if 
+     * any), followed by the submitted order classes, built if necessary; or, 
+     * if there is no such index, one built for these key classes alone */
+    private PostingListIndex getIndex 
+                    (Class<?> leadingKeyClass, Class<?>... orderClasses) {
+        IndexDescriptor servingIndex = null;
+        for (IndexDescriptor index : indexes) {
+            int offset = 0;
+            if (leadingKeyClass != null) {
+                if (!index.keyClasses.get(0).isAssignableFrom(leadingKeyClass)
+                        || !PostingListIndex.isAttributeClass
+                                                (index.keyClasses.get(0))) {
+                    continue;
+                }
+                offset = 1;
+            } else if (PostingListIndex.isAttributeClass
+                                                (index.keyClasses.get(0))) {
+                continue;
+            }
+            if (startsWith(index.keyClasses.subList
+                            (offset, index.keyClasses.size()), orderClasses)) {
+                servingIndex = index;
+                break;
+            }
+        }
+        if (servingIndex == null) {
+            return getUnregisteredIndex(leadingKeyClass, orderClasses);
+        }
+        PostingListIndex collection = servingIndex.collection;
+        if (collection != null) {
+            return collection;
+        }
+        try {
+            return buildReported(servingIndex, new CatalogCallback() {});
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException
+                    ("Interrupted while building index: " + servingIndex.name, e);
+        }
+    }
+
+    /** Answers a query which no registered index serves, as the single
+     * collection of all indexes formerly did: by an index of the submitted
+     * key classes (ending with the class of the works), built once and 
+     * retained. */
+    private PostingListIndex getUnregisteredIndex 
+                    (Class<?> leadingKeyClass, Class<?>... orderClasses) {
+        if (leadingKeyClass != null 
+                && !PostingListIndex.isAttributeClass(leadingKeyClass)) {
+            throw new IllegalArgumentException
+                ("Works are not indexed by " + leadingKeyClass.getName());
+        }
+        List<Class<?>> keyClasses = new ArrayList<>();
+        if (leadingKeyClass != null) {
+            keyClasses.add(leadingKeyClass);
+        }
+        keyClasses.addAll(Arrays.asList(orderClasses));
+        if (orderClasses.length == 0 || !Work.class.isAssignableFrom
+                                (orderClasses[orderClasses.length - 1])) {
+            keyClasses.add(commonWorkClass);
+        }
+        PostingListIndex index = unregisteredIndexes.get(keyClasses);
+        if (index != null) {
+            return index;
+        }
+        StringBuilder indexName = new StringBuilder("Unregistered index by");
+        for (Class<?> keyClass : keyClasses) {
+            indexName.append(' ').append(keyClass.getSimpleName());
+        }
+        try {
+            index = PostingListIndex.build(indexName.toString(), keyClasses, 
+                                            this, new CatalogCallback() {});
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException
+                    ("Interrupted while building index: " + indexName, e);
+        }
+        PostingListIndex previousIndex 
+                            = unregisteredIndexes.putIfAbsent(keyClasses, index);
+        return (previousIndex == null) ? index : previousIndex;
+    }
+
+    private static boolean startsWith 
+                            (List<Class<?>> keyClasses, Class<?>[] prefix) {
+        if (prefix.length > keyClasses.size()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (!keyClasses.get(i).isAssignableFrom(prefix[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void readObject (ObjectInputStream inputStream) 
+            throws IOException, ClassNotFoundException {
+        inputStream.defaultReadObject();
+        builds = new ConcurrentHashMap<>();
+        ranks = new ConcurrentHashMap<>();
+        orderedOrdinals = new ConcurrentHashMap<>();
+        warmUpThread = new AtomicReference<>();
+        unregisteredIndexes = new ConcurrentHashMap<>();
+    }
+
+    /** @return true if the list of works is serializable, so that the 
+     * populated directory may be saved in a {@link CatalogSnapshot} */
+    protected boolean isSerializable () {
+        return (works instanceof Serializable);
+    }
+
+    @Override
+    public String toString () {
+        StringBuilder directoryString = new StringBuilder();
+        for (IndexDescriptor index : indexes) {
+            if (index.collection == null) {
+                directoryString.append(index.name).append(" (not yet built)");
+            } else {
+                directoryString.append(index.collection);
+            }
+            directoryString.append('\n');
+        }
+        return directoryString.toString();
+    }
+}
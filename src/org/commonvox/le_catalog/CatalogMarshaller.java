@@ -20,6 +20,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.lang.reflect.InvocationTargetException;
@@ -27,6 +28,9 @@ import java.net.ConnectException;
 import java.net.MalformedURLException;
 import java.net.SocketTimeoutException;
 import java.net.URL;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
@@ -37,6 +41,10 @@ import javax.xml.bind.Marshaller;
  */
 public class CatalogMarshaller {
     private static final String CATALOG_XML_RESOURCE = "data/catalog.xml";
+    public static final String CATALOG_SNAPSHOT_FILE_NAME = "catalog.snapshot";
+    private static final String CATALOG_SNAPSHOT_RESOURCE 
+                                        = "data/" + CATALOG_SNAPSHOT_FILE_NAME;
+    private static final String TEMPORARY_FILE_SUFFIX = ".tmp";
     protected static final String GENRE_CSV_RESOURCE = "data/genres.csv"; // v1.5.1
     private static final String REMOTE_DATA_PATH
             ="https://dl.dropboxusercontent.com/u/2023253/le_data/";
@@ -50,6 +58,19 @@ public class CatalogMarshaller {
                                 = REMOTE_DATA_PATH + "leCurrentVersion.txt";
     public static final String DEFAULT_URL_BITLY_STRING_LATEST_VERSION
                                 = "http://bit.ly/1zx7isX";
+    private static JAXBContext catalogJaxbContext;
+    
+    /** JAXBContext instances are thread-safe and expensive to create, so a 
+     * single instance is shared (e.g., by concurrent Stage 1 API calls).
+     * @return shared JAXBContext for the {@link Catalog} class
+     * @throws JAXBException */
+    protected static synchronized JAXBContext getCatalogJaxbContext () 
+            throws JAXBException {
+        if (catalogJaxbContext == null) {
+            catalogJaxbContext = JAXBContext.newInstance(Catalog.class);
+        }
+        return catalogJaxbContext;
+    }
     
     public static Catalog unmarshalCatalogFromXml() 
             throws JAXBException {
@@ -80,6 +101,23 @@ public class CatalogMarshaller {
         return catalog;
     }
 
+    /**
+     * @param callback
+     * @return catalog restored from the internal boot snapshot, or null if
+     * the snapshot is absent or stale (see {@link CatalogSnapshot}), in which
+     * case the catalog is to be unmarshalled from XML
+     * @throws InterruptedException
+     */
+    public static Catalog restoreCatalogFromSnapshot (CatalogCallback callback) 
+            throws InterruptedException {
+        if (callback != null) {
+            callback.updateTaskMessage("Restoring Catalog from boot snapshot.");
+        }
+        return CatalogSnapshot.read
+                (CatalogMarshaller.class.getResource(CATALOG_SNAPSHOT_RESOURCE),
+                    CatalogMarshaller.class.getResource(CATALOG_XML_RESOURCE));
+    }
+
     public static Catalog unmarshalCatalogFromXml (File file) 
             throws JAXBException {
         Catalog catalog = (Catalog) 
@@ -90,30 +128,73 @@ public class CatalogMarshaller {
     
     public static Catalog unmarshalCatalogFromXml (URL url) 
             throws JAXBException {
-        Catalog unmarshalledCatalog = null;
-        /* Try MAX_ATTEMPTS times if possible timeouts occur. added v1.5.1 */
+        return unmarshalCatalogFromXml(url, null);
+    }
+    
+    /**
+     * @param url URL of catalog XML
+     * @param metricsStage if not null, name of assembly stage to which time
+     * spent unmarshalling (after the response arrives) is reported via
+     * {@link AssemblyMetrics#recordParseNanos(String, long)}
+     * @return unmarshalled catalog
+     * @throws JAXBException if unmarshalling fails (with any IOException,
+     * such as FileNotFoundException, as its linked exception)
+     */
+    public static Catalog unmarshalCatalogFromXml (URL url, String metricsStage) 
+            throws JAXBException {
+        /* Failures in obtaining the response are retried per the 
+         * RequestPolicy; a timeout while the body is being read (during 
+         * unmarshalling) is retried here, up to MAX_ATTEMPTS times. */
         final int MAX_ATTEMPTS = 3;
-        for (int i = 0; i < MAX_ATTEMPTS; i++) {
+        for (int attempt = 1; ; attempt++) {
             try {
-                unmarshalledCatalog 
-                    = (Catalog) JAXBContext.newInstance(Catalog.class)
-                            .createUnmarshaller().unmarshal(url);
-                return unmarshalledCatalog;
-            } catch (JAXBException exception) {
-                if (exception.getLinkedException().getClass().isAssignableFrom
-                                                (SocketTimeoutException.class)
-                        || exception.getLinkedException().getClass().isAssignableFrom
-                                                (ConnectException.class)) {
-                    if (i == MAX_ATTEMPTS - 1) {
+                return unmarshalCatalogFromStream(url, metricsStage);
+            } catch (JAXBException e) {
+                if (!isTimeout(e) || attempt == MAX_ATTEMPTS) {
+                    if (isTimeout(e)) {
                         System.out.println("Timeout accessing: " + url);
-                        throw exception;
                     }
-                } else {
-                    throw exception;
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private static Catalog unmarshalCatalogFromStream 
+                                    (URL url, String metricsStage) 
+            throws JAXBException {
+        try (InputStream inputStream = HttpFetcher.openStream(url)) {
+            long parseStartNanos = System.nanoTime();
+            try {
+                return (Catalog) getCatalogJaxbContext()
+                                .createUnmarshaller().unmarshal(inputStream);
+            } finally {
+                if (metricsStage != null) {
+                    AssemblyMetrics.recordParseNanos
+                        (metricsStage, System.nanoTime() - parseStartNanos);
                 }
             }
+        } catch (IOException e) {
+            /* linked exception (e.g., FileNotFoundException) examined 
+             * by callers, as when JAXB accessed the URL directly */
+            throw new JAXBException(e.toString(), e);
+        }
+    }
+
+    /** @return true if the exception was caused by a connect or read 
+     * timeout (reported by JAXB as its linked exception, possibly wrapped) */
+    private static boolean isTimeout (JAXBException exception) {
+        Throwable cause = exception.getLinkedException();
+        while (cause != null) {
+            if (cause instanceof SocketTimeoutException 
+                    || cause instanceof ConnectException) {
+                return true;
+            }
+            cause = (cause instanceof JAXBException) 
+                    ? ((JAXBException) cause).getLinkedException()
+                    : cause.getCause();
         }
-        return null;
+        return false;
     }
     
     public static Catalog unmarshalCatalogFromXml
@@ -134,9 +215,7 @@ public class CatalogMarshaller {
             }
             return null;
         }
-        Catalog catalog 
-            = (Catalog)JAXBContext.newInstance(Catalog.class)
-                    .createUnmarshaller().unmarshal(new URL(urlString));
+        Catalog catalog = unmarshalCatalogFromXml(new URL(urlString));
         if (Thread.interrupted()) {
             return null;
         }
@@ -205,6 +284,9 @@ public class CatalogMarshaller {
         marshalCatalogToXml (catalog, file, false);
     }
     
+    /** The catalog is marshalled to a temporary file, moved into place only
+     * when complete: a stage file found by a RESUME run is never one cut
+     * short by an interrupted marshal. */
     public static void marshalCatalogToXml (Catalog catalog, File file, boolean formatted) 
             throws JAXBException {
         Marshaller marshaller 
@@ -212,7 +294,45 @@ public class CatalogMarshaller {
         if (formatted) {
             marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
         }
-        marshaller.marshal(catalog, file);
+        File temporaryFile = getTemporaryFile(file);
+        try {
+            marshaller.marshal(catalog, temporaryFile);
+            moveIntoPlace(temporaryFile, file);
+        } catch (IOException e) {
+            throw new JAXBException(e.toString(), e);
+        } finally {
+            temporaryFile.delete();
+        }
+    }
+
+    /**
+     * @param file catalog file
+     * @return file to which the catalog is written before it is moved into
+     * place (see {@link #moveIntoPlace(File, File)}), so that a catalog file
+     * which exists is always complete
+     */
+    protected static File getTemporaryFile (File file) {
+        return new File(file.getPath() + TEMPORARY_FILE_SUFFIX);
+    }
+    
+    /**
+     * Replaces a catalog file with its fully written temporary file (see
+     * {@link #getTemporaryFile(File)}), atomically where the file system 
+     * supports it.
+     * @param temporaryFile fully written temporary file
+     * @param file catalog file
+     * @throws IOException if the file cannot be moved
+     */
+    protected static void moveIntoPlace (File temporaryFile, File file) 
+            throws IOException {
+        try {
+            Files.move(temporaryFile.toPath(), file.toPath(),
+                                        StandardCopyOption.ATOMIC_MOVE,
+                                        StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporaryFile.toPath(), file.toPath(),
+                                        StandardCopyOption.REPLACE_EXISTING);
+        }
     }
 
     public static Catalog getTestCatalog (Catalog masterCatalog, int sizeOfTestCatalog)
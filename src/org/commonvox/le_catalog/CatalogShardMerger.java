@@ -0,0 +1,188 @@
+/*
+ * Copyright (C) 2015 Daniel Vimont
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.commonvox.le_catalog;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import javax.xml.bind.JAXBException;
+
+/**
+ * Merges the Stage 6 or Stage 7 catalogs of the shards of a sharded assembly (see
+ * {@link CatalogAssembler#shardCount}) into a single catalog. Each shard
+ * catalog is in LibriVox URL key order (the order in which Stage 6 emits
+ * audiobooks), so the catalogs are merged in a single streaming k-way pass:
+ * only the next audiobook of each shard is held in memory. As in Stage 6,
+ * of audiobooks (of different shards) sharing a LibriVox URL, only that
+ * which is last in catalog (ID) order is kept.
+ * @author Daniel Vimont
+ */
+public class CatalogShardMerger {
+    private final List<Integer> shardAudiobookCounts = new ArrayList<>();
+    private int mergedAudiobookCount = 0;
+    private int duplicateUrlCount = 0;
+
+    /** The next unmerged audiobook of a shard. */
+    private static class ShardHead {
+        final int shardIndex;
+        final CatalogXmlStreamReader reader;
+        Audiobook audiobook;
+        String urlKey;
+
+        ShardHead (int shardIndex, CatalogXmlStreamReader reader) {
+            this.shardIndex = shardIndex;
+            this.reader = reader;
+        }
+
+        /** @return false if the shard is exhausted */
+        boolean advance () throws IOException, JAXBException {
+            String previousUrlKey = urlKey;
+            audiobook = reader.next();
+            if (audiobook == null) {
+                return false;
+            }
+            urlKey = Catalog.getUrlKey(audiobook.getUrlLibrivox());
+            if (urlKey == null) {
+                throw new IOException("Audiobook without LibriVox URL (ID="
+                        + audiobook.getId() + ") in shard catalog: "
+                        + reader.getFile());
+            }
+            if (previousUrlKey != null && urlKey.compareTo(previousUrlKey) < 0) {
+                throw new IOException("Shard catalog not in LibriVox URL order"
+                        + " (was it assembled in streaming mode?): "
+                        + reader.getFile());
+            }
+            return true;
+        }
+    }
+
+    private CatalogShardMerger () {
+    }
+
+    /**
+     * @param shardCatalogFiles catalog of each shard, in shard order
+     * @param mergedFile merged catalog XML file
+     * @return merger, whose counts summarize the merge
+     * @throws IOException if a file cannot be read or written, or a shard
+     * catalog is not in LibriVox URL order
+     * @throws JAXBException if an audiobook cannot be unmarshalled or
+     * marshalled
+     * @throws InterruptedException if interrupted
+     */
+    public static CatalogShardMerger merge (List<File> shardCatalogFiles,
+                                    File mergedFile)
+            throws IOException, JAXBException, InterruptedException {
+        return merge(shardCatalogFiles, mergedFile, null);
+    }
+
+    /**
+     * @param shardCatalogFiles catalog of each shard, in shard order
+     * @param mergedFile merged catalog XML file
+     * @param mergedFormattedFile merged catalog XML file, indented (or null
+     * if none is to be written)
+     * @return merger, whose counts summarize the merge
+     * @throws IOException if a file cannot be read or written, or a shard
+     * catalog is not in LibriVox URL order
+     * @throws JAXBException if an audiobook cannot be unmarshalled or
+     * marshalled
+     * @throws InterruptedException if interrupted
+     */
+    public static CatalogShardMerger merge (List<File> shardCatalogFiles,
+                                    File mergedFile, File mergedFormattedFile)
+            throws IOException, JAXBException, InterruptedException {
+        CatalogShardMerger merger = new CatalogShardMerger();
+        List<ShardHead> shardHeads = new ArrayList<>();
+        try {
+            for (File shardCatalogFile : shardCatalogFiles) {
+                shardHeads.add(new ShardHead(shardHeads.size(),
+                                new CatalogXmlStreamReader(shardCatalogFile)));
+            }
+            merger.run(shardHeads, mergedFile, mergedFormattedFile);
+        } finally {
+            for (ShardHead shardHead : shardHeads) {
+                shardHead.reader.close();
+            }
+        }
+        for (ShardHead shardHead : shardHeads) {
+            merger.shardAudiobookCounts.add(shardHead.reader.getAudiobookCount());
+        }
+        return merger;
+    }
+
+    private void run (List<ShardHead> shardHeads,
+                            File mergedFile, File mergedFormattedFile)
+            throws IOException, JAXBException, InterruptedException {
+        PriorityQueue<ShardHead> queue = new PriorityQueue<>(
+                Math.max(1, shardHeads.size()),
+                Comparator.comparing((ShardHead head) -> head.urlKey)
+                        .thenComparingInt(head -> head.shardIndex));
+        for (ShardHead shardHead : shardHeads) {
+            if (shardHead.advance()) {
+                queue.add(shardHead);
+            }
+        }
+        try (CatalogXmlStreamWriter writer
+                        = new CatalogXmlStreamWriter(mergedFile);
+                CatalogXmlStreamWriter formattedWriter
+                        = (mergedFormattedFile == null) ? null
+                        : new CatalogXmlStreamWriter(mergedFormattedFile, true)) {
+            while (!queue.isEmpty()) {
+                if (Thread.interrupted()) { throw new InterruptedException(); }
+                ShardHead shardHead = queue.poll();
+                Audiobook audiobook = shardHead.audiobook;
+                String urlKey = shardHead.urlKey;
+                if (shardHead.advance()) {
+                    queue.add(shardHead);
+                }
+                while (!queue.isEmpty() && queue.peek().urlKey.equals(urlKey)) {
+                    ShardHead duplicateHead = queue.poll();
+                    if (duplicateHead.audiobook.compareTo(audiobook) > 0) {
+                        audiobook = duplicateHead.audiobook;
+                    }
+                    duplicateUrlCount++;
+                    if (duplicateHead.advance()) {
+                        queue.add(duplicateHead);
+                    }
+                }
+                writer.write(audiobook);
+                if (formattedWriter != null) {
+                    formattedWriter.write(audiobook);
+                }
+                mergedAudiobookCount++;
+            }
+        }
+    }
+
+    /** @return count of audiobooks read from each shard catalog */
+    public List<Integer> getShardAudiobookCounts () {
+        return shardAudiobookCounts;
+    }
+
+    public int getMergedAudiobookCount () {
+        return mergedAudiobookCount;
+    }
+
+    /** @return count of audiobooks superseded by an audiobook of another
+     * shard with the same LibriVox URL */
+    public int getDuplicateUrlCount () {
+        return duplicateUrlCount;
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright (C) 2015 Daniel Vimont
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.commonvox.le_catalog;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.net.URL;
+import java.util.Locale;
+import java.util.zip.CRC32;
+import javax.xml.bind.JAXBException;
+
+/**
+ * A catalog saved after the deterministic portion of {@link Catalog#bootUp}
+ * (cleaning of author/reader data, linking of sections, propagation of
+ * author/reader/genre data, and indexing), so that at startup the catalog
+ * may be restored in a single deserialization rather than unmarshalled 
+ * from XML and prepared anew.
+ * <p>
+ * A snapshot records the length and CRC-32 checksum of the catalog XML from
+ * which it was made, and the {@link Catalog#titleCollationLocale} by which 
+ * its title orderings were built; it is disregarded (in favor of the XML) 
+ * if these do not match the catalog XML and locale in use, or if it is of
+ * a different snapshot format version. Every class whose instances are 
+ * saved in a snapshot declares a fixed serialVersionUID, so that a mere
+ * recompile does not invalidate snapshots; SNAPSHOT_VERSION is to be 
+ * incremented whenever the serialized form of any of them changes. The populated directory of indexes is
+ * included only if its implementation is serializable; otherwise the 
+ * indexes are populated from the restored catalog at startup.
+ * @author Daniel Vimont
+ */
+public class CatalogSnapshot {
+    private static final int SNAPSHOT_MARKER = 0x4C45424F; // "LEBO"
+    private static final int SNAPSHOT_VERSION = 4;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private CatalogSnapshot () {
+    }
+
+    /**
+     * Prepares and indexes a catalog (as in {@link Catalog#bootUp}, but 
+     * without any remote access), and saves it as a snapshot.
+     * @param catalogXmlFile catalog XML (to be shipped as "catalog.xml")
+     * @param snapshotFile snapshot file (to be shipped alongside it)
+     * @throws JAXBException if catalog XML cannot be unmarshalled
+     * @throws IOException if a file cannot be read or written
+     * @throws IllegalAccessException if catalog cannot be indexed
+     * @throws InvocationTargetException if catalog cannot be indexed
+     * @throws InterruptedException if interrupted
+     */
+    public static void write (File catalogXmlFile, File snapshotFile)
+            throws JAXBException, IOException, 
+                    IllegalAccessException, InvocationTargetException,
+                    InterruptedException {
+        Catalog catalog = CatalogMarshaller.unmarshalCatalogFromXml(catalogXmlFile);
+        Title.setCollationLocale(Catalog.titleCollationLocale);
+        CatalogCallback callback = new CatalogCallback() {
+            @Override 
+            public void updateTaskMessage(String message) {
+                System.out.println("*\n" + message);
+            }
+        };
+        catalog.prepareForIndexing(callback);
+        catalog.populateIndexes(callback);
+        CatalogDirectory directory = Catalog.getDirectory();
+        boolean directoryIncluded = directory.isSerializable();
+        if (directoryIncluded) {
+            directory.buildAllIndexes(callback, false);
+        }
+        Checksum checksum;
+        try (InputStream catalogXmlStream = new FileInputStream(catalogXmlFile)) {
+            checksum = Checksum.of(catalogXmlStream);
+        }
+        try (DataOutputStream snapshotStream = new DataOutputStream
+                (new BufferedOutputStream
+                        (new FileOutputStream(snapshotFile), BUFFER_SIZE))) {
+            snapshotStream.writeInt(SNAPSHOT_MARKER);
+            snapshotStream.writeInt(SNAPSHOT_VERSION);
+            snapshotStream.writeLong(checksum.length);
+            snapshotStream.writeLong(checksum.crc.getValue());
+            snapshotStream.writeUTF(getCollationTag(Catalog.titleCollationLocale));
+            ObjectOutputStream objectStream = new ObjectOutputStream(snapshotStream);
+            objectStream.writeObject(catalog);
+            objectStream.writeObject(directoryIncluded ? directory : null);
+            objectStream.flush();
+        }
+        System.out.println("Boot snapshot of " + catalog.audiobooks.size() 
+                + " audiobooks written to " + snapshotFile + " (" 
+                + snapshotFile.length() + " bytes; indexes " 
+                + (directoryIncluded ? "included" : "to be populated at startup")
+                + ").");
+    }
+
+    /**
+     * @param snapshotUrl snapshot (which need not exist)
+     * @param catalogXmlUrl catalog XML for which snapshot is to have been made
+     * @return restored catalog, ready for {@link Catalog#bootUp}; or null if
+     * the snapshot does not exist, is stale, or cannot be read (the reason
+     * being printed), in which case the catalog XML is to be used
+     * @throws InterruptedException if interrupted
+     */
+    public static Catalog read (URL snapshotUrl, URL catalogXmlUrl) 
+            throws InterruptedException {
+        if (snapshotUrl == null) {
+            System.out.println("** no boot snapshot found; catalog XML to be used **");
+            return null;
+        }
+        try (DataInputStream snapshotStream = new DataInputStream
+                (new BufferedInputStream(snapshotUrl.openStream(), BUFFER_SIZE))) {
+            if (snapshotStream.readInt() != SNAPSHOT_MARKER) {
+                System.out.println("** boot snapshot is not a snapshot file; "
+                        + "catalog XML to be used **");
+                return null;
+            }
+            int snapshotVersion = snapshotStream.readInt();
+            if (snapshotVersion != SNAPSHOT_VERSION) {
+                System.out.println("** boot snapshot is of format version " 
+                        + snapshotVersion + " (not " + SNAPSHOT_VERSION 
+                        + "); catalog XML to be used **");
+                return null;
+            }
+            long catalogXmlLength = snapshotStream.readLong();
+            long checksum = snapshotStream.readLong();
+            String collationTag = snapshotStream.readUTF();
+            if (!matchesCatalogXml(catalogXmlUrl, catalogXmlLength, checksum)) {
+                System.out.println("** boot snapshot is stale (catalog XML has "
+                        + "changed); catalog XML to be used **");
+                return null;
+            }
+            if (!collationTag.equals
+                        (getCollationTag(Catalog.titleCollationLocale))) {
+                System.out.println("** boot snapshot is stale (title collation "
+                        + "locale has changed); catalog XML to be used **");
+                return null;
+            }
+            if (Thread.interrupted()) { throw new InterruptedException(); }
+            ObjectInputStream objectStream = new ObjectInputStream(snapshotStream);
+            Catalog catalog = (Catalog) objectStream.readObject();
+            CatalogDirectory directory = (CatalogDirectory) objectStream.readObject();
+            if (!catalog.isPreparedForIndexing()) {
+                System.out.println("** boot snapshot holds an unprepared "
+                        + "catalog; catalog XML to be used **");
+                return null;
+            }
+            catalog.setRestoredDirectory(directory);
+            return catalog;
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            /* InvalidClassException (a subclass of IOException) indicates a
+             * snapshot written by a different version of the catalog classes */
+            System.out.println("** boot snapshot cannot be read (" + e 
+                    + "); catalog XML to be used **");
+            return null;
+        }
+    }
+
+    /** @return language tag of the locale; empty for none (String order) */
+    private static String getCollationTag (Locale locale) {
+        return (locale == null) ? "" : locale.toLanguageTag();
+    }
+
+    private static boolean matchesCatalogXml 
+                            (URL catalogXmlUrl, long length, long checksum) 
+            throws IOException {
+        if (catalogXmlUrl == null) {
+            return false;
+        }
+        try (InputStream catalogXmlStream = catalogXmlUrl.openStream()) {
+            Checksum catalogXmlChecksum = Checksum.of(catalogXmlStream);
+            return catalogXmlChecksum.length == length 
+                    && catalogXmlChecksum.crc.getValue() == checksum;
+        } catch (FileNotFoundException e) {
+            return false;
+        }
+    }
+
+    /** Length and CRC-32 checksum of the content of a stream. */
+    private static class Checksum {
+        final CRC32 crc = new CRC32();
+        long length = 0;
+
+        static Checksum of (InputStream inputStream) throws IOException {
+            Checksum checksum = new Checksum();
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int byteCount;
+            while ((byteCount = inputStream.read(buffer)) != -1) {
+                checksum.crc.update(buffer, 0, byteCount);
+                checksum.length += byteCount;
+            }
+            return checksum;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2015 Daniel Vimont
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.commonvox.le_catalog;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Reads a catalog XML file one audiobook at a time (the counterpart of
+ * {@link CatalogXmlStreamWriter}), so that a catalog may be processed
+ * without being held in memory in its entirety. The file is read with a
+ * StAX stream reader, and each "book" element is unmarshalled in turn.
+ * @author Daniel Vimont
+ */
+public class CatalogXmlStreamReader
+        implements Closeable {
+    private static final String AUDIOBOOK_ELEMENT_NAME = "book";
+    private static final XMLInputFactory XML_INPUT_FACTORY
+                                            = XMLInputFactory.newInstance();
+    private final File file;
+    private final InputStream inputStream;
+    private final XMLStreamReader xmlStreamReader;
+    private final Unmarshaller unmarshaller;
+    private int audiobookCount = 0;
+
+    /**
+     * @param file catalog XML file
+     * @throws IOException if file cannot be opened
+     * @throws JAXBException if unmarshaller cannot be created
+     */
+    public CatalogXmlStreamReader (File file)
+            throws IOException, JAXBException {
+        this.file = file;
+        unmarshaller = CatalogMarshaller.getCatalogJaxbContext().createUnmarshaller();
+        inputStream = new BufferedInputStream(new FileInputStream(file));
+        try {
+            xmlStreamReader = XML_INPUT_FACTORY.createXMLStreamReader(inputStream);
+        } catch (XMLStreamException e) {
+            inputStream.close();
+            throw new IOException("Catalog XML cannot be read: " + file, e);
+        }
+    }
+
+    /**
+     * @return next audiobook in file, or null if none remain
+     * @throws IOException if file cannot be read or parsed
+     * @throws JAXBException if audiobook cannot be unmarshalled
+     */
+    public Audiobook next () throws IOException, JAXBException {
+        try {
+            /* unmarshal leaves the reader positioned just after the element,
+             * which may be the start of the next one */
+            while (xmlStreamReader.hasNext()) {
+                if (xmlStreamReader.isStartElement() && xmlStreamReader
+                            .getLocalName().equals(AUDIOBOOK_ELEMENT_NAME)) {
+                    audiobookCount++;
+                    return unmarshaller.unmarshal
+                                (xmlStreamReader, Audiobook.class).getValue();
+                }
+                xmlStreamReader.next();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Catalog XML cannot be parsed: " + file, e);
+        }
+        return null;
+    }
+
+    public int getAudiobookCount () {
+        return audiobookCount;
+    }
+
+    public File getFile () {
+        return file;
+    }
+
+    @Override
+    public void close () throws IOException {
+        try {
+            xmlStreamReader.close();
+        } catch (XMLStreamException e) {
+        } finally {
+            inputStream.close();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2015 Daniel Vimont
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.commonvox.le_catalog;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+
+/**
+ * Writes a catalog XML file one audiobook at a time, so that a stage's
+ * output can be written as audiobooks flow through it, without the whole
+ * {@link Catalog} being held in memory. The resultant file has the same
+ * structure as one written by
+ * {@link CatalogMarshaller#marshalCatalogToXml(Catalog, File, boolean)}, and
+ * may be unmarshalled in the usual way.
+ * @author Daniel Vimont
+ */
+public class CatalogXmlStreamWriter
+        implements Closeable {
+    private static final String XML_DECLARATION
+            = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>";
+    private final File file;
+    private final Writer writer;
+    private final Marshaller marshaller;
+    private final boolean formatted;
+    private int audiobookCount = 0;
+    private boolean closed = false;
+
+    /**
+     * Creates (or overwrites) the file and writes the catalog's opening tags.
+     * @param file catalog XML file
+     * @param formatted if true, output is indented
+     * @throws IOException if file cannot be created
+     * @throws JAXBException if marshaller cannot be created
+     */
+    public CatalogXmlStreamWriter (File file, boolean formatted)
+            throws IOException, JAXBException {
+        this.file = file;
+        this.formatted = formatted;
+        marshaller = CatalogMarshaller.getCatalogJaxbContext().createMarshaller();
+        marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
+        if (formatted) {
+            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
+        }
+        writer = new BufferedWriter(new OutputStreamWriter
+                (new FileOutputStream(file), StandardCharsets.UTF_8));
+        writer.write(XML_DECLARATION);
+        writeLineBreak();
+        writer.write("<xml>");
+        writeLineBreak();
+        writer.write("<books>");
+        writeLineBreak();
+    }
+
+    public CatalogXmlStreamWriter (File file)
+            throws IOException, JAXBException {
+        this(file, false);
+    }
+
+    /**
+     * Appends an audiobook to the file.
+     * @param audiobook audiobook to be written
+     * @throws JAXBException if audiobook cannot be marshalled
+     */
+    public synchronized void write (Audiobook audiobook)
+            throws JAXBException {
+        marshaller.marshal(audiobook, writer);
+        audiobookCount++;
+    }
+
+    public synchronized int getAudiobookCount () {
+        return audiobookCount;
+    }
+
+    public File getFile () {
+        return file;
+    }
+
+    /**
+     * Writes the catalog's closing tags and closes the file.
+     * @throws IOException if file cannot be written
+     */
+    @Override
+    public synchronized void close () throws IOException {
+        if (closed) {
+            return;
+        }
+        writeLineBreak();
+        writer.write("</books>");
+        writeLineBreak();
+        writer.write("</xml>");
+        writer.close();
+        closed = true;
+    }
+
+    private void writeLineBreak () throws IOException {
+        if (formatted) {
+            writer.write(System.lineSeparator());
+        }
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright (C) 2015 Daniel Vimont
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.commonvox.le_catalog;
+
+import java.io.IOException;
+
+/**
+ * Thrown in place of a request to a host whose circuit breaker is open (see
+ * {@link RequestPolicy}), i.e., a request shed without being issued.
+ * @author Daniel Vimont
+ */
+public class CircuitOpenException extends IOException {
+    public CircuitOpenException (String host) {
+        super("Request shed: circuit open for host " + host);
+    }
+}
@@ -27,6 +27,7 @@ import javax.xml.bind.annotation.XmlType;
 @XmlType(propOrder = { "id", "firstName", "lastName", "yearOfBirth", "yearOfDeath" })
 public abstract class Contributor 
         implements HasLibrivoxId, Mergeable, Serializable {
+    private static final long serialVersionUID = 1L;
     protected String librivoxId;
     protected String firstName;
     protected String lastName;
@@ -0,0 +1,238 @@
+/*
+ * Copyright (C) 2015 Daniel Vimont
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.commonvox.le_catalog;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Downloads cover art (jpeg) files concurrently. Files already present in an
+ * index folder (e.g., the permanent jpeg folder, listed once at start) are
+ * not downloaded, and a file named by several audiobooks is downloaded once.
+ * Requests are made via {@link HttpFetcher}, so that its connect and read
+ * timeouts and its per-host connection limit apply. Each file is written to
+ * a temporary file which is renamed upon completion (so that an interrupted
+ * run leaves no partial jpegs). Failed requests are retried per the
+ * {@link RequestPolicy} applied by {@link HttpFetcher}, not here.
+ * @author Daniel Vimont
+ */
+public class CoverArtDownloader {
+    /** Count of concurrent downloads. */
+    protected static int threadCount = 8;
+    private static final String TEMPORARY_FILE_SUFFIX = ".part";
+    private final AtomicInteger downloadCount = new AtomicInteger();
+    private final AtomicInteger invalidUrlCount = new AtomicInteger();
+    private final AtomicInteger failedCount = new AtomicInteger();
+    private final AtomicLong byteCount = new AtomicLong();
+    private int noUrlCount = 0;
+    private int previouslyDownloadedCount = 0;
+    private int duplicateCount = 0;
+    private long elapsedNanos = 0;
+
+    private CoverArtDownloader () {
+    }
+
+    /**
+     * @param urls cover art URLs (one per audiobook; null or empty where an
+     * audiobook has none)
+     * @param indexFolder folder of previously downloaded files
+     * @param targetFolder folder to which new files are downloaded (created
+     * if it does not exist)
+     * @return downloader, whose counts summarize the run
+     * @throws IOException if folders cannot be read or created
+     * @throws InterruptedException if interrupted
+     */
+    public static CoverArtDownloader download (List<String> urls,
+                                    Path indexFolder, Path targetFolder)
+            throws IOException, InterruptedException {
+        CoverArtDownloader downloader = new CoverArtDownloader();
+        downloader.run(urls, indexFolder, targetFolder);
+        return downloader;
+    }
+
+    private void run (List<String> urls, Path indexFolder, Path targetFolder)
+            throws IOException, InterruptedException {
+        long startNanos = System.nanoTime();
+        Set<String> indexedFileNames = getFileNames(indexFolder);
+        if (!Files.exists(targetFolder)) {
+            Files.createDirectories(targetFolder);
+        }
+        Map<String,String> urlsByFileName = new LinkedHashMap<>();
+        for (String url : urls) {
+            if (url == null || url.isEmpty()) {
+                noUrlCount++;
+                continue;
+            }
+            String fileName = new File(url).getName();
+            if (indexedFileNames.contains(fileName)) {
+                previouslyDownloadedCount++;
+            } else if (urlsByFileName.putIfAbsent(fileName, url) != null) {
+                duplicateCount++;
+            }
+        }
+        ExecutorService executor = Executors.newFixedThreadPool
+                (Math.max(1, threadCount),
+                    CatalogAssembler.getDaemonThreadFactory("jpeg-download-"));
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (Map.Entry<String,String> entry : urlsByFileName.entrySet()) {
+                futures.add(executor.submit(() -> {
+                    downloadFile(entry.getValue(),
+                                    targetFolder.resolve(entry.getKey()));
+                    return null;
+                }));
+            }
+            for (Future<Void> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof InterruptedException) {
+                        throw (InterruptedException) e.getCause();
+                    } else if (e.getCause() instanceof RuntimeException) {
+                        throw (RuntimeException) e.getCause();
+                    }
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+            elapsedNanos = System.nanoTime() - startNanos;
+        }
+    }
+
+    private static Set<String> getFileNames (Path folder) throws IOException {
+        Set<String> fileNames = new HashSet<>();
+        if (folder == null || !Files.isDirectory(folder)) {
+            return fileNames;
+        }
+        try (DirectoryStream<Path> paths = Files.newDirectoryStream(folder)) {
+            for (Path path : paths) {
+                fileNames.add(path.getFileName().toString());
+            }
+        }
+        return fileNames;
+    }
+
+    private void downloadFile (String urlString, Path targetFile)
+            throws InterruptedException {
+        URL url;
+        try {
+            url = new URL(urlString);
+        } catch (MalformedURLException e) {
+            System.out.println("Downloaded jpeg: INVALID URL -- " + urlString);
+            invalidUrlCount.incrementAndGet();
+            return;
+        }
+        if (Thread.interrupted()) { throw new InterruptedException(); }
+        Path temporaryFile = targetFile.resolveSibling
+                            (targetFile.getFileName() + TEMPORARY_FILE_SUFFIX);
+        try {
+            long fileByteCount;
+            try (InputStream inputStream = HttpFetcher.openStream(url, false)) {
+                fileByteCount = Files.copy(inputStream, temporaryFile,
+                                    StandardCopyOption.REPLACE_EXISTING);
+            }
+            try {
+                Files.move(temporaryFile, targetFile,
+                                    StandardCopyOption.ATOMIC_MOVE,
+                                    StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporaryFile, targetFile,
+                                    StandardCopyOption.REPLACE_EXISTING);
+            }
+            byteCount.addAndGet(fileByteCount);
+            downloadCount.incrementAndGet();
+            System.out.println("Downloaded jpeg: " + targetFile.getFileName());
+        } catch (FileNotFoundException e) {
+            deleteQuietly(temporaryFile);
+            System.out.println("Downloaded jpeg: FILE NOT FOUND at URL -- "
+                                    + urlString);
+            invalidUrlCount.incrementAndGet();
+        } catch (IOException e) {
+            deleteQuietly(temporaryFile);
+            System.out.println("Downloaded jpeg: FAILED at URL -- " + urlString
+                                    + " (" + e + ")");
+            failedCount.incrementAndGet();
+        }
+    }
+
+    private static void deleteQuietly (Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+        }
+    }
+
+    public int getDownloadCount () {
+        return downloadCount.get();
+    }
+
+    public int getPreviouslyDownloadedCount () {
+        return previouslyDownloadedCount;
+    }
+
+    public int getNoUrlCount () {
+        return noUrlCount;
+    }
+
+    public int getInvalidUrlCount () {
+        return invalidUrlCount.get();
+    }
+
+    public int getFailedCount () {
+        return failedCount.get();
+    }
+
+    /** @return count of audiobooks sharing a file with another audiobook */
+    public int getDuplicateCount () {
+        return duplicateCount;
+    }
+
+    /**
+     * @return one-line summary of bytes downloaded and rate
+     */
+    public String getTransferStatistics () {
+        double elapsedSeconds = elapsedNanos / 1e9;
+        return byteCount.get() + " bytes downloaded in "
+                + String.format("%.1f", elapsedSeconds) + " seconds ("
+                + String.format("%.0f", (elapsedSeconds > 0) ?
+                                byteCount.get() / elapsedSeconds : 0)
+                + " bytes/sec).";
+    }
+}
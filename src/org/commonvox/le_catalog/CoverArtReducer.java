@@ -0,0 +1,287 @@
+/*
+ * Copyright (C) 2015 Daniel Vimont
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.commonvox.le_catalog;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+
+/**
+ * Produces the reduced cover art jpegs which are packaged with the browser
+ * (formerly produced by hand via a desktop picture manager's "compress
+ * pictures" function). Each jpeg in a source folder is decoded (with
+ * subsampling, so that large images are not decoded at full resolution),
+ * scaled so that its longer side is {@link #targetSideLength}, and
+ * re-encoded at {@link #quality} into the reduced folder. Images are
+ * processed concurrently, one per available processor, and an image whose
+ * reduced file is newer than its source is not processed again.
+ * @author Daniel Vimont
+ */
+public class CoverArtReducer {
+    /** Longer side, in pixels, of reduced images (the largest side at which
+     * the browser displays them, in its detail views). */
+    protected static int targetSideLength = 200;
+    /** JPEG compression quality of reduced images (0 to 1). */
+    protected static float quality = 0.75f;
+    private static final String JPEG_SUFFIX = ".jpg";
+    private static final String TEMPORARY_FILE_SUFFIX = ".part";
+
+    /** Outcome of the reduction of a single image. */
+    private static class Reduction {
+        final String fileName;
+        final long sourceBytes;
+        final long reducedBytes;
+        final long latencyNanos;
+        final String failureMessage;
+
+        Reduction (String fileName, long sourceBytes, long reducedBytes,
+                            long latencyNanos, String failureMessage) {
+            this.fileName = fileName;
+            this.sourceBytes = sourceBytes;
+            this.reducedBytes = reducedBytes;
+            this.latencyNanos = latencyNanos;
+            this.failureMessage = failureMessage;
+        }
+    }
+
+    /**
+     * @param sourceFolder folder of full-size jpegs
+     * @param reducedFolder folder of reduced jpegs (created if it does not
+     * exist)
+     * @throws IOException if folders cannot be read or created
+     * @throws InterruptedException if interrupted
+     */
+    public static void reduce (Path sourceFolder, Path reducedFolder)
+            throws IOException, InterruptedException {
+        System.out.println( "=============================\n"
+                          + "REDUCTION OF JPEGs COMMENCING.\n"
+                          + "=============================\n");
+        long startNanos = System.nanoTime();
+        if (!Files.exists(reducedFolder)) {
+            Files.createDirectories(reducedFolder);
+        }
+        List<Path> sourceFiles = new ArrayList<>();
+        int upToDateCount = 0;
+        try (DirectoryStream<Path> paths = Files.newDirectoryStream(sourceFolder)) {
+            for (Path sourceFile : paths) {
+                if (!sourceFile.getFileName().toString()
+                                        .toLowerCase().endsWith(JPEG_SUFFIX)) {
+                    continue;
+                }
+                Path reducedFile = reducedFolder.resolve(sourceFile.getFileName());
+                if (Files.exists(reducedFile)
+                        && Files.getLastModifiedTime(reducedFile).compareTo
+                                (Files.getLastModifiedTime(sourceFile)) >= 0) {
+                    upToDateCount++;
+                    continue;
+                }
+                sourceFiles.add(sourceFile);
+            }
+        }
+        ExecutorService executor = Executors.newFixedThreadPool
+                (Runtime.getRuntime().availableProcessors(),
+                    CatalogAssembler.getDaemonThreadFactory("jpeg-reduction-"));
+        List<Reduction> reductions = new ArrayList<>();
+        try {
+            List<Future<Reduction>> futures = new ArrayList<>();
+            for (Path sourceFile : sourceFiles) {
+                futures.add(executor.submit(() -> reduceImage
+                        (sourceFile, reducedFolder.resolve(sourceFile.getFileName()))));
+            }
+            for (Future<Reduction> future : futures) {
+                try {
+                    reductions.add(future.get());
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof RuntimeException) {
+                        throw (RuntimeException) e.getCause();
+                    }
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        printSummary(reductions, upToDateCount, System.nanoTime() - startNanos);
+    }
+
+    private static Reduction reduceImage (Path sourceFile, Path reducedFile) {
+        long startNanos = System.nanoTime();
+        String fileName = sourceFile.getFileName().toString();
+        Path temporaryFile = reducedFile.resolveSibling
+                                    (fileName + TEMPORARY_FILE_SUFFIX);
+        try {
+            long sourceBytes = Files.size(sourceFile);
+            BufferedImage image = scale(decode(sourceFile));
+            encode(image, temporaryFile);
+            if (Files.size(temporaryFile) >= sourceBytes) {
+                /* source is already smaller than any reduction */
+                Files.copy(sourceFile, temporaryFile,
+                                        StandardCopyOption.REPLACE_EXISTING);
+            }
+            long reducedBytes = Files.size(temporaryFile);
+            try {
+                Files.move(temporaryFile, reducedFile,
+                                        StandardCopyOption.ATOMIC_MOVE,
+                                        StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporaryFile, reducedFile,
+                                        StandardCopyOption.REPLACE_EXISTING);
+            }
+            long latencyNanos = System.nanoTime() - startNanos;
+            System.out.println("Reduced jpeg: " + fileName + " (" + sourceBytes
+                    + " -> " + reducedBytes + " bytes, "
+                    + latencyNanos / 1000000 + " ms)");
+            return new Reduction(fileName, sourceBytes, reducedBytes,
+                                                        latencyNanos, null);
+        } catch (IOException | RuntimeException e) {
+            try {
+                Files.deleteIfExists(temporaryFile);
+            } catch (IOException ignored) {
+            }
+            System.out.println("Reduced jpeg: FAILED for " + fileName + " -- " + e);
+            return new Reduction(fileName, 0, 0,
+                            System.nanoTime() - startNanos, e.toString());
+        }
+    }
+
+    /** Decodes only every n-th row and column of a large image, n being the
+     * largest subsampling which leaves at least twice the target side length
+     * for scaling. */
+    private static BufferedImage decode (Path sourceFile) throws IOException {
+        try (ImageInputStream inputStream
+                        = ImageIO.createImageInputStream(sourceFile.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(inputStream);
+            if (!readers.hasNext()) {
+                throw new IOException("no image reader for file");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(inputStream, true, true);
+                int longerSide = Math.max(reader.getWidth(0), reader.getHeight(0));
+                int subsampling = Math.max(1, longerSide / (targetSideLength * 2));
+                ImageReadParam readParam = reader.getDefaultReadParam();
+                readParam.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, readParam);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage scale (BufferedImage image) {
+        double scale = (double) targetSideLength
+                            / Math.max(image.getWidth(), image.getHeight());
+        int width = Math.max(1, (int) Math.round(image.getWidth() * Math.min(1, scale)));
+        int height = Math.max(1, (int) Math.round(image.getHeight() * Math.min(1, scale)));
+        /* drawn even if not scaled, to drop any alpha channel (which the
+         * jpeg writer cannot encode) */
+        BufferedImage scaledImage
+                = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaledImage.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                                    RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING,
+                                    RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaledImage;
+    }
+
+    private static void encode (BufferedImage image, Path file)
+            throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try {
+            ImageWriteParam writeParam = writer.getDefaultWriteParam();
+            writeParam.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            writeParam.setCompressionQuality(quality);
+            Files.deleteIfExists(file);
+            try (ImageOutputStream outputStream
+                            = ImageIO.createImageOutputStream(file.toFile())) {
+                writer.setOutput(outputStream);
+                writer.write(null, new IIOImage(image, null, null), writeParam);
+            }
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private static void printSummary (List<Reduction> reductions,
+                                    int upToDateCount, long elapsedNanos) {
+        int reducedCount = 0;
+        int failedCount = 0;
+        long sourceBytes = 0;
+        long reducedBytes = 0;
+        long[] latencies = new long[reductions.size()];
+        for (Reduction reduction : reductions) {
+            latencies[reducedCount + failedCount] = reduction.latencyNanos;
+            if (reduction.failureMessage != null) {
+                failedCount++;
+                continue;
+            }
+            reducedCount++;
+            sourceBytes += reduction.sourceBytes;
+            reducedBytes += reduction.reducedBytes;
+        }
+        Arrays.sort(latencies);
+        System.out.println("=============================================\n"
+                + "REDUCTION OF JPEGs COMPLETED.\n"
+                + reducedCount + " reduced.\n"
+                + upToDateCount + " previously reduced.\n"
+                + failedCount + " FAILED.\n"
+                + sourceBytes + " bytes reduced to " + reducedBytes + " ("
+                + (sourceBytes - reducedBytes) + " bytes saved).\n"
+                + "Latency per image (ms): median "
+                + getPercentileMillis(latencies, 50) + ", 95th percentile "
+                + getPercentileMillis(latencies, 95) + ", max "
+                + getPercentileMillis(latencies, 100) + "; total elapsed "
+                + elapsedNanos / 1000000 + " ms.");
+    }
+
+    private static long getPercentileMillis (long[] sortedNanos, int percentile) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(sortedNanos.length * percentile / 100.0) - 1;
+        return sortedNanos[Math.max(0, index)] / 1000000;
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2015 Daniel Vimont
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.commonvox.le_catalog;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decides which audiobooks are to have their Internet Archive download
+ * counts refreshed in a given run, and records when each audiobook was last
+ * refreshed (in a properties file keyed by audiobook ID, which persists
+ * across builds).
+ * <p>
+ * Each audiobook is given a target refresh interval: new and popular
+ * audiobooks (those with few days available or many downloads per day)
+ * are refreshed every {@link #minimumIntervalDays} days, with the interval
+ * lengthening for older and less-downloaded audiobooks, up to
+ * {@link #maximumIntervalDays}. An audiobook is due once the time since its
+ * last refresh reaches its interval; due audiobooks are refreshed in order
+ * of how overdue they are (time since refresh divided by interval), so that
+ * with a limited request budget the long tail is deferred but, as it ages,
+ * eventually reaches the front of the queue.
+ * @author Daniel Vimont
+ */
+public class DownloadCountRefreshScheduler {
+    private static final double MILLIS_PER_DAY = 24 * 60 * 60 * 1000;
+    /** Target interval for the newest and most popular audiobooks. */
+    protected static double minimumIntervalDays = 7;
+    /** Target interval for the oldest and least popular audiobooks. */
+    protected static double maximumIntervalDays = 180;
+    private final File refreshLogFile;
+    private final Map<String,Long> lastRefreshedMillis = new ConcurrentHashMap<>();
+    private int dueCount = 0;
+
+    private DownloadCountRefreshScheduler (File refreshLogFile)
+            throws IOException {
+        this.refreshLogFile = refreshLogFile;
+        if (refreshLogFile.exists()) {
+            Properties refreshLog = new Properties();
+            try (InputStream inputStream = new FileInputStream(refreshLogFile)) {
+                refreshLog.load(inputStream);
+            }
+            for (String audiobookId : refreshLog.stringPropertyNames()) {
+                try {
+                    lastRefreshedMillis.put(audiobookId,
+                            Long.parseLong(refreshLog.getProperty(audiobookId)));
+                } catch (NumberFormatException e) {
+                    // entry ignored; audiobook treated as never refreshed
+                }
+            }
+        }
+    }
+
+    /**
+     * @param refreshLogFile file of last-refreshed timestamps (need not exist)
+     * @return scheduler with timestamps of previous runs loaded
+     * @throws IOException if file exists but cannot be read
+     */
+    public static DownloadCountRefreshScheduler open (File refreshLogFile)
+            throws IOException {
+        return new DownloadCountRefreshScheduler(refreshLogFile);
+    }
+
+    /**
+     * @param audiobook audiobook
+     * @return days between refreshes targeted for the audiobook
+     */
+    public static double getTargetIntervalDays (Audiobook audiobook) {
+        double yearsAvailable = Math.max(0, audiobook.getDaysAvailable()) / 365.0;
+        double downloadsPerDay = Math.max(0, audiobook.getDownloadsPerDay());
+        double intervalDays = minimumIntervalDays * (1 + yearsAvailable)
+                            / (1 + Math.log10(1 + downloadsPerDay));
+        return Math.max(minimumIntervalDays,
+                            Math.min(maximumIntervalDays, intervalDays));
+    }
+
+    /**
+     * @param audiobook audiobook
+     * @param nowMillis current time
+     * @return time since audiobook's last refresh divided by its target
+     * interval (an audiobook never refreshed is treated as last refreshed
+     * {@link #maximumIntervalDays} ago)
+     */
+    public double getPriority (Audiobook audiobook, long nowMillis) {
+        Long refreshedMillis = lastRefreshedMillis.get(audiobook.getId());
+        double daysSinceRefresh = (refreshedMillis == null) ?
+                maximumIntervalDays : (nowMillis - refreshedMillis) / MILLIS_PER_DAY;
+        return daysSinceRefresh / getTargetIntervalDays(audiobook);
+    }
+
+    /**
+     * Selects the audiobooks (with Internet Archive URLs) to be refreshed.
+     * @param catalog catalog
+     * @param requestBudget maximum count of audiobooks to select
+     * @param nowMillis current time
+     * @return due audiobooks, most overdue first, up to the budget
+     */
+    public List<Audiobook> selectAudiobooksToRefresh
+                        (Catalog catalog, int requestBudget, long nowMillis) {
+        List<Audiobook> dueAudiobooks = new ArrayList<>();
+        Map<Audiobook,Double> priorities = new IdentityHashMap<>();
+        for (Audiobook audiobook : catalog.audiobooks) {
+            if (audiobook.getId() == null
+                    || audiobook.getUrlInternetArchive() == null
+                    || audiobook.getUrlInternetArchive().isEmpty()) {
+                continue;
+            }
+            double priority = getPriority(audiobook, nowMillis);
+            if (priority >= 1) {
+                dueAudiobooks.add(audiobook);
+                priorities.put(audiobook, priority);
+            }
+        }
+        dueCount = dueAudiobooks.size();
+        dueAudiobooks.sort(Comparator.comparing
+                    ((Audiobook audiobook) -> priorities.get(audiobook)).reversed());
+        if (dueAudiobooks.size() > requestBudget) {
+            return new ArrayList<>(dueAudiobooks.subList(0, requestBudget));
+        }
+        return dueAudiobooks;
+    }
+
+    /** @return count of audiobooks found due in the last selection */
+    public int getDueCount () {
+        return dueCount;
+    }
+
+    /**
+     * @param audiobookId ID of audiobook whose download count was requested
+     * @param refreshedMillis time of refresh
+     */
+    public void recordRefreshed (String audiobookId, long refreshedMillis) {
+        lastRefreshedMillis.put(audiobookId, refreshedMillis);
+    }
+
+    /**
+     * Writes all timestamps to the refresh log file (via a temporary file,
+     * so that an interrupted write leaves the previous log intact).
+     * @throws IOException if file cannot be written
+     */
+    public void save () throws IOException {
+        Properties refreshLog = new Properties();
+        for (Map.Entry<String,Long> entry : lastRefreshedMillis.entrySet()) {
+            refreshLog.setProperty(entry.getKey(), entry.getValue().toString());
+        }
+        File temporaryFile = new File(refreshLogFile.getPath() + ".tmp");
+        try (OutputStream outputStream = new FileOutputStream(temporaryFile)) {
+            refreshLog.store(outputStream,
+                    "Internet Archive download count last refreshed (epoch millis)");
+        }
+        Files.move(temporaryFile.toPath(), refreshLogFile.toPath(),
+                                        StandardCopyOption.REPLACE_EXISTING);
+    }
+}
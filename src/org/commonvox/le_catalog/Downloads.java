@@ -17,12 +17,15 @@
 
 package org.commonvox.le_catalog;
 
+import java.io.Serializable;
+
 /**
  *
  * @author Daniel Vimont
  */
 public class Downloads 
-        implements Comparable<Downloads> {
+        implements Comparable<Downloads>, Serializable {
+    private static final long serialVersionUID = 1L;
     
     private final int key;
     
@@ -17,6 +17,7 @@
 
 package org.commonvox.le_catalog;
 
+import java.io.Serializable;
 import java.math.BigDecimal;
 
 /**
@@ -24,7 +25,8 @@ import java.math.BigDecimal;
  * @author Daniel Vimont
  */
 public class DownloadsPerDay 
-        implements Comparable<DownloadsPerDay> {
+        implements Comparable<DownloadsPerDay>, Serializable {
+    private static final long serialVersionUID = 1L;
     
     private final BigDecimal key;
     
@@ -32,6 +32,7 @@ import javax.xml.bind.annotation.XmlType;
 public class Genre 
         implements HasLibrivoxId, 
                         Comparable<Genre>, Mergeable, Serializable, Key {
+    private static final long serialVersionUID = 1L;
     /** regular expression to find any leading char(s) that is whitespace, 
      * hyphen, quote, period, apostrophe, or asterisk. */
     static final String REGEX_TRIM_LEADING_SPECIAL_CHARS = "^[\\s\\-\"\\.'\\*]+";
@@ -65,6 +66,9 @@ public class Genre
     
     @Override
     public int compareTo(Genre otherGenre) {
+        if (this == otherGenre) {
+            return 0;
+        }
         return this.getKeyItem().compareTo(otherGenre.getKeyItem());
     }
     
@@ -77,14 +81,17 @@ public class Genre
         return uniqueKey;
     }
     
+    /** Sets key in a single assignment, as a Genre (e.g., that of 
+     * audiobooks with no genre) may be indexed by concurrent tasks. */
     private void setKeyItem() {
-        uniqueKey = Catalog.SUBGENRE_MAP.get(librivoxId);
-        if (uniqueKey == null) {
-            uniqueKey = this.getName();
+        String keyItem = Catalog.SUBGENRE_MAP.get(librivoxId);
+        if (keyItem == null) {
+            keyItem = this.getName();
         } else {
             // assure "*Nonfiction..." entries appear after fiction entries
-            uniqueKey = uniqueKey.replace('*', '^'); 
+            keyItem = keyItem.replace('*', '^'); 
         }
+        uniqueKey = keyItem;
     }
     
     @Override
@@ -0,0 +1,400 @@
+/*
+ * Copyright (C) 2015 Daniel Vimont
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.commonvox.le_catalog;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Single-pass, pull-style scanner of HTML markup read from a
+ * {@link java.io.Reader}, reporting start tags (with their attributes), end
+ * tags, and text, in the manner of a StAX XMLStreamReader. No document tree
+ * is built and nothing is validated: the scanner is intended for extracting
+ * a few values from large webpages (e.g., the LibriVox catalog and wiki
+ * pages processed in catalog assembly), with each caller tracking only the
+ * elements it is interested in.
+ * <p>
+ * Tag and attribute names are reported in lower case. Attribute values and
+ * text are reported as they appear in the markup (character references are
+ * not decoded), except that line breaks are omitted, matching the
+ * line-break-stripped content formerly scanned by regular expressions.
+ * Comments, declarations, and processing instructions are skipped, and the
+ * content of "script" and "style" elements is reported as text.
+ * @author Daniel Vimont
+ */
+public class HtmlScanner
+        implements Closeable {
+    public enum Event { START_TAG, END_TAG, TEXT, END_OF_DOCUMENT }
+    private static final int BUFFER_SIZE = 8192;
+    /** names returned without allocating a new String for each occurrence */
+    private static final String[] COMMON_NAMES = {"a", "p", "li", "td", "tr",
+        "th", "br", "ul", "div", "img", "span", "table", "thead", "tbody",
+        "href", "class", "id", "src", "style", "title", "alt", "width",
+        "height", "rel", "type", "name", "content", "meta", "link", "script"};
+    private final java.io.Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int bufferPosition = 0;
+    private int bufferLimit = 0;
+    private final StringBuilder nameBuilder = new StringBuilder();
+    private final StringBuilder valueBuilder = new StringBuilder();
+    private final StringBuilder textBuilder = new StringBuilder();
+    private final List<String> attributeNames = new ArrayList<>();
+    private final List<String> attributeValues = new ArrayList<>();
+    private String tagName;
+    private String text;
+    private boolean selfClosing;
+    /** a "&lt;" beginning a tag was consumed while text was pending */
+    private boolean tagPending = false;
+    /** name of "script" or "style" element whose raw content is next */
+    private String rawTextElementName;
+    private boolean rawTextEndTagPending = false;
+
+    public HtmlScanner (java.io.Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Advances to the next start tag, end tag, or run of text.
+     * @return type of markup reached
+     * @throws IOException if the underlying reader fails
+     */
+    public Event next () throws IOException {
+        text = null;
+        if (rawTextEndTagPending) {
+            rawTextEndTagPending = false;
+            tagName = rawTextElementName;
+            rawTextElementName = null;
+            clearAttributes();
+            selfClosing = false;
+            return Event.END_TAG;
+        }
+        if (rawTextElementName != null) {
+            return scanRawText();
+        }
+        textBuilder.setLength(0);
+        while (true) {
+            int nextChar;
+            if (tagPending) {
+                tagPending = false;
+                nextChar = '<';
+            } else {
+                nextChar = read();
+            }
+            if (nextChar == -1) {
+                return (textBuilder.length() > 0) ?
+                                Event.TEXT : Event.END_OF_DOCUMENT;
+            }
+            if (nextChar != '<') {
+                if (nextChar != '\n' && nextChar != '\r') {
+                    textBuilder.append((char) nextChar);
+                }
+                continue;
+            }
+            int followingChar = peek();
+            if (isNameStart(followingChar) || followingChar == '/') {
+                if (textBuilder.length() > 0) {
+                    tagPending = true;
+                    return Event.TEXT;
+                }
+                if (followingChar == '/') {
+                    read();
+                    if (!isNameStart(peek())) {
+                        skipPast('>');
+                        continue;
+                    }
+                    scanTag();
+                    return Event.END_TAG;
+                }
+                scanTag();
+                if (!selfClosing && (tagName.equals("script")
+                                        || tagName.equals("style"))) {
+                    rawTextElementName = tagName;
+                }
+                return Event.START_TAG;
+            } else if (followingChar == '!') {
+                read();
+                if (peek() == '-') {
+                    read();
+                    if (peek() == '-') {
+                        read();
+                        skipPastCommentEnd();
+                        continue;
+                    }
+                }
+                skipPast('>');
+            } else if (followingChar == '?') {
+                skipPast('>');
+            } else {
+                textBuilder.append('<');
+            }
+        }
+    }
+
+    /** @return name of current start or end tag, in lower case */
+    public String getTagName () {
+        return tagName;
+    }
+
+    public boolean isSelfClosing () {
+        return selfClosing;
+    }
+
+    /**
+     * @param name attribute name, in lower case
+     * @return value of attribute in current start tag (empty if the
+     * attribute has no value), or null if attribute is absent
+     */
+    public String getAttribute (String name) {
+        for (int i = 0; i < attributeNames.size(); i++) {
+            if (attributeNames.get(i).equals(name)) {
+                return attributeValues.get(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param className CSS class name
+     * @return true if current start tag's "class" attribute includes the name
+     */
+    public boolean hasClass (String className) {
+        String classes = getAttribute("class");
+        if (classes == null) {
+            return false;
+        }
+        int start = classes.indexOf(className);
+        while (start >= 0) {
+            int end = start + className.length();
+            if ((start == 0 || Character.isWhitespace(classes.charAt(start - 1)))
+                    && (end == classes.length()
+                            || Character.isWhitespace(classes.charAt(end)))) {
+                return true;
+            }
+            start = classes.indexOf(className, start + 1);
+        }
+        return false;
+    }
+
+    /** @return text of current text event */
+    public String getText () {
+        if (text == null) {
+            text = textBuilder.toString();
+        }
+        return text;
+    }
+
+    @Override
+    public void close () throws IOException {
+        reader.close();
+    }
+
+    /** Scans the content of a "script" or "style" element, which is not
+     * markup, through the element's end tag. */
+    private Event scanRawText () throws IOException {
+        textBuilder.setLength(0);
+        String endTag = "</" + rawTextElementName;
+        char endTagLastChar = endTag.charAt(endTag.length() - 1);
+        boolean endTagFound = false;
+        int nextChar;
+        while ((nextChar = read()) != -1) {
+            if (nextChar == '\n' || nextChar == '\r') {
+                continue;
+            }
+            textBuilder.append((char) nextChar);
+            if (Character.toLowerCase((char) nextChar) == endTagLastChar
+                    && endsWithIgnoreCase(textBuilder, endTag)) {
+                textBuilder.setLength(textBuilder.length() - endTag.length());
+                skipPast('>');
+                endTagFound = true;
+                break;
+            }
+        }
+        String elementName = rawTextElementName;
+        rawTextElementName = null;
+        if (textBuilder.length() > 0) {
+            if (endTagFound) {
+                rawTextElementName = elementName;
+                rawTextEndTagPending = true;
+            }
+            return Event.TEXT;
+        }
+        if (!endTagFound) {
+            return Event.END_OF_DOCUMENT;
+        }
+        tagName = elementName;
+        clearAttributes();
+        selfClosing = false;
+        return Event.END_TAG;
+    }
+
+    private static boolean endsWithIgnoreCase
+                                (StringBuilder builder, String suffix) {
+        int offset = builder.length() - suffix.length();
+        if (offset < 0) {
+            return false;
+        }
+        for (int i = 0; i < suffix.length(); i++) {
+            if (Character.toLowerCase(builder.charAt(offset + i)) 
+                                                    != suffix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Scans tag name and attributes; the "&lt;" (and any "/") has been
+     * consumed. */
+    private void scanTag () throws IOException {
+        clearAttributes();
+        selfClosing = false;
+        tagName = scanName();
+        while (true) {
+            int nextChar = skipWhitespace();
+            if (nextChar == '>') {
+                read();
+                return;
+            }
+            if (nextChar == -1) {
+                return;
+            }
+            if (nextChar == '/') {
+                read();
+                if (peek() == '>') {
+                    read();
+                    selfClosing = true;
+                    return;
+                }
+                continue;
+            }
+            String attributeName = scanName();
+            if (attributeName.isEmpty()) {
+                read(); // stray character
+                continue;
+            }
+            String attributeValue = "";
+            if (skipWhitespace() == '=') {
+                read();
+                attributeValue = scanAttributeValue();
+            }
+            attributeNames.add(attributeName);
+            attributeValues.add(attributeValue);
+        }
+    }
+
+    private String scanName () throws IOException {
+        nameBuilder.setLength(0);
+        int nextChar;
+        while ((nextChar = peek()) != -1 && !Character.isWhitespace(nextChar)
+                && nextChar != '>' && nextChar != '/' && nextChar != '='
+                && nextChar != '"' && nextChar != '\'' && nextChar != '<') {
+            nameBuilder.append(Character.toLowerCase((char) read()));
+        }
+        for (String commonName : COMMON_NAMES) {
+            if (commonName.length() == nameBuilder.length()
+                    && commonName.contentEquals(nameBuilder)) {
+                return commonName;
+            }
+        }
+        return nameBuilder.toString();
+    }
+
+    private String scanAttributeValue () throws IOException {
+        valueBuilder.setLength(0);
+        int quoteChar = skipWhitespace();
+        int nextChar;
+        if (quoteChar == '"' || quoteChar == '\'') {
+            read();
+            while ((nextChar = read()) != -1 && nextChar != quoteChar) {
+                if (nextChar != '\n' && nextChar != '\r') {
+                    valueBuilder.append((char) nextChar);
+                }
+            }
+        } else {
+            while ((nextChar = peek()) != -1
+                    && !Character.isWhitespace(nextChar) && nextChar != '>') {
+                valueBuilder.append((char) read());
+            }
+        }
+        return valueBuilder.toString();
+    }
+
+    private void clearAttributes () {
+        attributeNames.clear();
+        attributeValues.clear();
+    }
+
+    /** @return next non-whitespace character (not consumed), or -1 */
+    private int skipWhitespace () throws IOException {
+        int nextChar;
+        while ((nextChar = peek()) != -1 && Character.isWhitespace(nextChar)) {
+            read();
+        }
+        return nextChar;
+    }
+
+    private void skipPast (char endChar) throws IOException {
+        int nextChar;
+        while ((nextChar = read()) != -1 && nextChar != endChar) {
+        }
+    }
+
+    private void skipPastCommentEnd () throws IOException {
+        int dashCount = 0;
+        int nextChar;
+        while ((nextChar = read()) != -1) {
+            if (nextChar == '>' && dashCount >= 2) {
+                return;
+            }
+            dashCount = (nextChar == '-') ? dashCount + 1 : 0;
+        }
+    }
+
+    private static boolean isNameStart (int nextChar) {
+        return nextChar != -1 && Character.isLetter(nextChar);
+    }
+
+    private int read () throws IOException {
+        if (bufferPosition == bufferLimit && !fill()) {
+            return -1;
+        }
+        return buffer[bufferPosition++];
+    }
+
+    private int peek () throws IOException {
+        if (bufferPosition == bufferLimit && !fill()) {
+            return -1;
+        }
+        return buffer[bufferPosition];
+    }
+
+    private boolean fill () throws IOException {
+        int charCount;
+        do {
+            charCount = reader.read(buffer, 0, BUFFER_SIZE);
+        } while (charCount == 0);
+        if (charCount < 0) {
+            bufferPosition = bufferLimit = 0;
+            return false;
+        }
+        bufferPosition = 0;
+        bufferLimit = charCount;
+        return true;
+    }
+}
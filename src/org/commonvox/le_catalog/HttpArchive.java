@@ -0,0 +1,363 @@
+/*
+ * Copyright (C) 2015 Daniel Vimont
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.commonvox.le_catalog;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+
+/**
+ * Single-file archive of HTTP responses, permitting catalog assembly to be
+ * run (and benchmarked) deterministically, without network access. In 
+ * RECORD mode, every response obtained via {@link HttpFetcher} is appended
+ * to the archive: the content in full (decompressed, and read to its end 
+ * even if the caller stopped early), with its response code, charset, 
+ * content length, and latency; error responses such as 404 are recorded 
+ * too, so that they recur in replay. In REPLAY mode, requests are served
+ * from the archive, after a synthetic latency (fixed, or that recorded for
+ * each response).
+ * <p>
+ * The file consists of a header, the records (each keyed by request method
+ * and URL, with its body deflated), an index of record offsets by key, and 
+ * a trailer locating the index. An archive whose recording was interrupted
+ * (having no trailer) is indexed in replay by scanning its records.
+ * @author Daniel Vimont
+ */
+public class HttpArchive
+        implements Closeable {
+    public enum Mode { RECORD, REPLAY }
+    /** Replay latency denoting "the latency recorded for each response". */
+    public static final int RECORDED_LATENCY = -1;
+    private static final int FILE_MARKER = 0x4C454841; // "LEHA"
+    private static final int INDEX_MARKER = 0x4C454849; // "LEHI"
+    private static final int VERSION = 1;
+    private static final int HEADER_LENGTH = 8;
+    private static final int TRAILER_LENGTH = 12;
+    private final File archiveFile;
+    private final Mode mode;
+    private final int replayLatencyMillis;
+    /** record offsets (from start of file) by key */
+    private final Map<String,Long> recordOffsets = new HashMap<>();
+    private DataOutputStream recordingStream;
+    private long recordingOffset;
+    private RandomAccessFile replayFile;
+    private boolean closed = false;
+    private final AtomicLong recordedCount = new AtomicLong();
+    private final AtomicLong bodyByteCount = new AtomicLong();
+    private final AtomicLong replayedCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    /** A recorded response. */
+    public static class Response {
+        final int responseCode;
+        final String charsetName;
+        final long contentLength;
+        final int latencyMillis;
+        final byte[] body;
+
+        Response (int responseCode, String charsetName, long contentLength,
+                                            int latencyMillis, byte[] body) {
+            this.responseCode = responseCode;
+            this.charsetName = charsetName;
+            this.contentLength = contentLength;
+            this.latencyMillis = latencyMillis;
+            this.body = body;
+        }
+    }
+
+    private HttpArchive (File archiveFile, Mode mode, int replayLatencyMillis) {
+        this.archiveFile = archiveFile;
+        this.mode = mode;
+        this.replayLatencyMillis = replayLatencyMillis;
+    }
+
+    /**
+     * Opens an archive for recording (replacing any existing file) or for 
+     * replay.
+     * @param archiveFile archive file
+     * @param mode RECORD or REPLAY
+     * @param replayLatencyMillis latency injected before each replayed 
+     * response, or {@link #RECORDED_LATENCY}
+     * @return open archive
+     * @throws IOException if file cannot be created, or read as an archive
+     */
+    public static HttpArchive open (File archiveFile, Mode mode, 
+                                                    int replayLatencyMillis)
+            throws IOException {
+        HttpArchive archive = new HttpArchive(archiveFile, mode, replayLatencyMillis);
+        if (mode == Mode.RECORD) {
+            archive.recordingStream = new DataOutputStream
+                (new BufferedOutputStream(new FileOutputStream(archiveFile)));
+            archive.recordingStream.writeInt(FILE_MARKER);
+            archive.recordingStream.writeInt(VERSION);
+            archive.recordingOffset = HEADER_LENGTH;
+        } else {
+            archive.replayFile = new RandomAccessFile(archiveFile, "r");
+            try {
+                archive.readIndex();
+            } catch (IOException e) {
+                archive.replayFile.close();
+                throw e;
+            }
+        }
+        return archive;
+    }
+
+    private void readIndex () throws IOException {
+        if (replayFile.length() < HEADER_LENGTH || replayFile.readInt() != FILE_MARKER) {
+            throw new IOException("Not an HTTP archive: " + archiveFile);
+        }
+        if (replayFile.readInt() != VERSION) {
+            throw new IOException("Unsupported HTTP archive version: " + archiveFile);
+        }
+        long length = replayFile.length();
+        if (length >= HEADER_LENGTH + TRAILER_LENGTH) {
+            replayFile.seek(length - TRAILER_LENGTH);
+            long indexOffset = replayFile.readLong();
+            if (replayFile.readInt() == INDEX_MARKER 
+                    && indexOffset >= HEADER_LENGTH && indexOffset < length) {
+                try (DataInputStream indexStream = openStreamAt(indexOffset)) {
+                    int entryCount = indexStream.readInt();
+                    for (int i = 0; i < entryCount; i++) {
+                        String key = indexStream.readUTF();
+                        recordOffsets.put(key, indexStream.readLong());
+                    }
+                }
+                return;
+            }
+        }
+        scanRecords();
+    }
+
+    /** Indexes the intact records of an archive lacking an index. */
+    private void scanRecords () throws IOException {
+        long length = replayFile.length();
+        replayFile.seek(HEADER_LENGTH);
+        while (true) {
+            long offset = replayFile.getFilePointer();
+            try {
+                String key = replayFile.readUTF();
+                replayFile.readInt();  // response code
+                replayFile.readUTF();  // charset name
+                replayFile.readLong(); // content length
+                replayFile.readInt();  // latency
+                replayFile.readInt();  // body length
+                int storedLength = replayFile.readInt();
+                long nextOffset = replayFile.getFilePointer() + storedLength;
+                if (storedLength < 0 || nextOffset > length) {
+                    break;
+                }
+                replayFile.seek(nextOffset);
+                recordOffsets.putIfAbsent(key, offset);
+            } catch (EOFException e) {
+                break;
+            }
+        }
+    }
+
+    private DataInputStream openStreamAt (long offset) throws IOException {
+        FileInputStream fileInputStream = new FileInputStream(archiveFile);
+        try {
+            fileInputStream.getChannel().position(offset);
+        } catch (IOException e) {
+            fileInputStream.close();
+            throw e;
+        }
+        return new DataInputStream(new BufferedInputStream(fileInputStream));
+    }
+
+    private static String getKey (String requestMethod, URL url) {
+        return requestMethod + " " + url.toExternalForm();
+    }
+
+    public Mode getMode () {
+        return mode;
+    }
+
+    public int getReplayLatencyMillis () {
+        return replayLatencyMillis;
+    }
+
+    /**
+     * Appends a response to the archive (unless one is already recorded for
+     * the same request).
+     * @param requestMethod request method (e.g., GET)
+     * @param url requested URL
+     * @param responseCode HTTP response code
+     * @param charsetName charset of content (may be null)
+     * @param contentLength reported content length (-1 if none)
+     * @param latencyNanos time taken to obtain the response
+     * @param body content (empty for error responses)
+     * @throws IOException if archive cannot be written
+     */
+    public synchronized void record (String requestMethod, URL url, 
+                int responseCode, String charsetName, long contentLength,
+                long latencyNanos, byte[] body) throws IOException {
+        String key = getKey(requestMethod, url);
+        if (closed || recordOffsets.containsKey(key)) {
+            return;
+        }
+        ByteArrayOutputStream deflatedBody 
+                                = new ByteArrayOutputStream(body.length / 4 + 16);
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (DeflaterOutputStream deflaterStream 
+                        = new DeflaterOutputStream(deflatedBody, deflater)) {
+            deflaterStream.write(body);
+        } finally {
+            deflater.end();
+        }
+        ByteArrayOutputStream record 
+                            = new ByteArrayOutputStream(deflatedBody.size() + 256);
+        DataOutputStream recordStream = new DataOutputStream(record);
+        recordStream.writeUTF(key);
+        recordStream.writeInt(responseCode);
+        recordStream.writeUTF((charsetName == null) ? "" : charsetName);
+        recordStream.writeLong(contentLength);
+        recordStream.writeInt((int) Math.min(Integer.MAX_VALUE, 
+                                                    latencyNanos / 1000000));
+        recordStream.writeInt(body.length);
+        recordStream.writeInt(deflatedBody.size());
+        deflatedBody.writeTo(recordStream);
+        record.writeTo(recordingStream);
+        recordOffsets.put(key, recordingOffset);
+        recordingOffset += record.size();
+        recordedCount.incrementAndGet();
+        bodyByteCount.addAndGet(body.length);
+    }
+
+    /**
+     * @param requestMethod request method (e.g., GET)
+     * @param url requested URL
+     * @return recorded response, or null if none was recorded
+     * @throws IOException if archive cannot be read
+     */
+    public Response get (String requestMethod, URL url) throws IOException {
+        String key = getKey(requestMethod, url);
+        String storedKey;
+        int responseCode;
+        String charsetName;
+        long contentLength;
+        int latencyMillis;
+        byte[] deflatedBody;
+        int bodyLength;
+        synchronized (this) {
+            Long offset = recordOffsets.get(key);
+            if (offset == null) {
+                missCount.incrementAndGet();
+                return null;
+            }
+            replayFile.seek(offset);
+            storedKey = replayFile.readUTF();
+            responseCode = replayFile.readInt();
+            charsetName = replayFile.readUTF();
+            contentLength = replayFile.readLong();
+            latencyMillis = replayFile.readInt();
+            bodyLength = replayFile.readInt();
+            deflatedBody = new byte[replayFile.readInt()];
+            replayFile.readFully(deflatedBody);
+        }
+        if (!storedKey.equals(key)) {
+            throw new IOException("HTTP archive index is corrupt: " + archiveFile);
+        }
+        byte[] body = new byte[bodyLength];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(deflatedBody);
+            int inflatedLength = 0;
+            while (inflatedLength < bodyLength && !inflater.finished()) {
+                int length = inflater.inflate(body, inflatedLength, 
+                                            bodyLength - inflatedLength);
+                if (length == 0 && inflater.needsInput()) {
+                    break;
+                }
+                inflatedLength += length;
+            }
+            if (inflatedLength != bodyLength) {
+                throw new IOException("HTTP archive record is corrupt: " + key);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("HTTP archive record is corrupt: " + key, e);
+        } finally {
+            inflater.end();
+        }
+        replayedCount.incrementAndGet();
+        return new Response(responseCode, charsetName.isEmpty() ? null : charsetName,
+                                    contentLength, latencyMillis, body);
+    }
+
+    /** Completes a recording by writing the index and trailer. */
+    @Override
+    public synchronized void close () throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (mode == Mode.REPLAY) {
+            replayFile.close();
+            return;
+        }
+        long indexOffset = recordingOffset;
+        recordingStream.writeInt(recordOffsets.size());
+        for (Map.Entry<String,Long> recordOffset : recordOffsets.entrySet()) {
+            recordingStream.writeUTF(recordOffset.getKey());
+            recordingStream.writeLong(recordOffset.getValue());
+        }
+        recordingStream.writeLong(indexOffset);
+        recordingStream.writeInt(INDEX_MARKER);
+        recordingStream.close();
+    }
+
+    public File getArchiveFile () {
+        return archiveFile;
+    }
+
+    /** @return count of requests in archive */
+    public synchronized int getEntryCount () {
+        return recordOffsets.size();
+    }
+
+    /**
+     * @return one-line summary of archive activity
+     */
+    public String getStatistics () {
+        if (mode == Mode.RECORD) {
+            return "HTTP archive: " + recordedCount.get() + " responses ("
+                    + bodyByteCount.get() + " bytes of content) recorded in "
+                    + archiveFile + " (" + archiveFile.length() + " bytes).";
+        }
+        return "HTTP archive: " + replayedCount.get() + " responses replayed; "
+                + missCount.get() + " requests not found in " + archiveFile + ".";
+    }
+}
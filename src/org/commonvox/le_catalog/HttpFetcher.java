@@ -0,0 +1,753 @@
+/*
+ * Copyright (C) 2015 Daniel Vimont
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.commonvox.le_catalog;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.StringReader;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Shared layer through which all HTTP requests for catalog assembly (and for
+ * remote catalog and M4B access) are made. Connections are kept alive and
+ * reused per host (via the JRE's keep-alive cache, which requires that each
+ * response be read fully and closed rather than disconnected), gzip/deflate
+ * compression is requested for text content, connect and read timeouts are
+ * applied, and the number of concurrent requests to any one host is capped.
+ * Each request is made subject to the {@link RequestPolicy} (deadline, 
+ * retry with backoff, hedging, and per-host circuit breaking). Responses
+ * may be recorded into, or replayed from, an {@link HttpArchive}. Counts of
+ * requests, bytes, and latency are kept for reporting.
+ * @author Daniel Vimont
+ */
+public class HttpFetcher {
+    private static final int DEFAULT_MAX_CONNECTIONS_PER_HOST = 8;
+    private static final int MAX_REDIRECTS = 4;
+    private static final int BUFFER_SIZE = 8192;
+    private static final String ACCEPT_ENCODING = "gzip, deflate";
+    protected static int connectTimeoutMillis = 15000;
+    protected static int readTimeoutMillis = 60000;
+    /** Most bytes of a response's unread remainder read (and discarded) 
+     * when its content is closed early, so that the connection may be kept
+     * alive for reuse; a longer remainder is abandoned with the connection. */
+    protected static int maxDrainedBytes = 64 * 1024;
+    /** Overall deadline for a request, including retries (and, for a text
+     * request, reading the content); 0 means none. */
+    protected static int requestDeadlineMillis = 0;
+    /** On-disk cache for text requests (null means no caching); not used
+     * while an archive is being recorded or replayed. */
+    protected static HttpResponseCache responseCache = null;
+    /** Archive into which responses are recorded, or from which they are 
+     * replayed (null means none). */
+    protected static HttpArchive archive = null;
+    private static volatile int maxConnectionsPerHost
+                                        = DEFAULT_MAX_CONNECTIONS_PER_HOST;
+    private static final ConcurrentMap<String,Semaphore> HOST_PERMITS
+                                                = new ConcurrentHashMap<>();
+    private static final AtomicLong REQUEST_COUNT = new AtomicLong();
+    private static final AtomicLong FAILED_REQUEST_COUNT = new AtomicLong();
+    private static final AtomicLong COMPRESSED_RESPONSE_COUNT = new AtomicLong();
+    private static final AtomicLong WIRE_BYTE_COUNT = new AtomicLong();
+    private static final AtomicLong CONTENT_BYTE_COUNT = new AtomicLong();
+    private static final AtomicLong LATENCY_NANOS_TOTAL = new AtomicLong();
+    private static final AtomicLong LATENCY_NANOS_MAX = new AtomicLong();
+
+    static {
+        if (System.getProperty("http.maxConnections") == null) {
+            System.setProperty("http.maxConnections",
+                            String.valueOf(DEFAULT_MAX_CONNECTIONS_PER_HOST));
+        }
+    }
+
+    /**
+     * Sets the maximum number of concurrent requests (and of pooled idle
+     * connections) per host. Should be invoked before any request is made.
+     * @param maxConnections maximum connections per host (at least 1)
+     */
+    public static synchronized void setMaxConnectionsPerHost (int maxConnections) {
+        maxConnectionsPerHost = Math.max(1, maxConnections);
+        System.setProperty("http.maxConnections",
+                                    String.valueOf(maxConnectionsPerHost));
+        HOST_PERMITS.clear();
+    }
+
+    public static int getMaxConnectionsPerHost () {
+        return maxConnectionsPerHost;
+    }
+
+    /**
+     * Returns the text content at the URL, decoded per the charset given in
+     * the response's Content-Type (UTF-8 if none is given).
+     * @param url URL of content
+     * @param stripLineBreaks if true, all carriage-return and line-feed
+     * characters are omitted (the form expected by the catalog assembly
+     * metadata extractors)
+     * @return text content
+     * @throws IOException if content cannot be retrieved, including
+     * FileNotFoundException if the server reports no content at the URL, and
+     * SocketTimeoutException if a timeout or the request deadline is exceeded
+     */
+    public static String getText (URL url, boolean stripLineBreaks)
+            throws IOException {
+        long deadlineNanos = RequestPolicy.getDeadlineNanos();
+        HttpResponseCache cache = getResponseCache();
+        HttpResponseCache.Entry cachedEntry = (cache == null) ? null : cache.get(url);
+        byte[] body = null;
+        Charset charset = null;
+        try (FetchedContent content = fetch(url, "GET", true, cachedEntry, deadlineNanos)) {
+            if (content.responseCode == HttpURLConnection.HTTP_NOT_MODIFIED
+                    && cachedEntry != null) {
+                body = cache.getBody(cachedEntry);
+                charset = getCharset(cachedEntry.getCharsetName());
+            } else {
+                body = readFully(content, deadlineNanos, url);
+                charset = content.charset;
+                if (cache != null) {
+                    cache.put(url, cachedEntry, body, charset.name(), 
+                                    content.etag, content.lastModified);
+                }
+            }
+        }
+        if (body == null) {
+            /* cached body evicted following revalidation: request in full */
+            try (FetchedContent content = fetch(url, "GET", true, null, deadlineNanos)) {
+                body = readFully(content, deadlineNanos, url);
+                charset = content.charset;
+            }
+        }
+        return decode(body, charset, stripLineBreaks);
+    }
+
+    private static byte[] readFully (InputStream content, long deadlineNanos, 
+                                        URL url) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(BUFFER_SIZE);
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int byteCount;
+        while ((byteCount = content.read(buffer)) != -1) {
+            if (deadlineNanos != 0 && System.nanoTime() > deadlineNanos) {
+                throw new SocketTimeoutException
+                        ("Request deadline exceeded for URL: " + url);
+            }
+            body.write(buffer, 0, byteCount);
+        }
+        return body.toByteArray();
+    }
+
+    private static String decode (byte[] body, Charset charset, 
+                                    boolean stripLineBreaks) {
+        String text = new String(body, charset);
+        if (!stripLineBreaks 
+                || (text.indexOf('\n') < 0 && text.indexOf('\r') < 0)) {
+            return text;
+        }
+        StringBuilder strippedText = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char textChar = text.charAt(i);
+            if (textChar != '\n' && textChar != '\r') {
+                strippedText.append(textChar);
+            }
+        }
+        return strippedText.toString();
+    }
+
+    public static String getText (String urlString, boolean stripLineBreaks)
+            throws MalformedURLException, IOException {
+        return getText(new URL(urlString), stripLineBreaks);
+    }
+
+    /**
+     * Opens a stream for reading the content at the URL (decompressed, if
+     * the server compressed it). The stream must be closed by the caller, so
+     * that its connection may be reused and its per-host slot released.
+     * Non-HTTP URLs (e.g., file or jar resources) are opened directly.
+     * @param url URL of content
+     * @param acceptCompression if false, compression is not requested
+     * (e.g., for binary files whose exact length is reported to the user)
+     * @return open stream
+     * @throws IOException if content cannot be accessed, including
+     * FileNotFoundException if the server reports no content at the URL
+     */
+    public static InputStream openStream (URL url, boolean acceptCompression)
+            throws IOException {
+        if (!isHttp(url)) {
+            return url.openStream();
+        }
+        return fetch(url, "GET", acceptCompression, null, 
+                                            RequestPolicy.getDeadlineNanos());
+    }
+
+    public static InputStream openStream (URL url) throws IOException {
+        return openStream(url, true);
+    }
+
+    /**
+     * Opens a reader of the text content at the URL, decoded per the charset
+     * given in the response's Content-Type (UTF-8 if none is given), for
+     * scanning a page without first copying it into a String. If the
+     * response cache is open, the content is obtained (and cached) via
+     * {@link #getText(URL, boolean)} instead, and the request deadline then
+     * applies. The reader must be closed by the caller.
+     * @param url URL of content
+     * @return open reader
+     * @throws IOException if content cannot be accessed, including
+     * FileNotFoundException if the server reports no content at the URL
+     */
+    public static java.io.Reader openReader (URL url) throws IOException {
+        if (!isHttp(url)) {
+            return new InputStreamReader(url.openStream(), StandardCharsets.UTF_8);
+        }
+        if (getResponseCache() != null) {
+            return new StringReader(getText(url, false));
+        }
+        FetchedContent content 
+                = fetch(url, "GET", true, null, RequestPolicy.getDeadlineNanos());
+        return new InputStreamReader(content, content.charset);
+    }
+
+    /**
+     * Issues a HEAD request for the URL.
+     * @param url URL of content
+     * @return length of content, or -1 if not reported
+     * @throws IOException if the content is not accessible
+     */
+    public static long getContentLength (URL url) throws IOException {
+        try (FetchedContent content = fetch(url, "HEAD", false, null, 
+                                            RequestPolicy.getDeadlineNanos())) {
+            return content.contentLength;
+        }
+    }
+
+    /** @return named charset, or UTF-8 if name is null or unsupported */
+    private static Charset getCharset (String charsetName) {
+        if (charsetName != null) {
+            try {
+                return Charset.forName(charsetName);
+            } catch (IllegalArgumentException e) {
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    private static HttpResponseCache getResponseCache () {
+        return (archive == null) ? responseCache : null;
+    }
+
+    /** @return statistics of the response cache, or null if none in use */
+    public static HttpResponseCache.Statistics getCacheStatistics () {
+        HttpResponseCache cache = responseCache;
+        return (cache == null) ? null : cache.getStatistics();
+    }
+
+    private static boolean isHttp (URL url) {
+        return url.getProtocol().equalsIgnoreCase("http")
+                || url.getProtocol().equalsIgnoreCase("https");
+    }
+
+    private static Semaphore getHostPermits (URL url) {
+        String host = url.getHost().toLowerCase();
+        Semaphore permits = HOST_PERMITS.get(host);
+        if (permits == null) {
+            permits = new Semaphore(maxConnectionsPerHost, true);
+            Semaphore existingPermits = HOST_PERMITS.putIfAbsent(host, permits);
+            if (existingPermits != null) {
+                permits = existingPermits;
+            }
+        }
+        return permits;
+    }
+
+    private static void acquire (Semaphore permits) throws InterruptedIOException {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted awaiting connection");
+        }
+    }
+
+    /** Opens a connection, with attempts made per the {@link RequestPolicy}
+     * (see {@link #fetchOnce}); or, if an archive is being replayed, opens 
+     * the archived response. If an archive is being recorded, the response
+     * is recorded (error responses immediately, content once closed). */
+    private static FetchedContent fetch (URL url, String requestMethod, 
+                boolean acceptCompression, HttpResponseCache.Entry cachedEntry,
+                long deadlineNanos)
+            throws IOException {
+        HttpArchive currentArchive = archive;
+        if (currentArchive != null 
+                && currentArchive.getMode() == HttpArchive.Mode.REPLAY) {
+            return replay(currentArchive, url, requestMethod);
+        }
+        long startNanos = System.nanoTime();
+        FetchedContent content;
+        try {
+            content = RequestPolicy.execute(url, deadlineNanos, 
+                attemptDeadlineNanos -> fetchOnce(url, requestMethod, 
+                        acceptCompression, cachedEntry, attemptDeadlineNanos));
+        } catch (FileNotFoundException | HttpStatusException e) {
+            if (currentArchive != null) {
+                currentArchive.record(requestMethod, url, 
+                        (e instanceof HttpStatusException) ? 
+                            ((HttpStatusException) e).getResponseCode()
+                            : HttpURLConnection.HTTP_NOT_FOUND,
+                        null, -1, System.nanoTime() - startNanos, new byte[0]);
+            }
+            throw e;
+        }
+        if (currentArchive != null) {
+            content.recordInto(currentArchive, requestMethod, url, 
+                                            System.nanoTime() - startNanos);
+        }
+        return content;
+    }
+
+    /** Serves a request from the archive, after the archive's replay 
+     * latency, during which a per-host permit is held (as in a live 
+     * request). */
+    private static FetchedContent replay 
+                    (HttpArchive replayedArchive, URL url, String requestMethod)
+            throws IOException {
+        HttpArchive.Response response = replayedArchive.get(requestMethod, url);
+        if (response == null) {
+            throw new IOException("No response recorded in HTTP archive for: "
+                                            + requestMethod + " " + url);
+        }
+        int latencyMillis = (replayedArchive.getReplayLatencyMillis() 
+                                        == HttpArchive.RECORDED_LATENCY) ?
+                response.latencyMillis : replayedArchive.getReplayLatencyMillis();
+        if (latencyMillis > 0) {
+            Semaphore permits = getHostPermits(url);
+            acquire(permits);
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted during replay");
+            } finally {
+                permits.release();
+            }
+        }
+        REQUEST_COUNT.incrementAndGet();
+        long latencyNanos = TimeUnit.MILLISECONDS.toNanos(latencyMillis);
+        recordLatency(latencyNanos);
+        AssemblyMetrics.recordRequest
+                    (url.getHost(), latencyNanos, response.responseCode >= 400);
+        if (response.responseCode >= 500 || response.responseCode == 429) {
+            FAILED_REQUEST_COUNT.incrementAndGet();
+            throw new HttpStatusException(url, response.responseCode);
+        } else if (response.responseCode >= 400) {
+            FAILED_REQUEST_COUNT.incrementAndGet();
+            throw new FileNotFoundException(url.toString());
+        }
+        WIRE_BYTE_COUNT.addAndGet(response.body.length);
+        AssemblyMetrics.recordBytesIn(url.getHost(), response.body.length);
+        return new FetchedContent(response);
+    }
+
+    /** Opens a connection (following up to MAX_REDIRECTS redirects, including
+     * http/https redirects, which HttpURLConnection will not follow), holding
+     * a per-host permit until the returned content is closed. If a cached 
+     * entry is submitted, the request is made conditional upon the entry's
+     * ETag and/or Last-Modified values. Server error responses which may be
+     * transient are thrown as {@link HttpStatusException}s. */
+    private static FetchedContent fetchOnce (URL url, String requestMethod, 
+                boolean acceptCompression, HttpResponseCache.Entry cachedEntry,
+                long deadlineNanos)
+            throws IOException {
+        int redirectCount = 0;
+        while (true) {
+            Semaphore permits = getHostPermits(url);
+            acquire(permits);
+            HttpURLConnection connection = null;
+            long startNanos = System.nanoTime();
+            boolean responded = false;
+            REQUEST_COUNT.incrementAndGet();
+            try {
+                connection = openConnection
+                        (url, requestMethod, acceptCompression, deadlineNanos);
+                if (cachedEntry != null && cachedEntry.getEtag() != null) {
+                    connection.setRequestProperty
+                                    ("If-None-Match", cachedEntry.getEtag());
+                }
+                if (cachedEntry != null && cachedEntry.getLastModified() != null) {
+                    connection.setRequestProperty
+                            ("If-Modified-Since", cachedEntry.getLastModified());
+                }
+                int responseCode = connection.getResponseCode();
+                responded = true;
+                long latencyNanos = System.nanoTime() - startNanos;
+                recordLatency(latencyNanos);
+                AssemblyMetrics.recordRequest
+                            (url.getHost(), latencyNanos, responseCode >= 400);
+                if (isRedirect(responseCode) && redirectCount < MAX_REDIRECTS
+                        && connection.getHeaderField("Location") != null) {
+                    URL redirectUrl
+                            = new URL(url, connection.getHeaderField("Location"));
+                    discard(connection.getErrorStream(), url.getHost());
+                    discardQuietly(connection);
+                    permits.release();
+                    url = redirectUrl;
+                    redirectCount++;
+                    continue;
+                }
+                if (responseCode >= 500 || responseCode == 429) {
+                    throw new HttpStatusException(url, responseCode);
+                }
+                /* throws FileNotFoundException, etc., for error responses */
+                InputStream rawStream = connection.getInputStream();
+                return new FetchedContent(connection, rawStream, permits);
+            } catch (IOException | RuntimeException e) {
+                FAILED_REQUEST_COUNT.incrementAndGet();
+                if (!responded) {
+                    AssemblyMetrics.recordRequest(url.getHost(),
+                                        System.nanoTime() - startNanos, true);
+                }
+                if (connection != null) {
+                    /* drain error body so that the connection may be reused */
+                    try {
+                        discard(connection.getErrorStream(), url.getHost());
+                    } catch (IOException ignored) {
+                    }
+                }
+                permits.release();
+                throw e;
+            }
+        }
+    }
+
+    private static HttpURLConnection openConnection (URL url, 
+                String requestMethod, boolean acceptCompression, long deadlineNanos)
+            throws IOException {
+        URLConnection urlConnection = url.openConnection();
+        if (!(urlConnection instanceof HttpURLConnection)) {
+            throw new IOException("Not an HTTP URL: " + url);
+        }
+        HttpURLConnection connection = (HttpURLConnection) urlConnection;
+        connection.setConnectTimeout
+                    (RequestPolicy.capTimeout(connectTimeoutMillis, deadlineNanos));
+        connection.setReadTimeout
+                    (RequestPolicy.capTimeout(readTimeoutMillis, deadlineNanos));
+        connection.setRequestMethod(requestMethod);
+        connection.setInstanceFollowRedirects(true);
+        if (acceptCompression) {
+            connection.setRequestProperty("Accept-Encoding", ACCEPT_ENCODING);
+        }
+        return connection;
+    }
+
+    private static boolean isRedirect (int responseCode) {
+        return responseCode == HttpURLConnection.HTTP_MOVED_PERM
+                || responseCode == HttpURLConnection.HTTP_MOVED_TEMP
+                || responseCode == HttpURLConnection.HTTP_SEE_OTHER
+                || responseCode == 307 || responseCode == 308;
+    }
+
+    private static void discardQuietly (HttpURLConnection connection) {
+        try {
+            discard(connection.getInputStream(), connection.getURL().getHost());
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static void discard (InputStream inputStream, String host)
+            throws IOException {
+        if (inputStream == null) {
+            return;
+        }
+        try (InputStream discardedStream
+                            = new WireCountingInputStream(inputStream, host)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (discardedStream.read(buffer) != -1) {
+            }
+        }
+    }
+
+    private static void recordLatency (long latencyNanos) {
+        LATENCY_NANOS_TOTAL.addAndGet(latencyNanos);
+        long max;
+        do {
+            max = LATENCY_NANOS_MAX.get();
+        } while (latencyNanos > max
+                    && !LATENCY_NANOS_MAX.compareAndSet(max, latencyNanos));
+    }
+
+    public static long getRequestCount () {
+        return REQUEST_COUNT.get();
+    }
+
+    public static long getFailedRequestCount () {
+        return FAILED_REQUEST_COUNT.get();
+    }
+
+    /** @return bytes received from the network (compressed, if compression
+     * was used) */
+    public static long getWireByteCount () {
+        return WIRE_BYTE_COUNT.get();
+    }
+
+    /** @return bytes of content delivered to callers (after decompression) */
+    public static long getContentByteCount () {
+        return CONTENT_BYTE_COUNT.get();
+    }
+
+    public static void resetStatistics () {
+        REQUEST_COUNT.set(0);
+        FAILED_REQUEST_COUNT.set(0);
+        COMPRESSED_RESPONSE_COUNT.set(0);
+        WIRE_BYTE_COUNT.set(0);
+        CONTENT_BYTE_COUNT.set(0);
+        LATENCY_NANOS_TOTAL.set(0);
+        LATENCY_NANOS_MAX.set(0);
+    }
+
+    /**
+     * @return one-line summary of HTTP activity since startup (or since last
+     * {@link #resetStatistics()})
+     */
+    public static String getStatistics () {
+        long requestCount = REQUEST_COUNT.get();
+        long averageLatencyMillis = (requestCount == 0) ? 0
+            : TimeUnit.NANOSECONDS.toMillis(LATENCY_NANOS_TOTAL.get() / requestCount);
+        return "HTTP requests: " + requestCount
+                + " (" + FAILED_REQUEST_COUNT.get() + " failed, "
+                + COMPRESSED_RESPONSE_COUNT.get() + " compressed); "
+                + "bytes received: " + WIRE_BYTE_COUNT.get()
+                + " (" + CONTENT_BYTE_COUNT.get() + " after decompression); "
+                + "latency avg/max ms: " + averageLatencyMillis + "/"
+                + TimeUnit.NANOSECONDS.toMillis(LATENCY_NANOS_MAX.get());
+    }
+
+    /** Counts bytes as they arrive from the network (in total, and, via
+     * {@link AssemblyMetrics}, per host). */
+    private static class WireCountingInputStream extends FilterInputStream {
+        private final String host;
+
+        WireCountingInputStream (InputStream in, String host) {
+            super(in);
+            this.host = host;
+        }
+
+        @Override
+        public int read () throws IOException {
+            int value = super.read();
+            if (value != -1) {
+                WIRE_BYTE_COUNT.incrementAndGet();
+                AssemblyMetrics.recordBytesIn(host, 1);
+            }
+            return value;
+        }
+
+        @Override
+        public int read (byte[] buffer, int offset, int length) throws IOException {
+            int byteCount = super.read(buffer, offset, length);
+            if (byteCount > 0) {
+                WIRE_BYTE_COUNT.addAndGet(byteCount);
+                AssemblyMetrics.recordBytesIn(host, byteCount);
+            }
+            return byteCount;
+        }
+    }
+
+    /** Decoded content of a response; releases the per-host permit on close. */
+    private static class FetchedContent extends FilterInputStream {
+        private final Semaphore permits;
+        /** undecoded stream of a live response (null if replayed) */
+        private final InputStream wireStream;
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private HttpArchive recordingArchive;
+        private String recordedRequestMethod;
+        private URL recordedUrl;
+        private long recordedLatencyNanos;
+        private ByteArrayOutputStream recordedBody;
+        final int responseCode;
+        final Charset charset;
+        final long contentLength;
+        final String etag;
+        final String lastModified;
+
+        FetchedContent (HttpURLConnection connection, InputStream rawStream,
+                            Semaphore permits) throws IOException {
+            this(connection, new WireCountingInputStream
+                        (rawStream, connection.getURL().getHost()), permits);
+        }
+
+        private FetchedContent (HttpURLConnection connection, 
+                        WireCountingInputStream wireStream, Semaphore permits) 
+                throws IOException {
+            super(decode(connection, wireStream));
+            this.wireStream = wireStream;
+            this.permits = permits;
+            this.responseCode = connection.getResponseCode();
+            this.charset = getContentTypeCharset(connection.getContentType());
+            this.contentLength = connection.getContentLengthLong();
+            this.etag = connection.getHeaderField("ETag");
+            this.lastModified = connection.getHeaderField("Last-Modified");
+        }
+
+        /** Content of a replayed response (holding no per-host permit). */
+        FetchedContent (HttpArchive.Response response) {
+            super(new ByteArrayInputStream(response.body));
+            this.wireStream = null;
+            this.permits = null;
+            this.responseCode = response.responseCode;
+            this.charset = getCharset(response.charsetName);
+            this.contentLength = response.contentLength;
+            this.etag = null;
+            this.lastModified = null;
+        }
+
+        /** Content read is retained, and recorded in the archive (in full,
+         * reading any unread remainder) upon closing. */
+        void recordInto (HttpArchive archive, String requestMethod, URL url,
+                                                        long latencyNanos) {
+            recordingArchive = archive;
+            recordedRequestMethod = requestMethod;
+            recordedUrl = url;
+            recordedLatencyNanos = latencyNanos;
+            recordedBody = new ByteArrayOutputStream(BUFFER_SIZE);
+        }
+
+        private static InputStream decode
+                (HttpURLConnection connection, InputStream wireStream)
+                throws IOException {
+            String contentEncoding = connection.getContentEncoding();
+            if (contentEncoding == null) {
+                return wireStream;
+            }
+            try {
+                if (contentEncoding.equalsIgnoreCase("gzip")) {
+                    COMPRESSED_RESPONSE_COUNT.incrementAndGet();
+                    return new GZIPInputStream(wireStream, BUFFER_SIZE);
+                } else if (contentEncoding.equalsIgnoreCase("deflate")) {
+                    COMPRESSED_RESPONSE_COUNT.incrementAndGet();
+                    return new InflaterInputStream(wireStream);
+                }
+            } catch (IOException e) {
+                wireStream.close();
+                throw e;
+            }
+            return wireStream;
+        }
+
+        private static Charset getContentTypeCharset (String contentType) {
+            if (contentType != null) {
+                for (String parameter : contentType.split(";")) {
+                    parameter = parameter.trim();
+                    if (parameter.toLowerCase().startsWith("charset=")) {
+                        return getCharset(parameter.substring(8)
+                                                    .replace("\"", "").trim());
+                    }
+                }
+            }
+            return StandardCharsets.UTF_8;
+        }
+
+        @Override
+        public int read () throws IOException {
+            int value = super.read();
+            if (value != -1) {
+                CONTENT_BYTE_COUNT.incrementAndGet();
+                if (recordedBody != null) {
+                    recordedBody.write(value);
+                }
+            }
+            return value;
+        }
+
+        @Override
+        public int read (byte[] buffer, int offset, int length) throws IOException {
+            int byteCount = super.read(buffer, offset, length);
+            if (byteCount > 0) {
+                CONTENT_BYTE_COUNT.addAndGet(byteCount);
+                if (recordedBody != null) {
+                    recordedBody.write(buffer, offset, byteCount);
+                }
+            }
+            return byteCount;
+        }
+
+        @Override
+        public void close () throws IOException {
+            if (closed.compareAndSet(false, true)) {
+                try {
+                    if (recordedBody != null) {
+                        record();
+                    } else if (wireStream != null) {
+                        drainRemainder();
+                    }
+                    super.close();
+                } finally {
+                    if (permits != null) {
+                        permits.release();
+                    }
+                }
+            }
+        }
+
+        /** Reads up to {@link #maxDrainedBytes} of any unread remainder of 
+         * the response (e.g., of a document parsed only as far as needed), 
+         * so that closing leaves the connection reusable. */
+        private void drainRemainder () {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            long remainingLimit = maxDrainedBytes;
+            try {
+                int byteCount = 0;
+                while (remainingLimit > 0 && (byteCount = wireStream.read
+                        (buffer, 0, (int) Math.min(buffer.length, remainingLimit))) 
+                                                                    != -1) {
+                    remainingLimit -= byteCount;
+                }
+            } catch (IOException e) {
+                // connection is closed rather than reused
+            }
+        }
+
+        private void record () throws IOException {
+            try {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                while (read(buffer, 0, buffer.length) != -1) {
+                }
+            } catch (IOException e) {
+                return; // incomplete content is not recorded
+            }
+            recordingArchive.record(recordedRequestMethod, recordedUrl, 
+                    responseCode, charset.name(), contentLength, 
+                    recordedLatencyNanos, recordedBody.toByteArray());
+        }
+    }
+}
@@ -0,0 +1,369 @@
+/*
+ * Copyright (C) 2015 Daniel Vimont
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.commonvox.le_catalog;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * On-disk cache of HTTP responses (used by {@link HttpFetcher} for webpage
+ * and JSON requests during catalog assembly). Each entry is stored under a
+ * name derived from the SHA-256 hash of its URL, and consists of the
+ * response body plus a small properties file holding the URL, charset,
+ * ETag, and Last-Modified values. A cached entry is revalidated with
+ * If-None-Match/If-Modified-Since on each request, and its body reused if
+ * the server responds "304 Not Modified". Only responses carrying an ETag
+ * or Last-Modified header are cached. When the total size of the cache
+ * exceeds its limit, least-recently-used entries are evicted.
+ * @author Daniel Vimont
+ */
+public class HttpResponseCache {
+    private static final String BODY_SUFFIX = ".body";
+    private static final String META_SUFFIX = ".meta";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String URL_PROPERTY = "url";
+    private static final String CHARSET_PROPERTY = "charset";
+    private static final String ETAG_PROPERTY = "etag";
+    private static final String LAST_MODIFIED_PROPERTY = "lastModified";
+    private final Path directory;
+    private final long maxBytes;
+    /** entry sizes in least-recently-used order */
+    private final LinkedHashMap<String,Long> entrySizes
+                                        = new LinkedHashMap<>(1024, 0.75f, true);
+    private long totalBytes = 0;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong changedCount = new AtomicLong();
+    private final AtomicLong storedCount = new AtomicLong();
+    private final AtomicLong evictedCount = new AtomicLong();
+    private final AtomicLong bytesServedCount = new AtomicLong();
+
+    private HttpResponseCache (Path directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Opens (creating, if necessary) the cache in the submitted directory,
+     * indexing any entries left by previous runs.
+     * @param directory cache directory
+     * @param maxBytes limit on total size of cached entries
+     * @return open cache
+     * @throws IOException if directory cannot be created or read
+     */
+    public static HttpResponseCache open (Path directory, long maxBytes)
+            throws IOException {
+        HttpResponseCache cache = new HttpResponseCache(directory, maxBytes);
+        Files.createDirectories(directory);
+        List<Path> metaFiles;
+        try (Stream<Path> paths = Files.walk(directory, 2)) {
+            metaFiles = paths.filter(path -> path.toString().endsWith(META_SUFFIX))
+                                                .collect(Collectors.toList());
+        }
+        Map<Path,FileTime> accessTimes = new HashMap<>();
+        for (Path metaFile : metaFiles) {
+            accessTimes.put(metaFile, Files.getLastModifiedTime(metaFile));
+        }
+        Collections.sort(metaFiles, (metaFile1, metaFile2)
+                -> accessTimes.get(metaFile1).compareTo(accessTimes.get(metaFile2)));
+        synchronized (cache) {
+            for (Path metaFile : metaFiles) {
+                String key = getKey(metaFile);
+                Path bodyFile = cache.getBodyFile(key);
+                if (!Files.exists(bodyFile)) {
+                    Files.deleteIfExists(metaFile);
+                    continue;
+                }
+                long entryBytes = Files.size(bodyFile) + Files.size(metaFile);
+                cache.entrySizes.put(key, entryBytes);
+                cache.totalBytes += entryBytes;
+            }
+            cache.evict();
+        }
+        return cache;
+    }
+
+    /**
+     * @param url requested URL
+     * @return cached entry for the URL, or null if none exists
+     */
+    public Entry get (URL url) {
+        String key = getKey(url);
+        synchronized (this) {
+            if (!entrySizes.containsKey(key)) {
+                return null;
+            }
+        }
+        Properties properties = new Properties();
+        try (InputStream metaStream = Files.newInputStream(getMetaFile(key))) {
+            properties.load(metaStream);
+        } catch (IOException e) {
+            return null;
+        }
+        if (!url.toExternalForm().equals(properties.getProperty(URL_PROPERTY))) {
+            return null;
+        }
+        return new Entry(key, properties.getProperty(CHARSET_PROPERTY),
+                            properties.getProperty(ETAG_PROPERTY),
+                            properties.getProperty(LAST_MODIFIED_PROPERTY));
+    }
+
+    /**
+     * Reads the body of an entry whose revalidation was successful.
+     * @param entry cached entry
+     * @return body of entry, or null if it is no longer in the cache
+     */
+    public byte[] getBody (Entry entry) {
+        byte[] body;
+        try {
+            body = Files.readAllBytes(getBodyFile(entry.key));
+            Files.setLastModifiedTime
+                (getMetaFile(entry.key), FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            return null;
+        }
+        synchronized (this) {
+            entrySizes.get(entry.key); // marks entry as most recently used
+        }
+        hitCount.incrementAndGet();
+        bytesServedCount.addAndGet(body.length);
+        return body;
+    }
+
+    /**
+     * Stores (or replaces) the entry for the URL. The response is not
+     * stored if it has neither ETag nor Last-Modified, since it could not
+     * be revalidated.
+     * @param url requested URL
+     * @param previousEntry entry previously cached for URL (or null)
+     * @param body response body
+     * @param charsetName charset of response body
+     * @param etag ETag response header (or null)
+     * @param lastModified Last-Modified response header (or null)
+     */
+    public void put (URL url, Entry previousEntry, byte[] body,
+                        String charsetName, String etag, String lastModified) {
+        if (previousEntry == null) {
+            missCount.incrementAndGet();
+        } else {
+            changedCount.incrementAndGet();
+        }
+        if (etag == null && lastModified == null) {
+            return;
+        }
+        String key = getKey(url);
+        Properties properties = new Properties();
+        properties.setProperty(URL_PROPERTY, url.toExternalForm());
+        properties.setProperty(CHARSET_PROPERTY, charsetName);
+        if (etag != null) {
+            properties.setProperty(ETAG_PROPERTY, etag);
+        }
+        if (lastModified != null) {
+            properties.setProperty(LAST_MODIFIED_PROPERTY, lastModified);
+        }
+        long entryBytes;
+        try {
+            Path bodyFile = getBodyFile(key);
+            Path metaFile = getMetaFile(key);
+            Files.createDirectories(bodyFile.getParent());
+            Path tempBodyFile = Files.createTempFile
+                            (bodyFile.getParent(), key, BODY_SUFFIX + TEMP_SUFFIX);
+            Files.write(tempBodyFile, body);
+            Path tempMetaFile = Files.createTempFile
+                            (bodyFile.getParent(), key, META_SUFFIX + TEMP_SUFFIX);
+            try (OutputStream metaStream = Files.newOutputStream(tempMetaFile)) {
+                properties.store(metaStream, null);
+            }
+            entryBytes = body.length + Files.size(tempMetaFile);
+            Files.move(tempBodyFile, bodyFile, StandardCopyOption.REPLACE_EXISTING,
+                                                StandardCopyOption.ATOMIC_MOVE);
+            Files.move(tempMetaFile, metaFile, StandardCopyOption.REPLACE_EXISTING,
+                                                StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println(">>>> HTTP cache entry could not be written for URL: "
+                                    + url + " (" + e + ")");
+            return;
+        }
+        storedCount.incrementAndGet();
+        synchronized (this) {
+            Long previousBytes = entrySizes.put(key, entryBytes);
+            if (previousBytes != null) {
+                totalBytes -= previousBytes;
+            }
+            totalBytes += entryBytes;
+            evict();
+        }
+    }
+
+    /** Deletes least-recently-used entries until within size limit. */
+    private void evict () {
+        Iterator<Map.Entry<String,Long>> iterator = entrySizes.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String,Long> eldestEntry = iterator.next();
+            try {
+                Files.deleteIfExists(getMetaFile(eldestEntry.getKey()));
+                Files.deleteIfExists(getBodyFile(eldestEntry.getKey()));
+            } catch (NoSuchFileException e) {
+            } catch (IOException e) {
+                System.err.println(">>>> HTTP cache entry could not be evicted: "
+                                        + eldestEntry.getKey() + " (" + e + ")");
+            }
+            totalBytes -= eldestEntry.getValue();
+            iterator.remove();
+            evictedCount.incrementAndGet();
+        }
+    }
+
+    public synchronized long getTotalBytes () {
+        return totalBytes;
+    }
+
+    public synchronized int getEntryCount () {
+        return entrySizes.size();
+    }
+
+    public Statistics getStatistics () {
+        return new Statistics(hitCount.get(), missCount.get(), changedCount.get(),
+                storedCount.get(), evictedCount.get(), bytesServedCount.get());
+    }
+
+    private Path getBodyFile (String key) {
+        return directory.resolve(key.substring(0, 2)).resolve(key + BODY_SUFFIX);
+    }
+
+    private Path getMetaFile (String key) {
+        return directory.resolve(key.substring(0, 2)).resolve(key + META_SUFFIX);
+    }
+
+    private static String getKey (Path metaFile) {
+        String fileName = metaFile.getFileName().toString();
+        return fileName.substring(0, fileName.length() - META_SUFFIX.length());
+    }
+
+    private static String getKey (URL url) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                .digest(url.toExternalForm().getBytes(StandardCharsets.UTF_8));
+            StringBuilder key = new StringBuilder();
+            for (byte digestByte : digest) {
+                key.append(String.format("%02x", digestByte));
+            }
+            return key.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Metadata of a cached response. */
+    public static class Entry {
+        private final String key;
+        private final String charsetName;
+        private final String etag;
+        private final String lastModified;
+
+        private Entry (String key, String charsetName, String etag,
+                            String lastModified) {
+            this.key = key;
+            this.charsetName = charsetName;
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+
+        public String getCharsetName () {
+            return charsetName;
+        }
+
+        public String getEtag () {
+            return etag;
+        }
+
+        public String getLastModified () {
+            return lastModified;
+        }
+    }
+
+    /** Snapshot of cache activity counts. */
+    public static class Statistics {
+        private final long hits;
+        private final long misses;
+        private final long changed;
+        private final long stored;
+        private final long evicted;
+        private final long bytesServed;
+
+        private Statistics (long hits, long misses, long changed, long stored,
+                                long evicted, long bytesServed) {
+            this.hits = hits;
+            this.misses = misses;
+            this.changed = changed;
+            this.stored = stored;
+            this.evicted = evicted;
+            this.bytesServed = bytesServed;
+        }
+
+        /**
+         * @param earlierStatistics snapshot taken earlier (e.g., at the start
+         * of a stage)
+         * @return counts of activity since the earlier snapshot
+         */
+        public Statistics since (Statistics earlierStatistics) {
+            return new Statistics(hits - earlierStatistics.hits,
+                        misses - earlierStatistics.misses,
+                        changed - earlierStatistics.changed,
+                        stored - earlierStatistics.stored,
+                        evicted - earlierStatistics.evicted,
+                        bytesServed - earlierStatistics.bytesServed);
+        }
+
+        public long getHits () {
+            return hits;
+        }
+
+        public long getMisses () {
+            return misses;
+        }
+
+        @Override
+        public String toString () {
+            return "HTTP cache: " + hits + " hits (not modified), "
+                    + misses + " misses, " + changed + " changed; "
+                    + stored + " entries stored, " + evicted + " evicted; "
+                    + bytesServed + " bytes served from cache";
+        }
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2015 Daniel Vimont
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.commonvox.le_catalog;
+
+import java.io.IOException;
+import java.net.URL;
+
+/**
+ * Thrown for an HTTP error response that may be transient (a 5xx server
+ * error, or 429 Too Many Requests), so that the {@link RequestPolicy} may
+ * retry the request. (Other error responses are reported as before, e.g.,
+ * 404 as a FileNotFoundException.)
+ * @author Daniel Vimont
+ */
+public class HttpStatusException extends IOException {
+    private final int responseCode;
+
+    public HttpStatusException (URL url, int responseCode) {
+        super("Server returned HTTP response code: " + responseCode 
+                                                    + " for URL: " + url);
+        this.responseCode = responseCode;
+    }
+
+    public int getResponseCode () {
+        return responseCode;
+    }
+}
@@ -20,7 +20,6 @@ import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.file.Files;
@@ -61,7 +60,8 @@ public class InterruptibleDownloader {
         
         try ( BufferedInputStream inStream 
                     = new BufferedInputStream
-                        (new URL(sourceUrlString).openStream(), BUFFER_SIZE);
+                        (HttpFetcher.openStream(new URL(sourceUrlString), false), 
+                                BUFFER_SIZE);
                 FileOutputStream fileOutStream 
                     = new FileOutputStream
                         (getFullTargetPath(sourceUrlString, targetFile).toString()) )
@@ -125,23 +125,18 @@ public class InterruptibleDownloader {
             targetPath.resolve(new File(sourceUrlString).getName()) : targetPath; 
     }
     
+    /**
+     * @param sourceUrlString URL of file
+     * @return size of file, or -1 if the file is not accessible (or its
+     * size is not reported)
+     */
     public static long getFileSize (final String sourceUrlString) {
-        long fileSize = 0;
-        HttpURLConnection conn = null;
         try {
-            URL sourceUrl = new URL(sourceUrlString);
-            conn = (HttpURLConnection) sourceUrl.openConnection();
-            conn.setRequestMethod("HEAD");
-            //conn.getInputStream(); // commmented out as extraneous 2015-01-15
-            fileSize = conn.getContentLength();
+            /* connection is returned to the keep-alive pool, not disconnected */
+            return HttpFetcher.getContentLength(new URL(sourceUrlString));
         } catch (IOException e) {
             return -1;
-        } finally {
-            if (conn != null) {
-                conn.disconnect();
-            }
         }
-        return fileSize;
     }
     
     private static class Timer {
@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2015 Daniel Vimont
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.commonvox.le_catalog;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Replaces the separate {@link Author}, {@link Reader}, {@link Genre} and
+ * {@link Language} instances which JAXB creates for each occurrence in the
+ * catalog XML (in every audiobook and every section) with a single shared
+ * instance per LibriVox ID and name (per language name, for Languages); an
+ * occurrence whose name differs from that of others with its ID is kept 
+ * apart, so that no occurrence takes on another's name. Duplicates
+ * (and their Strings) become garbage, and the instances subsequently 
+ * collected into lists and indexes may be recognized by identity.
+ * <p>
+ * Applied to a catalog being prepared for browsing (not to catalogs under
+ * assembly, in which contributor instances may be individually updated).
+ * @author Daniel Vimont
+ */
+public class KeyCanonicalizer {
+    private final Map<String, Author> authors = new HashMap<>();
+    private final Map<String, Reader> readers = new HashMap<>();
+    private final Map<String, Genre> genres = new HashMap<>();
+    private final Map<String, Language> languages = new HashMap<>();
+    private long occurrenceCount = 0;
+    private long replacedCount = 0;
+
+    private KeyCanonicalizer () {
+    }
+
+    /**
+     * @param audiobooks audiobooks whose keys are to be canonicalized
+     * @return canonicalizer, whose counts summarize the canonicalization
+     * @throws InterruptedException if interrupted
+     */
+    public static KeyCanonicalizer canonicalize (List<Audiobook> audiobooks) 
+            throws InterruptedException {
+        KeyCanonicalizer canonicalizer = new KeyCanonicalizer();
+        for (Audiobook audiobook : audiobooks) {
+            if (Thread.interrupted()) { throw new InterruptedException(); }
+            canonicalizer.canonicalize(audiobook);
+        }
+        return canonicalizer;
+    }
+
+    private void canonicalize (Audiobook audiobook) {
+        canonicalizeWork(audiobook);
+        canonicalizeList(audiobook.getGenres(), genres, 
+                genre -> genre.getId() + '\n' + genre.name);
+        if (audiobook.getSections() != null) {
+            for (Section section : audiobook.getSections()) {
+                canonicalizeWork(section);
+                canonicalizeList(section.getReaders(), readers, 
+                        reader -> reader.getId() + '\n' + reader.displayName);
+            }
+        }
+    }
+
+    private void canonicalizeWork (Work work) {
+        canonicalizeList(work.getAuthors(), authors, 
+                author -> author.getId() + '\n' + author.lastName 
+                                        + '\n' + author.firstName);
+        Language language = work.getLanguage();
+        if (language != null) {
+            occurrenceCount++;
+            Language canonicalLanguage 
+                    = getCanonical(languages, language.getLanguage(), language);
+            if (canonicalLanguage != language) {
+                work.setLanguage(canonicalLanguage);
+                replacedCount++;
+            }
+        }
+    }
+
+    private <K extends HasLibrivoxId> void canonicalizeList 
+                            (List<K> keys, Map<String, K> canonicalKeys,
+                                    Function<K, String> identity) {
+        if (keys == null) {
+            return;
+        }
+        for (ListIterator<K> iterator = keys.listIterator(); 
+                                                    iterator.hasNext(); ) {
+            K key = iterator.next();
+            if (key == null) {
+                continue;
+            }
+            occurrenceCount++;
+            K canonicalKey = getCanonical(canonicalKeys, 
+                    (key.getId() == null) ? null : identity.apply(key), key);
+            if (canonicalKey != key) {
+                iterator.set(canonicalKey);
+                replacedCount++;
+            }
+        }
+    }
+
+    /** @return the first instance encountered with the submitted identity
+     * (keys without an ID are left as they are) */
+    private static <K> K getCanonical 
+                    (Map<String, K> canonicalKeys, String identity, K key) {
+        if (identity == null) {
+            return key;
+        }
+        K canonicalKey = canonicalKeys.get(identity);
+        if (canonicalKey == null) {
+            canonicalKeys.put(identity, key);
+            return key;
+        }
+        return canonicalKey;
+    }
+
+    /** @return count of author, reader, genre and language occurrences */
+    public long getOccurrenceCount () {
+        return occurrenceCount;
+    }
+
+    /** @return count of occurrences replaced by a shared instance */
+    public long getReplacedCount () {
+        return replacedCount;
+    }
+
+    /** @return count of distinct (shared) instances */
+    public int getCanonicalCount () {
+        return authors.size() + readers.size() + genres.size() 
+                                                        + languages.size();
+    }
+
+    @Override
+    public String toString () {
+        return String.format("%,d author/reader/genre/language occurrences "
+                + "now share %,d instances (%,d duplicates released): "
+                + "%,d authors, %,d readers, %,d genres, %,d languages.",
+                occurrenceCount, getCanonicalCount(), replacedCount,
+                authors.size(), readers.size(), genres.size(), languages.size());
+    }
+}
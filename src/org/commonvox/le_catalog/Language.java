@@ -17,6 +17,7 @@
 
 package org.commonvox.le_catalog;
 
+import java.io.Serializable;
 import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
 
 /**
@@ -25,7 +26,8 @@ import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
  */
 @XmlJavaTypeAdapter(LanguageXmlAdapter.class)
 public class Language 
-        implements Comparable<Language>, Mergeable, Key {
+        implements Comparable<Language>, Mergeable, Serializable, Key {
+    private static final long serialVersionUID = 1L;
     protected String language;
     private String uniqueKey;
 
@@ -76,6 +78,9 @@ public class Language
     
     @Override
     public int compareTo(Language otherLanguage) {
+        if (this == otherLanguage) {
+            return 0;
+        }
         return this.language.compareTo(otherLanguage.language);
     }
     
@@ -40,30 +40,113 @@ public class LeCatalog {
     static String jpegPermanentPathString; 
                         //    = PROJECTPATH + "jpegs\\fullSize\\coverArt\\";
     static String jpegNewImagesPathString; // = buildPathString + "newJpegs\\";
+    static String jpegReducedImagesPathString;
+    static float jpegReducedQuality = 0.75f;
     static String logOutputPathString;
     static File logOutputDirectory = null;
     static int startingAudiobookId = 1;
     static int processingLimit = 0;
     static boolean deltaSuppressCoverArtChange = false;
+    static int stage01ThreadCount = 1;
+    static double requestsPerSecond = 0;
+    static boolean adaptiveIdScan = false;
+    static boolean resume = false;
+    static boolean streamingAssembly = false;
+    static int pipelineQueueCapacity = 64;
+    static boolean authorPrefetch = true;
+    static boolean fusedEnrichment = false;
+    static int enrichmentWindow = 16;
+    static int httpConnectTimeoutSeconds = 15;
+    static int httpReadTimeoutSeconds = 60;
+    static int httpRequestDeadlineSeconds = 0;
+    static int httpMaxConnectionsPerHost = 8;
+    static int httpMaxAttempts = 3;
+    static int httpBackoffMillis = 500;
+    static boolean httpHedging = false;
+    static int httpHedgeMinDelayMillis = 100;
+    static int httpCircuitFailureThreshold = 20;
+    static int httpCircuitOpenSeconds = 30;
+    static int refreshRequestBudget = 1000;
+    static int refreshThreadCount = 4;
+    static int jpegDownloadThreadCount = 8;
+    static int progressIntervalSeconds = 10;
+    static int shardIndex = 1;
+    static int shardCount = 1;
+    static String httpCachePathString;
+    static long httpCacheMaxMegabytes = 1024;
+    private static final String DEFAULT_HTTP_CACHE_SUBFOLDER = "httpCache";
+    static HttpArchive.Mode httpArchiveMode = null;
+    static String httpArchivePathString;
+    static int httpReplayLatencyMillis = 0;
+    private static final String DEFAULT_HTTP_ARCHIVE_FILE = "assembly.httparchive";
     private static final String ASSEMBLE_ALL_FUNCTION = "assembleAll";
     private static final String ASSEMBLE_CATALOG_FUNCTION = "assembleCatalog";
     private static final String ASSEMBLE_DELTA_CATALOG_FUNCTION 
                                                     = "assembleDeltaCatalog";
     private static final String DOWNLOAD_NEW_JPEGS_FUNCTION = "downloadNewJpegs";
+    private static final String REFRESH_DOWNLOAD_COUNTS_FUNCTION 
+                                                    = "refreshDownloadCounts";
+    private static final String MERGE_SHARDS_FUNCTION = "mergeShards";
+    private static final String BUILD_BOOT_SNAPSHOT_FUNCTION = "buildBootSnapshot";
+    /** most seconds expressible as an int count of milliseconds */
+    private static final int MAX_MILLIS_SECONDS = Integer.MAX_VALUE / 1000;
+    private static final String REFRESH_LOG_FILE_NAME 
+                                            = "downloadCountRefresh.properties";
 
     /**
      * @param args command line arguments -- <br><br>
      * Valid arguments and values are as follows:<br>
-     FUNCTION=[assembleAll|assembleCatalog|assembleDeltaCatalog|downloadNewJpegs]<br>
+     FUNCTION=[assembleAll|assembleCatalog|assembleDeltaCatalog|downloadNewJpegs|refreshDownloadCounts|mergeShards|buildBootSnapshot]<br>
      PROJECT_PATH=[valid existing locally-accessible path]<br>
      PREVIOUS_BUILD_FOLDER=[valid existing folder in Project Path]<br>
-     BUILD_FOLDER=[valid folder in Project Path, must already exist only if FUNCTION=assembleDeltaCatalog]<br>
+     BUILD_FOLDER=[valid folder in Project Path, must already exist only if FUNCTION=assembleDeltaCatalog, refreshDownloadCounts, mergeShards or buildBootSnapshot]<br>
      JPEG_PERMANENT_FOLDER=[valid existing folder in Project Path]<br>
      JPEG_NEW_IMAGES_SUBFOLDER=[valid folder within Build Folder, not necessarily existing]<br>
+     JPEG_REDUCED_IMAGES_SUBFOLDER=[valid folder within Build Folder, not necessarily existing, default newJpegsReduced]<br>
+     JPEG_REDUCED_QUALITY=[optional JPEG compression quality of reduced images, from 0 to 1, default 0.75]<br>
      LOG_OUTPUT_SUBFOLDER=[valid folder within Build Folder, not necessarily existing]<br>
      STARTING_AUDIOBOOK_ID=[optional integer ID value for partial test processing]<br>
      PROCESSING_LIMIT=[optional integer for partial test processing]
-     DELTA_SUPPRESS_COVER_ART_CHANGE=[Y|N]
+     DELTA_SUPPRESS_COVER_ART_CHANGE=[Y|N]<br>
+     STAGE01_THREADS=[optional integer count of concurrent Stage 1 API calls, default 1]<br>
+     REQUESTS_PER_SECOND=[optional maximum rate of Stage 1 API calls and download count refresh requests, default unlimited]<br>
+     STAGE01_ID_SCAN=[linear|adaptive, optional, default linear; adaptive skips sparse ranges and the unused end of the ID space, and may miss isolated IDs within them]<br>
+     RESUME=[Y|N, optional; Y resumes an interrupted catalog assembly in Build Folder]<br>
+     ASSEMBLY_MODE=[batch|streaming, optional, default batch]<br>
+     PIPELINE_QUEUE_CAPACITY=[optional integer capacity of queues between stages in streaming mode, default 64]<br>
+     AUTHOR_PREFETCH=[Y|N, optional, default Y; Y seeds Stage 2 author lookups with Stage 1 authors]<br>
+     ENRICHMENT_MODE=[sequential|fused, optional, batch mode only, default sequential; fused performs Stages 2 and 3 together, retrieving each audiobook's LibriVox webpage and Internet Archive JSON concurrently (no stage02.xml is written)]<br>
+     ENRICHMENT_WINDOW=[optional integer count of audiobooks in process at once in fused enrichment, default 16]<br>
+     HTTP_CONNECT_TIMEOUT_SECONDS=[optional integer, default 15]<br>
+     HTTP_READ_TIMEOUT_SECONDS=[optional integer, default 60]<br>
+     HTTP_REQUEST_DEADLINE_SECONDS=[optional integer overall limit for a request, including retries, default 0 (none)]<br>
+     HTTP_MAX_CONNECTIONS_PER_HOST=[optional integer cap on concurrent requests to any one host, default 8]<br>
+     HTTP_MAX_ATTEMPTS=[optional integer count of attempts at a request failing with a timeout, connection failure, or 5xx/429 response, default 3]<br>
+     HTTP_BACKOFF_MILLIS=[optional integer delay before the first retry, doubled (with jitter) for each further retry, default 500]<br>
+     HTTP_HEDGE=[Y|N, optional, default N; Y issues a duplicate request when no response arrives within the host's 95th percentile latency]<br>
+     HTTP_HEDGE_MIN_DELAY_MILLIS=[optional integer least delay before a duplicate request, default 100]<br>
+     HTTP_CIRCUIT_FAILURE_THRESHOLD=[optional integer count of consecutive failures after which requests to a host are shed, default 20; 0 disables]<br>
+     HTTP_CIRCUIT_OPEN_SECONDS=[optional integer period for which requests to a host are shed, default 30]<br>
+     HTTP_CACHE_SUBFOLDER=[valid folder within Build Folder, not necessarily existing, default httpCache]<br>
+     HTTP_CACHE_MAX_MEGABYTES=[optional integer size limit of HTTP cache, default 1024; 0 disables cache]<br>
+     HTTP_ARCHIVE_MODE=[record|replay, optional, catalog assembly only; record saves every response in the HTTP archive, replay serves every request from it, without network access (the HTTP cache is unused in either mode)]<br>
+     HTTP_ARCHIVE_FILE=[valid file within Project Path, existing in replay mode, default assembly.httparchive]<br>
+     HTTP_REPLAY_LATENCY_MILLIS=[optional integer delay of each replayed response, or "recorded" for the latency at which each was recorded, default 0]<br>
+     REFRESH_REQUEST_BUDGET=[optional integer maximum count of download count refresh requests per run, default 1000]<br>
+     REFRESH_THREADS=[optional integer count of concurrent download count refresh requests, default 4]<br>
+     JPEG_DOWNLOAD_THREADS=[optional integer count of concurrent jpeg downloads, default 8]<br>
+     PROGRESS_INTERVAL_SECONDS=[optional integer interval between assembly progress lines, default 10; 0 suppresses them]<br>
+     SHARD=[i/N, optional, FUNCTION=assembleCatalog in batch mode only; assembles only the i-th (from 1) of N ranges of audiobook IDs, in subfolder shard-i-of-N of Build Folder, in which any other subfolders are also placed]
+     <p>
+     A catalog may be assembled by N processes (on one machine or several 
+     sharing the Build Folder), each run with FUNCTION=assembleCatalog and its
+     own SHARD=i/N, followed by a single run with FUNCTION=mergeShards, which
+     merges the shards' catalogs into the Stage 6 and Stage 7 files of the
+     Build Folder.
+     <p>
+     FUNCTION=buildBootSnapshot (also performed by FUNCTION=assembleAll) writes
+     catalog.snapshot to the Build Folder: the Stage 7 catalog as prepared and
+     indexed at application startup, to be shipped alongside catalog.xml.
      * @throws java.lang.Exception
      */
     public static void main(String[] args) throws Exception {
@@ -75,21 +158,77 @@ public class LeCatalog {
         
         /** Create new directories */
         if (!Files.exists(Paths.get(buildPathString))) {
-            new File(buildPathString).mkdir();
+            new File(buildPathString).mkdirs();
         }
         if (logOutputDirectory != null
                 && !Files.exists(logOutputDirectory.toPath())) {
             logOutputDirectory.mkdir();
         }
  
+        CatalogAssembler.stage01ThreadCount = stage01ThreadCount;
+        CatalogAssembler.requestsPerSecond = requestsPerSecond;
+        CatalogAssembler.adaptiveIdScan = adaptiveIdScan;
+        CatalogAssembler.pipelineQueueCapacity = pipelineQueueCapacity;
+        CatalogAssembler.authorPrefetch = authorPrefetch;
+        CatalogAssembler.fusedEnrichment = fusedEnrichment;
+        CatalogAssembler.enrichmentWindow = enrichmentWindow;
+        CatalogAssembler.shardIndex = shardIndex;
+        CatalogAssembler.shardCount = shardCount;
+        HttpFetcher.connectTimeoutMillis = secondsToMillis(httpConnectTimeoutSeconds);
+        HttpFetcher.readTimeoutMillis = secondsToMillis(httpReadTimeoutSeconds);
+        HttpFetcher.requestDeadlineMillis = secondsToMillis(httpRequestDeadlineSeconds);
+        HttpFetcher.setMaxConnectionsPerHost(httpMaxConnectionsPerHost);
+        RequestPolicy.maxAttempts = httpMaxAttempts;
+        RequestPolicy.initialBackoffMillis = httpBackoffMillis;
+        RequestPolicy.hedging = httpHedging;
+        RequestPolicy.hedgeMinDelayMillis = httpHedgeMinDelayMillis;
+        RequestPolicy.circuitFailureThreshold = httpCircuitFailureThreshold;
+        RequestPolicy.circuitOpenMillis = secondsToMillis(httpCircuitOpenSeconds);
+        CoverArtDownloader.threadCount = jpegDownloadThreadCount;
+        AssemblyMetrics.rateLineIntervalMillis = progressIntervalSeconds * 1000L;
+        CoverArtReducer.quality = jpegReducedQuality;
+        
         /** CATALOG ASSEMBLY PROCESSING */
         if (function.equalsIgnoreCase(ASSEMBLE_ALL_FUNCTION)
                 || function.equalsIgnoreCase(ASSEMBLE_CATALOG_FUNCTION)) {
             if (!Files.exists(Paths.get(buildPathString))) {
-                new File(buildPathString).mkdir();
+                new File(buildPathString).mkdirs();
+            }
+            if (httpArchiveMode != null) {
+                HttpFetcher.archive = HttpArchive.open
+                        (new File(httpArchivePathString), httpArchiveMode,
+                                httpReplayLatencyMillis);
+                System.out.println("HTTP archive (" 
+                        + httpArchiveMode.toString().toLowerCase() + " mode) in " 
+                        + httpArchivePathString + ": " 
+                        + HttpFetcher.archive.getEntryCount() + " entries.");
+            } else if (httpCacheMaxMegabytes > 0) {
+                if (httpCachePathString == null) {
+                    httpCachePathString = Paths.get
+                        (buildPathString, DEFAULT_HTTP_CACHE_SUBFOLDER).toString();
+                }
+                HttpFetcher.responseCache = HttpResponseCache.open
+                        (Paths.get(httpCachePathString), 
+                                httpCacheMaxMegabytes * 1024 * 1024);
+                System.out.println("HTTP cache in " + httpCachePathString + ": "
+                        + HttpFetcher.responseCache.getEntryCount() + " entries, "
+                        + HttpFetcher.responseCache.getTotalBytes() + " bytes.");
+            }
+            try {
+                if (streamingAssembly) {
+                    CatalogAssembler.assembleCompleteCatalogStreaming
+                        (buildPathString, startingAudiobookId, processingLimit, resume);
+                } else {
+                    CatalogAssembler.assembleCompleteCatalog
+                        (buildPathString, startingAudiobookId, processingLimit, resume);
+                }
+            } finally {
+                if (HttpFetcher.archive != null) {
+                    HttpFetcher.archive.close();
+                    System.out.println(HttpFetcher.archive.getStatistics());
+                    HttpFetcher.archive = null;
+                }
             }
-            CatalogAssembler.assembleCompleteCatalog
-                (buildPathString, startingAudiobookId, processingLimit);
         }
         
         /** DELTA PROCESSING */
@@ -104,7 +243,26 @@ public class LeCatalog {
         if (function.equalsIgnoreCase(ASSEMBLE_ALL_FUNCTION)
                 || function.equalsIgnoreCase(DOWNLOAD_NEW_JPEGS_FUNCTION)) {
             CatalogAssembler.assembleNewJpegs
-                        (buildPathString, jpegPermanentPathString, jpegNewImagesPathString);
+                        (buildPathString, jpegPermanentPathString, 
+                                jpegNewImagesPathString, jpegReducedImagesPathString);
+        }
+        
+        /** SHARD MERGE */
+        if (function.equalsIgnoreCase(MERGE_SHARDS_FUNCTION)) {
+            CatalogAssembler.mergeShardCatalogs(buildPathString);
+        }
+        
+        /** BOOT SNAPSHOT */
+        if (function.equalsIgnoreCase(ASSEMBLE_ALL_FUNCTION)
+                || function.equalsIgnoreCase(BUILD_BOOT_SNAPSHOT_FUNCTION)) {
+            CatalogAssembler.buildBootSnapshot(buildPathString);
+        }
+        
+        /** DOWNLOAD COUNT REFRESH (counts must be current, so HTTP cache unused) */
+        if (function.equalsIgnoreCase(REFRESH_DOWNLOAD_COUNTS_FUNCTION)) {
+            CatalogAssembler.refreshDownloadCounts(buildPathString, 
+                    Paths.get(projectPathString, REFRESH_LOG_FILE_NAME).toFile(),
+                    refreshRequestBudget, refreshThreadCount);
         }
     }
 
@@ -150,7 +308,10 @@ public class LeCatalog {
                     if (function.equalsIgnoreCase(ASSEMBLE_ALL_FUNCTION)
                             || function.equalsIgnoreCase(ASSEMBLE_CATALOG_FUNCTION)
                             || function.equalsIgnoreCase(ASSEMBLE_DELTA_CATALOG_FUNCTION)
-                            || function.equalsIgnoreCase(DOWNLOAD_NEW_JPEGS_FUNCTION)) {
+                            || function.equalsIgnoreCase(DOWNLOAD_NEW_JPEGS_FUNCTION)
+                            || function.equalsIgnoreCase(REFRESH_DOWNLOAD_COUNTS_FUNCTION)
+                            || function.equalsIgnoreCase(MERGE_SHARDS_FUNCTION)
+                            || function.equalsIgnoreCase(BUILD_BOOT_SNAPSHOT_FUNCTION)) {
                     } else {
                         invalidArgFound = true;
                         printInvalidArgument(entry, false);
@@ -178,17 +339,44 @@ public class LeCatalog {
                         invalidArgFound = true;
                         printInvalidArgument(entry, false);
                     }
-                    if (function.equalsIgnoreCase(ASSEMBLE_DELTA_CATALOG_FUNCTION)
+                    if ((function.equalsIgnoreCase(ASSEMBLE_DELTA_CATALOG_FUNCTION)
+                            || function.equalsIgnoreCase(REFRESH_DOWNLOAD_COUNTS_FUNCTION)
+                            || function.equalsIgnoreCase(MERGE_SHARDS_FUNCTION)
+                            || function.equalsIgnoreCase(BUILD_BOOT_SNAPSHOT_FUNCTION))
                             && !Files.exists(new File(buildPathString).toPath())) {
                         invalidArgFound = true;
                         printInvalidArgument(entry, true);
                     }
                     break;
+                case "SHARD":
+                    try {
+                        String[] shardValues = entry.getValue().split("/");
+                        if (shardValues.length != 2) {
+                            throw new NumberFormatException();
+                        }
+                        shardIndex = Integer.parseInt(shardValues[0].trim());
+                        shardCount = Integer.parseInt(shardValues[1].trim());
+                        if (shardCount < 1 || shardIndex < 1 
+                                || shardIndex > shardCount
+                                || !function.equalsIgnoreCase(ASSEMBLE_CATALOG_FUNCTION)) {
+                            throw new NumberFormatException();
+                        }
+                    } catch (NumberFormatException e) {
+                        invalidArgFound = true;
+                        printInvalidArgument(entry, false);
+                    }
+                    break;
             }
         }
+        /* subfolders of the build folder are placed in the shard's folder */
+        if (shardCount > 1 && buildPathString != null) {
+            buildPathString = CatalogAssembler.getShardBuildPath
+                                    (buildPathString, shardIndex, shardCount);
+        }
         for (Entry<String,String> entry : argValueMap.entrySet()) {
             switch (entry.getKey()) {
                 case "FUNCTION": case "PROJECT_PATH": case "BUILD_FOLDER":
+                case "SHARD":
                     break;
                 case "PREVIOUS_BUILD_FOLDER": // MUST already exist
                     if (Files.exists(Paths.get(projectPathString, entry.getValue()))) {
@@ -217,6 +405,26 @@ public class LeCatalog {
                         printInvalidArgument(entry, false);
                     }
                     break;
+                case "JPEG_REDUCED_IMAGES_SUBFOLDER": // might not already exist
+                    try { 
+                        jpegReducedImagesPathString 
+                            = Paths.get(buildPathString, entry.getValue()).toString();
+                    } catch (InvalidPathException e) {
+                        invalidArgFound = true;
+                        printInvalidArgument(entry, false);
+                    }
+                    break;
+                case "JPEG_REDUCED_QUALITY":
+                    try {
+                        jpegReducedQuality = Float.parseFloat(entry.getValue());
+                        if (!(jpegReducedQuality > 0 && jpegReducedQuality <= 1)) {
+                            throw new NumberFormatException();
+                        }
+                    } catch (NumberFormatException e) {
+                        invalidArgFound = true;
+                        printInvalidArgument(entry, false);
+                    }
+                    break;
                 case "LOG_OUTPUT_SUBFOLDER": // might not already exist
                     try { 
                         logOutputPathString 
@@ -228,6 +436,60 @@ public class LeCatalog {
                         printInvalidArgument(entry, false);
                     }
                     break;
+                case "HTTP_CACHE_SUBFOLDER": // might not already exist
+                    try { 
+                        httpCachePathString 
+                            = Paths.get(buildPathString, entry.getValue()).toString();
+                    } catch (InvalidPathException e) {
+                        invalidArgFound = true;
+                        printInvalidArgument(entry, false);
+                    }
+                    break;
+                case "HTTP_CACHE_MAX_MEGABYTES":
+                    try {
+                        httpCacheMaxMegabytes = Long.parseLong(entry.getValue());
+                        if (httpCacheMaxMegabytes < 0) {
+                            throw new NumberFormatException();
+                        }
+                    } catch (NumberFormatException e) {
+                        invalidArgFound = true;
+                        printInvalidArgument(entry, false);
+                    }
+                    break;
+                case "HTTP_ARCHIVE_MODE":
+                    if (entry.getValue().equalsIgnoreCase("record")) {
+                        httpArchiveMode = HttpArchive.Mode.RECORD;
+                    } else if (entry.getValue().equalsIgnoreCase("replay")) {
+                        httpArchiveMode = HttpArchive.Mode.REPLAY;
+                    } else {
+                        invalidArgFound = true;
+                        printInvalidArgument(entry, false);
+                    }
+                    break;
+                case "HTTP_ARCHIVE_FILE": // existence validated with mode, below
+                    try { 
+                        httpArchivePathString 
+                            = Paths.get(projectPathString, entry.getValue()).toString();
+                    } catch (InvalidPathException e) {
+                        invalidArgFound = true;
+                        printInvalidArgument(entry, false);
+                    }
+                    break;
+                case "HTTP_REPLAY_LATENCY_MILLIS":
+                    if (entry.getValue().equalsIgnoreCase("recorded")) {
+                        httpReplayLatencyMillis = HttpArchive.RECORDED_LATENCY;
+                        break;
+                    }
+                    try {
+                        httpReplayLatencyMillis = Integer.parseInt(entry.getValue());
+                        if (httpReplayLatencyMillis < 0) {
+                            throw new NumberFormatException();
+                        }
+                    } catch (NumberFormatException e) {
+                        invalidArgFound = true;
+                        printInvalidArgument(entry, false);
+                    }
+                    break;
                 case "STARTING_AUDIOBOOK_ID":
                     try {
                         startingAudiobookId = Integer.parseInt(entry.getValue());
@@ -254,6 +516,247 @@ public class LeCatalog {
                         deltaSuppressCoverArtChange = true;
                     }
                     break;
+                case "STAGE01_THREADS":
+                    try {
+                        stage01ThreadCount = Integer.parseInt(entry.getValue());
+                        if (stage01ThreadCount < 1) {
+                            throw new NumberFormatException();
+                        }
+                    } catch (NumberFormatException e) {
+                        invalidArgFound = true;
+                        printInvalidArgument(entry, false);
+                    }
+                    break;
+                case "REQUESTS_PER_SECOND":
+                    try {
+                        requestsPerSecond = Double.parseDouble(entry.getValue());
+                        if (requestsPerSecond < 0) {
+                            throw new NumberFormatException();
+                        }
+                    } catch (NumberFormatException e) {
+                        invalidArgFound = true;
+                        printInvalidArgument(entry, false);
+                    }
+                    break;
+                case "STAGE01_ID_SCAN":
+                    if (entry.getValue().equalsIgnoreCase("adaptive")) {
+                        adaptiveIdScan = true;
+                    } else if (!entry.getValue().equalsIgnoreCase("linear")) {
+                        invalidArgFound = true;
+                        printInvalidArgument(entry, false);
+                    }
+                    break;
+                case "RESUME":
+                    if (!(entry.getValue().toLowerCase().equals("y")
+                            || entry.getValue().toLowerCase().equals("n"))) {
+                        invalidArgFound = true;
+                        printInvalidArgument(entry, false);
+                    }
+                    if (entry.getValue().toLowerCase().equals("y")) {
+                        resume = true;
+                    }
+                    break;
+                case "ASSEMBLY_MODE":
+                    if (entry.getValue().equalsIgnoreCase("streaming")) {
+                        streamingAssembly = true;
+                    } else if (!entry.getValue().equalsIgnoreCase("batch")) {
+                        invalidArgFound = true;
+                        printInvalidArgument(entry, false);
+                    }
+                    break;
+                case "PIPELINE_QUEUE_CAPACITY":
+                    try {
+                        pipelineQueueCapacity = Integer.parseInt(entry.getValue());
+                        if (pipelineQueueCapacity < 1) {
+                            throw new NumberFormatException();
+                        }
+                    } catch (NumberFormatException e) {
+                        invalidArgFound = true;
+                        printInvalidArgument(entry, false);
+                    }
+                    break;
+                case "AUTHOR_PREFETCH":
+                    if (!(entry.getValue().toLowerCase().equals("y")
+                            || entry.getValue().toLowerCase().equals("n"))) {
+                        invalidArgFound = true;
+                        printInvalidArgument(entry, false);
+                    }
+                    if (entry.getValue().toLowerCase().equals("n")) {
+                        authorPrefetch = false;
+                    }
+                    break;
+                case "ENRICHMENT_MODE":
+                    if (entry.getValue().equalsIgnoreCase("fused")) {
+                        fusedEnrichment = true;
+                    } else if (!entry.getValue().equalsIgnoreCase("sequential")) {
+                        invalidArgFound = true;
+                        printInvalidArgument(entry, false);
+                    }
+                    break;
+                case "ENRICHMENT_WINDOW":
+                    try {
+                        enrichmentWindow = Integer.parseInt(entry.getValue());
+                        if (enrichmentWindow < 1) {
+                            throw new NumberFormatException();
+                        }
+                    } catch (NumberFormatException e) {
+                        invalidArgFound = true;
+                        printInvalidArgument(entry, false);
+                    }
+                    break;
+                case "HTTP_CONNECT_TIMEOUT_SECONDS":
+                    try {
+                        httpConnectTimeoutSeconds = Integer.parseInt(entry.getValue());
+                        if (httpConnectTimeoutSeconds < 0 || httpConnectTimeoutSeconds > MAX_MILLIS_SECONDS) {
+                            throw new NumberFormatException();
+                        }
+                    } catch (NumberFormatException e) {
+                        invalidArgFound = true;
+                        printInvalidArgument(entry, false);
+                    }
+                    break;
+                case "HTTP_READ_TIMEOUT_SECONDS":
+                    try {
+                        httpReadTimeoutSeconds = Integer.parseInt(entry.getValue());
+                        if (httpReadTimeoutSeconds < 0 || httpReadTimeoutSeconds > MAX_MILLIS_SECONDS) {
+                            throw new NumberFormatException();
+                        }
+                    } catch (NumberFormatException e) {
+                        invalidArgFound = true;
+                        printInvalidArgument(entry, false);
+                    }
+                    break;
+                case "HTTP_REQUEST_DEADLINE_SECONDS":
+                    try {
+                        httpRequestDeadlineSeconds = Integer.parseInt(entry.getValue());
+                        if (httpRequestDeadlineSeconds < 0 || httpRequestDeadlineSeconds > MAX_MILLIS_SECONDS) {
+                            throw new NumberFormatException();
+                        }
+                    } catch (NumberFormatException e) {
+                        invalidArgFound = true;
+                        printInvalidArgument(entry, false);
+                    }
+                    break;
+                case "HTTP_MAX_CONNECTIONS_PER_HOST":
+                    try {
+                        httpMaxConnectionsPerHost = Integer.parseInt(entry.getValue());
+                        if (httpMaxConnectionsPerHost < 1) {
+                            throw new NumberFormatException();
+                        }
+                    } catch (NumberFormatException e) {
+                        invalidArgFound = true;
+                        printInvalidArgument(entry, false);
+                    }
+                    break;
+                case "HTTP_MAX_ATTEMPTS":
+                    try {
+                        httpMaxAttempts = Integer.parseInt(entry.getValue());
+                        if (httpMaxAttempts < 1) {
+                            throw new NumberFormatException();
+                        }
+                    } catch (NumberFormatException e) {
+                        invalidArgFound = true;
+                        printInvalidArgument(entry, false);
+                    }
+                    break;
+                case "HTTP_BACKOFF_MILLIS":
+                    try {
+                        httpBackoffMillis = Integer.parseInt(entry.getValue());
+                        if (httpBackoffMillis < 0) {
+                            throw new NumberFormatException();
+                        }
+                    } catch (NumberFormatException e) {
+                        invalidArgFound = true;
+                        printInvalidArgument(entry, false);
+                    }
+                    break;
+                case "HTTP_HEDGE":
+                    if (!(entry.getValue().toLowerCase().equals("y")
+                            || entry.getValue().toLowerCase().equals("n"))) {
+                        invalidArgFound = true;
+                        printInvalidArgument(entry, false);
+                    }
+                    if (entry.getValue().toLowerCase().equals("y")) {
+                        httpHedging = true;
+                    }
+                    break;
+                case "HTTP_HEDGE_MIN_DELAY_MILLIS":
+                    try {
+                        httpHedgeMinDelayMillis = Integer.parseInt(entry.getValue());
+                        if (httpHedgeMinDelayMillis < 0) {
+                            throw new NumberFormatException();
+                        }
+                    } catch (NumberFormatException e) {
+                        invalidArgFound = true;
+                        printInvalidArgument(entry, false);
+                    }
+                    break;
+                case "HTTP_CIRCUIT_FAILURE_THRESHOLD":
+                    try {
+                        httpCircuitFailureThreshold = Integer.parseInt(entry.getValue());
+                        if (httpCircuitFailureThreshold < 0) {
+                            throw new NumberFormatException();
+                        }
+                    } catch (NumberFormatException e) {
+                        invalidArgFound = true;
+                        printInvalidArgument(entry, false);
+                    }
+                    break;
+                case "HTTP_CIRCUIT_OPEN_SECONDS":
+                    try {
+                        httpCircuitOpenSeconds = Integer.parseInt(entry.getValue());
+                        if (httpCircuitOpenSeconds < 1 || httpCircuitOpenSeconds > MAX_MILLIS_SECONDS) {
+                            throw new NumberFormatException();
+                        }
+                    } catch (NumberFormatException e) {
+                        invalidArgFound = true;
+                        printInvalidArgument(entry, false);
+                    }
+                    break;
+                case "REFRESH_REQUEST_BUDGET":
+                    try {
+                        refreshRequestBudget = Integer.parseInt(entry.getValue());
+                        if (refreshRequestBudget < 0) {
+                            throw new NumberFormatException();
+                        }
+                    } catch (NumberFormatException e) {
+                        invalidArgFound = true;
+                        printInvalidArgument(entry, false);
+                    }
+                    break;
+                case "REFRESH_THREADS":
+                    try {
+                        refreshThreadCount = Integer.parseInt(entry.getValue());
+                        if (refreshThreadCount < 1) {
+                            throw new NumberFormatException();
+                        }
+                    } catch (NumberFormatException e) {
+                        invalidArgFound = true;
+                        printInvalidArgument(entry, false);
+                    }
+                    break;
+                case "JPEG_DOWNLOAD_THREADS":
+                    try {
+                        jpegDownloadThreadCount = Integer.parseInt(entry.getValue());
+                        if (jpegDownloadThreadCount < 1) {
+                            throw new NumberFormatException();
+                        }
+                    } catch (NumberFormatException e) {
+                        invalidArgFound = true;
+                        printInvalidArgument(entry, false);
+                    }
+                    break;
+                case "PROGRESS_INTERVAL_SECONDS":
+                    try {
+                        progressIntervalSeconds = Integer.parseInt(entry.getValue());
+                        if (progressIntervalSeconds < 0) {
+                            throw new NumberFormatException();
+                        }
+                    } catch (NumberFormatException e) {
+                        invalidArgFound = true;
+                        printInvalidArgument(entry, false);
+                    }
+                    break;
                 default:
                     invalidArgFound = true;
                     System.out.println("***INVALID ARGUMENT TYPE SUBMITTED***\n" 
@@ -261,6 +764,33 @@ public class LeCatalog {
             }
         }
 
+        if (shardCount > 1 && streamingAssembly) {
+            invalidArgFound = true;
+            System.out.println("***SHARD may not be combined with "
+                    + "ASSEMBLY_MODE=streaming***\n"
+                    + "     [Shard catalogs are merged in the LibriVox URL "
+                    + "order of batch-mode Stage 7 output.]\n");
+        }
+        if (httpArchiveMode != null) {
+            if (httpArchivePathString == null) {
+                httpArchivePathString = Paths.get
+                    (projectPathString, DEFAULT_HTTP_ARCHIVE_FILE).toString();
+            }
+            if (httpArchiveMode == HttpArchive.Mode.REPLAY
+                    && !Files.exists(Paths.get(httpArchivePathString))) {
+                invalidArgFound = true;
+                System.out.println("***HTTP ARCHIVE NOT FOUND FOR "
+                        + "HTTP_ARCHIVE_MODE=replay***\n"
+                        + "     " + httpArchivePathString + "\n");
+            }
+        }
+        if (fusedEnrichment && streamingAssembly) {
+            invalidArgFound = true;
+            System.out.println("***ENRICHMENT_MODE=fused may not be combined with "
+                    + "ASSEMBLY_MODE=streaming***\n"
+                    + "     [Stages 2 and 3 already run concurrently in "
+                    + "streaming mode.]\n");
+        }
         if (invalidArgFound) {
             return false;
         }
@@ -285,6 +815,12 @@ public class LeCatalog {
         System.out.println();
     }
     
+    /** @return the seconds (validated against {@link #MAX_MILLIS_SECONDS}
+     * when parsed) as milliseconds, failing rather than overflowing */
+    private static int secondsToMillis (int seconds) {
+        return Math.toIntExact(seconds * 1000L);
+    }
+    
     private static class DummyOutputStream extends OutputStream {
         @Override
         public void write(int i) throws IOException {
@@ -0,0 +1,271 @@
+/*
+ * Copyright (C) 2015 Daniel Vimont
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.commonvox.le_catalog;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.TreeMap;
+
+/**
+ * Compact index of {@link Work}s, in which each work is represented by its
+ * ordinal (its position in the list of works indexed by the 
+ * {@link CatalogDirectory}). An index ordered by key classes such as 
+ * Title, PublicationDate and Audiobook holds one sorted posting list of
+ * ordinals; an index led by an attribute class (Author, Genre, Reader or
+ * Language) holds the sorted distinct values of that attribute, each with
+ * a sorted posting list of the ordinals of its works. Ordering keys are 
+ * compared only once per work (see {@link CatalogDirectory#getRanks}), 
+ * and are not retained.
+ * @author Daniel Vimont
+ */
+public class PostingListIndex implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final int[] EMPTY_POSTINGS = new int[0];
+    private final String name;
+    private final Comparable<?>[] attributeValues;
+    private final int[][] postingLists;
+
+    private PostingListIndex (String name, 
+                        Comparable<?>[] attributeValues, int[][] postingLists) {
+        this.name = name;
+        this.attributeValues = attributeValues;
+        this.postingLists = postingLists;
+    }
+
+    /**
+     * @param name name of index
+     * @param keyClasses key classes of index: an optional attribute class,
+     * followed by ordering classes (ending with the Work subclass)
+     * @param directory directory of works to be indexed
+     * @param callback receives progress, in works added to the index
+     * @return index
+     * @throws InterruptedException if interrupted
+     */
+    protected static PostingListIndex build (String name, 
+                            List<Class<?>> keyClasses, CatalogDirectory directory,
+                            CatalogCallback callback)
+            throws InterruptedException {
+        List<? extends Work> works = directory.getWorks();
+        boolean attributeLed = isAttributeClass(keyClasses.get(0));
+        int[] orderedOrdinals = directory.getOrderedOrdinals(keyClasses.subList
+                        (attributeLed ? 1 : 0, keyClasses.size()));
+        if (!attributeLed) {
+            callback.updateTaskProgress(works.size(), works.size());
+            return new PostingListIndex(name, null, new int[][] {orderedOrdinals});
+        }
+        /* visiting works in index order leaves each posting list sorted */
+        Class<?> attributeClass = keyClasses.get(0);
+        Map<Comparable<?>, PostingListBuilder> builders = new TreeMap<>();
+        /* attribute values are canonical (see KeyCanonicalizer), so most are
+         * found by identity, without comparison */
+        Map<Comparable<?>, PostingListBuilder> buildersByInstance 
+                                                    = new IdentityHashMap<>();
+        long workCount = 0;
+        for (int ordinal : orderedOrdinals) {
+            if (Thread.interrupted()) { 
+                throw new InterruptedException(); 
+            }
+            for (Comparable<?> attributeValue 
+                        : getAttributeValues(works.get(ordinal), attributeClass)) {
+                if (attributeValue == null) {
+                    continue;
+                }
+                PostingListBuilder builder 
+                                    = buildersByInstance.get(attributeValue);
+                if (builder == null) {
+                    builder = builders.get(attributeValue);
+                    if (builder == null) {
+                        builder = new PostingListBuilder();
+                        builders.put(attributeValue, builder);
+                    }
+                    buildersByInstance.put(attributeValue, builder);
+                }
+                builder.add(ordinal);
+            }
+            if (++workCount % Catalog.CALLBACK_DIVISOR == 0) {
+                callback.updateTaskProgress(workCount, works.size());
+            }
+        }
+        callback.updateTaskProgress(works.size(), works.size());
+        Comparable<?>[] attributeValues = new Comparable<?>[builders.size()];
+        int[][] postingLists = new int[builders.size()][];
+        int i = 0;
+        for (Map.Entry<Comparable<?>, PostingListBuilder> entry 
+                                                    : builders.entrySet()) {
+            attributeValues[i] = entry.getKey();
+            postingLists[i++] = entry.getValue().toArray();
+        }
+        return new PostingListIndex(name, attributeValues, postingLists);
+    }
+
+    /**
+     * @param attributeClass
+     * @return true if works are indexed by values of the submitted class
+     * (rather than ordered by them)
+     */
+    protected static boolean isAttributeClass (Class<?> attributeClass) {
+        return Author.class.isAssignableFrom(attributeClass)
+                || Genre.class.isAssignableFrom(attributeClass)
+                || Reader.class.isAssignableFrom(attributeClass)
+                || Language.class.isAssignableFrom(attributeClass);
+    }
+
+    private static List<? extends Comparable<?>> getAttributeValues 
+                                    (Work work, Class<?> attributeClass) {
+        List<? extends Comparable<?>> attributeValues = null;
+        if (Author.class.isAssignableFrom(attributeClass)) {
+            attributeValues = work.getAuthors();
+        } else if (Genre.class.isAssignableFrom(attributeClass)) {
+            attributeValues = work.getGenres();
+        } else if (Reader.class.isAssignableFrom(attributeClass)) {
+            attributeValues = work.getReaders();
+        } else if (Language.class.isAssignableFrom(attributeClass)) {
+            if (work instanceof Audiobook) {
+                attributeValues = ((Audiobook) work).getAllLanguages();
+            } else if (work.getLanguage() != null) {
+                attributeValues = Collections.singletonList(work.getLanguage());
+            }
+        }
+        if (attributeValues == null) {
+            return Collections.emptyList();
+        }
+        return attributeValues;
+    }
+
+    public String getName () {
+        return name;
+    }
+
+    /** @return true if works are indexed by the values of an attribute */
+    public boolean isAttributeLed () {
+        return attributeValues != null;
+    }
+
+    /** @return all works, in index order */
+    protected int[] getPostings () {
+        return postingLists[0];
+    }
+
+    /**
+     * @param attributeValue e.g., an {@link Author}
+     * @return works associated with the submitted attribute value, in index
+     * order
+     */
+    protected int[] getPostings (Comparable<?> attributeValue) {
+        int position = Arrays.binarySearch(attributeValues, attributeValue);
+        if (position < 0) {
+            return EMPTY_POSTINGS;
+        }
+        return postingLists[position];
+    }
+
+    /** @return distinct attribute values of the index, in order */
+    protected List<Comparable<?>> getAttributeValues () {
+        return Collections.unmodifiableList(Arrays.asList(attributeValues));
+    }
+
+    /** @return approximate heap occupied by the index's posting lists */
+    public long getPostingBytes () {
+        long postingBytes = 0;
+        for (int[] postingList : postingLists) {
+            postingBytes += 16 + 4L * postingList.length;
+        }
+        return postingBytes;
+    }
+
+    @Override
+    public String toString () {
+        return name + " -- " + (isAttributeLed() 
+                    ? postingLists.length + " keys; " : "")
+                + String.format("%,d", getPostingBytes()) + " bytes of postings";
+    }
+
+    /**
+     * Read-only view of a posting list (or range of one) as a list of works;
+     * sublists are views as well, so that ranges are sliced without copying.
+     */
+    protected static class WorkList extends AbstractList<Work> 
+                                            implements RandomAccess {
+        private final List<? extends Work> works;
+        private final int[] postings;
+        private final int fromIndex;
+        private final int size;
+
+        protected WorkList (List<? extends Work> works, int[] postings) {
+            this(works, postings, 0, postings.length);
+        }
+
+        private WorkList (List<? extends Work> works, int[] postings, 
+                                                int fromIndex, int toIndex) {
+            this.works = works;
+            this.postings = postings;
+            this.fromIndex = fromIndex;
+            this.size = toIndex - fromIndex;
+        }
+
+        @Override
+        public Work get (int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException
+                            ("Index: " + index + ", Size: " + size);
+            }
+            return works.get(postings[fromIndex + index]);
+        }
+
+        @Override
+        public int size () {
+            return size;
+        }
+
+        @Override
+        public List<Work> subList (int fromIndex, int toIndex) {
+            if (fromIndex < 0 || toIndex > size || fromIndex > toIndex) {
+                throw new IndexOutOfBoundsException("fromIndex: " + fromIndex
+                        + ", toIndex: " + toIndex + ", Size: " + size);
+            }
+            return new WorkList(works, postings, 
+                        this.fromIndex + fromIndex, this.fromIndex + toIndex);
+        }
+    }
+
+    /** Growable posting list, of ordinals added in index order. */
+    private static class PostingListBuilder {
+        private int[] postings = new int[4];
+        private int size = 0;
+
+        void add (int ordinal) {
+            if (size > 0 && postings[size - 1] == ordinal) {
+                return; // attribute value repeated within a work
+            }
+            if (size == postings.length) {
+                postings = Arrays.copyOf(postings, size * 2);
+            }
+            postings[size++] = ordinal;
+        }
+
+        int[] toArray () {
+            return Arrays.copyOf(postings, size);
+        }
+    }
+}
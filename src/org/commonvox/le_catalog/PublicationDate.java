@@ -17,12 +17,15 @@
 
 package org.commonvox.le_catalog;
 
+import java.io.Serializable;
+
 /**
  *
  * @author Daniel Vimont
  */
 public class PublicationDate  
-        implements Comparable<PublicationDate> {
+        implements Comparable<PublicationDate>, Serializable {
+    private static final long serialVersionUID = 1L;
     
     private final String key;
     
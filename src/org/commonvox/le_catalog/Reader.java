@@ -32,6 +32,7 @@ import javax.xml.bind.annotation.XmlType;
 public class Reader 
         implements HasLibrivoxId, Comparable<Reader>, 
                                             Mergeable, Serializable, Key {
+    private static final long serialVersionUID = 1L;
     /** regular expression to find any leading char(s) that is whitespace, 
      * hyphen, quote, period, apostrophe, or vertical-bar. */
     private static final String REGEX_TRIM_LEADING_SPECIAL_CHARS 
@@ -83,6 +84,9 @@ public class Reader
     
     @Override
     public int compareTo(Reader otherReader) {
+        if (this == otherReader) {
+            return 0;
+        }
         return this.getKeyItem().compareTo(otherReader.getKeyItem());
     }
     
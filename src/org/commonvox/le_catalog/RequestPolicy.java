@@ -0,0 +1,464 @@
+/*
+ * Copyright (C) 2015 Daniel Vimont
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.commonvox.le_catalog;
+
+import java.io.Closeable;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Policy applied by {@link HttpFetcher} to every HTTP request, governing
+ * how long a request may take and what is done when it is slow or fails:
+ * <ul>
+ * <li>a per-request deadline ({@link HttpFetcher#requestDeadlineMillis}),
+ * bounding all attempts and backoff intervals together, and capping the
+ * connect and read timeouts of each attempt;</li>
+ * <li>retry of transient failures (timeouts, connection failures, 5xx and
+ * 429 responses), up to {@link #maxAttempts} attempts, with exponential
+ * backoff and jitter;</li>
+ * <li>optional hedging: if no response has arrived within the host's 95th 
+ * percentile latency (as measured by {@link AssemblyMetrics}), a duplicate
+ * request is issued, and whichever response arrives first is used (at 
+ * most {@link #maxHedgedRequests} requests being hedgeable at any time, 
+ * others being made without hedging);</li>
+ * <li>a per-host circuit breaker: after {@link #circuitFailureThreshold}
+ * consecutive failed attempts, requests to the host are shed (failed 
+ * immediately with a {@link CircuitOpenException}) for 
+ * {@link #circuitOpenMillis}, after which a single trial request is let 
+ * through, whose success closes the circuit.</li>
+ * </ul>
+ * A response received from the host (including 404) counts as a success
+ * for the circuit breaker, and is not retried.
+ * @author Daniel Vimont
+ */
+public class RequestPolicy {
+    protected static int maxAttempts = 3;
+    protected static int initialBackoffMillis = 500;
+    protected static int maxBackoffMillis = 30000;
+    protected static boolean hedging = false;
+    /** Least delay before a hedged request is issued. */
+    protected static int hedgeMinDelayMillis = 100;
+    /** Most requests hedgeable at once (each occupying up to three hedging
+     * threads: its two attempts, and the closing of the losing attempt's
+     * result), bounding the threads of the hedging pool. */
+    protected static int maxHedgedRequests = 16;
+    /** Consecutive failures opening a host's circuit (0 means never). */
+    protected static int circuitFailureThreshold = 20;
+    protected static int circuitOpenMillis = 30000;
+    /** Requests to a host needed before its latency percentile is used. */
+    private static final long HEDGE_MIN_SAMPLE_COUNT = 20;
+    private static final ConcurrentMap<String,CircuitBreaker> CIRCUITS
+                                                = new ConcurrentHashMap<>();
+    /** threads are created only for hedgeable requests (see 
+     * {@link #maxHedgedRequests}), and so are bounded in number */
+    private static final ExecutorService HEDGE_EXECUTOR 
+            = Executors.newCachedThreadPool
+                        (CatalogAssembler.getDaemonThreadFactory("http-hedge-"));
+    private static final AtomicInteger HEDGEABLE_REQUEST_COUNT 
+                                                    = new AtomicInteger();
+    private static final AtomicLong RETRY_COUNT = new AtomicLong();
+    private static final AtomicLong HEDGED_COUNT = new AtomicLong();
+    private static final AtomicLong HEDGE_WIN_COUNT = new AtomicLong();
+    private static final AtomicLong SHED_COUNT = new AtomicLong();
+    private static final AtomicLong CIRCUIT_OPENED_COUNT = new AtomicLong();
+    private static final AtomicLong DEADLINE_EXCEEDED_COUNT = new AtomicLong();
+
+    /** A single attempt at a request, which must respect the deadline. */
+    interface Attempt<T extends Closeable> {
+        T call (long deadlineNanos) throws IOException;
+    }
+
+    private static class CircuitBreaker {
+        private int consecutiveFailureCount = 0;
+        private boolean open = false;
+        private long openUntilNanos;
+        private boolean trialInProgress = false;
+
+        /** @return false if the request is to be shed */
+        synchronized boolean allowRequest () {
+            if (!open) {
+                return true;
+            }
+            if (trialInProgress || System.nanoTime() < openUntilNanos) {
+                return false;
+            }
+            trialInProgress = true;
+            return true;
+        }
+
+        synchronized void recordSuccess () {
+            consecutiveFailureCount = 0;
+            open = false;
+            trialInProgress = false;
+        }
+
+        /** @return true if the circuit was opened by this failure */
+        synchronized boolean recordFailure () {
+            consecutiveFailureCount++;
+            if (circuitFailureThreshold <= 0) {
+                return false;
+            }
+            boolean opened = !open 
+                    && consecutiveFailureCount >= circuitFailureThreshold;
+            if (open || opened) {
+                open = true;
+                trialInProgress = false;
+                openUntilNanos = System.nanoTime() 
+                            + TimeUnit.MILLISECONDS.toNanos(circuitOpenMillis);
+            }
+            return opened;
+        }
+
+        /** Releases the trial slot of a request which ended without
+         * outcome (e.g., interrupted). */
+        synchronized void recordAbandoned () {
+            trialInProgress = false;
+        }
+    }
+
+    private RequestPolicy () {
+    }
+
+    /**
+     * @return deadline (per System.nanoTime) for a request commencing now,
+     * or 0 if requests have no deadline
+     */
+    public static long getDeadlineNanos () {
+        int deadlineMillis = HttpFetcher.requestDeadlineMillis;
+        return (deadlineMillis > 0) ? 
+            System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMillis) : 0;
+    }
+
+    /**
+     * @param timeoutMillis configured timeout
+     * @param deadlineNanos deadline of request (0 means none)
+     * @return the timeout, reduced to the time remaining before the deadline
+     * (at least 1 millisecond, since 0 would mean "no timeout")
+     */
+    static int capTimeout (int timeoutMillis, long deadlineNanos) {
+        if (deadlineNanos == 0) {
+            return timeoutMillis;
+        }
+        long remainingMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis
+                                        (deadlineNanos - System.nanoTime()));
+        return (timeoutMillis == 0 || remainingMillis < timeoutMillis) ?
+                (int) Math.min(Integer.MAX_VALUE, remainingMillis) : timeoutMillis;
+    }
+
+    /**
+     * Makes attempts at a request until one succeeds, the failure is not
+     * transient, attempts are exhausted, the deadline passes, or the host's
+     * circuit opens.
+     * @param url URL of request (its host identifies the circuit)
+     * @param deadlineNanos deadline of request (0 means none)
+     * @param attempt request attempt
+     * @return result of the successful attempt
+     * @throws IOException failure of the last attempt, CircuitOpenException 
+     * if the request was shed before any attempt, or SocketTimeoutException if the deadline 
+     * passed before any attempt was made
+     */
+    static <T extends Closeable> T execute 
+                        (URL url, long deadlineNanos, Attempt<T> attempt)
+            throws IOException {
+        String host = url.getHost().toLowerCase();
+        CircuitBreaker circuit = getCircuit(host);
+        IOException lastFailure = null;
+        for (int attemptCount = 1; ; attemptCount++) {
+            if (!circuit.allowRequest()) {
+                SHED_COUNT.incrementAndGet();
+                /* a retry shed by a circuit its own failures opened reports
+                 * the underlying failure */
+                throw (lastFailure != null) ? 
+                                lastFailure : new CircuitOpenException(host);
+            }
+            if (deadlineNanos != 0 && System.nanoTime() >= deadlineNanos) {
+                circuit.recordAbandoned();
+                DEADLINE_EXCEEDED_COUNT.incrementAndGet();
+                throw new SocketTimeoutException
+                        ("Request deadline exceeded for URL: " + url);
+            }
+            boolean outcomeRecorded = false;
+            try {
+                T result = attemptWithHedging(url, deadlineNanos, attempt);
+                circuit.recordSuccess();
+                outcomeRecorded = true;
+                return result;
+            } catch (IOException e) {
+                if (isResponse(e)) {
+                    circuit.recordSuccess();
+                    outcomeRecorded = true;
+                    throw e;
+                }
+                if (!isTransient(e)) {
+                    throw e;
+                }
+                outcomeRecorded = true;
+                if (circuit.recordFailure()) {
+                    CIRCUIT_OPENED_COUNT.incrementAndGet();
+                    System.out.println("** Circuit opened for host " + host 
+                            + " after " + circuitFailureThreshold 
+                            + " consecutive failures; requests shed for " 
+                            + circuitOpenMillis + " ms.");
+                }
+                if (attemptCount >= maxAttempts) {
+                    throw e;
+                }
+                long backoffMillis = Math.min(maxBackoffMillis, 
+                        (long) initialBackoffMillis << Math.min(20, attemptCount - 1));
+                backoffMillis += ThreadLocalRandom.current()
+                                            .nextLong(backoffMillis / 2 + 1);
+                if (deadlineNanos != 0 && System.nanoTime() 
+                        + TimeUnit.MILLISECONDS.toNanos(backoffMillis) >= deadlineNanos) {
+                    DEADLINE_EXCEEDED_COUNT.incrementAndGet();
+                    throw e;
+                }
+                lastFailure = e;
+                RETRY_COUNT.incrementAndGet();
+                sleep(backoffMillis);
+            } finally {
+                if (!outcomeRecorded) {
+                    circuit.recordAbandoned();
+                }
+            }
+        }
+    }
+
+    private static CircuitBreaker getCircuit (String host) {
+        CircuitBreaker circuit = CIRCUITS.get(host);
+        if (circuit == null) {
+            circuit = new CircuitBreaker();
+            CircuitBreaker existingCircuit = CIRCUITS.putIfAbsent(host, circuit);
+            if (existingCircuit != null) {
+                circuit = existingCircuit;
+            }
+        }
+        return circuit;
+    }
+
+    /** @return true if the failure is a response from the host */
+    private static boolean isResponse (IOException e) {
+        return e instanceof FileNotFoundException
+                || (e instanceof HttpStatusException 
+                    && ((HttpStatusException) e).getResponseCode() < 500
+                    && ((HttpStatusException) e).getResponseCode() != 429);
+    }
+
+    /** @return true if the failure may not recur upon retry */
+    private static boolean isTransient (IOException e) {
+        return e instanceof SocketTimeoutException // before InterruptedIOException
+                || (e instanceof SocketException) // incl. ConnectException
+                || (e instanceof HttpStatusException);
+    }
+
+    private static void sleep (long millis) throws InterruptedIOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted during retry backoff");
+        }
+    }
+
+    /** Makes the attempt (in the calling thread, unless hedging applies 
+     * and the hedging budget allows), and, if hedging applies and no 
+     * response arrives within the hedge delay, a duplicate attempt; the 
+     * first success is returned, and the other attempt's result (if any) is
+     * closed upon its arrival, whereupon the request leaves the budget. */
+    private static <T extends Closeable> T attemptWithHedging 
+                        (URL url, long deadlineNanos, Attempt<T> attempt)
+            throws IOException {
+        long hedgeDelayMillis = getHedgeDelayMillis(url.getHost());
+        if (hedgeDelayMillis < 0 || !enterHedgingBudget()) {
+            return attempt.call(deadlineNanos);
+        }
+        CompletionService<T> completionService 
+                                = new ExecutorCompletionService<>(HEDGE_EXECUTOR);
+        List<Future<T>> futures = new ArrayList<>(2);
+        futures.add(completionService.submit(() -> attempt.call(deadlineNanos)));
+        Future<T> completedFuture = null;
+        try {
+            completedFuture = completionService.poll
+                                    (hedgeDelayMillis, TimeUnit.MILLISECONDS);
+            if (completedFuture == null) {
+                HEDGED_COUNT.incrementAndGet();
+                futures.add(completionService.submit
+                                        (() -> attempt.call(deadlineNanos)));
+                completedFuture = completionService.take();
+            }
+            IOException firstFailure = null;
+            for (int pendingCount = futures.size() - 1; ; pendingCount--) {
+                try {
+                    T result = getAttemptResult(completedFuture);
+                    if (completedFuture != futures.get(0)) {
+                        HEDGE_WIN_COUNT.incrementAndGet();
+                    }
+                    return result;
+                } catch (IOException e) {
+                    if (firstFailure == null) {
+                        firstFailure = e;
+                    }
+                    if (pendingCount == 0) {
+                        completedFuture = null;
+                        throw firstFailure;
+                    }
+                    completedFuture = completionService.take();
+                }
+            }
+        } catch (InterruptedException e) {
+            completedFuture = null;
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted awaiting response");
+        } finally {
+            List<Future<T>> unwantedFutures = new ArrayList<>(2);
+            for (Future<T> future : futures) {
+                if (future != completedFuture) {
+                    unwantedFutures.add(future);
+                }
+            }
+            if (unwantedFutures.isEmpty()) {
+                HEDGEABLE_REQUEST_COUNT.decrementAndGet();
+            } else {
+                closeWhenDone(unwantedFutures);
+            }
+        }
+    }
+
+    /** @return true if a request may be hedged (and is then counted as 
+     * hedgeable until its attempts are done) */
+    private static boolean enterHedgingBudget () {
+        int hedgeableCount;
+        do {
+            hedgeableCount = HEDGEABLE_REQUEST_COUNT.get();
+            if (hedgeableCount >= maxHedgedRequests) {
+                return false;
+            }
+        } while (!HEDGEABLE_REQUEST_COUNT.compareAndSet
+                                    (hedgeableCount, hedgeableCount + 1));
+        return true;
+    }
+
+    /** @return delay before a hedged request, or -1 if no hedging applies */
+    private static long getHedgeDelayMillis (String host) {
+        if (!hedging) {
+            return -1;
+        }
+        long p95Millis = AssemblyMetrics.getLatencyPercentileMillis
+                                        (host, 95, HEDGE_MIN_SAMPLE_COUNT);
+        return (p95Millis < 0) ? -1 : Math.max(hedgeMinDelayMillis, p95Millis);
+    }
+
+    private static <T> T getAttemptResult (Future<T> future)
+            throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            } else if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /** Closes the results of attempts no longer wanted, once they arrive,
+     * so that their connections and per-host permits are released; the 
+     * request then leaves the hedging budget. */
+    private static <T extends Closeable> void closeWhenDone 
+                                            (List<Future<T>> futures) {
+        HEDGE_EXECUTOR.execute(() -> {
+            try {
+                for (Future<T> future : futures) {
+                    try {
+                        future.get().close();
+                    } catch (ExecutionException | IOException e) {
+                    }
+                }
+            } catch (InterruptedException e) {
+            } finally {
+                HEDGEABLE_REQUEST_COUNT.decrementAndGet();
+            }
+        });
+    }
+
+    public static long getRetryCount () {
+        return RETRY_COUNT.get();
+    }
+
+    public static long getHedgedCount () {
+        return HEDGED_COUNT.get();
+    }
+
+    /** @return count of hedged requests whose duplicate responded first */
+    public static long getHedgeWinCount () {
+        return HEDGE_WIN_COUNT.get();
+    }
+
+    /** @return count of requests shed by open circuits */
+    public static long getShedCount () {
+        return SHED_COUNT.get();
+    }
+
+    public static long getCircuitOpenedCount () {
+        return CIRCUIT_OPENED_COUNT.get();
+    }
+
+    public static long getDeadlineExceededCount () {
+        return DEADLINE_EXCEEDED_COUNT.get();
+    }
+
+    public static void resetStatistics () {
+        RETRY_COUNT.set(0);
+        HEDGED_COUNT.set(0);
+        HEDGE_WIN_COUNT.set(0);
+        SHED_COUNT.set(0);
+        CIRCUIT_OPENED_COUNT.set(0);
+        DEADLINE_EXCEEDED_COUNT.set(0);
+    }
+
+    /**
+     * @return one-line summary of policy activity since startup (or since
+     * last {@link #resetStatistics()})
+     */
+    public static String getStatistics () {
+        return "HTTP request policy: " + RETRY_COUNT.get() + " retries; "
+                + HEDGED_COUNT.get() + " requests hedged (" 
+                + HEDGE_WIN_COUNT.get() + " won by hedge); "
+                + SHED_COUNT.get() + " requests shed (circuits opened "
+                + CIRCUIT_OPENED_COUNT.get() + " times); "
+                + DEADLINE_EXCEEDED_COUNT.get() + " deadlines exceeded";
+    }
+}
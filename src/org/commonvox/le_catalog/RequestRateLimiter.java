@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2015 Daniel Vimont
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.commonvox.le_catalog;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Global (process-wide or per-stage) limiter on the rate at which requests
+ * are issued to a remote server. Requests are spaced evenly: each call to
+ * {@link #acquire()} reserves the next free time slot and sleeps until it
+ * arrives, so any number of worker threads may share one limiter.
+ * @author Daniel Vimont
+ */
+public class RequestRateLimiter {
+    private final long intervalNanos;
+    private long nextFreeSlotNanos;
+
+    /**
+     * @param requestsPerSecond maximum request rate; zero or a negative value
+     * means "unlimited" (i.e., {@link #acquire()} never blocks)
+     */
+    public RequestRateLimiter (double requestsPerSecond) {
+        if (requestsPerSecond <= 0) {
+            intervalNanos = 0;
+        } else {
+            intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond);
+        }
+        nextFreeSlotNanos = System.nanoTime();
+    }
+
+    /**
+     * Blocks until the calling thread may issue its next request.
+     * @throws InterruptedException if thread is canceled while waiting
+     */
+    public void acquire () throws InterruptedException {
+        if (intervalNanos == 0) {
+            if (Thread.interrupted()) { throw new InterruptedException(); }
+            return;
+        }
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            if (nextFreeSlotNanos < now) {
+                nextFreeSlotNanos = now;
+            }
+            waitNanos = nextFreeSlotNanos - now;
+            nextFreeSlotNanos += intervalNanos;
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        } else if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+    }
+
+    public boolean isUnlimited () {
+        return intervalNanos == 0;
+    }
+}
@@ -35,6 +35,7 @@ import javax.xml.bind.annotation.XmlType;
 public class Section 
         extends Work 
         implements Mergeable, Serializable {
+    private static final long serialVersionUID = 1L;
     protected int sectionNumber;
     protected String urlForListening;
     protected int durationInSeconds;
@@ -102,17 +103,9 @@ public class Section
     }
     
     @Override
-    @XmlTransient
-    public Title getTitleKey () {
-        if (getCleanedTitle() == null || getCleanedTitle().isEmpty()) {
-            return null;
-        } else {
-            return new Title(getCleanedTitle()
-                .replaceAll(REGEX_TRIM_LEADING_SPECIAL_CHARS_AND_DIGITS, "")
-                .replaceAll(REGEX_TRIM_LEADING_ARTICLE, "")
-                .replaceAll(REGEX_TRIM_LEADING_SPECIAL_CHARS, "")
-                    .toLowerCase());
-        }
+    protected String normalizeTitle (String cleanedTitle) {
+        return normalizeTitle
+                (cleanedTitle, LEADING_SPECIAL_CHARS_AND_DIGITS_PATTERN);
     }
     
     @Override
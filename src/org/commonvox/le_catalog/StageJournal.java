@@ -0,0 +1,258 @@
+/*
+ * Copyright (C) 2015 Daniel Vimont
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.commonvox.le_catalog;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.transform.stream.StreamSource;
+
+/**
+ * Append-only, crash-safe journal of the per-audiobook results of a single
+ * catalog assembly stage. Each record consists of a key (the audiobook ID,
+ * or the ID probed in Stage 1) and a {@link Catalog} fragment holding the
+ * result for that key (zero or more audiobooks), followed by a CRC32
+ * checksum. The journal is forced to disk at regular intervals; on
+ * reopening in "resume" mode, all intact records are replayed, and any
+ * partially-written record at the end of the file (e.g., from a crash) is
+ * discarded.
+ * @author Daniel Vimont
+ */
+public class StageJournal
+        implements Closeable {
+    private static final int RECORD_MARKER = 0x4C454A52; // "LEJR"
+    private static final int SYNC_INTERVAL_RECORDS = 100;
+    private static final long SYNC_INTERVAL_MILLIS = 5000;
+    private final File journalFile;
+    private final FileOutputStream fileOutputStream;
+    private final DataOutputStream dataOutputStream;
+    private final Marshaller marshaller;
+    private final Map<String,Catalog> replayedRecords = new HashMap<>();
+    private int recordsSinceSync = 0;
+    private long lastSyncMillis = System.currentTimeMillis();
+    private int appendedCount = 0;
+    private boolean closed = false;
+
+    private StageJournal (File journalFile, boolean resume)
+            throws IOException, JAXBException {
+        this.journalFile = journalFile;
+        if (resume && journalFile.exists()) {
+            long intactLength = replay();
+            try (RandomAccessFile randomAccessFile
+                        = new RandomAccessFile(journalFile, "rw")) {
+                randomAccessFile.setLength(intactLength);
+            }
+        }
+        fileOutputStream = new FileOutputStream(journalFile, resume);
+        dataOutputStream
+            = new DataOutputStream(new BufferedOutputStream(fileOutputStream));
+        marshaller = CatalogMarshaller.getCatalogJaxbContext().createMarshaller();
+    }
+
+    /**
+     * Opens the journal for a stage.
+     * @param journalFile journal file (normally in the build folder)
+     * @param resume if true, existing records are replayed and new records
+     * are appended; if false, any existing journal is discarded
+     * @return open journal
+     * @throws IOException if journal cannot be read or created
+     * @throws JAXBException if a replayed record cannot be unmarshalled
+     */
+    public static StageJournal open (File journalFile, boolean resume)
+            throws IOException, JAXBException {
+        return new StageJournal(journalFile, resume);
+    }
+
+    /** Reads all intact records, returning the length of the intact portion
+     * of the file. */
+    private long replay () throws IOException, JAXBException {
+        Unmarshaller unmarshaller
+                = CatalogMarshaller.getCatalogJaxbContext().createUnmarshaller();
+        long intactLength = 0;
+        try (DataInputStream dataInputStream
+                = new DataInputStream(new BufferedInputStream
+                                        (new FileInputStream(journalFile)))) {
+            while (true) {
+                String key;
+                byte[] payload;
+                long checksum;
+                try {
+                    if (dataInputStream.readInt() != RECORD_MARKER) {
+                        break;
+                    }
+                    key = dataInputStream.readUTF();
+                    int payloadLength = dataInputStream.readInt();
+                    if (payloadLength < 0 || payloadLength > journalFile.length()) {
+                        break;
+                    }
+                    payload = new byte[payloadLength];
+                    dataInputStream.readFully(payload);
+                    checksum = dataInputStream.readLong();
+                } catch (EOFException e) {
+                    break; // partially-written final record
+                }
+                if (checksum != getChecksum(payload)) {
+                    break;
+                }
+                Catalog catalogFragment = unmarshaller.unmarshal
+                        (new StreamSource(new ByteArrayInputStream(payload)),
+                                Catalog.class).getValue();
+                replayedRecords.put(key, catalogFragment);
+                intactLength += 4 + 2 + key.getBytes("UTF-8").length
+                                    + 4 + payload.length + 8;
+            }
+        }
+        return intactLength;
+    }
+
+    /**
+     * Appends the result for one key to the journal.
+     * @param key audiobook ID (or ID probed in Stage 1)
+     * @param catalogFragment result for the key; may be null or empty if
+     * processing of the key yielded no audiobook
+     * @throws IOException if journal cannot be written
+     * @throws JAXBException if result cannot be marshalled
+     */
+    public synchronized void append (String key, Catalog catalogFragment)
+            throws IOException, JAXBException {
+        if (catalogFragment == null) {
+            catalogFragment = new Catalog();
+        }
+        ByteArrayOutputStream payloadStream = new ByteArrayOutputStream();
+        marshaller.marshal(catalogFragment, payloadStream);
+        byte[] payload = payloadStream.toByteArray();
+        dataOutputStream.writeInt(RECORD_MARKER);
+        dataOutputStream.writeUTF(key);
+        dataOutputStream.writeInt(payload.length);
+        dataOutputStream.write(payload);
+        dataOutputStream.writeLong(getChecksum(payload));
+        appendedCount++;
+        if (++recordsSinceSync >= SYNC_INTERVAL_RECORDS
+                || System.currentTimeMillis() - lastSyncMillis
+                                                    >= SYNC_INTERVAL_MILLIS) {
+            sync();
+        }
+    }
+
+    /**
+     * Convenience method for journaling the result for a single audiobook.
+     * @param audiobook processed audiobook
+     * @throws IOException if journal cannot be written
+     * @throws JAXBException if result cannot be marshalled
+     */
+    public void append (Audiobook audiobook)
+            throws IOException, JAXBException {
+        Catalog catalogFragment = new Catalog();
+        catalogFragment.audiobooks.add(audiobook);
+        append(audiobook.getId(), catalogFragment);
+    }
+
+    /**
+     * Flushes buffered records and forces them to disk.
+     * @throws IOException if journal cannot be written
+     */
+    public synchronized void sync () throws IOException {
+        dataOutputStream.flush();
+        fileOutputStream.getChannel().force(false);
+        recordsSinceSync = 0;
+        lastSyncMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * @param key audiobook ID (or ID probed in Stage 1)
+     * @return true if a record for the key was replayed from the journal
+     */
+    public boolean isProcessed (String key) {
+        return replayedRecords.containsKey(key);
+    }
+
+    /**
+     * @param key audiobook ID (or ID probed in Stage 1)
+     * @return replayed result for the key, or null if none was replayed
+     */
+    public Catalog getReplayedRecord (String key) {
+        return replayedRecords.get(key);
+    }
+
+    /**
+     * @param key audiobook ID
+     * @return replayed audiobook for the key, or null if none was replayed
+     */
+    public Audiobook getReplayedAudiobook (String key) {
+        Catalog catalogFragment = replayedRecords.get(key);
+        if (catalogFragment == null || catalogFragment.audiobooks.isEmpty()) {
+            return null;
+        }
+        return catalogFragment.audiobooks.get(0);
+    }
+
+    public int getReplayedCount () {
+        return replayedRecords.size();
+    }
+
+    public synchronized int getAppendedCount () {
+        return appendedCount;
+    }
+
+    public File getFile () {
+        return journalFile;
+    }
+
+    @Override
+    public synchronized void close () throws IOException {
+        if (closed) {
+            return;
+        }
+        sync();
+        dataOutputStream.close();
+        closed = true;
+    }
+
+    /**
+     * Closes and deletes the journal; invoked once a stage's results have
+     * been completely written to its stage XML file.
+     * @throws IOException if journal cannot be deleted
+     */
+    public void delete () throws IOException {
+        close();
+        Files.deleteIfExists(journalFile.toPath());
+    }
+
+    private static long getChecksum (byte[] payload) {
+        CRC32 crc32 = new CRC32();
+        crc32.update(payload, 0, payload.length);
+        return crc32.getValue();
+    }
+}
@@ -17,14 +17,33 @@
 
 package org.commonvox.le_catalog;
 
+import java.io.Serializable;
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.Locale;
+
 /**
- *
+ * Titles are ordered by their keys' String (UTF-16) order, or -- if a
+ * collation locale has been set -- by locale-sensitive collation, with the
+ * collation key of each title derived once and retained.
  * @author Daniel Vimont
  */
 public class Title 
-        implements Comparable<Title>, Key {
+        implements Comparable<Title>, Serializable, Key {
+    private static final long serialVersionUID = 1L;
     
+    private static volatile Collator collator;
     private final String key;
+    private transient CollationKey collationKey;
+    private transient Collator collationKeyCollator;
+
+    /**
+     * @param locale locale whose collation is to order titles; null for
+     * String order (the default)
+     */
+    public static void setCollationLocale (Locale locale) {
+        collator = (locale == null) ? null : Collator.getInstance(locale);
+    }
     
     public Title (String key) {
         this.key = key;
@@ -40,7 +59,22 @@ public class Title
     
     @Override
     public int compareTo(Title otherTitle) {
-        return this.getKeyItem().compareTo(otherTitle.getKeyItem());
+        Collator titleCollator = collator;
+        if (titleCollator == null) {
+            return this.getKeyItem().compareTo(otherTitle.getKeyItem());
+        }
+        return this.getCollationKey(titleCollator)
+                    .compareTo(otherTitle.getCollationKey(titleCollator));
+    }
+
+    private CollationKey getCollationKey (Collator titleCollator) {
+        if (collationKey == null || collationKeyCollator != titleCollator) {
+            /* collationKey assigned first; a racing reader at worst derives
+             * the key again */
+            collationKey = titleCollator.getCollationKey(this.getKeyItem());
+            collationKeyCollator = titleCollator;
+        }
+        return collationKey;
     }
     
     @Override
@@ -26,4 +26,5 @@ import javax.xml.bind.annotation.XmlRootElement;
 @XmlRootElement(name = "translator")
 public class Translator 
         extends Contributor {
+    private static final long serialVersionUID = 1L;
 }
@@ -21,6 +21,7 @@ import java.io.Serializable;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.regex.Pattern;
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlElementWrapper;
 import javax.xml.bind.annotation.XmlTransient;
@@ -36,6 +37,7 @@ import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
                         "copyrightYear", "authors", "genres", "translators"})
 public abstract class Work 
         implements HasLibrivoxId, Mergeable, Serializable, Comparable<Work> {
+    private static final long serialVersionUID = 1L;
     protected static final String IA_DATE_FORMAT = "yyyy-MM-dd HH:mm:ss";
     protected static final SimpleDateFormat DATE_VALIDATOR 
             = new SimpleDateFormat(IA_DATE_FORMAT);
@@ -60,7 +62,7 @@ public abstract class Work
      * hyphen, quote, period, apostrophe, or digit. */
     protected static final String REGEX_TRIM_LEADING_SPECIAL_CHARS_AND_DIGITS 
             = "^[\\d\\s\\-\"\\.']+";
-    private static String[] REGEX_TITLE_CLEANERS 
+    protected static final String[] REGEX_TITLE_CLEANERS 
             = {"\\s*?\\-\\s*?\\(.*?([Vv]ersion).*?\\)"
                 ,"\\(.*?([Vv]ersion).*?\\)"
                 ,"\\<small\\>\\</small\\>?"
@@ -68,6 +70,25 @@ public abstract class Work
                 ,",\\s*?[Vv]ersion\\s*?[0-9]"
                 ,"\\s*?[Vv]ersion\\s*?[0-9]"
                 };
+    /* the above regular expressions, compiled once (String.replaceAll 
+     * compiles its regular expression upon every call) */
+    private static final Pattern[] TITLE_CLEANER_PATTERNS 
+            = new Pattern[REGEX_TITLE_CLEANERS.length];
+    static {
+        for (int i = 0; i < REGEX_TITLE_CLEANERS.length; i++) {
+            TITLE_CLEANER_PATTERNS[i] = Pattern.compile(REGEX_TITLE_CLEANERS[i]);
+        }
+    }
+    protected static final Pattern LEADING_ARTICLE_PATTERN 
+            = Pattern.compile(REGEX_TRIM_LEADING_ARTICLE);
+    protected static final Pattern LEADING_SPECIAL_CHARS_PATTERN 
+            = Pattern.compile(REGEX_TRIM_LEADING_SPECIAL_CHARS);
+    protected static final Pattern LEADING_SPECIAL_CHARS_AND_DIGITS_PATTERN 
+            = Pattern.compile(REGEX_TRIM_LEADING_SPECIAL_CHARS_AND_DIGITS);
+    /** normalized title key, and the title from which it was derived (the 
+     * key is rederived if the title has since been set or merged) */
+    private Title titleKey;
+    private String titleKeySource;
     protected static final String BLANKS = "          ";
 
     @XmlElement(name = "id")
@@ -93,6 +114,7 @@ public abstract class Work
     
     public void setTitle (String title) {
         this.title = title.trim();
+        this.titleKey = null;
     }
 
     @XmlElement(name = "dt")
@@ -118,8 +140,8 @@ public abstract class Work
             return null;
         }
         String cleanedTitle = getTitle();
-        for (String regex : REGEX_TITLE_CLEANERS){
-            cleanedTitle = cleanedTitle.replaceAll(regex, "");
+        for (Pattern pattern : TITLE_CLEANER_PATTERNS){
+            cleanedTitle = pattern.matcher(cleanedTitle).replaceAll("");
         }
         return cleanedTitle.trim();
     }
@@ -209,8 +231,49 @@ public abstract class Work
         return false;
     }
     
+    /**
+     * @return {@link Work#getCleanedTitle() title}, normalized for ordering, 
+     * in a {@link Title} wrapper (derived once, and then retained); null if
+     * the work has no title
+     */
     @XmlTransient
-    public abstract Title getTitleKey ();
+    public Title getTitleKey () {
+        Title key = titleKey;
+        if (key == null || titleKeySource != title) {
+            String source = title;
+            String cleanedTitle = getCleanedTitle();
+            if (cleanedTitle == null || cleanedTitle.isEmpty()) {
+                return null;
+            }
+            key = new Title(normalizeTitle(cleanedTitle));
+            titleKey = key;
+            titleKeySource = source;
+        }
+        return key;
+    }
+
+    /**
+     * @param cleanedTitle
+     * @return cleaned title trimmed of leading characters and articles which
+     * are to be disregarded in ordering, and in lower case
+     */
+    protected abstract String normalizeTitle (String cleanedTitle);
+
+    /**
+     * @param cleanedTitle
+     * @param leadingCharsPattern leading characters to be trimmed
+     * @return title normalized as by {@link Work#normalizeTitle}
+     */
+    protected static String normalizeTitle 
+                        (String cleanedTitle, Pattern leadingCharsPattern) {
+        String normalizedTitle 
+                = leadingCharsPattern.matcher(cleanedTitle).replaceAll("");
+        normalizedTitle 
+                = LEADING_ARTICLE_PATTERN.matcher(normalizedTitle).replaceAll("");
+        normalizedTitle = LEADING_SPECIAL_CHARS_PATTERN
+                                .matcher(normalizedTitle).replaceAll("");
+        return normalizedTitle.toLowerCase();
+    }
     
     @Override
     public String toString() {
@@ -0,0 +1,289 @@
+/*
+ * Copyright (C) 2015 Daniel Vimont
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.commonvox.le_console;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.scene.control.TextArea;
+import javafx.util.Duration;
+
+/**
+ * Destination of console output (System.out and System.err) during catalog
+ * assembly. Every byte written is appended to a log file, and is also placed
+ * in a ring buffer which the JavaFX application thread drains at a fixed
+ * frame rate, appending each batch of text to a TextArea in a single call.
+ * Writers never wait for the JavaFX thread: if the ring buffer is full,
+ * output is omitted from the TextArea (with a notice) but not from the log
+ * file. The TextArea is limited to its most recent {@link #maxVisibleLines}
+ * lines; the complete log remains available in the log file.
+ * <p>
+ * The JavaFX thread only dequeues from the ring buffer: it takes no lock
+ * held by writers and performs no file I/O. Log file output is guarded by
+ * its own lock, and is flushed at the frame rate by a dedicated daemon
+ * thread.
+ * <p>
+ * The log file is initially a temporary file, and is moved by
+ * {@link #setLogDirectory(File)} once the log output folder is known.
+ * @author Daniel Vimont
+ */
+public class ConsoleLogSink extends OutputStream {
+    protected static int ringBufferCapacity = 1 << 20; // rounded to power of 2
+    protected static double framesPerSecond = 10;
+    protected static int maxVisibleLines = 5000;
+    private static final int FILE_BUFFER_SIZE = 64 * 1024;
+    private final TextArea textArea;
+    private final byte[] ringBuffer;
+    private final int ringMask;
+    /** Total bytes ever written to / read from the ring; the writer alone
+     * advances writePosition, the JavaFX thread alone readPosition. */
+    private final AtomicLong writePosition = new AtomicLong();
+    private final AtomicLong readPosition = new AtomicLong();
+    private final AtomicLong omittedByteCount = new AtomicLong();
+    private final CharsetDecoder decoder = Charset.defaultCharset().newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final ByteBuffer undecodedBytes;
+    private final CharBuffer decodedChars;
+    private final Deque<Integer> visibleLineLengths = new ArrayDeque<>();
+    private int openLineLength = 0;
+    private final Timeline drainTimeline;
+    private final ScheduledExecutorService logFlusher;
+    /** Guards the log file and its stream; never taken by the JavaFX thread
+     * while it drains the ring buffer. */
+    private final Object logLock = new Object();
+    private volatile Path logFile;
+    private OutputStream logFileStream;
+
+    /**
+     * @param textArea text area in which output is displayed
+     * @throws IOException if temporary log file cannot be created
+     */
+    public ConsoleLogSink (TextArea textArea) throws IOException {
+        this.textArea = textArea;
+        int capacity = Integer.highestOneBit(Math.max(1024, ringBufferCapacity));
+        ringBuffer = new byte[capacity];
+        ringMask = capacity - 1;
+        /* room for the partial character left over from the previous frame */
+        undecodedBytes = ByteBuffer.allocate(capacity + 8);
+        decodedChars = CharBuffer.allocate(capacity + 8);
+        logFile = Files.createTempFile(LeConsole.LOG_FILE_NAME_PREFIX, ".txt");
+        logFile.toFile().deleteOnExit();
+        logFileStream = new BufferedOutputStream
+                (new FileOutputStream(logFile.toFile()), FILE_BUFFER_SIZE);
+        drainTimeline = new Timeline(new KeyFrame
+                (Duration.seconds(1 / framesPerSecond), e -> drain()));
+        drainTimeline.setCycleCount(Animation.INDEFINITE);
+        logFlusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "console log flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /** Commences display of output; to be invoked on the JavaFX thread. */
+    public void start () {
+        drainTimeline.play();
+        long periodMillis = Math.max(1, Math.round(1000 / framesPerSecond));
+        logFlusher.scheduleWithFixedDelay(this::flushLogQuietly,
+                periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /** Writers are serialized among themselves (System.out and System.err
+     * share one PrintStream in the console), so the log file and the ring
+     * buffer receive output in the same order; neither is shared with the
+     * reader. */
+    @Override
+    public void write (int b) throws IOException {
+        synchronized (logLock) {
+            if (logFileStream != null) {
+                logFileStream.write(b);
+            }
+        }
+        synchronized (this) {
+            long write = writePosition.get();
+            if (write - readPosition.get() < ringBuffer.length) {
+                ringBuffer[(int) (write & ringMask)] = (byte) b;
+                writePosition.set(write + 1);
+            } else {
+                omittedByteCount.incrementAndGet();
+            }
+        }
+    }
+
+    @Override
+    public void write (byte[] bytes, int offset, int length)
+            throws IOException {
+        synchronized (logLock) {
+            if (logFileStream != null) {
+                logFileStream.write(bytes, offset, length);
+            }
+        }
+        writeToRing(bytes, offset, length);
+    }
+
+    private synchronized void writeToRing (byte[] bytes, int offset, int length) {
+        long write = writePosition.get();
+        int free = ringBuffer.length - (int) (write - readPosition.get());
+        int copyLength = Math.min(length, free);
+        int start = (int) (write & ringMask);
+        int firstPartLength = Math.min(copyLength, ringBuffer.length - start);
+        System.arraycopy(bytes, offset, ringBuffer, start, firstPartLength);
+        System.arraycopy(bytes, offset + firstPartLength,
+                            ringBuffer, 0, copyLength - firstPartLength);
+        writePosition.set(write + copyLength);
+        if (copyLength < length) {
+            omittedByteCount.addAndGet(length - copyLength);
+        }
+    }
+
+    /** Log file output is flushed by {@link #flushLog()} and at the frame
+     * rate by the log flusher thread, rather than upon every println. */
+    @Override
+    public void flush () {
+    }
+
+    /**
+     * Writes all buffered output to the log file.
+     * @throws IOException if log file cannot be written
+     */
+    public void flushLog () throws IOException {
+        synchronized (logLock) {
+            if (logFileStream != null) {
+                logFileStream.flush();
+            }
+        }
+    }
+
+    private void flushLogQuietly () {
+        try {
+            flushLog();
+        } catch (IOException e) {
+            LeConsole.STDERR.println("Log file cannot be written: " + e);
+        }
+    }
+
+    @Override
+    public void close () throws IOException {
+        drainTimeline.stop();
+        logFlusher.shutdown();
+        synchronized (logLock) {
+            if (logFileStream != null) {
+                logFileStream.close();
+                logFileStream = null;
+            }
+        }
+    }
+
+    /**
+     * Moves the log file into the submitted directory (created if it does
+     * not exist); subsequent output is appended to it there.
+     * @param logDirectory log output directory (if null, the log file
+     * remains a temporary file)
+     * @throws IOException if log file cannot be moved
+     */
+    public void setLogDirectory (File logDirectory) throws IOException {
+        synchronized (logLock) {
+            if (logDirectory == null || logFileStream == null) {
+                return;
+            }
+            Files.createDirectories(logDirectory.toPath());
+            Path newLogFile
+                    = logDirectory.toPath().resolve(LeConsole.getLogFileName());
+            logFileStream.close();
+            Files.copy(logFile, newLogFile);
+            Files.delete(logFile);
+            logFile = newLogFile;
+            logFileStream = new BufferedOutputStream
+                    (new FileOutputStream(newLogFile.toFile(), true),
+                            FILE_BUFFER_SIZE);
+        }
+    }
+
+    /** @return file containing all output written so far (once flushed) */
+    public Path getLogFile () {
+        return logFile;
+    }
+
+    /** Invoked on the JavaFX thread at each frame: appends all output written
+     * since the previous frame to the text area, in one call. Takes no lock
+     * and performs no file I/O. */
+    private void drain () {
+        long read = readPosition.get();
+        int availableLength = (int) (writePosition.get() - read);
+        long omittedCount = omittedByteCount.getAndSet(0);
+        if (availableLength == 0 && omittedCount == 0) {
+            return;
+        }
+        int start = (int) (read & ringMask);
+        int firstPartLength = Math.min(availableLength, ringBuffer.length - start);
+        undecodedBytes.put(ringBuffer, start, firstPartLength);
+        undecodedBytes.put(ringBuffer, 0, availableLength - firstPartLength);
+        readPosition.set(read + availableLength);
+
+        undecodedBytes.flip();
+        decoder.decode(undecodedBytes, decodedChars, false);
+        undecodedBytes.compact(); // keeps any partial multi-byte character
+        decodedChars.flip();
+        StringBuilder text = new StringBuilder(decodedChars);
+        decodedChars.clear();
+        if (omittedCount > 0) {
+            decoder.reset();
+            undecodedBytes.clear();
+            text.append("\n[").append(omittedCount)
+                .append(" bytes of output not displayed; see log file ")
+                .append(logFile).append("]\n");
+        }
+        textArea.appendText(text.toString());
+        trimVisibleLines(text);
+    }
+
+    private void trimVisibleLines (CharSequence appendedText) {
+        for (int i = 0; i < appendedText.length(); i++) {
+            openLineLength++;
+            if (appendedText.charAt(i) == '\n') {
+                visibleLineLengths.addLast(openLineLength);
+                openLineLength = 0;
+            }
+        }
+        int trimmedLength = 0;
+        while (visibleLineLengths.size() > maxVisibleLines) {
+            trimmedLength += visibleLineLengths.removeFirst();
+        }
+        if (trimmedLength > 0) {
+            textArea.deleteText(0, trimmedLength);
+        }
+    }
+}
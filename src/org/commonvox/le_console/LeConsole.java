@@ -18,12 +18,11 @@ package org.commonvox.le_console;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.OutputStream;
 import java.io.PrintStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardCopyOption;
 import java.sql.Timestamp;
 import javafx.application.Application;
 import javafx.application.Platform;
@@ -89,12 +88,11 @@ public class LeConsole extends Application {
         boolean assembleCatalogShutdownCompleted = false;
         TextArea textArea = new TextArea();
         textArea.setPrefSize(STAGE_WIDTH, STAGE_HEIGHT);
-        TextAreaOutputStream textAreaOutputStream 
-                = new TextAreaOutputStream(textArea);
-        PrintStream textAreaPrintStream 
-                = new PrintStream(textAreaOutputStream, true);
+        ConsoleLogSink logSink = new ConsoleLogSink(textArea);
+        PrintStream textAreaPrintStream = new PrintStream(logSink, true);
         System.setOut(textAreaPrintStream);
         System.setErr(textAreaPrintStream);
+        logSink.start();
         
         /* setup bottom pane */
         Button startButton = new Button("Start");
@@ -106,7 +104,7 @@ public class LeConsole extends Application {
         saveButton.setDisable(true);
         saveButton.setMinWidth(DIALOG_BUTTON_WIDTH);
         saveButton.setOnAction((ActionEvent e) -> {
-            saveOutputText(textAreaOutputStream.toString(), primaryStage); });
+            saveOutputText(logSink, primaryStage); });
         GridPane dialogButtonGridPane = new GridPane();
         dialogButtonGridPane.addRow(0,startButton,cancelButton,saveButton);
         dialogButtonGridPane.setHgap(10);
@@ -159,6 +157,7 @@ public class LeConsole extends Application {
                 @Override
                 protected Boolean call() {
                     try {
+                        logSink.setLogDirectory(LeCatalog.getLogOutputDirectory());
                         LeCatalog.main(commandLineArgs); 
                         return true;
                     } catch (InterruptedException ie) {
@@ -198,6 +197,11 @@ public class LeConsole extends Application {
                 System.out.flush();
                 System.setOut(STDOUT);
                 System.setErr(STDERR);
+                try {
+                    logSink.close();
+                } catch (IOException ioe) {
+                    System.err.println(ioe.getMessage());
+                }
                 primaryStage.close();
                 System.out.println("Invoking Platform & System exit.");
                 Platform.exit(); 
@@ -218,32 +222,14 @@ public class LeConsole extends Application {
         new Thread(validateArgs).start();
     }
 
-    public static class TextAreaOutputStream extends OutputStream {
-        private final TextArea outputTextArea;
-        private final StringBuilder outputStringBuilder;
-
-        public TextAreaOutputStream(TextArea textArea) {
-            this.outputTextArea = textArea;
-            this.outputStringBuilder = new StringBuilder();
-        }
-
-        @Override
-        public void write(int i) throws IOException {
-            char conversionChar = (char) i;
-            Platform.runLater(() -> {
-                outputTextArea.appendText(String.valueOf(conversionChar));
-            });
-            outputStringBuilder.append(conversionChar);
-            //STDOUT.write(i);
-        }
-        
-        @Override
-        public String toString() {
-            return outputStringBuilder.toString();
-        }
+    static String getLogFileName () {
+        return LOG_FILE_NAME_PREFIX 
+                + new Timestamp(new java.util.Date().getTime()).toString()
+                        .replaceAll(":", "").replaceAll(" ", "_").substring(0,17)
+                + ".txt";
     }
     
-    private void saveOutputText (String outputText, Stage ownerStage) {
+    private void saveOutputText (ConsoleLogSink logSink, Stage ownerStage) {
         DirectoryChooser directoryChooser = new DirectoryChooser();
         if (Files.exists(userSelectedTargetDirectory.toPath())
                 && Files.isDirectory(userSelectedTargetDirectory.toPath())) {
@@ -258,15 +244,12 @@ public class LeConsole extends Application {
             userSelectedTargetDirectory = selectedDirectory;
         }
         Path targetPath  = Paths.get(selectedDirectory.toURI());
-        String targetFileName
-            = LOG_FILE_NAME_PREFIX 
-                + new Timestamp(new java.util.Date().getTime()).toString()
-                        .replaceAll(":", "").replaceAll(" ", "_").substring(0,17)
-                + ".txt";
-        Path targetFile = targetPath.resolve(targetFileName);
+        Path targetFile = targetPath.resolve(getLogFileName());
         System.out.println("Saving log to " + targetFile.toString());
         try {
-            Files.write(targetFile, outputText.getBytes(), StandardOpenOption.CREATE);
+            logSink.flushLog();
+            Files.copy(logSink.getLogFile(), targetFile,
+                                        StandardCopyOption.REPLACE_EXISTING);
         } catch (IOException ioe) {
             System.err.print(ioe.getMessage());
             return;
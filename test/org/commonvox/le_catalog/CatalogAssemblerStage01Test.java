@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2015 Daniel Vimont
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.commonvox.le_catalog;
+
+import com.sun.net.httpserver.HttpServer;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Stage 1 harvesting against a stub LibriVox API on the loopback interface,
+ * which has a record for every third ID (and answers 404 for the others).
+ * @author Daniel Vimont
+ */
+public class CatalogAssemblerStage01Test {
+    private static final Pattern ID_PATTERN = Pattern.compile("id=(\\d+)");
+    private static final int ID_COUNT = 200;
+    private static final int THREAD_COUNT = 4;
+    /** The response to ID 1 is withheld until no other request has been
+     * received for this interval (or until 100 intervals have passed). */
+    private static final long QUIET_INTERVAL_MILLIS = 500;
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private volatile int requestCountWhileFirstIdPending;
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private String apiCallTemplate;
+    private int savedThreadCount;
+
+    @Before
+    public void startServer () throws Exception {
+        savedThreadCount = CatalogAssembler.stage01ThreadCount;
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api", exchange -> {
+            Matcher matcher = ID_PATTERN.matcher(exchange.getRequestURI().getQuery());
+            matcher.find();
+            int id = Integer.parseInt(matcher.group(1));
+            requestCount.incrementAndGet();
+            if (id == 1) {
+                requestCountWhileFirstIdPending = awaitQuiet();
+            }
+            if (id % 3 != 0) {
+                exchange.sendResponseHeaders(404, -1);
+                exchange.close();
+                return;
+            }
+            byte[] response = ("<xml><books><book><id>" + id + "</id><title>Book "
+                    + id + "</title><url_librivox>http://librivox.org/b" + id 
+                    + "/</url_librivox></book></books></xml>")
+                                            .getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, response.length);
+            exchange.getResponseBody().write(response);
+            exchange.close();
+        });
+        serverExecutor = Executors.newFixedThreadPool(THREAD_COUNT * 2);
+        server.setExecutor(serverExecutor);
+        server.start();
+        apiCallTemplate = "http://127.0.0.1:" + server.getAddress().getPort() 
+                                                + "/api?id=%s&extended=1";
+    }
+
+    /** @return count of requests received once none have been received 
+     * for a quiet interval */
+    private int awaitQuiet () {
+        int previousCount = -1;
+        try {
+            for (int i = 0; i < 100 && requestCount.get() != previousCount; i++) {
+                previousCount = requestCount.get();
+                Thread.sleep(QUIET_INTERVAL_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return requestCount.get();
+    }
+
+    @After
+    public void stopServer () {
+        CatalogAssembler.stage01ThreadCount = savedThreadCount;
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    public void concurrentHarvestEqualsSequentialHarvest () throws Exception {
+        CatalogAssembler.stage01ThreadCount = 1;
+        Catalog sequentialCatalog = CatalogAssembler.assembleCatalogStage01
+                                    (null, 1, ID_COUNT, apiCallTemplate);
+        CatalogAssembler.stage01ThreadCount = THREAD_COUNT;
+        Catalog concurrentCatalog = CatalogAssembler.assembleCatalogStage01
+                                    (null, 1, ID_COUNT, apiCallTemplate);
+        assertEquals(ID_COUNT / 3, sequentialCatalog.audiobooks.size());
+        assertEquals(TestCatalogs.getIds(sequentialCatalog.audiobooks), 
+                        TestCatalogs.getIds(concurrentCatalog.audiobooks));
+    }
+
+    @Test
+    public void idsInFlightAreBounded () throws Exception {
+        CatalogAssembler.stage01ThreadCount = THREAD_COUNT;
+        Catalog catalog = CatalogAssembler.assembleCatalogStage01
+                                    (null, 1, ID_COUNT, apiCallTemplate);
+        assertEquals(ID_COUNT / 3, catalog.audiobooks.size());
+        assertEquals(ID_COUNT, requestCount.get());
+        /* while the result of ID 1 is awaited, no ID is submitted beyond 
+         * the window which began with it */
+        int windowSize = THREAD_COUNT 
+                        * CatalogAssembler.stage01IdsInFlightPerThread;
+        assertTrue("requests while first ID pending: " 
+                        + requestCountWhileFirstIdPending, 
+                requestCountWhileFirstIdPending <= windowSize);
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2015 Daniel Vimont
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.commonvox.le_catalog;
+
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Extraction of catalog fields from the small LibriVox webpages saved in 
+ * the "pages" folder alongside this test, by the {@link HtmlScanner}-based 
+ * extractors of {@link CatalogAssembler}.
+ * @author Daniel Vimont
+ */
+public class CatalogAssemblerWebpageTest {
+
+    @Test
+    public void coverArtUrlIsFirstDownloadCoverJpeg () throws Exception {
+        try (Reader page = openPage("librivox-multi-author.html")) {
+            assertEquals("http://archive.org/download/short_001/short_001.jpg",
+                    CatalogAssembler.scanCoverArtUrls(page).getUrlCoverArt());
+        }
+    }
+
+    @Test
+    public void sectionsHaveAuthorIdsAndSourceUrls () throws Exception {
+        List<Section> sections;
+        try (Reader page = openPage("librivox-multi-author.html")) {
+            sections = CatalogAssembler.scanAuthorAndUrlTextMetadata(page);
+        }
+        assertEquals(3, sections.size());
+        assertEquals("94", sections.get(0).getAuthors().get(0).getId());
+        assertEquals("https://www.gutenberg.org/ebooks/2148", 
+                                    sections.get(0).getUrlTextSource());
+        assertEquals("1234", sections.get(1).getAuthors().get(0).getId());
+        assertEquals("https://www.gutenberg.org/ebooks/849?a=1&amp;b=2", 
+                                    sections.get(1).getUrlTextSource());
+        assertEquals(1, sections.get(2).getAuthors().size());
+        assertNull(sections.get(2).getAuthors().get(0).getId());
+        assertEquals("https://en.wikisource.org/wiki/Untitled", 
+                                    sections.get(2).getUrlTextSource());
+    }
+
+    @Test(expected = MetadataExtractionException.class)
+    public void tableWithoutAuthorOrSourceColumnIsRejected () throws Exception {
+        CatalogAssembler.scanAuthorAndUrlTextMetadata(new java.io.StringReader
+                ("<table class=\"chapter-download\"><thead><tr><th>Section</th>"
+                    + "<th>Reader</th></tr></thead><tbody><tr><td>01</td>"
+                    + "<td>R</td></tr></tbody></table>"));
+    }
+
+    @Test
+    public void galleryboxesYieldCatalogAndM4bUrls () throws Exception {
+        Catalog catalog = new Catalog();
+        CatalogAssembler.Stage04Tally tally = new CatalogAssembler.Stage04Tally();
+        try (Reader page = openPage("wiki-m4b.html")) {
+            CatalogAssembler.scanWikiM4bWebpage(page, catalog, true, tally);
+        }
+        assertEquals(2, catalog.audiobooks.size());
+        assertEquals("https://librivox.org/book-a/", 
+                                    catalog.audiobooks.get(0).getUrlLibrivox());
+        assertEquals(Arrays.asList
+                    ("https://archive.org/download/book_a/book_a.m4b",
+                        "https://archive.org/download/book_a/book_a_2.m4b"),
+                catalog.audiobooks.get(0).getUrlM4bFiles());
+        assertEquals("http://www.librivox.org/book-b/", 
+                                    catalog.audiobooks.get(1).getUrlLibrivox());
+        assertEquals(Arrays.asList
+                    ("http://archive.org/download/book_b/book_b.M4B"),
+                catalog.audiobooks.get(1).getUrlM4bFiles());
+        assertEquals(2, tally.audiobooksProcessedCount);
+        assertEquals(1, tally.badCatalogLinkCount);
+    }
+
+    private static Reader openPage (String pageName) {
+        return new InputStreamReader(CatalogAssemblerWebpageTest.class
+                    .getResourceAsStream("pages/" + pageName), 
+                StandardCharsets.UTF_8);
+    }
+}
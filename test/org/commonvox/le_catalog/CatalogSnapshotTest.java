@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2015 Daniel Vimont
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.commonvox.le_catalog;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Locale;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Round trips of {@link CatalogSnapshot}: a restored catalog equals one
+ * unmarshalled from XML and prepared anew, a stale snapshot is disregarded,
+ * and updates merged into a restored catalog are treated as in one 
+ * unmarshalled from XML.
+ * @author Daniel Vimont
+ */
+public class CatalogSnapshotTest {
+    private static final int AUDIOBOOK_COUNT = 200;
+    private static final CatalogCallback CALLBACK = new CatalogCallback() {};
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+    private File catalogXmlFile;
+    private File snapshotFile;
+
+    @Before
+    public void writeSnapshot () throws Exception {
+        Catalog.titleCollationLocale = null;
+        catalogXmlFile = temporaryFolder.newFile("catalog.xml");
+        snapshotFile = temporaryFolder.newFile("catalog.snapshot");
+        CatalogMarshaller.marshalCatalogToXml
+                        (TestCatalogs.build(AUDIOBOOK_COUNT), catalogXmlFile);
+        CatalogSnapshot.write(catalogXmlFile, snapshotFile);
+    }
+
+    @After
+    public void resetCollationLocale () {
+        Catalog.titleCollationLocale = null;
+    }
+
+    @Test
+    public void restoredCatalogEqualsPreparedXmlCatalog () throws Exception {
+        Catalog restoredCatalog = readSnapshot();
+        assertNotNull(restoredCatalog);
+        assertTrue(restoredCatalog.isPreparedForIndexing());
+        Catalog xmlCatalog = CatalogMarshaller.unmarshalCatalogFromXml(catalogXmlFile);
+        xmlCatalog.prepareForIndexing(CALLBACK);
+        assertEquals(TestCatalogs.describe(xmlCatalog), 
+                        TestCatalogs.describe(restoredCatalog));
+
+        xmlCatalog.populateIndexes(CALLBACK);
+        String xmlTitleOrder = TestCatalogs.getIds
+                    (xmlCatalog.getWorks(Audiobook.class, Title.class)).toString();
+        restoredCatalog.populateIndexes(CALLBACK);
+        assertEquals(xmlTitleOrder, TestCatalogs.getIds
+                (restoredCatalog.getWorks(Audiobook.class, Title.class)).toString());
+    }
+
+    @Test
+    public void snapshotOfChangedXmlIsDisregarded () throws Exception {
+        Files.write(catalogXmlFile.toPath(), "<!-- -->".getBytes(), 
+                                                StandardOpenOption.APPEND);
+        assertNull(readSnapshot());
+    }
+
+    @Test
+    public void snapshotOfOtherCollationLocaleIsDisregarded () throws Exception {
+        Catalog.titleCollationLocale = Locale.FRENCH;
+        assertNull(readSnapshot());
+    }
+
+    @Test
+    public void truncatedSnapshotIsDisregarded () throws Exception {
+        byte[] snapshotBytes = Files.readAllBytes(snapshotFile.toPath());
+        Files.write(snapshotFile.toPath(), 
+                Arrays.copyOf(snapshotBytes, snapshotBytes.length / 2));
+        assertNull(readSnapshot());
+    }
+
+    @Test
+    public void updatesMergeIntoRestoredCatalogAsIntoXmlCatalog () 
+            throws Exception {
+        Catalog restoredCatalog = readSnapshot();
+        Catalog xmlCatalog = CatalogMarshaller.unmarshalCatalogFromXml(catalogXmlFile);
+        restoredCatalog.merge(getUpdates());
+        xmlCatalog.merge(getUpdates());
+        assertFalse(restoredCatalog.isPreparedForIndexing());
+        restoredCatalog.prepareForIndexing(CALLBACK);
+        xmlCatalog.prepareForIndexing(CALLBACK);
+        String description = TestCatalogs.describe(restoredCatalog);
+        assertEquals(TestCatalogs.describe(xmlCatalog), description);
+        assertTrue(description.contains("|Corrected Title|"));
+        assertTrue(description.contains((AUDIOBOOK_COUNT + 1) + "|"));
+    }
+
+    /** @return a corrected audiobook, and a new one */
+    private Catalog getUpdates () throws Exception {
+        Catalog updates = new Catalog();
+        Audiobook correctedAudiobook = CatalogMarshaller
+                .unmarshalCatalogFromXml(catalogXmlFile).audiobooks.get(2);
+        correctedAudiobook.setTitle("Corrected Title");
+        updates.audiobooks.add(correctedAudiobook);
+        Audiobook newAudiobook = TestCatalogs.build(1).audiobooks.get(0);
+        newAudiobook.setId(String.valueOf(AUDIOBOOK_COUNT + 1));
+        newAudiobook.setUrlLibrivox
+                ("https://librivox.org/b" + (AUDIOBOOK_COUNT + 1) + "/");
+        updates.audiobooks.add(newAudiobook);
+        return updates;
+    }
+
+    private Catalog readSnapshot () throws Exception {
+        return CatalogSnapshot.read(snapshotFile.toURI().toURL(), 
+                                        catalogXmlFile.toURI().toURL());
+    }
+}
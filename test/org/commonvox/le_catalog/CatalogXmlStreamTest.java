@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2015 Daniel Vimont
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.commonvox.le_catalog;
+
+import java.io.File;
+import java.io.StringWriter;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Round trips of {@link CatalogXmlStreamWriter} and 
+ * {@link CatalogXmlStreamReader}: a catalog written one audiobook at a time
+ * is read back, by either the stream reader or the usual unmarshaller, 
+ * equal to the original.
+ * @author Daniel Vimont
+ */
+public class CatalogXmlStreamTest {
+    private static final int AUDIOBOOK_COUNT = 50;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void streamedCatalogReadsBackEqual () throws Exception {
+        assertRoundTrip(false);
+    }
+
+    @Test
+    public void formattedStreamedCatalogReadsBackEqual () throws Exception {
+        assertRoundTrip(true);
+    }
+
+    @Test
+    public void emptyStreamedCatalogReadsBackEmpty () throws Exception {
+        File file = temporaryFolder.newFile("empty.xml");
+        new CatalogXmlStreamWriter(file).close();
+        try (CatalogXmlStreamReader reader = new CatalogXmlStreamReader(file)) {
+            assertNull(reader.next());
+            assertEquals(0, reader.getAudiobookCount());
+        }
+        assertEquals(0, 
+                CatalogMarshaller.unmarshalCatalogFromXml(file).audiobooks.size());
+    }
+
+    private void assertRoundTrip (boolean formatted) throws Exception {
+        Catalog catalog = TestCatalogs.build(AUDIOBOOK_COUNT);
+        File file = temporaryFolder.newFile("stream.xml");
+        try (CatalogXmlStreamWriter writer 
+                                = new CatalogXmlStreamWriter(file, formatted)) {
+            for (Audiobook audiobook : catalog.audiobooks) {
+                writer.write(audiobook);
+            }
+            assertEquals(AUDIOBOOK_COUNT, writer.getAudiobookCount());
+        }
+
+        Catalog streamedCatalog = new Catalog();
+        try (CatalogXmlStreamReader reader = new CatalogXmlStreamReader(file)) {
+            Audiobook audiobook;
+            while ((audiobook = reader.next()) != null) {
+                streamedCatalog.audiobooks.add(audiobook);
+            }
+            assertEquals(AUDIOBOOK_COUNT, reader.getAudiobookCount());
+        }
+        String expectedXml = toXml(catalog);
+        assertEquals(expectedXml, toXml(streamedCatalog));
+        assertEquals(expectedXml, 
+                    toXml(CatalogMarshaller.unmarshalCatalogFromXml(file)));
+    }
+
+    static String toXml (Catalog catalog) throws Exception {
+        StringWriter xml = new StringWriter();
+        CatalogMarshaller.getCatalogJaxbContext()
+                                .createMarshaller().marshal(catalog, xml);
+        return xml.toString();
+    }
+}
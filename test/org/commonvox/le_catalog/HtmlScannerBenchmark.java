@@ -0,0 +1,372 @@
+/*
+ * Copyright (C) 2015 Daniel Vimont
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.commonvox.le_catalog;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the {@link HtmlScanner}-based webpage extractors of
+ * {@link CatalogAssembler} with the regular-expression extractors they
+ * replaced, using webpages saved to local files: for each page, both
+ * versions are checked to yield the same results, and then timed (and,
+ * where the JVM supports it, their heap allocation measured) over a number
+ * of iterations. No network access is required: author IDs are extracted
+ * but not resolved. (The small pages in the "pages" folder alongside this
+ * class, whose extracted fields are checked by CatalogAssemblerWebpageTest,
+ * may be used as well.)
+ * <br><br>
+ * Arguments (each KEY=VALUE; page arguments may be repeated):<br>
+ * LIBRIVOX_PAGE=[saved LibriVox catalog webpage, e.g. of a multi-author work]<br>
+ * WIKI_PAGE=[saved LibriVox wiki page listing M4B files]<br>
+ * ITERATIONS=[optional integer count of timed iterations, default 200]
+ * @author Daniel Vimont
+ */
+public class HtmlScannerBenchmark {
+    private static final int WARMUP_ITERATIONS = 100;
+    private static final String REGEX_HREF = "href\\=\"\\s?https?://.*?\"";
+    private static final Pattern HREF_PATTERN
+                = Pattern.compile(REGEX_HREF, Pattern.CASE_INSENSITIVE);
+    private static final Pattern A_TAG_PATTERN
+                = Pattern.compile("\\<a .*?\\>", Pattern.CASE_INSENSITIVE);
+    private static final Pattern DOWNLOAD_COVER_PATTERN
+                = Pattern.compile("\\<.*?class=\"download-cover\".*?\\>",
+                                                Pattern.CASE_INSENSITIVE);
+
+    /** A single extraction from a saved webpage, yielding a comparable
+     * summary of its result. */
+    private interface Extraction {
+        String extract (String webpageContent) throws Exception;
+    }
+
+    public static void main (String[] args) throws Exception {
+        List<File> librivoxPages = new ArrayList<>();
+        List<File> wikiPages = new ArrayList<>();
+        int iterations = 200;
+        for (String arg : args) {
+            int equalsIndex = arg.indexOf('=');
+            String key = (equalsIndex < 0) ? arg : arg.substring(0, equalsIndex);
+            String value = (equalsIndex < 0) ? "" : arg.substring(equalsIndex + 1);
+            switch (key.toUpperCase()) {
+                case "LIBRIVOX_PAGE":
+                    librivoxPages.add(new File(value));
+                    break;
+                case "WIKI_PAGE":
+                    wikiPages.add(new File(value));
+                    break;
+                case "ITERATIONS":
+                    iterations = Integer.parseInt(value);
+                    break;
+                default:
+                    System.out.println("Invalid argument: " + arg);
+                    return;
+            }
+        }
+        if (librivoxPages.isEmpty() && wikiPages.isEmpty()) {
+            System.out.println("Usage: HtmlScannerBenchmark "
+                    + "LIBRIVOX_PAGE=<file> ... WIKI_PAGE=<file> ... [ITERATIONS=<n>]");
+            return;
+        }
+        for (File page : librivoxPages) {
+            String webpageContent = readPage(page);
+            compare(page, "cover art", webpageContent, iterations,
+                    HtmlScannerBenchmark::extractCoverArtUrlViaRegex,
+                    content -> CatalogAssembler.scanCoverArtUrls
+                                (new StringReader(content)).getUrlCoverArt());
+            compare(page, "sections", webpageContent, iterations,
+                    HtmlScannerBenchmark::extractSectionsViaRegex,
+                    content -> {
+                        try {
+                            return summarize(CatalogAssembler.scanAuthorAndUrlTextMetadata
+                                                    (new StringReader(content)));
+                        } catch (MetadataExtractionException e) {
+                            return "MetadataExtractionException";
+                        }
+                    });
+        }
+        for (File page : wikiPages) {
+            compare(page, "M4B gallery", readPage(page), iterations,
+                    HtmlScannerBenchmark::extractM4bGalleryViaRegex,
+                    content -> {
+                        Catalog catalog = new Catalog();
+                        CatalogAssembler.scanWikiM4bWebpage(new StringReader(content),
+                                catalog, false, new CatalogAssembler.Stage04Tally());
+                        return summarize(catalog);
+                    });
+        }
+    }
+
+    private static String readPage (File page) throws IOException {
+        return new String(Files.readAllBytes(page.toPath()), StandardCharsets.UTF_8);
+    }
+
+    /** The regular-expression extractors scanned content from which all
+     * line breaks had been removed (as done when the page was retrieved);
+     * that removal is included in their timings. */
+    private static String stripLineBreaks (String webpageContent) {
+        return webpageContent.replace("\r", "").replace("\n", "");
+    }
+
+    private static void compare (File page, String extractionName,
+                    String webpageContent, int iterations,
+                    Extraction regexExtraction, Extraction scannerExtraction)
+            throws Exception {
+        System.out.println("=============================");
+        System.out.println(page.getName() + " (" + webpageContent.length()
+                + " chars): " + extractionName);
+        String regexResult = regexExtraction.extract(webpageContent);
+        String scannerResult = scannerExtraction.extract(webpageContent);
+        if (regexResult == null ? scannerResult == null
+                                : regexResult.equals(scannerResult)) {
+            System.out.println("Results match: " + regexResult);
+        } else {
+            System.out.println("** RESULTS DIFFER **");
+            System.out.println("  regex:   " + regexResult);
+            System.out.println("  scanner: " + scannerResult);
+        }
+        System.out.println("  regex:   "
+                + time(regexExtraction, webpageContent, iterations));
+        System.out.println("  scanner: "
+                + time(scannerExtraction, webpageContent, iterations));
+    }
+
+    private static String time (Extraction extraction, String webpageContent,
+                                    int iterations) throws Exception {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            extraction.extract(webpageContent);
+        }
+        long allocatedBytesAtStart = getAllocatedBytes();
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            extraction.extract(webpageContent);
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        long allocatedBytes = getAllocatedBytes() - allocatedBytesAtStart;
+        String timing = String.format("%.3f ms per page",
+                                elapsedNanos / 1_000_000.0 / iterations);
+        if (allocatedBytesAtStart >= 0) {
+            timing += String.format(", %,d bytes allocated per page",
+                                        allocatedBytes / iterations);
+        }
+        return timing;
+    }
+
+    /** @return bytes allocated by this thread so far, or -1 if the JVM does
+     * not report it */
+    private static long getAllocatedBytes () {
+        java.lang.management.ThreadMXBean threadBean
+                = ManagementFactory.getThreadMXBean();
+        if (threadBean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threadBean)
+                    .getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    private static String summarize (List<Section> sections) {
+        StringBuilder summary = new StringBuilder();
+        summary.append(sections.size()).append(" sections");
+        for (Section section : sections) {
+            summary.append(" [");
+            if (section.getAuthors() != null && !section.getAuthors().isEmpty()) {
+                summary.append("author=").append(section.getAuthors().get(0).getId());
+            }
+            summary.append(" source=").append(section.getUrlTextSource()).append("]");
+        }
+        return summary.toString();
+    }
+
+    private static String summarize (Catalog catalog) {
+        StringBuilder summary = new StringBuilder();
+        summary.append(catalog.audiobooks.size()).append(" audiobooks");
+        for (Audiobook audiobook : catalog.audiobooks) {
+            summary.append(" [").append(audiobook.getUrlLibrivox())
+                    .append(" ").append(audiobook.getUrlM4bFiles()).append("]");
+        }
+        return summary.toString();
+    }
+
+    /* The following are the regular-expression extractors formerly used by
+     * CatalogAssembler, retained here for comparison only. */
+
+    private static String extractCoverArtUrlViaRegex (String webpageContent) {
+        webpageContent = stripLineBreaks(webpageContent);
+        Matcher aTagMatcher = A_TAG_PATTERN.matcher(webpageContent);
+        while (aTagMatcher.find()) {
+            Matcher downloadCoverMatcher
+                    = DOWNLOAD_COVER_PATTERN.matcher(aTagMatcher.group());
+            while (downloadCoverMatcher.find()) {
+                Matcher hrefMatcher
+                        = HREF_PATTERN.matcher(downloadCoverMatcher.group());
+                if (!hrefMatcher.find()) {
+                    continue;
+                }
+                String urlStringCandidate = hrefMatcher.group().substring
+                                            (6, hrefMatcher.group().length() - 1);
+                if (urlStringCandidate.endsWith(".jpg")) {
+                    return urlStringCandidate.replace("https", "http");
+                }
+            }
+        }
+        return null;
+    }
+
+    private static String extractSectionsViaRegex (String webpageContent) {
+        webpageContent = stripLineBreaks(webpageContent);
+        final Pattern tableElementPattern = Pattern.compile
+                ("\\<table(\\>| ).*?\\</table\\>", Pattern.CASE_INSENSITIVE);
+        final Pattern chapterDownloadPattern = Pattern.compile
+                ("class=\"chapter-download\"", Pattern.CASE_INSENSITIVE);
+        final Pattern theadElementPattern = Pattern.compile
+                ("\\<thead(\\>| ).*?\\</thead\\>", Pattern.CASE_INSENSITIVE);
+        final Pattern thElementPattern = Pattern.compile
+                ("\\<th(\\>| ).*?\\</th\\>", Pattern.CASE_INSENSITIVE);
+        final Pattern tbodyElementPattern = Pattern.compile
+                ("\\<tbody(\\>| ).*?\\</tbody\\>", Pattern.CASE_INSENSITIVE);
+        final Pattern trElementPattern = Pattern.compile
+                ("\\<tr(\\>| ).*?\\</tr\\>", Pattern.CASE_INSENSITIVE);
+        final Pattern tdElementPattern = Pattern.compile
+                ("\\<td(\\>| ).*?\\</td\\>", Pattern.CASE_INSENSITIVE);
+        final Pattern authorIdStringPattern
+                = Pattern.compile("author/.*", Pattern.CASE_INSENSITIVE);
+        int authorPositionInTable = 0;
+        int sourcePositionInTable = 0;
+        boolean authorPositionFound = false;
+        boolean sourcePositionFound = false;
+        List<Section> sections = new ArrayList<>();
+        Matcher tableElementMatcher = tableElementPattern.matcher(webpageContent);
+        while (tableElementMatcher.find()) {
+            if (!chapterDownloadPattern.matcher(tableElementMatcher.group()).find()) {
+                continue;
+            }
+            Matcher theadElementMatcher
+                    = theadElementPattern.matcher(tableElementMatcher.group());
+            if (theadElementMatcher.find()) {
+                Matcher trElementMatcher
+                        = trElementPattern.matcher(theadElementMatcher.group());
+                while (trElementMatcher.find()) {
+                    Matcher thElementMatcher
+                            = thElementPattern.matcher(trElementMatcher.group());
+                    int thElementCount = 0;
+                    while (thElementMatcher.find()) {
+                        thElementCount++;
+                        String thContent = thElementMatcher.group().substring
+                                    (4, thElementMatcher.group().length() - 5);
+                        if (thContent.equalsIgnoreCase("Author")) {
+                            authorPositionFound = true;
+                            authorPositionInTable = thElementCount;
+                        } else if (thContent.equalsIgnoreCase("Source")) {
+                            sourcePositionFound = true;
+                            sourcePositionInTable = thElementCount;
+                        }
+                    }
+                }
+            }
+            if (!authorPositionFound && !sourcePositionFound) {
+                return "MetadataExtractionException";
+            }
+            Matcher tbodyElementMatcher
+                    = tbodyElementPattern.matcher(tableElementMatcher.group());
+            if (!tbodyElementMatcher.find()) {
+                continue;
+            }
+            Matcher trElementMatcher
+                    = trElementPattern.matcher(tbodyElementMatcher.group());
+            while (trElementMatcher.find()) {
+                Section newSection = new Section();
+                sections.add(newSection);
+                Matcher tdElementMatcher
+                        = tdElementPattern.matcher(trElementMatcher.group());
+                int tdElementCount = 0;
+                while (tdElementMatcher.find()) {
+                    tdElementCount++;
+                    if (authorPositionFound
+                            && tdElementCount == authorPositionInTable) {
+                        Author newAuthor = new Author();
+                        List<Author> newAuthors = new ArrayList<>();
+                        newAuthors.add(newAuthor);
+                        newSection.setAuthors(newAuthors);
+                        Matcher hrefMatcher
+                                = HREF_PATTERN.matcher(tdElementMatcher.group());
+                        if (hrefMatcher.find()) {
+                            Matcher authorIdStringMatcher
+                                = authorIdStringPattern.matcher(hrefMatcher.group());
+                            if (authorIdStringMatcher.find()) {
+                                newAuthor.setId(authorIdStringMatcher.group().substring
+                                    (7, authorIdStringMatcher.group().length() - 1));
+                            }
+                        }
+                    } else if (sourcePositionFound
+                            && tdElementCount == sourcePositionInTable) {
+                        Matcher hrefMatcher
+                                = HREF_PATTERN.matcher(tdElementMatcher.group());
+                        if (hrefMatcher.find()) {
+                            newSection.setUrlTextSource(hrefMatcher.group()
+                                .substring(6, hrefMatcher.group().length() - 1));
+                        }
+                    }
+                }
+            }
+        }
+        return summarize(sections);
+    }
+
+    private static String extractM4bGalleryViaRegex (String webpageContent) {
+        webpageContent = stripLineBreaks(webpageContent);
+        final Pattern liElementPattern = Pattern.compile
+                ("\\<li .*?\\</li\\>", Pattern.CASE_INSENSITIVE);
+        final Pattern galleryboxPattern = Pattern.compile
+                ("class=\"gallerybox\"", Pattern.CASE_INSENSITIVE);
+        final Pattern lvCatalogHrefPattern = Pattern.compile
+                ("href\\=\"https?://(www\\.)?librivox\\.org.*?\"",
+                                                Pattern.CASE_INSENSITIVE);
+        final Pattern m4bHrefPattern = Pattern.compile
+                ("href\\=\"https?://(www\\.)?archive\\.org.*?\\.m4b\"",
+                                                Pattern.CASE_INSENSITIVE);
+        Catalog catalog = new Catalog();
+        Matcher liElementMatcher = liElementPattern.matcher(webpageContent);
+        while (liElementMatcher.find()) {
+            if (!galleryboxPattern.matcher(liElementMatcher.group()).find()) {
+                continue;
+            }
+            Matcher lvCatalogHrefMatcher
+                    = lvCatalogHrefPattern.matcher(liElementMatcher.group());
+            if (lvCatalogHrefMatcher.find()) {
+                String lvCatalogUrlString = lvCatalogHrefMatcher.group()
+                        .substring(6, (lvCatalogHrefMatcher.group().length() - 1));
+                List<String> m4bUrlStrings = new ArrayList<>();
+                Matcher m4bHrefMatcher
+                        = m4bHrefPattern.matcher(liElementMatcher.group());
+                while (m4bHrefMatcher.find()) {
+                    m4bUrlStrings.add(m4bHrefMatcher.group()
+                        .substring(6, (m4bHrefMatcher.group().length() - 1)));
+                }
+                catalog.addAudiobook(lvCatalogUrlString, m4bUrlStrings);
+            }
+        }
+        return summarize(catalog);
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (C) 2015 Daniel Vimont
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.commonvox.le_catalog;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Events reported by {@link HtmlScanner} for markup fragments: attribute
+ * quoting, character references, unclosed tags, comments and other 
+ * skipped markup, and the raw content of "script" elements.
+ * @author Daniel Vimont
+ */
+public class HtmlScannerTest {
+
+    @Test
+    public void attributeValuesMayBeQuotedEitherWayOrUnquoted () 
+            throws IOException {
+        HtmlScanner scanner = scanToStartTag
+            ("<A HREF=\"http://a.org/x y\" Title='it\"s' id=plain data-x"
+                    + " rel = \"nofollow\" class=''>");
+        assertEquals("a", scanner.getTagName());
+        assertEquals("http://a.org/x y", scanner.getAttribute("href"));
+        assertEquals("it\"s", scanner.getAttribute("title"));
+        assertEquals("plain", scanner.getAttribute("id"));
+        assertEquals("", scanner.getAttribute("data-x"));
+        assertEquals("nofollow", scanner.getAttribute("rel"));
+        assertEquals("", scanner.getAttribute("class"));
+        assertNull(scanner.getAttribute("alt"));
+        assertFalse(scanner.isSelfClosing());
+    }
+
+    @Test
+    public void lineBreaksAreOmittedFromValuesAndText () throws IOException {
+        assertEquals(Arrays.asList("START p title=ab", "TEXT cd", "END p"),
+                scan("<p title=\"a\r\nb\">c\nd</p>"));
+    }
+
+    @Test
+    public void unquotedValueEndsAtWhitespaceOrTagEnd () throws IOException {
+        assertEquals(Arrays.asList("START a href=http://a.org/1", "TEXT x", 
+                        "END a", "START img src=b.jpg alt=c /"),
+                scan("<a href=http://a.org/1>x</a><img src=b.jpg alt=c />"));
+    }
+
+    @Test
+    public void hasClassMatchesWholeClassNames () throws IOException {
+        HtmlScanner scanner = scanToStartTag
+                            ("<div class=\"book-cover  download-cover\">");
+        assertTrue(scanner.hasClass("download-cover"));
+        assertTrue(scanner.hasClass("book-cover"));
+        assertFalse(scanner.hasClass("cover"));
+        assertFalse(scanner.hasClass("download"));
+    }
+
+    @Test
+    public void characterReferencesAreNotDecoded () throws IOException {
+        assertEquals(Arrays.asList("START a href=?a=1&amp;b=2", 
+                            "TEXT Fish &amp; Chips &#233; &lt;", "END a"),
+                scan("<a href=\"?a=1&amp;b=2\">Fish &amp; Chips &#233; &lt;</a>"));
+    }
+
+    @Test
+    public void lessThanNotBeginningTagIsText () throws IOException {
+        assertEquals(Arrays.asList("START b", "TEXT 1 < 2 <= 3", "END b"),
+                scan("<b>1 < 2 <= 3</b>"));
+    }
+
+    @Test
+    public void unclosedElementsAreReportedAsFound () throws IOException {
+        assertEquals(Arrays.asList("START ul", "START li", "TEXT one", 
+                        "START li", "TEXT two", "END ul"),
+                scan("<ul><li>one<li>two</ul>"));
+    }
+
+    @Test
+    public void tagUnclosedAtEndOfDocumentIsReported () throws IOException {
+        assertEquals(Arrays.asList("TEXT text", "START a href=http://a.org"),
+                scan("text<a href=\"http://a.org\""));
+        assertEquals(Arrays.asList("START a href=http://a.org"),
+                scan("<a href=\"http://a.org"));
+    }
+
+    @Test
+    public void commentsDeclarationsAndInstructionsAreSkipped () 
+            throws IOException {
+        assertEquals(Arrays.asList("START p", "TEXT ab", "END p", "TEXT c"),
+                scan("<!DOCTYPE html><?xml version=\"1.0\"?><p>a"
+                        + "<!-- <a href=\"http://x.org\"> -- > -->b</p>"
+                        + "<!---->c<!-- unterminated <b>"));
+    }
+
+    @Test
+    public void endTagWithoutNameIsSkipped () throws IOException {
+        assertEquals(Arrays.asList("TEXT a", "TEXT b"), scan("a</ >b"));
+    }
+
+    @Test
+    public void scriptContentIsText () throws IOException {
+        assertEquals(Arrays.asList("START script type=text/javascript", 
+                        "TEXT if (a < b) { s = '<a href=\"x\">'; }", 
+                        "END script", "START p", "END p"),
+                scan("<script type=\"text/javascript\">"
+                        + "if (a < b) { s = '<a href=\"x\">'; }</SCRIPT>"
+                        + "<p></p>"));
+        assertEquals(Arrays.asList("START style", "END style"), 
+                scan("<style></style>"));
+    }
+
+    /** @return the scanner, positioned at the first start tag */
+    private static HtmlScanner scanToStartTag (String markup) 
+            throws IOException {
+        HtmlScanner scanner = new HtmlScanner(new StringReader(markup));
+        while (scanner.next() != HtmlScanner.Event.START_TAG) {
+        }
+        return scanner;
+    }
+
+    /** @return description of each event reported for the markup */
+    private static List<String> scan (String markup) throws IOException {
+        List<String> events = new ArrayList<>();
+        try (HtmlScanner scanner = new HtmlScanner(new StringReader(markup))) {
+            HtmlScanner.Event event;
+            while ((event = scanner.next()) 
+                                    != HtmlScanner.Event.END_OF_DOCUMENT) {
+                switch (event) {
+                    case START_TAG:
+                        StringBuilder startTag = new StringBuilder("START ")
+                                            .append(scanner.getTagName());
+                        for (String name : Arrays.asList("href", "src", 
+                                                "alt", "title", "type")) {
+                            if (scanner.getAttribute(name) != null) {
+                                startTag.append(' ').append(name).append('=')
+                                        .append(scanner.getAttribute(name));
+                            }
+                        }
+                        if (scanner.isSelfClosing()) {
+                            startTag.append(" /");
+                        }
+                        events.add(startTag.toString());
+                        break;
+                    case END_TAG:
+                        events.add("END " + scanner.getTagName());
+                        break;
+                    default:
+                        events.add("TEXT " + scanner.getText());
+                        break;
+                }
+            }
+        }
+        return events;
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2015 Daniel Vimont
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.commonvox.le_catalog;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Round trips of {@link HttpArchive}: recorded responses (error responses
+ * included) are replayed equal to those recorded, whether the archive is 
+ * read via its index or, its recording having been interrupted, by 
+ * scanning its records.
+ * @author Daniel Vimont
+ */
+public class HttpArchiveTest {
+    private static final int RESPONSE_COUNT = 20;
+    private static final String URL_TEMPLATE 
+                        = "https://librivox.org/api/feed/audiobooks/?id=%d";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+    private File archiveFile;
+    private byte[][] bodies;
+
+    @Before
+    public void recordArchive () throws Exception {
+        archiveFile = new File(temporaryFolder.getRoot(), "test.httparchive");
+        Random random = new Random(7);
+        bodies = new byte[RESPONSE_COUNT][];
+        try (HttpArchive archive 
+                = HttpArchive.open(archiveFile, HttpArchive.Mode.RECORD, 0)) {
+            for (int id = 0; id < RESPONSE_COUNT; id++) {
+                StringBuilder body = new StringBuilder("<xml>");
+                for (int i = random.nextInt(200); i > 0; i--) {
+                    body.append("<book><id>").append(random.nextInt())
+                            .append("</id></book>");
+                }
+                bodies[id] = (id % 4 == 3) ? new byte[0]
+                        : body.append("</xml>").toString()
+                                        .getBytes(StandardCharsets.UTF_8);
+                archive.record("GET", getUrl(id), getResponseCode(id),
+                        (id % 2 == 0) ? "UTF-8" : null, 
+                        bodies[id].length, id * 1000000L, bodies[id]);
+            }
+            archive.record("GET", getUrl(0), 500, null, 0, 0, new byte[0]);
+            assertEquals(RESPONSE_COUNT, archive.getEntryCount());
+        }
+    }
+
+    @Test
+    public void indexedArchiveReplaysRecordedResponses () throws Exception {
+        assertReplay(RESPONSE_COUNT);
+    }
+
+    @Test
+    public void interruptedRecordingReplaysIntactResponses () throws Exception {
+        long indexLength = 4;
+        for (int id = 0; id < RESPONSE_COUNT; id++) {
+            indexLength += 2 + ("GET " + getUrl(id)).length() + 8;
+        }
+        /* trailer, index, and the last byte of the last record are lost */
+        try (RandomAccessFile file = new RandomAccessFile(archiveFile, "rw")) {
+            file.setLength(file.length() - 12 - indexLength - 1);
+        }
+        assertReplay(RESPONSE_COUNT - 1);
+    }
+
+    @Test(expected = IOException.class)
+    public void otherFileIsNotReplayed () throws Exception {
+        File otherFile = temporaryFolder.newFile("other.xml");
+        Files.write(otherFile.toPath(), 
+                            "<xml></xml>".getBytes(StandardCharsets.UTF_8));
+        HttpArchive.open(otherFile, HttpArchive.Mode.REPLAY, 0).close();
+    }
+
+    /** asserts that the first responses recorded are replayed, and others 
+     * not found */
+    private void assertReplay (int responseCount) throws Exception {
+        try (HttpArchive archive = HttpArchive.open(archiveFile, 
+                    HttpArchive.Mode.REPLAY, HttpArchive.RECORDED_LATENCY)) {
+            assertEquals(responseCount, archive.getEntryCount());
+            for (int id = 0; id < RESPONSE_COUNT; id++) {
+                HttpArchive.Response response = archive.get("GET", getUrl(id));
+                if (id >= responseCount) {
+                    assertNull(response);
+                    continue;
+                }
+                assertNotNull(response);
+                assertEquals(getResponseCode(id), response.responseCode);
+                assertEquals((id % 2 == 0) ? "UTF-8" : null, response.charsetName);
+                assertEquals(bodies[id].length, response.contentLength);
+                assertEquals(id, response.latencyMillis);
+                assertArrayEquals(bodies[id], response.body);
+            }
+            assertNull(archive.get("HEAD", getUrl(0)));
+        }
+    }
+
+    private static URL getUrl (int id) throws Exception {
+        return new URL(String.format(URL_TEMPLATE, id));
+    }
+
+    private static int getResponseCode (int id) {
+        return (id % 4 == 3) ? 404 : 200;
+    }
+}
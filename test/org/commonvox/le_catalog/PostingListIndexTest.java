@@ -0,0 +1,217 @@
+/*
+ * Copyright (C) 2015 Daniel Vimont
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.commonvox.le_catalog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.function.Function;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Queries of the {@link PostingListIndex}es of a fixture catalog, compared
+ * with the answers of a reference computed as the former index did: by 
+ * filtering all audiobooks and sorting them on their keys. Also checks that 
+ * results are views (sliced without copying) and that posting lists occupy 
+ * four bytes per work entry.
+ * @author Daniel Vimont
+ */
+public class PostingListIndexTest {
+    private static final int AUDIOBOOK_COUNT = 300;
+    private static final CatalogCallback CALLBACK = new CatalogCallback() {};
+    private static Catalog catalog;
+
+    @BeforeClass
+    public static void prepareCatalog () throws Exception {
+        catalog = TestCatalogs.build(AUDIOBOOK_COUNT);
+        catalog.prepareForIndexing(CALLBACK);
+        catalog.populateIndexes(CALLBACK);
+    }
+
+    @Test
+    public void orderedQueriesMatchReference () {
+        assertOrderedQuery(Title.class, PublicationDate.class);
+        assertOrderedQuery(PublicationDate.class, Title.class);
+        assertOrderedQuery(Downloads.class, Title.class);
+    }
+
+    @Test
+    public void queryByPrefixIsServedInOrderOfIndex () {
+        List<Audiobook> expected = new ArrayList<>(catalog.m4bAudiobooks);
+        Collections.sort(expected, 
+                getReferenceComparator(Downloads.class, Title.class));
+        assertEquals(TestCatalogs.getIds(expected), TestCatalogs.getIds
+                    (catalog.getWorks(Audiobook.class, Downloads.class)));
+    }
+
+    @Test
+    public void attributeQueriesMatchReference () {
+        assertAttributeQueries(Author.class, Audiobook::getAuthors, Title.class);
+        assertAttributeQueries(Author.class, Audiobook::getAuthors, 
+                                    Downloads.class, Title.class);
+        assertAttributeQueries(Genre.class, Audiobook::getGenres, 
+                                    PublicationDate.class, Title.class);
+        assertAttributeQueries(Reader.class, Audiobook::getReaders, Title.class);
+        assertAttributeQueries(Language.class, Audiobook::getAllLanguages, 
+                                    Title.class);
+    }
+
+    @Test
+    public void queryServedByNoRegisteredIndexIsAnswered () {
+        assertOrderedQuery(Downloads.class, PublicationDate.class);
+        assertAttributeQueries(Author.class, Audiobook::getAuthors, 
+                                    Title.class, Downloads.class);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void queryByUnorderableClassIsRejected () {
+        catalog.getWorks(Audiobook.class, Section.class);
+    }
+
+    @Test
+    public void resultsAreReadOnlyViews () {
+        List<Work> works = catalog.getWorks(Audiobook.class, Title.class);
+        List<Work> slice = works.subList(10, 20);
+        assertTrue(slice instanceof PostingListIndex.WorkList);
+        assertEquals(works.get(15), slice.get(5));
+        assertEquals(works.get(12), slice.subList(2, 4).get(0));
+        try {
+            works.set(0, works.get(1));
+            fail("result is modifiable");
+        } catch (UnsupportedOperationException e) {
+        }
+        try {
+            catalog.getIndexedKeyValueList(Author.class).clear();
+            fail("key value list is modifiable");
+        } catch (UnsupportedOperationException e) {
+        }
+    }
+
+    @Test
+    public void postingListsOccupyFourBytesPerEntry () throws Exception {
+        CatalogDirectory directory = new CatalogDirectory();
+        directory.setWorks(catalog.m4bAudiobooks);
+        List<Class<?>> titleOrder 
+                = Arrays.asList(Title.class, PublicationDate.class, Audiobook.class);
+        PostingListIndex titleIndex = PostingListIndex.build
+                            ("by Title", titleOrder, directory, CALLBACK);
+        assertEquals(16 + 4L * AUDIOBOOK_COUNT, titleIndex.getPostingBytes());
+        /* an ordering shared by indexes is computed once, and not copied */
+        assertSame(directory.getOrderedOrdinals(titleOrder), 
+                                                titleIndex.getPostings());
+
+        PostingListIndex authorIndex = PostingListIndex.build("by Author", 
+                Arrays.asList(Author.class, Title.class, Audiobook.class), 
+                directory, CALLBACK);
+        TreeSet<Author> authors = new TreeSet<>();
+        long entryCount = 0;
+        for (Audiobook audiobook : catalog.m4bAudiobooks) {
+            TreeSet<Author> audiobookAuthors 
+                                    = new TreeSet<>(audiobook.getAuthors());
+            authors.addAll(audiobookAuthors);
+            entryCount += audiobookAuthors.size();
+        }
+        assertEquals(16L * authors.size() + 4 * entryCount, 
+                                        authorIndex.getPostingBytes());
+    }
+
+    private static void assertOrderedQuery (Class<?>... orderClasses) {
+        List<Audiobook> expected = new ArrayList<>(catalog.m4bAudiobooks);
+        Collections.sort(expected, getReferenceComparator(orderClasses));
+        List<Work> actual 
+                = catalog.getWorks(Audiobook.class, toKeyClasses(orderClasses));
+        assertEquals(Arrays.toString(orderClasses), 
+                TestCatalogs.getIds(expected), TestCatalogs.getIds(actual));
+    }
+
+    private static <K extends Comparable<K>> void assertAttributeQueries 
+                (Class<K> attributeClass, 
+                        Function<Audiobook, List<? extends K>> attributeGetter,
+                        Class<?>... orderClasses) {
+        TreeSet<K> expectedValues = new TreeSet<>();
+        for (Audiobook audiobook : catalog.m4bAudiobooks) {
+            List<? extends K> values = attributeGetter.apply(audiobook);
+            if (values != null) {
+                for (K value : values) {
+                    if (value != null) {
+                        expectedValues.add(value);
+                    }
+                }
+            }
+        }
+        assertEquals(new ArrayList<>(expectedValues), 
+                        catalog.getIndexedKeyValueList(attributeClass));
+        Comparator<Audiobook> comparator = getReferenceComparator(orderClasses);
+        for (K value : expectedValues) {
+            List<Audiobook> expected = new ArrayList<>();
+            for (Audiobook audiobook : catalog.m4bAudiobooks) {
+                List<? extends K> values = attributeGetter.apply(audiobook);
+                if (values != null 
+                        && new TreeSet<K>(values).contains(value)) {
+                    expected.add(audiobook);
+                }
+            }
+            Collections.sort(expected, comparator);
+            List<Work> actual = catalog.getWorks(Audiobook.class, value, 
+                    Catalog.ReaderWorksOption.ALL_WORKS, 
+                    toKeyClasses(orderClasses));
+            assertFalse(actual.isEmpty());
+            assertEquals(value + " " + Arrays.toString(orderClasses), 
+                    TestCatalogs.getIds(expected), TestCatalogs.getIds(actual));
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Class<? extends Comparable>[] toKeyClasses 
+                                                (Class<?>[] orderClasses) {
+        return (Class<? extends Comparable>[]) orderClasses;
+    }
+
+    /** Orders audiobooks by the keys of the submitted classes, then (as
+     * every index does) by the audiobook itself. */
+    private static Comparator<Audiobook> getReferenceComparator 
+                                                (Class<?>... orderClasses) {
+        Comparator<Audiobook> comparator = (book1, book2) -> 0;
+        for (Class<?> orderClass : orderClasses) {
+            comparator = comparator.thenComparing(getKeyGetter(orderClass),
+                                Comparator.nullsFirst(Comparator.naturalOrder()));
+        }
+        return comparator.thenComparing(Comparator.naturalOrder());
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Function<Audiobook, Comparable> getKeyGetter 
+                                                    (Class<?> orderClass) {
+        if (Title.class.equals(orderClass)) {
+            return Audiobook::getTitleKey;
+        } else if (PublicationDate.class.equals(orderClass)) {
+            return Audiobook::getPublicationDateKey;
+        } else if (Downloads.class.equals(orderClass)) {
+            return Audiobook::getDownloadsKey;
+        }
+        throw new IllegalArgumentException(orderClass.getName());
+    }
+}
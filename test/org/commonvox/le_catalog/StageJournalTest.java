@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2015 Daniel Vimont
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.commonvox.le_catalog;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Replay of {@link StageJournal} records: intact records are replayed equal
+ * to those appended, a partially-written final record is discarded (and 
+ * records appended after it are replayed in turn), and a journal opened 
+ * without resuming is discarded.
+ * @author Daniel Vimont
+ */
+public class StageJournalTest {
+    private static final int AUDIOBOOK_COUNT = 10;
+    private static final String EMPTY_RESULT_KEY = "1000";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+    private Catalog catalog;
+    private File journalFile;
+
+    @Before
+    public void writeJournal () throws Exception {
+        catalog = TestCatalogs.build(AUDIOBOOK_COUNT);
+        journalFile = new File(temporaryFolder.getRoot(), "stage.journal");
+        try (StageJournal journal = StageJournal.open(journalFile, false)) {
+            for (Audiobook audiobook : catalog.audiobooks) {
+                journal.append(audiobook);
+            }
+            journal.append(EMPTY_RESULT_KEY, null);
+            assertEquals(AUDIOBOOK_COUNT + 1, journal.getAppendedCount());
+        }
+    }
+
+    @Test
+    public void intactJournalReplaysAllRecords () throws Exception {
+        try (StageJournal journal = StageJournal.open(journalFile, true)) {
+            assertEquals(AUDIOBOOK_COUNT + 1, journal.getReplayedCount());
+            assertReplayed(journal, AUDIOBOOK_COUNT);
+            assertTrue(journal.isProcessed(EMPTY_RESULT_KEY));
+            assertNull(journal.getReplayedAudiobook(EMPTY_RESULT_KEY));
+        }
+    }
+
+    @Test
+    public void truncatedTailIsDiscarded () throws Exception {
+        truncate(5);
+        try (StageJournal journal = StageJournal.open(journalFile, true)) {
+            assertEquals(AUDIOBOOK_COUNT, journal.getReplayedCount());
+            assertReplayed(journal, AUDIOBOOK_COUNT);
+            assertFalse(journal.isProcessed(EMPTY_RESULT_KEY));
+            journal.append(EMPTY_RESULT_KEY, null);
+        }
+        try (StageJournal journal = StageJournal.open(journalFile, true)) {
+            assertEquals(AUDIOBOOK_COUNT + 1, journal.getReplayedCount());
+            assertReplayed(journal, AUDIOBOOK_COUNT);
+            assertTrue(journal.isProcessed(EMPTY_RESULT_KEY));
+        }
+    }
+
+    @Test
+    public void recordTruncatedWithinPayloadIsDiscarded () throws Exception {
+        long fullLength = journalFile.length();
+        try (StageJournal journal = StageJournal.open(journalFile, true)) {
+            journal.append(TestCatalogs.build(AUDIOBOOK_COUNT + 1)
+                                        .audiobooks.get(AUDIOBOOK_COUNT));
+        }
+        truncate((journalFile.length() - fullLength) / 2);
+        try (StageJournal journal = StageJournal.open(journalFile, true)) {
+            assertEquals(AUDIOBOOK_COUNT + 1, journal.getReplayedCount());
+            assertFalse(journal.isProcessed(String.valueOf(AUDIOBOOK_COUNT + 1)));
+        }
+        assertEquals(fullLength, journalFile.length());
+    }
+
+    @Test
+    public void journalOpenedWithoutResumingIsDiscarded () throws Exception {
+        try (StageJournal journal = StageJournal.open(journalFile, false)) {
+            assertEquals(0, journal.getReplayedCount());
+        }
+        try (StageJournal journal = StageJournal.open(journalFile, true)) {
+            assertEquals(0, journal.getReplayedCount());
+        }
+    }
+
+    /** asserts that the first audiobooks of the catalog were replayed */
+    private void assertReplayed (StageJournal journal, int audiobookCount) 
+            throws Exception {
+        for (Audiobook audiobook : catalog.audiobooks.subList(0, audiobookCount)) {
+            assertTrue(journal.isProcessed(audiobook.getId()));
+            Catalog expectedFragment = new Catalog();
+            expectedFragment.audiobooks.add(audiobook);
+            assertEquals(CatalogXmlStreamTest.toXml(expectedFragment), 
+                CatalogXmlStreamTest.toXml
+                        (journal.getReplayedRecord(audiobook.getId())));
+        }
+    }
+
+    private void truncate (long byteCount) throws Exception {
+        try (RandomAccessFile file = new RandomAccessFile(journalFile, "rw")) {
+            file.setLength(file.length() - byteCount);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2015 Daniel Vimont
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.commonvox.le_catalog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Fixture catalogs for tests: pseudo-random but reproducible audiobooks,
+ * each with an author (some with a no-name author as well), most with a 
+ * genre, and three sections read by various readers (some without a 
+ * display name).
+ * @author Daniel Vimont
+ */
+class TestCatalogs {
+
+    private TestCatalogs () {
+    }
+
+    /**
+     * @param audiobookCount count of audiobooks
+     * @return catalog of audiobooks with IDs 1 to audiobookCount
+     */
+    static Catalog build (int audiobookCount) {
+        Catalog catalog = new Catalog();
+        Random random = new Random(7);
+        for (int id = 1; id <= audiobookCount; id++) {
+            Audiobook audiobook = new Audiobook();
+            audiobook.setId(String.valueOf(id));
+            audiobook.setTitle("The Book " + random.nextInt(100000));
+            audiobook.setUrlLibrivox("https://librivox.org/b" + id + "/");
+            audiobook.setUrlInternetArchive("https://archive.org/details/b" + id);
+            List<Author> authors = new ArrayList<>();
+            authors.add(newAuthor(String.valueOf(random.nextInt(500))));
+            if (id % 5 == 0) {
+                Author noNameAuthor = new Author();
+                noNameAuthor.setId("999");
+                authors.add(noNameAuthor);
+            }
+            audiobook.setAuthors(authors);
+            if (id % 3 != 0) {
+                Genre genre = new Genre();
+                genre.setId(String.valueOf(random.nextInt(20)));
+                genre.setName("G" + genre.getId());
+                audiobook.setGenres(new ArrayList<>(Arrays.asList(genre)));
+            }
+            audiobook.setLanguage(new Language(id % 4 == 0 ? "German" : "English"));
+            List<Section> sections = new ArrayList<>();
+            for (int sectionNumber = 1; sectionNumber <= 3; sectionNumber++) {
+                Section section = new Section();
+                section.setSectionNumber(sectionNumber);
+                section.setTitle("S" + sectionNumber);
+                Reader reader = new Reader();
+                reader.setId(String.valueOf(random.nextInt(300)));
+                reader.setDisplayName((sectionNumber == 2 && id % 7 == 0) 
+                                                    ? "" : "R" + reader.getId());
+                section.setReaders(new ArrayList<>(Arrays.asList(reader)));
+                sections.add(section);
+            }
+            audiobook.setSections(sections);
+            audiobook.setDownloadCountInternetArchive(random.nextInt(10000));
+            catalog.audiobooks.add(audiobook);
+        }
+        return catalog;
+    }
+
+    private static Author newAuthor (String id) {
+        Author author = new Author();
+        author.setId(id);
+        author.setFirstName("F" + id);
+        author.setLastName("L" + id);
+        return author;
+    }
+
+    /**
+     * @param catalog catalog prepared for indexing
+     * @return one line per audiobook, of its ID, title, authors, readers, 
+     * genres and sections
+     */
+    static String describe (Catalog catalog) {
+        StringBuilder description = new StringBuilder();
+        for (Audiobook audiobook : catalog.m4bAudiobooks) {
+            description.append(audiobook.getId()).append('|')
+                    .append(audiobook.getTitle()).append('|')
+                    .append(audiobook.getAuthors()).append('|')
+                    .append(audiobook.getReaders()).append('|')
+                    .append(audiobook.getGenres());
+            for (Section section : audiobook.getSections()) {
+                description.append('|').append(section.getTitle())
+                        .append(section.getAuthors())
+                        .append(section.getReaders());
+            }
+            description.append('\n');
+        }
+        return description.toString();
+    }
+
+    /**
+     * @param works works
+     * @return IDs of the works, in order
+     */
+    static List<String> getIds (List<? extends Work> works) {
+        List<String> ids = new ArrayList<>();
+        for (Work work : works) {
+            ids.add(work.getId());
+        }
+        return ids;
+    }
+}
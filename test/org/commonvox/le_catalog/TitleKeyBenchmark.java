@@ -0,0 +1,240 @@
+/*
+ * Copyright (C) 2015 Daniel Vimont
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.commonvox.le_catalog;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Compares the derivation and ordering of title keys by the former path 
+ * (each {@link Work#getTitleKey()} call cleaning and normalizing the title
+ * anew through String.replaceAll, which compiles each regular expression
+ * upon every call) with the current path (precompiled patterns, with each
+ * work's key derived once and retained), and String ordering with
+ * locale-sensitive collation. Every audiobook and section of a catalog XML
+ * file is first checked to yield the same key by both paths; each path is
+ * then timed (and, where the JVM supports it, its heap allocation measured)
+ * over a number of iterations.
+ * <br><br>
+ * Arguments (each KEY=VALUE):<br>
+ * CATALOG=[catalog XML file]<br>
+ * LOCALE=[optional language tag of collation locale, default en-US]<br>
+ * ITERATIONS=[optional integer count of timed iterations, default 10]
+ * @author Daniel Vimont
+ */
+public class TitleKeyBenchmark {
+    private static final int WARMUP_ITERATIONS = 3;
+
+    /** A single pass over all works, yielding a count for verification. */
+    private interface Pass {
+        long run ();
+    }
+
+    public static void main (String[] args) throws Exception {
+        File catalogFile = null;
+        Locale locale = Locale.US;
+        int iterations = 10;
+        for (String arg : args) {
+            int equalsIndex = arg.indexOf('=');
+            String key = (equalsIndex < 0) ? arg : arg.substring(0, equalsIndex);
+            String value = (equalsIndex < 0) ? "" : arg.substring(equalsIndex + 1);
+            switch (key.toUpperCase()) {
+                case "CATALOG":
+                    catalogFile = new File(value);
+                    break;
+                case "LOCALE":
+                    locale = Locale.forLanguageTag(value);
+                    break;
+                case "ITERATIONS":
+                    iterations = Integer.parseInt(value);
+                    break;
+                default:
+                    System.out.println("Invalid argument: " + arg);
+                    return;
+            }
+        }
+        if (catalogFile == null) {
+            System.out.println("Usage: TitleKeyBenchmark "
+                    + "CATALOG=<file> [LOCALE=<language tag>] [ITERATIONS=<n>]");
+            return;
+        }
+        Catalog catalog = CatalogMarshaller.unmarshalCatalogFromXml(catalogFile);
+        final List<Work> works = new ArrayList<>();
+        for (Audiobook audiobook : catalog.audiobooks) {
+            works.add(audiobook);
+            if (audiobook.getSections() != null) {
+                works.addAll(audiobook.getSections());
+            }
+        }
+        final List<Audiobook> audiobooks = catalog.audiobooks;
+        System.out.println(catalogFile.getName() + ": " + audiobooks.size()
+                + " audiobooks, " + works.size() + " works (with sections)");
+
+        int mismatchCount = 0;
+        for (Work work : works) {
+            String formerKey = getTitleKeyViaReplaceAll(work);
+            Title currentKey = work.getTitleKey();
+            String currentKeyItem 
+                    = (currentKey == null) ? null : currentKey.getKeyItem();
+            if (formerKey == null ? currentKeyItem != null 
+                                    : !formerKey.equals(currentKeyItem)) {
+                if (mismatchCount++ < 10) {
+                    System.out.println("** KEYS DIFFER ** former: <" + formerKey
+                            + "> current: <" + currentKeyItem + ">");
+                }
+            }
+        }
+        System.out.println(mismatchCount == 0 ? "Keys match for all works." 
+                : "** " + mismatchCount + " WORKS WITH DIFFERING KEYS **");
+
+        System.out.println("=============================");
+        System.out.println("Key derivation (per pass over all works)");
+        System.out.println("  former (replaceAll per call):   " 
+                + time(iterations, () -> {
+                    long length = 0;
+                    for (Work work : works) {
+                        String key = getTitleKeyViaReplaceAll(work);
+                        length += (key == null) ? 0 : key.length();
+                    }
+                    return length;
+                }));
+        System.out.println("  precompiled patterns, uncached: " 
+                + time(iterations, () -> {
+                    long length = 0;
+                    for (Work work : works) {
+                        String cleanedTitle = work.getCleanedTitle();
+                        if (cleanedTitle != null && !cleanedTitle.isEmpty()) {
+                            length += work.normalizeTitle(cleanedTitle).length();
+                        }
+                    }
+                    return length;
+                }));
+        System.out.println("  retained keys:                  " 
+                + time(iterations, () -> {
+                    long length = 0;
+                    for (Work work : works) {
+                        Title key = work.getTitleKey();
+                        length += (key == null) ? 0 : key.getKeyItem().length();
+                    }
+                    return length;
+                }));
+
+        System.out.println("=============================");
+        System.out.println("Ordering of audiobooks by title (per sort)");
+        final Comparator<Audiobook> formerComparator = Comparator.comparing
+                (TitleKeyBenchmark::getTitleKeyViaReplaceAll, 
+                    Comparator.nullsFirst(Comparator.naturalOrder()));
+        final Comparator<Audiobook> currentComparator = Comparator.comparing
+                (Audiobook::getTitleKey, 
+                    Comparator.nullsFirst(Comparator.naturalOrder()));
+        System.out.println("  former (keys derived per comparison): " 
+                + time(iterations, () -> sort(audiobooks, formerComparator)));
+        Title.setCollationLocale(null);
+        List<Audiobook> stringOrder = new ArrayList<>(audiobooks);
+        stringOrder.sort(currentComparator);
+        System.out.println("  retained keys, String order:          " 
+                + time(iterations, () -> sort(audiobooks, currentComparator)));
+        Title.setCollationLocale(locale);
+        try {
+            List<Audiobook> collationOrder = new ArrayList<>(audiobooks);
+            collationOrder.sort(currentComparator);
+            System.out.println(String.format("  %-38s", "retained keys, " 
+                        + locale.toLanguageTag() + " collation:") 
+                    + time(iterations, () -> sort(audiobooks, currentComparator)));
+            int differingCount = 0;
+            for (int i = 0; i < stringOrder.size(); i++) {
+                if (stringOrder.get(i) != collationOrder.get(i)) {
+                    differingCount++;
+                }
+            }
+            System.out.println("  " + differingCount + " of " 
+                    + stringOrder.size() + " audiobooks placed differently "
+                    + "by collation than by String order");
+        } finally {
+            Title.setCollationLocale(null);
+        }
+    }
+
+    private static long sort (List<Audiobook> audiobooks, 
+                                        Comparator<Audiobook> comparator) {
+        List<Audiobook> sortedAudiobooks = new ArrayList<>(audiobooks);
+        sortedAudiobooks.sort(comparator);
+        return sortedAudiobooks.size();
+    }
+
+    private static String time (int iterations, Pass pass) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            pass.run();
+        }
+        long allocatedBytesAtStart = getAllocatedBytes();
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            pass.run();
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        long allocatedBytes = getAllocatedBytes() - allocatedBytesAtStart;
+        String timing = String.format("%.3f ms",
+                                elapsedNanos / 1_000_000.0 / iterations);
+        if (allocatedBytesAtStart >= 0) {
+            timing += String.format(", %,d bytes allocated",
+                                        allocatedBytes / iterations);
+        }
+        return timing;
+    }
+
+    /** @return bytes allocated by this thread so far, or -1 if the JVM does
+     * not report it */
+    private static long getAllocatedBytes () {
+        java.lang.management.ThreadMXBean threadBean
+                = ManagementFactory.getThreadMXBean();
+        if (threadBean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threadBean)
+                    .getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    /* The following is the title key derivation formerly performed by 
+     * Audiobook.getTitleKey and Section.getTitleKey upon every call, 
+     * retained here for comparison only. */
+
+    private static String getTitleKeyViaReplaceAll (Work work) {
+        if (work.getTitle() == null) {
+            return null;
+        }
+        String cleanedTitle = work.getTitle();
+        for (String regex : Work.REGEX_TITLE_CLEANERS) {
+            cleanedTitle = cleanedTitle.replaceAll(regex, "");
+        }
+        cleanedTitle = cleanedTitle.trim();
+        if (cleanedTitle.isEmpty()) {
+            return null;
+        }
+        return cleanedTitle
+                .replaceAll((work instanceof Section) 
+                                ? Work.REGEX_TRIM_LEADING_SPECIAL_CHARS_AND_DIGITS
+                                : Work.REGEX_TRIM_LEADING_SPECIAL_CHARS, "")
+                .replaceAll(Work.REGEX_TRIM_LEADING_ARTICLE, "")
+                .replaceAll(Work.REGEX_TRIM_LEADING_SPECIAL_CHARS, "")
+                    .toLowerCase();
+    }
+}